@@ -0,0 +1,66 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import supermarket.customer.Customer;
+import supermarket.customer.CustomerPreferences;
+import supermarket.customer.DiscountCard;
+import supermarket.output.SimulationOutput;
+import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
+import supermarket.storage.SalesHall;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Выбор товаров покупателем и покупка целиком. Выбор зал не меняет и меряется подряд;
+// покупка снимает партии с полок и тратит бюджет, поэтому меряется одним вызовом
+// на свежем зале с восстановленным бюджетом.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerBenchmark {
+    private static final double BUDGET = 1500.0;
+
+    @Param({"56", "5600"})
+    public int catalogSize;
+
+    @Param({"4", "64"})
+    public int stockDepth;
+
+    private ProductCatalog catalog;
+    private SalesHall salesHall;
+    private Customer customer;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUpCatalog() {
+        catalog = StoreFixture.catalog(catalogSize);
+        random = new SplittableRandom(StoreFixture.SEED);
+        customer = new Customer("CUST-BENCH", "Покупатель", CustomerPreferences.PreferenceType.FAMILY,
+                new DiscountCard("CARD-BENCH"), random, catalog);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpHall() {
+        salesHall = new SalesHall(SimulationOutput.silent(), catalog);
+        StoreFixture.fillHall(salesHall, catalog, stockDepth, new SplittableRandom(StoreFixture.SEED));
+        customer.setBudget(BUDGET);
+    }
+
+    @Benchmark
+    public List<Product> selectProducts() {
+        return customer.selectProducts(salesHall, random);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 20)
+    public double makePurchase() {
+        return customer.makePurchase(salesHall, SimulationOutput.silent(), random);
+    }
+}
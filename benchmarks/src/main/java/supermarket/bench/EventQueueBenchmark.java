@@ -0,0 +1,49 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import supermarket.event.Event;
+import supermarket.event.EventQueue;
+import supermarket.event.EventType;
+import supermarket.event.SimulationTime;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Заполнение планировщика событиями одного дня и их выборка по времени.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventQueueBenchmark {
+
+    @Param({"1000", "100000", "500000"})
+    public int eventsPerDay;
+
+    private long[] times;
+    private long day;
+
+    @Setup
+    public void setUp() {
+        day = LocalDate.of(2024, 1, 1).toEpochDay();
+        SplittableRandom random = new SplittableRandom(42);
+        times = new long[eventsPerDay];
+        for (int i = 0; i < eventsPerDay; i++) {
+            times[i] = SimulationTime.of(day, random.nextInt(SimulationTime.MINUTES_PER_DAY));
+        }
+    }
+
+    @Benchmark
+    public void scheduleAndDrainDay(Blackhole blackhole) {
+        EventQueue queue = new EventQueue(LocalDate.ofEpochDay(day));
+        for (int i = 0; i < times.length; i++) {
+            queue.addEvent(new Event(EventType.PURCHASE, times[i], "Покупка покупателя", i + 1));
+        }
+        while (queue.hasEvents()) {
+            blackhole.consume(queue.getNextEvent());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import supermarket.PacingPolicy;
+import supermarket.Supermarket;
+import supermarket.event.SimulationTime;
+import supermarket.journal.EventJournal;
+import supermarket.journal.JournalReplayer;
+import supermarket.output.SimulationOutput;
+import supermarket.storage.SalesHall;
+import supermarket.storage.Warehouse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Восстановление склада и зала по журналу против повторной симуляции тех же дней.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalReplayBenchmark {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final long SEED = 42L;
+
+    @Param({"30", "365"})
+    public int days;
+
+    private Path journalPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        journalPath = Files.createTempFile("supermarket", ".journal");
+        try (EventJournal journal = EventJournal.create(journalPath, SimulationTime.startOfDay(START))) {
+            Supermarket supermarket = new Supermarket(START, SEED, SimulationOutput.silent(), journal);
+            supermarket.runSimulation(days, PacingPolicy.asFastAsPossible());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(journalPath);
+    }
+
+    @Benchmark
+    public Warehouse replayJournal() throws IOException {
+        SimulationOutput output = SimulationOutput.silent();
+        Warehouse warehouse = new Warehouse(output);
+        new JournalReplayer(warehouse, new SalesHall(output)).replay(journalPath);
+        return warehouse;
+    }
+
+    @Benchmark
+    public Warehouse resimulate() {
+        Supermarket supermarket = new Supermarket(START, SEED, SimulationOutput.silent());
+        supermarket.runSimulation(days, PacingPolicy.asFastAsPossible());
+        return supermarket.getWarehouse();
+    }
+}
@@ -0,0 +1,54 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import supermarket.output.SimulationOutput;
+import supermarket.product.ProductCatalog;
+import supermarket.random.SimulationRandom;
+import supermarket.storage.ProductManager;
+import supermarket.storage.SalesHall;
+import supermarket.storage.Warehouse;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Перемещение со склада в пустой зал: все полки в дефиците, склад заполнен на stockDepth партий.
+// Перемещение меняет склад и зал, поэтому каждый замер - один вызов на свежем магазине.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class ProductManagerBenchmark {
+
+    @Param({"56", "5600"})
+    public int catalogSize;
+
+    @Param({"4", "64"})
+    public int stockDepth;
+
+    private ProductCatalog catalog;
+    private ProductManager productManager;
+
+    @Setup(Level.Trial)
+    public void setUpCatalog() {
+        catalog = StoreFixture.catalog(catalogSize);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpStore() {
+        SimulationOutput output = SimulationOutput.silent();
+        Warehouse warehouse = new Warehouse(output, catalog);
+        SalesHall salesHall = new SalesHall(output, catalog);
+        StoreFixture.fillWarehouse(warehouse, catalog, stockDepth, new SplittableRandom(StoreFixture.SEED));
+        productManager = new ProductManager(warehouse, salesHall, catalog,
+                new SimulationRandom(StoreFixture.SEED), output);
+        productManager.setCurrentDate(StoreFixture.TODAY);
+    }
+
+    @Benchmark
+    public ProductManager transferProductsToHall() {
+        productManager.transferProductsToHall();
+        return productManager;
+    }
+}
@@ -0,0 +1,56 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import supermarket.output.SimulationOutput;
+import supermarket.product.ProductCatalog;
+import supermarket.storage.SalesHall;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Утренние проходы по залу: списание просроченного и скидки на истекающие партии.
+// Списание меняет зал, поэтому оно меряется одним вызовом на свежем зале (SingleShotTime);
+// скидки после первого вызова уже стоят, и дальше меряется сам проход по полкам.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SalesHallBenchmark {
+    private static final int TODAY = (int) StoreFixture.TODAY.toEpochDay();
+
+    @Param({"56", "5600"})
+    public int catalogSize;
+
+    @Param({"4", "64"})
+    public int stockDepth;
+
+    private ProductCatalog catalog;
+    private SalesHall salesHall;
+
+    @Setup(Level.Trial)
+    public void setUpCatalog() {
+        catalog = StoreFixture.catalog(catalogSize);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpHall() {
+        salesHall = new SalesHall(SimulationOutput.silent(), catalog);
+        StoreFixture.fillHall(salesHall, catalog, stockDepth, new SplittableRandom(StoreFixture.SEED));
+    }
+
+    // Следующее утро: истекают партии, произведенные в самый ранний из возможных дней
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 20)
+    public int removeExpiredProducts() {
+        return salesHall.removeExpiredProducts(TODAY + 1);
+    }
+
+    @Benchmark
+    public int applyExpiringDiscounts() {
+        return salesHall.applyExpiringDiscounts(TODAY);
+    }
+}
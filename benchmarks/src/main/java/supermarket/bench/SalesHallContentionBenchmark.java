@@ -0,0 +1,126 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import supermarket.customer.ShoppingCart;
+import supermarket.output.SimulationOutput;
+import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
+import supermarket.product.ProductFactory;
+import supermarket.product.Quantity;
+import supermarket.storage.SalesHall;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Покупатели оформляют корзины в threads потоках, пока товаровед пополняет полки с малым запасом.
+// striped - зал из SalesHall.concurrent() с блокировками по полкам, global - зал с одной полосой:
+// каждая продажа и пополнение идут под одной общей блокировкой.
+// Одна операция - одна корзина из 1-3 товаров; пул потоков свой, поэтому число потоков - параметр.
+// Меряется на машине с числом ядер не меньше threads, иначе потоки просто делят одно ядро.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SalesHallContentionBenchmark {
+    private static final int CARTS = 4096;
+    private static final int TODAY = (int) StoreFixture.TODAY.toEpochDay();
+
+    @Param({"56", "5600"})
+    public int catalogSize;
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    public int threads;
+
+    @Param({"global", "striped"})
+    public String locking;
+
+    private ProductCatalog catalog;
+    private Product[] restockBatches; // по товару каталога: партия, которой пополняется полка
+    private ExecutorService executor;
+    private SalesHall salesHall;
+    private final List<Callable<Integer>> tasks = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = StoreFixture.catalog(catalogSize);
+        SplittableRandom random = new SplittableRandom(StoreFixture.SEED);
+        restockBatches = new Product[catalog.getSkuCount()];
+        for (int ordinal = 0; ordinal < restockBatches.length; ordinal++) {
+            restockBatches[ordinal] = ProductFactory.createProductById(catalog,
+                    catalog.getProductInfo(ordinal).getId(), random, StoreFixture.TODAY);
+        }
+        executor = Executors.newFixedThreadPool(threads + 1);
+        for (int t = 0; t < threads; t++) {
+            int carts = CARTS / threads + (t < CARTS % threads ? 1 : 0);
+            SplittableRandom shopperRandom = random.split();
+            ShoppingCart cart = new ShoppingCart();
+            tasks.add(() -> shop(cart, carts, shopperRandom));
+        }
+        tasks.add(this::restock);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpHall() {
+        salesHall = locking.equals("global")
+                ? SalesHall.concurrent(SimulationOutput.silent(), catalog, 1)
+                : SalesHall.concurrent(SimulationOutput.silent(), catalog);
+        StoreFixture.fillHall(salesHall, catalog, 4, new SplittableRandom(StoreFixture.SEED));
+        restock();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CARTS)
+    public int checkout() throws InterruptedException, ExecutionException {
+        int sold = 0;
+        for (Future<Integer> result : executor.invokeAll(tasks)) {
+            sold += result.get();
+        }
+        return sold;
+    }
+
+    private int shop(ShoppingCart cart, int carts, SplittableRandom random) {
+        int sold = 0;
+        for (int i = 0; i < carts; i++) {
+            cart.clear();
+            int lines = 1 + random.nextInt(3);
+            for (int line = 0; line < lines; line++) {
+                Product product = salesHall.getProduct(random.nextInt(catalog.getSkuCount()));
+                if (product != null) {
+                    cart.add(product, Quantity.ofUnits(1));
+                }
+            }
+            if (!cart.isEmpty() && cart.checkout(salesHall)) {
+                sold++;
+            }
+        }
+        return sold;
+    }
+
+    // Один проход товароведа: пустые полки и полки с малым запасом пополняются до вместимости
+    private int restock() {
+        int restocked = 0;
+        for (int ordinal = 0; ordinal < restockBatches.length; ordinal++) {
+            if (!salesHall.isLowStock(ordinal) && salesHall.getStockAmount(ordinal) > 0) {
+                continue;
+            }
+            if (salesHall.addProduct(restockBatches[ordinal], TODAY)) {
+                restocked++;
+            }
+        }
+        return restocked;
+    }
+}
@@ -0,0 +1,60 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
+import supermarket.product.ProductFactory;
+import supermarket.storage.Shelf;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Выставление новой партии на полку и ее снятие. Вызовы обходят полки всего каталога по кругу,
+// на каждой полке уже stockDepth партий: снятие ищет партию среди них.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShelfBenchmark {
+    private static final double UNLIMITED = 1e9;
+
+    @Param({"56", "5600"})
+    public int catalogSize;
+
+    @Param({"4", "64"})
+    public int stockDepth;
+
+    private Shelf[] shelves;
+    private Product[] probes; // по новой партии на полку, в одну штуку или 300 г
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ProductCatalog catalog = StoreFixture.catalog(catalogSize);
+        SplittableRandom random = new SplittableRandom(StoreFixture.SEED);
+        shelves = new Shelf[catalogSize];
+        probes = new Product[catalogSize];
+        for (int ordinal = 0; ordinal < catalogSize; ordinal++) {
+            ProductCatalog.ProductInfo info = catalog.getProductInfo(ordinal);
+            shelves[ordinal] = new Shelf(info.getId(), info.getName(), UNLIMITED);
+            for (int batch = 0; batch < stockDepth; batch++) {
+                shelves[ordinal].addBatch(StoreFixture.smallBatch(
+                        ProductFactory.createProductById(catalog, info.getId(), random, StoreFixture.TODAY)));
+            }
+            probes[ordinal] = StoreFixture.smallBatch(
+                    ProductFactory.createProductById(catalog, info.getId(), random, StoreFixture.TODAY));
+        }
+    }
+
+    @Benchmark
+    public boolean addThenRemove() {
+        int ordinal = next;
+        next = ordinal + 1 == catalogSize ? 0 : ordinal + 1;
+        Shelf shelf = shelves[ordinal];
+        Product probe = probes[ordinal];
+        shelf.addBatch(probe);
+        return shelf.removeProduct(probe);
+    }
+}
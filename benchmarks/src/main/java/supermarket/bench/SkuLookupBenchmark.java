@@ -0,0 +1,113 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import supermarket.customer.CustomerPreferences;
+import supermarket.output.SimulationOutput;
+import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
+import supermarket.product.ProductFactory;
+import supermarket.product.ProductType;
+import supermarket.storage.SalesHall;
+import supermarket.storage.Warehouse;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Поиск по товару: карты со строковыми ключами против массивов по номеру товара в каталоге.
+// Каждый вызов проходит все товары каталога, часть из них отсутствует на складе и в зале.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkuLookupBenchmark {
+
+    private Warehouse warehouse;
+    private SalesHall salesHall;
+    private CustomerPreferences preferences;
+    private String[] productIds;
+    private int[] ordinals;
+
+    @Setup
+    public void setUp() {
+        ProductCatalog catalog = ProductCatalog.getDefault();
+        LocalDate today = LocalDate.of(2024, 1, 1);
+        SplittableRandom random = new SplittableRandom(42);
+        warehouse = new Warehouse(SimulationOutput.silent(), catalog);
+        salesHall = new SalesHall(SimulationOutput.silent(), catalog);
+        preferences = new CustomerPreferences(CustomerPreferences.PreferenceType.FAMILY, catalog);
+
+        int skuCount = catalog.getSkuCount();
+        productIds = new String[skuCount];
+        ordinals = new int[skuCount];
+        for (int i = 0; i < skuCount; i++) {
+            // Идентификаторы - отдельные объекты строк, как после разбора файла или журнала
+            productIds[i] = new String(catalog.getProductInfo(i).getId());
+            ordinals[i] = i;
+            if (i % 4 != 3) {
+                for (int batch = 0; batch < 3; batch++) {
+                    Product product = ProductFactory.createProductById(catalog, productIds[i], random, today);
+                    warehouse.addProduct(product, today);
+                    salesHall.addProduct(product, today);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public double warehouseTotalAmountById() {
+        double total = 0;
+        for (String productId : productIds) {
+            total += warehouse.getTotalAmount(productId);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double warehouseTotalAmountByOrdinal() {
+        double total = 0;
+        for (int ordinal : ordinals) {
+            total += warehouse.getTotalAmount(ordinal);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public void hallProductById(Blackhole blackhole) {
+        for (String productId : productIds) {
+            blackhole.consume(salesHall.getProduct(productId));
+        }
+    }
+
+    @Benchmark
+    public void hallProductByOrdinal(Blackhole blackhole) {
+        for (int ordinal : ordinals) {
+            blackhole.consume(salesHall.getProduct(ordinal));
+        }
+    }
+
+    @Benchmark
+    public int favoritesById() {
+        int count = 0;
+        for (String productId : productIds) {
+            if (preferences.isFavoriteProduct(productId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int favoritesByOrdinal() {
+        int count = 0;
+        for (int ordinal : ordinals) {
+            if (preferences.isFavoriteProduct(ordinal)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,75 @@
+package supermarket.bench;
+
+import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
+import supermarket.product.ProductFactory;
+import supermarket.product.ProductType;
+import supermarket.product.Quantity;
+import supermarket.product.WeightableProduct;
+import supermarket.storage.SalesHall;
+import supermarket.storage.Warehouse;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Общие заготовки бенчмарков: каталог нужного размера и склад или зал заданной глубины.
+// Каталог размножает встроенный ассортимент: первая копия сохраняет исходные идентификаторы
+// (их знают предпочтения покупателей), следующие получают суффикс "#<номер копии>".
+final class StoreFixture {
+    static final LocalDate TODAY = LocalDate.of(2024, 1, 1);
+    static final long SEED = 42L;
+
+    private StoreFixture() {
+    }
+
+    static ProductCatalog catalog(int skuCount) {
+        ProductCatalog base = ProductCatalog.getDefault();
+        Map<ProductType, List<ProductCatalog.ProductInfo>> assortment = new EnumMap<>(ProductType.class);
+        for (int i = 0; i < skuCount; i++) {
+            ProductCatalog.ProductInfo info = base.getProductInfo(i % base.getSkuCount());
+            int copy = i / base.getSkuCount();
+            String id = copy == 0 ? info.getId() : info.getId() + "#" + copy;
+            assortment.computeIfAbsent(info.getType(), type -> new ArrayList<>())
+                    .add(new ProductCatalog.ProductInfo(id, info.getName(), info.getBasePrice(), info.getType()));
+        }
+        return ProductCatalog.of(assortment);
+    }
+
+    // stockDepth партий каждого товара; каждого четвертого - одна маленькая партия ниже минимального запаса
+    static void fillWarehouse(Warehouse warehouse, ProductCatalog catalog, int stockDepth, SplittableRandom random) {
+        for (int ordinal = 0; ordinal < catalog.getSkuCount(); ordinal++) {
+            String productId = catalog.getProductInfo(ordinal).getId();
+            if (ordinal % 4 == 3) {
+                warehouse.addProduct(smallBatch(ProductFactory.createProductById(catalog, productId, random, TODAY)),
+                        TODAY);
+                continue;
+            }
+            for (int batch = 0; batch < stockDepth; batch++) {
+                warehouse.addProduct(ProductFactory.createProductById(catalog, productId, random, TODAY), TODAY);
+            }
+        }
+    }
+
+    // stockDepth небольших партий на каждой полке, с разными днями производства. Партии выставляются
+    // как из контрольной точки, мимо ограничения вместимости полки, иначе глубина не набирается
+    static void fillHall(SalesHall salesHall, ProductCatalog catalog, int stockDepth, SplittableRandom random) {
+        for (int ordinal = 0; ordinal < catalog.getSkuCount(); ordinal++) {
+            String productId = catalog.getProductInfo(ordinal).getId();
+            for (int batch = 0; batch < stockDepth; batch++) {
+                LocalDate produced = TODAY.minusDays(random.nextInt(catalog.getProductInfo(ordinal)
+                        .getType().getShelfLifeDays() + 1));
+                Product product = ProductFactory.createProductById(catalog, productId, random, produced);
+                salesHall.restoreBatch(smallBatch(product));
+            }
+        }
+    }
+
+    static Product smallBatch(Product product) {
+        long amount = product instanceof WeightableProduct ? 300 : Quantity.ofUnits(1);
+        return ProductFactory.createPartialCopy(product, amount);
+    }
+}
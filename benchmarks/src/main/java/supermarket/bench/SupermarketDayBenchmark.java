@@ -0,0 +1,48 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import supermarket.Supermarket;
+import supermarket.output.SimulationOutput;
+import supermarket.product.ProductCatalog;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Один полный день симуляции: поставки, перемещения в зал, списания, скидки и покупки.
+// Магазин с каталогом catalogSize товаров и складом на stockDepth партий каждого товара
+// создается заново перед каждым замером, чтобы все замеры начинались с одного состояния.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class SupermarketDayBenchmark {
+
+    @Param({"56", "5600"})
+    public int catalogSize;
+
+    @Param({"4", "64"})
+    public int stockDepth;
+
+    private ProductCatalog catalog;
+    private Supermarket supermarket;
+
+    @Setup(Level.Trial)
+    public void setUpCatalog() {
+        catalog = StoreFixture.catalog(catalogSize);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpStore() {
+        supermarket = new Supermarket(StoreFixture.TODAY, StoreFixture.SEED, SimulationOutput.silent(), catalog);
+        StoreFixture.fillWarehouse(supermarket.getWarehouse(), catalog, stockDepth,
+                new SplittableRandom(StoreFixture.SEED));
+    }
+
+    @Benchmark
+    public Supermarket runDay() {
+        supermarket.runDay();
+        return supermarket;
+    }
+}
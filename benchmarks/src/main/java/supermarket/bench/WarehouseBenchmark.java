@@ -0,0 +1,41 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import supermarket.output.SimulationOutput;
+import supermarket.product.ProductCatalog;
+import supermarket.storage.Warehouse;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Список товаров ниже минимального запаса: его запрашивает каждая проверка склада.
+// Каждый четвертый товар ниже минимума (одна маленькая партия), остальные лежат по stockDepth партий.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseBenchmark {
+
+    @Param({"56", "5600"})
+    public int catalogSize;
+
+    @Param({"4", "64"})
+    public int stockDepth;
+
+    private Warehouse warehouse;
+
+    @Setup
+    public void setUp() {
+        ProductCatalog catalog = StoreFixture.catalog(catalogSize);
+        warehouse = new Warehouse(SimulationOutput.silent(), catalog);
+        StoreFixture.fillWarehouse(warehouse, catalog, stockDepth, new SplittableRandom(StoreFixture.SEED));
+    }
+
+    @Benchmark
+    public List<String> getLowStockProductIds() {
+        return warehouse.getLowStockProductIds();
+    }
+}
@@ -0,0 +1,47 @@
+package supermarket.bench;
+
+import org.openjdk.jmh.annotations.*;
+import supermarket.Supermarket;
+import supermarket.output.SimulationOutput;
+import supermarket.workload.Workload;
+
+import java.util.concurrent.TimeUnit;
+
+// Кривая масштабирования дня симуляции по размеру сгенерированного магазина (WorkloadGenerator):
+// каталог skuCount товаров, stockDepth партий каждого товара на складе и в зале,
+// 10 000 покупателей в пуле и 200 в день. Миллион товаров: -p skuCount=1000000 (и -Xmx4g).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorkloadScalingBenchmark {
+    private static final int CUSTOMERS = 10_000;
+    private static final int CUSTOMERS_PER_DAY = 200;
+
+    @Param({"10000", "100000"})
+    public int skuCount;
+
+    @Param({"1", "4"})
+    public int stockDepth;
+
+    private Workload workload;
+    private Supermarket supermarket;
+
+    @Setup(Level.Trial)
+    public void setUpWorkload() {
+        workload = Workload.generate(StoreFixture.SEED, skuCount, stockDepth, stockDepth, CUSTOMERS, CUSTOMERS_PER_DAY);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpStore() {
+        supermarket = new Supermarket(StoreFixture.TODAY, StoreFixture.SEED, SimulationOutput.silent(), workload);
+    }
+
+    @Benchmark
+    public Supermarket runDay() {
+        supermarket.runDay();
+        return supermarket;
+    }
+}
@@ -0,0 +1,30 @@
+package supermarket;
+
+// Дни идут по расписанию от момента старта, поэтому время обработки дня
+// не накапливается в виде сдвига (в отличие от sleep после каждого дня).
+public class FixedRatePacing implements PacingPolicy {
+    private final long nanosPerDay;
+    private long startNanos;
+
+    public FixedRatePacing(long millisPerDay) {
+        if (millisPerDay < 0) {
+            throw new IllegalArgumentException("Длительность дня не может быть отрицательной: " + millisPerDay);
+        }
+        this.nanosPerDay = millisPerDay * 1_000_000L;
+    }
+
+    @Override
+    public boolean beforeDay(int dayIndex) throws InterruptedException {
+        if (dayIndex == 0) {
+            startNanos = System.nanoTime();
+            return true;
+        }
+
+        long deadline = startNanos + dayIndex * nanosPerDay;
+        long remaining = deadline - System.nanoTime();
+        if (remaining > 0) {
+            Thread.sleep(remaining / 1_000_000L, (int) (remaining % 1_000_000L));
+        }
+        return true;
+    }
+}
@@ -1,14 +1,215 @@
 package supermarket;
+
+import supermarket.event.SimulationTime;
+import supermarket.journal.EventJournal;
+import supermarket.journal.JournalReplayer;
+import supermarket.output.OutputLevel;
+import supermarket.output.SimulationOutput;
+import supermarket.random.SimulationRandom;
+import supermarket.storage.SalesHall;
+import supermarket.storage.Warehouse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
 
+// Запуск: java supermarket.Main [дни] [seed] [темп] [вывод] [журнал]
+//   дни    - число симулируемых дней (по умолчанию 5)
+//   seed   - зерно генератора случайных чисел (по умолчанию случайное)
+//   темп   - fast | realtime[:мс_на_день] | step (по умолчанию realtime:1000)
+//   вывод  - verbose | summary | silent (по умолчанию verbose)
+//   журнал - файл, в который пишется журнал событий (по умолчанию не пишется)
+// Воспроизведение журнала: java supermarket.Main replay <журнал>
 public class Main {
+    private static final int DEFAULT_DAYS = 5;
+    private static final long DEFAULT_MILLIS_PER_DAY = 1000;
+
     public static void main(String[] args) {
-        System.out.println("🚀 Запуск симуляции супермаркета...");
+        if (args.length > 0 && args[0].equalsIgnoreCase("replay")) {
+            if (args.length < 2) {
+                printUsage("Не указан файл журнала");
+                System.exit(1);
+                return;
+            }
+            replayJournal(Paths.get(args[1]));
+            return;
+        }
+
+        int days;
+        long seed;
+        PacingPolicy pacing; // null - пошаговый режим
+        OutputLevel level;
+        Path journalPath;
+
+        try {
+            days = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DAYS;
+            seed = args.length > 1 ? Long.parseLong(args[1]) : SimulationRandom.threadLocal().nextLong();
+            String pacingArg = args.length > 2 ? args[2].toLowerCase(Locale.ROOT) : "realtime";
+            // Темп проверяется до создания журнала: опечатка не должна затереть существующий файл
+            pacing = pacingArg.equals("step") ? null : parsePacing(pacingArg);
+            level = args.length > 3 ? OutputLevel.valueOf(args[3].toUpperCase(Locale.ROOT)) : OutputLevel.VERBOSE;
+            journalPath = args.length > 4 ? Paths.get(args[4]) : null;
+            if (days <= 0) {
+                throw new IllegalArgumentException("Число дней должно быть положительным: " + days);
+            }
+        } catch (IllegalArgumentException e) {
+            printUsage(e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        SimulationOutput output = SimulationOutput.async(level);
+        output.summary("🚀 Запуск симуляции супермаркета... (seed = " + seed + ")");
 
-        Supermarket supermarket = new Supermarket(LocalDate.now());
+        LocalDate startDate = LocalDate.now();
+        EventJournal journal = null;
+        if (journalPath != null) {
+            try {
+                journal = EventJournal.create(journalPath, SimulationTime.startOfDay(startDate));
+            } catch (IOException e) {
+                output.close();
+                printUsage("Не удалось создать журнал " + journalPath + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        }
 
-        supermarket.runSimulation(5);
+        long startNanos = System.nanoTime();
+        Supermarket supermarket = new Supermarket(startDate, seed, output, journal);
+
+        try {
+            if (pacing == null) {
+                runStepByStep(supermarket, days, output);
+            } else {
+                supermarket.runSimulation(days, pacing);
+            }
+        } catch (RuntimeException | Error e) {
+            // Ошибка симуляции - не ошибка аргументов: дописываем вывод и журнал и пробрасываем дальше
+            output.close();
+            closeJournal(journal);
+            throw e;
+        }
+
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+        output.summary("\n✅ Симуляция завершена! (" + supermarket.getDaysSimulated() + " дней за " + elapsedMillis + " мс)");
+        if (journal != null) {
+            output.summary("📝 Журнал: " + journal.getPath() + " (" + journal.getRecordCount() + " записей, " +
+                    journal.getSize() / 1024 + " КБ)");
+        }
+        output.close();
+        closeJournal(journal);
+    }
+
+    private static void closeJournal(EventJournal journal) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("❌ Не удалось закрыть журнал: " + e.getMessage());
+        }
+    }
+
+    // Восстанавливает склад и зал по журналу и печатает итоговое состояние
+    private static void replayJournal(Path path) {
+        SimulationOutput output = SimulationOutput.silent();
+        Warehouse warehouse = new Warehouse(output);
+        SalesHall salesHall = new SalesHall(output);
+        JournalReplayer replayer = new JournalReplayer(warehouse, salesHall);
+
+        long startNanos = System.nanoTime();
+        try {
+            replayer.replay(path);
+        } catch (IOException e) {
+            printUsage("Не удалось прочитать журнал " + path + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+
+        System.out.println("⏪ Журнал " + path + " воспроизведен за " + elapsedMillis + " мс");
+        System.out.println("   Событий: " + replayer.getEventsReplayed() + ", изменений: " + replayer.getChangesReplayed());
+        if (replayer.getLastEventTime() >= 0) {
+            System.out.println("   Последнее событие: " + SimulationTime.toDate(replayer.getLastEventTime()) + " " +
+                    SimulationTime.formatClock(replayer.getLastEventTime()));
+        }
+        System.out.println("📦 Склад: " + warehouse.getTotalProducts() + " товаров, " + warehouse.getTotalBatches() + " партий");
+        System.out.println("🏪 Зал: " + salesHall.getTotalProducts() + " полок, " + salesHall.getTotalBatches() + " партий");
+    }
+
+    private static PacingPolicy parsePacing(String pacingArg) {
+        if (pacingArg.equals("fast")) {
+            return PacingPolicy.asFastAsPossible();
+        }
+        if (pacingArg.equals("realtime")) {
+            return PacingPolicy.fixedRate(DEFAULT_MILLIS_PER_DAY);
+        }
+        if (pacingArg.startsWith("realtime:")) {
+            return PacingPolicy.fixedRate(Long.parseLong(pacingArg.substring("realtime:".length())));
+        }
+        throw new IllegalArgumentException("Неизвестный темп симуляции: " + pacingArg);
+    }
+
+    // Пошаговый режим: Enter - следующий день, q - завершить. Приглашение печатается только
+    // после того, как предыдущий день выполнен и его вывод дописан; печатается напрямую,
+    // как при воспроизведении журнала, поэтому видно и при уровне silent.
+    // Исключение потока симуляции пробрасывается после join()
+    private static void runStepByStep(Supermarket supermarket, int days, SimulationOutput output) {
+        StepPacing pacing = PacingPolicy.step();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread simulation = new Thread(() -> {
+            try {
+                supermarket.runSimulation(days, pacing);
+            } catch (RuntimeException | Error e) {
+                failure.set(e);
+            } finally {
+                pacing.stop(); // будит ожидающий awaitCompletedDays, если день не дошел до конца
+            }
+        }, "simulation");
+        simulation.start();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        try {
+            for (int day = 0; day < days && simulation.isAlive(); day++) {
+                output.flush();
+                System.out.println("\n⏯️ Enter - следующий день, q - завершить");
+                String line = reader.readLine();
+                if (line == null || line.trim().equalsIgnoreCase("q")) {
+                    break;
+                }
+                pacing.step();
+                pacing.awaitCompletedDays(day + 1);
+            }
+        } catch (IOException e) {
+            // Ввод недоступен - завершаем после уже разрешенных дней
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pacing.stop();
+        try {
+            simulation.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+    }
 
-        System.out.println("\n✅ Симуляция завершена!");
+    private static void printUsage(String error) {
+        System.err.println("❌ " + error);
+        System.err.println("Использование: java supermarket.Main [дни] [seed] [fast|realtime[:мс]|step] [verbose|summary|silent] [журнал]");
+        System.err.println("               java supermarket.Main replay <журнал>");
     }
-}
\ No newline at end of file
+}
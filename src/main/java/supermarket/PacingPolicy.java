@@ -0,0 +1,28 @@
+package supermarket;
+
+// Темп симуляции: сколько реального времени проходит между симулируемыми днями.
+public interface PacingPolicy {
+
+    // Вызывается перед каждым днем (dayIndex считается от 0).
+    // Возвращает false, если симуляцию нужно остановить.
+    boolean beforeDay(int dayIndex) throws InterruptedException;
+
+    // Вызывается после того, как день dayIndex полностью выполнен
+    default void afterDay(int dayIndex) {
+    }
+
+    // Без пауз - для пакетных прогонов
+    static PacingPolicy asFastAsPossible() {
+        return dayIndex -> true;
+    }
+
+    // Фиксированное соотношение: один день симуляции за millisPerDay реального времени
+    static PacingPolicy fixedRate(long millisPerDay) {
+        return new FixedRatePacing(millisPerDay);
+    }
+
+    // Пошаговый режим: следующий день начинается только после StepPacing.step()
+    static StepPacing step() {
+        return new StepPacing();
+    }
+}
@@ -0,0 +1,337 @@
+package supermarket;
+
+import supermarket.customer.Customer;
+import supermarket.customer.CustomerPreferences;
+import supermarket.customer.DiscountCard;
+import supermarket.event.Event;
+import supermarket.event.EventQueue;
+import supermarket.event.EventType;
+import supermarket.output.SimulationOutput;
+import supermarket.product.BatchIds;
+import supermarket.product.CatalogFile;
+import supermarket.product.CountableProduct;
+import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
+import supermarket.product.ProductDefinition;
+import supermarket.product.ProductType;
+import supermarket.product.WeightableProduct;
+import supermarket.storage.SalesHall;
+import supermarket.storage.Shelf;
+import supermarket.storage.Warehouse;
+import supermarket.workload.Workload;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+// Контрольная точка симуляции в компактном двоичном формате (DataOutputStream, без Java-сериализации).
+// Сохраняются каталог, размеры нагрузки, склад, полки зала, покупатели с бюджетами и баллами карт,
+// очередь событий, текущая дата и счетчики. Встроенный каталог отмечается флагом, любой другой
+// (свой, из файла, сгенерированный нагрузкой) пишется целиком в двоичном формате CatalogFile.
+// Запись и чтение идут потоком: объекты пишутся прямо из живых структур
+// и при чтении сразу раскладываются по новым складу и залу.
+// Строки (идентификаторы, названия, описания событий) пишутся один раз, дальше - по номеру.
+// Партии пишутся 64-битными номерами; при чтении счетчик BatchIds сдвигается за них.
+//
+// Сохранять нужно между днями (после runSimulation или runDay). Генераторы случайных чисел
+// пересоздаются из зерна и номера дня, поэтому восстановленная симуляция продолжается точно так же,
+// как продолжилась бы исходная.
+public final class SimulationCheckpoint {
+    private static final int MAGIC = 0x534D434B; // "SMCK"
+    private static final int VERSION = 5;
+    private static final byte COUNTABLE = 0;
+    private static final byte WEIGHTABLE = 1;
+
+    private SimulationCheckpoint() {
+    }
+
+    public static void save(Supermarket supermarket, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024)) {
+            save(supermarket, out);
+        }
+    }
+
+    public static void save(Supermarket supermarket, OutputStream stream) throws IOException {
+        Writer out = new Writer(new DataOutputStream(stream));
+
+        out.data.writeInt(MAGIC);
+        out.data.writeInt(VERSION);
+        out.data.writeLong(supermarket.getSeed());
+        out.data.writeLong(supermarket.getCurrentDate().toEpochDay());
+        out.data.writeLong(supermarket.getCurrentTime());
+        out.data.writeInt(supermarket.getDayNumber());
+        out.data.writeLong(supermarket.getTotalRevenueKopecks());
+        out.data.writeInt(supermarket.getDailyPurchasesCount());
+        out.data.writeLong(supermarket.getTotalPurchasesCount());
+        out.data.writeLong(supermarket.getWastedBatches());
+        out.data.writeInt(supermarket.getStockoutCount());
+
+        ProductCatalog catalog = supermarket.getCatalog();
+        boolean defaultCatalog = catalog == ProductCatalog.getDefault();
+        out.data.writeBoolean(defaultCatalog);
+        if (!defaultCatalog) {
+            ByteArrayOutputStream catalogBytes = new ByteArrayOutputStream();
+            CatalogFile.writeBinary(catalog, catalogBytes);
+            out.data.writeInt(catalogBytes.size());
+            catalogBytes.writeTo(out.data);
+        }
+
+        Workload workload = supermarket.getWorkload();
+        out.data.writeBoolean(workload != null);
+        if (workload != null) {
+            out.data.writeInt(workload.getWarehouseDepth());
+            out.data.writeInt(workload.getHallDepth());
+            out.data.writeInt(workload.getCustomerCount());
+            out.data.writeInt(workload.getCustomersPerDay());
+        }
+
+        List<Customer> pool = supermarket.getCustomerPool();
+        out.data.writeInt(pool.size());
+        for (Customer customer : pool) {
+            out.writeString(customer.getId());
+            out.writeString(customer.getName());
+            out.data.writeByte(customer.getPreferences().getPreferenceType().ordinal());
+            out.data.writeLong(customer.getBaseBudgetKopecks());
+            out.data.writeLong(customer.getBudgetKopecks());
+            out.data.writeBoolean(customer.hasDiscountCard());
+            if (customer.hasDiscountCard()) {
+                out.writeString(customer.getDiscountCard().getCardId());
+                out.data.writeInt(customer.getDiscountCard().getPoints());
+            }
+        }
+
+        List<Customer> daily = supermarket.getDailyCustomers();
+        out.data.writeInt(daily.size());
+        for (Customer customer : daily) {
+            out.data.writeInt(pool.indexOf(customer));
+        }
+
+        Warehouse warehouse = supermarket.getWarehouse();
+        out.data.writeInt(warehouse.getTotalProducts());
+        for (List<Product> batches : warehouse.getProductsCollection()) {
+            out.data.writeInt(batches.size());
+            for (Product batch : batches) {
+                out.writeProduct(batch);
+            }
+        }
+
+        SalesHall salesHall = supermarket.getSalesHall();
+        out.data.writeInt(salesHall.getTotalProducts());
+        for (Shelf shelf : salesHall.getShelvesView()) {
+            List<Product> batches = shelf.getAllBatches();
+            out.writeString(shelf.getProductId());
+            out.data.writeLong(shelf.getAmount());
+            out.data.writeInt(batches.size());
+            for (Product batch : batches) {
+                out.writeProduct(batch);
+            }
+        }
+
+        List<Event> events = supermarket.getEventQueue().getPendingEvents();
+        out.data.writeInt(events.size());
+        for (Event event : events) {
+            out.data.writeByte(event.getType().ordinal());
+            out.data.writeLong(event.getTime());
+            out.writeString(event.getBaseDescription());
+            out.data.writeInt(event.getNumber());
+        }
+
+        out.data.flush();
+    }
+
+    public static Supermarket restore(Path path, SimulationOutput output) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024)) {
+            return restore(in, output);
+        }
+    }
+
+    public static Supermarket restore(InputStream stream, SimulationOutput output) throws IOException {
+        Reader in = new Reader(new DataInputStream(stream));
+
+        if (in.data.readInt() != MAGIC) {
+            throw new IOException("Это не контрольная точка симуляции");
+        }
+        int version = in.data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия контрольной точки: " + version);
+        }
+
+        long seed = in.data.readLong();
+        LocalDate currentDate = LocalDate.ofEpochDay(in.data.readLong());
+        long currentTime = in.data.readLong();
+        int dayNumber = in.data.readInt();
+        long totalRevenue = in.data.readLong();
+        int dailyPurchasesCount = in.data.readInt();
+        long totalPurchasesCount = in.data.readLong();
+        long wastedBatches = in.data.readLong();
+        int stockoutCount = in.data.readInt();
+
+        ProductCatalog catalog = ProductCatalog.getDefault();
+        if (!in.data.readBoolean()) {
+            int catalogSize = in.data.readInt();
+            if (catalogSize < 0) {
+                throw new IOException("Поврежденная контрольная точка: размер каталога " + catalogSize);
+            }
+            byte[] catalogBytes = new byte[catalogSize];
+            in.data.readFully(catalogBytes);
+            catalog = CatalogFile.loadBinary(catalogBytes);
+        }
+
+        Workload workload = null;
+        if (in.data.readBoolean()) {
+            int warehouseDepth = in.data.readInt();
+            int hallDepth = in.data.readInt();
+            int customerCount = in.data.readInt();
+            try {
+                workload = new Workload(catalog, warehouseDepth, hallDepth, customerCount, in.data.readInt());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Поврежденная контрольная точка: " + e.getMessage(), e);
+            }
+        }
+
+        Supermarket supermarket = new Supermarket(currentDate, seed, output, null, catalog, workload, false);
+
+        CustomerPreferences.PreferenceType[] preferenceTypes = CustomerPreferences.PreferenceType.values();
+        int poolSize = in.data.readInt();
+        List<Customer> pool = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            String id = in.readString();
+            String name = in.readString();
+            CustomerPreferences.PreferenceType preferenceType = preferenceTypes[in.data.readUnsignedByte()];
+            long baseBudget = in.data.readLong();
+            long budget = in.data.readLong();
+            DiscountCard card = null;
+            if (in.data.readBoolean()) {
+                String cardId = in.readString();
+                card = new DiscountCard(cardId, in.data.readInt());
+            }
+            pool.add(new Customer(id, name, preferenceType, card, baseBudget, budget, catalog));
+        }
+
+        int dailySize = in.data.readInt();
+        List<Customer> daily = new ArrayList<>(dailySize);
+        for (int i = 0; i < dailySize; i++) {
+            daily.add(pool.get(in.data.readInt()));
+        }
+
+        Warehouse warehouse = supermarket.getWarehouse();
+        int productCount = in.data.readInt();
+        for (int i = 0; i < productCount; i++) {
+            int batchCount = in.data.readInt();
+            for (int j = 0; j < batchCount; j++) {
+                warehouse.restoreBatch(in.readProduct(supermarket.getCatalog()));
+            }
+        }
+
+        SalesHall salesHall = supermarket.getSalesHall();
+        int shelfCount = in.data.readInt();
+        for (int i = 0; i < shelfCount; i++) {
+            String productId = in.readString();
+            long currentAmount = in.data.readLong();
+            int batchCount = in.data.readInt();
+            for (int j = 0; j < batchCount; j++) {
+                salesHall.restoreBatch(in.readProduct(supermarket.getCatalog()));
+            }
+            salesHall.restoreShelfAmount(productId, currentAmount);
+        }
+        salesHall.restoreStockoutCount(stockoutCount);
+
+        EventType[] eventTypes = EventType.values();
+        EventQueue eventQueue = supermarket.getEventQueue();
+        int eventCount = in.data.readInt();
+        for (int i = 0; i < eventCount; i++) {
+            EventType type = eventTypes[in.data.readUnsignedByte()];
+            long time = in.data.readLong();
+            String description = in.readString();
+            eventQueue.addEvent(new Event(type, time, description, in.data.readInt()));
+        }
+
+        supermarket.restoreState(currentTime, dayNumber, totalRevenue, dailyPurchasesCount,
+                totalPurchasesCount, wastedBatches, pool, daily);
+        return supermarket;
+    }
+
+    private static final class Writer {
+        final DataOutputStream data;
+        final Map<String, Integer> strings = new HashMap<>();
+
+        Writer(DataOutputStream data) {
+            this.data = data;
+        }
+
+        // Номер строки; номер, равный размеру таблицы, означает новую строку, ее текст идет следом
+        void writeString(String value) throws IOException {
+            Integer index = strings.get(value);
+            if (index != null) {
+                data.writeInt(index);
+                return;
+            }
+            data.writeInt(strings.size());
+            data.writeUTF(value);
+            strings.put(value, strings.size());
+        }
+
+        void writeProduct(Product product) throws IOException {
+            boolean countable = product instanceof CountableProduct;
+            data.writeByte(countable ? COUNTABLE : WEIGHTABLE);
+            writeString(product.getId());
+            data.writeLong(product.getBatchNumber());
+            writeString(product.getName());
+            data.writeByte(product.getType().ordinal());
+            data.writeLong(product.getPriceKopecks());
+            data.writeInt(product.getProductionEpochDay());
+            data.writeInt(product.getShelfLifeDays());
+            if (countable) {
+                data.writeInt(((CountableProduct) product).getQuantity());
+            } else {
+                data.writeLong(((WeightableProduct) product).getGrams());
+            }
+            data.writeInt(product.getDiscountBasisPoints());
+        }
+    }
+
+    private static final class Reader {
+        private static final ProductType[] PRODUCT_TYPES = ProductType.values();
+
+        final DataInputStream data;
+        final List<String> strings = new ArrayList<>();
+
+        Reader(DataInputStream data) {
+            this.data = data;
+        }
+
+        String readString() throws IOException {
+            int index = data.readInt();
+            if (index == strings.size()) {
+                strings.add(data.readUTF());
+            } else if (index < 0 || index > strings.size()) {
+                throw new IOException("Поврежденная контрольная точка: строка #" + index);
+            }
+            return strings.get(index);
+        }
+
+        Product readProduct(ProductCatalog catalog) throws IOException {
+            byte kind = data.readByte();
+            String id = readString();
+            long batchNumber = data.readLong();
+            BatchIds.advancePast(batchNumber);
+            String name = readString();
+            ProductType type = PRODUCT_TYPES[data.readUnsignedByte()];
+            long priceKopecks = data.readLong();
+            int productionDay = data.readInt();
+            int shelfLifeDays = data.readInt();
+            ProductDefinition definition = catalog.definitionOf(id, name, type, priceKopecks, shelfLifeDays);
+
+            Product product;
+            if (kind == COUNTABLE) {
+                product = new CountableProduct(definition, batchNumber, productionDay, data.readInt());
+            } else {
+                product = new WeightableProduct(definition, batchNumber, productionDay, data.readLong());
+            }
+            product.setDiscountBasisPoints(data.readInt());
+            return product;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package supermarket;
+
+// Пошаговый режим: симуляция ждет разрешения от вызывающего кода перед каждым днем.
+// Уже разрешенные дни выполняются даже после stop().
+public class StepPacing implements PacingPolicy {
+    private int grantedDays;
+    private int completedDays;
+    private boolean stopped;
+
+    @Override
+    public synchronized boolean beforeDay(int dayIndex) throws InterruptedException {
+        while (grantedDays == 0 && !stopped) {
+            wait();
+        }
+        if (grantedDays > 0) {
+            grantedDays--;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void afterDay(int dayIndex) {
+        completedDays++;
+        notifyAll();
+    }
+
+    // Ждать, пока выполнятся days дней с начала симуляции или симуляцию не остановят
+    public synchronized void awaitCompletedDays(int days) throws InterruptedException {
+        while (completedDays < days && !stopped) {
+            wait();
+        }
+    }
+
+    public synchronized int getCompletedDays() {
+        return completedDays;
+    }
+
+    // Разрешить следующий день
+    public void step() {
+        step(1);
+    }
+
+    // Разрешить сразу несколько дней
+    public synchronized void step(int days) {
+        grantedDays += days;
+        notifyAll();
+    }
+
+    // Завершить симуляцию после уже разрешенных дней
+    public synchronized void stop() {
+        stopped = true;
+        notifyAll();
+    }
+
+    public synchronized boolean isStopped() {
+        return stopped;
+    }
+}
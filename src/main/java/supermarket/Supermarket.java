@@ -1,16 +1,30 @@
 package supermarket;
 
 import supermarket.customer.Customer;
+import supermarket.customer.CustomerFactory;
 import supermarket.customer.PredefinedCustomers;
 import supermarket.event.Event;
+import supermarket.event.EventDispatcher;
+import supermarket.event.EventHandler;
 import supermarket.event.EventQueue;
+import supermarket.event.EventType;
+import supermarket.event.HandlerStats;
+import supermarket.event.SimulationTime;
+import supermarket.journal.EventJournal;
+import supermarket.output.SimulationOutput;
+import supermarket.product.Money;
 import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
 import supermarket.product.ProductFactory;
 import supermarket.product.ProductType;
+import supermarket.random.RandomStream;
+import supermarket.random.SimulationRandom;
 import supermarket.storage.ProductManager;
 import supermarket.storage.SalesHall;
 import supermarket.storage.Shelf;
 import supermarket.storage.Warehouse;
+import supermarket.workload.Workload;
+import supermarket.workload.WorkloadGenerator;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -19,35 +33,103 @@ public class Supermarket {
     private Warehouse warehouse;
     private SalesHall salesHall;
     private EventQueue eventQueue;
+    private final EventDispatcher dispatcher;
     private ProductManager productManager;
+    private final ProductCatalog catalog;
     private List<Customer> customerPool; // Пул постоянных покупателей
     private List<Customer> dailyCustomers; // Покупатели на сегодня
     private LocalDate currentDate;
-    private Random random;
+    private int currentDay; // currentDate как epoch-day: его получают проверки сроков
+    private long currentTime; // текущий момент симуляции (см. SimulationTime)
+    private final SimulationRandom randoms; // все случайные решения симуляции - из одного зерна
     private int dayNumber;
-    private double totalRevenue;
+    private long totalRevenue; // в копейках (Money)
     private int dailyPurchasesCount;
+    private long totalPurchasesCount;
+    private long wastedBatches; // утилизировано партий (склад + зал)
+    private final SimulationOutput output;
+    private final long seed;
+    private final EventJournal journal; // null - журнал не ведется
+    private final Workload workload; // null - встроенный магазин: 20 начальных партий и постоянные покупатели
 
     public Supermarket(LocalDate startDate) {
-        this.warehouse = new Warehouse();
-        this.salesHall = new SalesHall();
-        this.eventQueue = new EventQueue(startDate);
-        this.productManager = new ProductManager(warehouse, salesHall);
+        this(startDate, SimulationOutput.defaultOutput());
+    }
+
+    public Supermarket(LocalDate startDate, SimulationOutput output) {
+        this(startDate, SimulationRandom.threadLocal().nextLong(), output);
+    }
 
-        // Используем готовый список покупателей вместо фабрики
-        this.customerPool = PredefinedCustomers.getPredefinedCustomers();
+    public Supermarket(LocalDate startDate, long seed, SimulationOutput output) {
+        this(startDate, seed, output, (EventJournal) null);
+    }
 
+    // С журналом: все события и изменения склада и зала, включая начальное заполнение,
+    // пишутся в journal. Закрывает журнал вызывающий код.
+    public Supermarket(LocalDate startDate, long seed, SimulationOutput output, EventJournal journal) {
+        this(startDate, seed, output, journal, ProductCatalog.getDefault(), null, true);
+    }
+
+    // Магазин со своим ассортиментом вместо встроенного каталога
+    public Supermarket(LocalDate startDate, long seed, SimulationOutput output, ProductCatalog catalog) {
+        this(startDate, seed, output, null, catalog, null, true);
+    }
+
+    // Магазин под нагрузку: каталог нагрузки, склад и зал заданной глубины и пул покупателей
+    // заданного размера; все берется из потока STORE, то есть из зерна магазина
+    public Supermarket(LocalDate startDate, long seed, SimulationOutput output, Workload workload) {
+        this(startDate, seed, output, null, workload.getCatalog(), workload, true);
+    }
+
+    // populate = false - пустой магазин без покупателей и событий; его заполняет SimulationCheckpoint
+    Supermarket(LocalDate startDate, long seed, SimulationOutput output, EventJournal journal,
+                ProductCatalog catalog, Workload workload, boolean populate) {
+        this.output = output;
+        this.seed = seed;
+        this.journal = journal;
+        this.workload = workload;
+        this.catalog = catalog;
+        this.randoms = new SimulationRandom(seed);
+        this.warehouse = new Warehouse(output, catalog);
+        this.salesHall = new SalesHall(output, catalog);
+        if (journal != null) {
+            journal.setCurrentTime(SimulationTime.startOfDay(startDate));
+            warehouse.setListener(journal);
+            salesHall.setListener(journal);
+        }
+        this.eventQueue = new EventQueue(startDate, randoms);
+        this.productManager = new ProductManager(warehouse, salesHall, catalog, randoms, output);
+        this.productManager.setCurrentDate(startDate);
+        this.dispatcher = new EventDispatcher();
+        registerDefaultHandlers();
+
+        this.customerPool = new ArrayList<>();
         this.dailyCustomers = new ArrayList<>();
         this.currentDate = startDate;
-        this.random = new Random();
+        this.currentDay = (int) startDate.toEpochDay();
+        this.currentTime = SimulationTime.startOfDay(startDate);
         this.dayNumber = 1;
-        this.totalRevenue = 0.0;
+        this.totalRevenue = 0;
         this.dailyPurchasesCount = 0;
 
-        initializeWithProducts();
+        if (!populate) {
+            return;
+        }
+
+        // Используем готовый список покупателей вместо фабрики.
+        // Планирование дня (покупатели, бюджеты, расписание) берет числа из потоков STORE и EVENTS,
+        // поэтому к началу дня потоки SUPPLY, DISCOUNTS и CUSTOMERS еще не тронуты -
+        // на этом держится точное продолжение после восстановления из контрольной точки.
+        if (workload != null) {
+            initializeWorkload();
+        } else {
+            this.customerPool.addAll(PredefinedCustomers.getPredefinedCustomers(output,
+                    randoms.get(RandomStream.STORE), catalog));
+            initializeWithProducts();
+        }
         selectDailyCustomers();   // Выбираем покупателей на первый день
 
-        System.out.println("\n🔄 Первоначальное заполнение торгового зала...");
+        output.verbose("\n🔄 Первоначальное заполнение торгового зала...");
         productManager.transferProductsToHall();
 
         // Генерируем события на первый день
@@ -55,16 +137,29 @@ public class Supermarket {
     }
 
     private void initializeWithProducts() {
-        System.out.println("\n📦 Заполнение склада начальными товарами...");
+        SplittableRandom random = randoms.get(RandomStream.STORE);
+        output.verbose("\n📦 Заполнение склада начальными товарами...");
         for (int i = 0; i < 20; i++) {
             ProductType randomType = ProductType.values()[random.nextInt(ProductType.values().length)];
-            Product product = ProductFactory.createRandomProduct(randomType);
-            boolean added = warehouse.addProduct(product, currentDate);
-            if (added) {
-                System.out.println("   📦 " + product.getName());
+            Product product = ProductFactory.createRandomProduct(catalog, randomType, random, currentDate);
+            boolean added = warehouse.addProduct(product, currentDay);
+            if (added && output.isVerbose()) {
+                output.verbose("   📦 " + product.getName());
             }
         }
-        System.out.println("🏪 Склад готов к работе!");
+        output.verbose("🏪 Склад готов к работе!");
+    }
+
+    private void initializeWorkload() {
+        SplittableRandom random = randoms.get(RandomStream.STORE);
+        customerPool.addAll(CustomerFactory.createCustomerPool(workload.getCustomerCount(), catalog, random));
+        int warehouseBatches = WorkloadGenerator.stockWarehouse(warehouse, catalog, workload.getWarehouseDepth(),
+                random, currentDay);
+        int hallBatches = WorkloadGenerator.stockHall(salesHall, catalog, workload.getHallDepth(), random, currentDay);
+        if (output.isSummary()) {
+            output.summary("📦 Нагрузка: " + catalog.getSkuCount() + " товаров, склад " + warehouseBatches +
+                    " партий, зал " + hallBatches + " партий, " + customerPool.size() + " покупателей");
+        }
     }
 
     // Выбираем покупателей на день
@@ -72,10 +167,11 @@ public class Supermarket {
         this.dailyCustomers.clear();
 
         // Случайно выбираем 2-4 покупателя из пула
+        SplittableRandom random = randoms.get(RandomStream.STORE);
         List<Customer> available = new ArrayList<>(customerPool);
-        Collections.shuffle(available);
+        SimulationRandom.shuffle(available, random);
 
-        int count = 2 + random.nextInt(3); // 2, 3 или 4
+        int count = workload != null ? workload.getCustomersPerDay() : 2 + random.nextInt(3); // 2, 3 или 4
         count = Math.min(count, available.size());
 
         for (int i = 0; i < count; i++) {
@@ -85,22 +181,28 @@ public class Supermarket {
 
     // Восстанавливаем бюджет всем покупателям в пуле
     private void restoreBudgets() {
+        SplittableRandom random = randoms.get(RandomStream.STORE);
         for (Customer customer : customerPool) {
-            customer.restoreBudget(); // используем новый метод
+            customer.restoreBudget(random);
         }
     }
 
     public void runDay() {
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("📅 День " + dayNumber + " (" + currentDate + ")");
-        System.out.println("=".repeat(60));
+        if (output.isSummary()) {
+            output.summary("\n" + "=".repeat(60));
+            output.summary("📅 День " + dayNumber + " (" + currentDate + ")");
+            output.summary("=".repeat(60));
+        }
 
-        double dailyRevenue = 0.0;
+        long dailyRevenue = 0;
         dailyPurchasesCount = 0;
-        double revenueAtStart = totalRevenue;
+        long revenueAtStart = totalRevenue;
 
-        while (eventQueue.hasEvents()) {
+        // Обрабатываем события текущего дня в порядке времени
+        long dayEnd = SimulationTime.startOfDay(currentDate.plusDays(1));
+        while (eventQueue.hasEventsBefore(dayEnd)) {
             Event event = eventQueue.getNextEvent();
+            currentTime = event.getTime();
             processEvent(event);
         }
 
@@ -108,6 +210,10 @@ public class Supermarket {
 
         dayNumber++;
         currentDate = currentDate.plusDays(1);
+        currentDay++;
+        currentTime = dayEnd;
+        productManager.setCurrentDate(currentDate);
+        randoms.startDay(dayNumber - 1);
 
         restoreBudgets();
         selectDailyCustomers();
@@ -116,58 +222,64 @@ public class Supermarket {
         printDailySummary(dailyRevenue, dailyPurchasesCount);
     }
 
+    // Обработчики по умолчанию. Дневная проверка (CHECK_STOCK) пополняет и склад, и зал,
+    // вечернее автопополнение (AUTO_RESTOCK) только доливает полки зала со склада.
+    private void registerDefaultHandlers() {
+        dispatcher.register(EventType.DELIVERY, event -> productManager.generateDelivery());
+        dispatcher.register(EventType.TRANSFER_TO_HALL, event -> productManager.transferProductsToHall());
+        dispatcher.register(EventType.REMOVE_EXPIRED, event -> removeExpiredProducts());
+        dispatcher.register(EventType.PURCHASE, event -> handleCustomerPurchase());
+        dispatcher.register(EventType.SET_DISCOUNT, event -> handleDiscounts());
+        dispatcher.register(EventType.CHECK_STOCK, event -> productManager.checkAndRestockAll());
+        dispatcher.register(EventType.AUTO_RESTOCK, event -> productManager.checkAndRestockSalesHall());
+    }
+
+    // Заменить обработчик событий одного типа; возвращает прежний
+    public EventHandler registerHandler(EventType type, EventHandler handler) {
+        return dispatcher.register(type, handler);
+    }
+
     private void processEvent(Event event) {
-        System.out.println("\n⚡ " + event.getDescription());
+        if (output.isVerbose()) {
+            output.verbose("\n⚡ " + SimulationTime.formatClock(event.getTime()) + " " + event.getDescription());
+        }
 
-        switch (event.getType()) {
-            case DELIVERY:
-                productManager.generateDelivery();
-                break;
-            case TRANSFER_TO_HALL:
-                productManager.transferProductsToHall();
-                break;
-            case REMOVE_EXPIRED:
-                removeExpiredProducts();
-                break;
-            case PURCHASE:
-                handleCustomerPurchase();
-                break;
-            case SET_DISCOUNT:
-                handleDiscounts();
-                break;
-            case CHECK_STOCK:
-                productManager.checkAndRestockAll();
-                break;
-            case AUTO_RESTOCK:
-                productManager.checkAndRestockAll();
-                break;
+        if (journal != null) {
+            journal.recordEvent(event);
         }
+        dispatcher.dispatch(event);
     }
 
     private void handleCustomerPurchase() {
         if (dailyCustomers.isEmpty()) return;
 
         // Сначала показываем товары со скидками
-        System.out.println("\n" + "=".repeat(60));
-        displayProductsWithDiscounts();
+        if (output.isVerbose()) {
+            output.verbose("\n" + "=".repeat(60));
+            displayProductsWithDiscounts();
+        }
 
+        SplittableRandom random = randoms.get(RandomStream.CUSTOMERS);
         Customer customer = dailyCustomers.get(random.nextInt(dailyCustomers.size()));
 
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("🛒 ПОКУПАТЕЛЬ ЗАХОДИТ В МАГАЗИН");
+        if (output.isVerbose()) {
+            output.verbose("\n" + "=".repeat(50));
+            output.verbose("🛒 ПОКУПАТЕЛЬ ЗАХОДИТ В МАГАЗИН");
+        }
 
-        double purchaseAmount = customer.makePurchase(salesHall);
+        long purchaseAmount = customer.checkout(salesHall, output, random);
 
         if (purchaseAmount > 0) {
             totalRevenue += purchaseAmount;
             dailyPurchasesCount++;
+            totalPurchasesCount++;
         }
     }
 
     // Новый метод для отображения товаров со скидками
     private void displayProductsWithDiscounts() {
-        System.out.println("\n🏪 ТОВАРЫ В ЗАЛЕ (🎫 = скидка для владельцев карт):");
-        System.out.println("-".repeat(60));
+        output.verbose("\n🏪 ТОВАРЫ В ЗАЛЕ (🎫 = скидка для владельцев карт):");
+        output.verbose("-".repeat(60));
 
         boolean hasDiscountedProducts = false;
         Map<String, Shelf> shelves = salesHall.getAllShelves();
@@ -185,120 +297,181 @@ public class Supermarket {
             if (batches.isEmpty()) continue;
 
             supermarket.product.Product sampleProduct = batches.get(0);
-            System.out.print(String.format("   %-25s", productName));
+            StringBuilder line = new StringBuilder(String.format("   %-25s", productName));
 
             if (sampleProduct instanceof supermarket.product.CountableProduct) {
-                System.out.print(String.format(" %3.0f шт.", totalAmount));
+                line.append(String.format(" %3.0f шт.", totalAmount));
             } else {
-                System.out.print(String.format(" %5.1f кг", totalAmount));
+                line.append(String.format(" %5.1f кг", totalAmount));
             }
 
-            System.out.print(String.format(" | %7.2f руб.", sampleProduct.getPrice()));
+            line.append(String.format(" | %7.2f руб.", sampleProduct.getPrice()));
 
-            if (sampleProduct.getDiscount() > 0) {
+            if (sampleProduct.getDiscountBasisPoints() > 0) {
                 hasDiscountedProducts = true;
-                System.out.print(String.format(" → %7.2f руб.", sampleProduct.getFinalPrice()));
-                System.out.print(" 🎫 -" + (int)(sampleProduct.getDiscount() * 100) + "%");
+                line.append(String.format(" → %7.2f руб.", sampleProduct.getFinalPrice()));
+                line.append(" 🎫 -").append(Money.discountPercent(sampleProduct.getDiscountBasisPoints())).append("%");
             }
-            System.out.println();
+            output.verbose(line.toString());
         }
 
         if (hasDiscountedProducts) {
-            System.out.println("   ⚠️  Скидки доступны только для владельцев карт!");
+            output.verbose("   ⚠️  Скидки доступны только для владельцев карт!");
         }
     }
 
     private void removeExpiredProducts() {
-        int removedFromWarehouse = warehouse.removeExpiredProducts(currentDate);
-        int removedFromHall = salesHall.removeExpiredProducts(currentDate);
-
-        if (removedFromWarehouse > 0 || removedFromHall > 0) {
-            System.out.println("🗑️ Утилизировано товаров: " + removedFromWarehouse + " со склада, " +
-                    removedFromHall + " из зала");
-        } else {
-            System.out.println("✅ Просроченных товаров не обнаружено");
+        int removedFromWarehouse = warehouse.removeExpiredProducts(currentDay);
+        int removedFromHall = salesHall.removeExpiredProducts(currentDay);
+        wastedBatches += removedFromWarehouse + removedFromHall;
+
+        if (output.isVerbose()) {
+            if (removedFromWarehouse > 0 || removedFromHall > 0) {
+                output.verbose("🗑️ Утилизировано товаров: " + removedFromWarehouse + " со склада, " +
+                        removedFromHall + " из зала");
+            } else {
+                output.verbose("✅ Просроченных товаров не обнаружено");
+            }
         }
     }
 
     private void handleDiscounts() {
-        int expiringDiscounts = salesHall.applyExpiringDiscounts(currentDate);
+        int expiringDiscounts = salesHall.applyExpiringDiscounts(currentDay);
 
+        SplittableRandom random = randoms.get(RandomStream.DISCOUNTS);
         if (random.nextDouble() < 0.3) {
-            salesHall.applyRandomDiscounts();
+            salesHall.applyRandomDiscounts(random);
         }
 
-        if (expiringDiscounts > 0) {
-            System.out.println("   🏷️ Установлены скидки на " + expiringDiscounts + " товаров с истекающим сроком");
+        if (expiringDiscounts > 0 && output.isVerbose()) {
+            output.verbose("   🏷️ Установлены скидки на " + expiringDiscounts + " товаров с истекающим сроком");
         }
     }
 
-    private void printDailySummary(double dailyRevenue, int purchasesCount) {
-        System.out.println("\n📊 ИТОГИ ДНЯ:");
-        System.out.println("=".repeat(50));
+    private void printDailySummary(long dailyRevenue, int purchasesCount) {
+        if (!output.isSummary()) {
+            return;
+        }
+
+        output.summary("\n📊 ИТОГИ ДНЯ:");
+        output.summary("=".repeat(50));
 
-        System.out.println(String.format("💰 Выручка: %s руб. | 🛒 Покупок: %d",
-                String.format("%.2f", dailyRevenue), purchasesCount));
+        output.summary(String.format("💰 Выручка: %s руб. | 🛒 Покупок: %d",
+                Money.format(dailyRevenue), purchasesCount));
 
-        System.out.println(String.format("📦 Склад: %d товаров, %d партий%s",
+        output.summary(String.format("📦 Склад: %d товаров, %d партий%s",
                 warehouse.getTotalProducts(), warehouse.getTotalBatches(),
                 warehouse.needsRestocking() ? " ⚠️" : ""));
 
-        System.out.println(String.format("🏪 Зал: %d полок, %d партий",
+        output.summary(String.format("🏪 Зал: %d полок, %d партий",
                 salesHall.getTotalProducts(), salesHall.getTotalBatches()));
 
-        System.out.println(String.format("💵 Общая выручка: %s руб.",
-                String.format("%.2f", totalRevenue)));
+        output.summary(String.format("💵 Общая выручка: %s руб.",
+                Money.format(totalRevenue)));
 
         // Показываем критические полки
-        System.out.println("\n📊 ЗАПОЛНЕННОСТЬ ПОЛОК:");
+        output.summary("\n📊 ЗАПОЛНЕННОСТЬ ПОЛОК:");
         salesHall.displayCriticalShelves();
 
         if (warehouse.needsRestocking()) {
-            System.out.println("\n🚨 ВНИМАНИЕ: Склад нуждается в пополнении!");
+            output.summary("\n🚨 ВНИМАНИЕ: Склад нуждается в пополнении!");
         }
     }
 
     public void runSimulation(int days) {
-        System.out.println("\n🎮 ЗАПУСК СИМУЛЯЦИИ НА " + days + " ДНЕЙ");
-        System.out.println("=".repeat(50));
+        runSimulation(days, PacingPolicy.fixedRate(1000)); // Пауза между днями для наглядности
+    }
 
-        for (int i = 0; i < days; i++) {
-            runDay();
+    public void runSimulation(int days, PacingPolicy pacing) {
+        if (output.isSummary()) {
+            output.summary("\n🎮 ЗАПУСК СИМУЛЯЦИИ НА " + days + " ДНЕЙ");
+            output.summary("=".repeat(50));
+        }
 
+        for (int i = 0; i < days; i++) {
             try {
-                Thread.sleep(1000); // Пауза между днями
+                if (!pacing.beforeDay(i)) {
+                    break;
+                }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
             }
+
+            runDay();
+            pacing.afterDay(i);
         }
 
         printFinalSummary();
     }
 
     private void printFinalSummary() {
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("🎯 ФИНАЛЬНЫЕ РЕЗУЛЬТАТЫ (" + (dayNumber - 1) + " дней)");
-        System.out.println("=".repeat(50));
+        if (!output.isSummary()) {
+            return;
+        }
+
+        output.summary("\n" + "=".repeat(50));
+        output.summary("🎯 ФИНАЛЬНЫЕ РЕЗУЛЬТАТЫ (" + (dayNumber - 1) + " дней)");
+        output.summary("=".repeat(50));
 
-        System.out.println(String.format("💰 Общая выручка: %s руб.",
-                String.format("%.2f", totalRevenue)));
+        output.summary(String.format("💰 Общая выручка: %s руб.",
+                Money.format(totalRevenue)));
 
-        System.out.println(String.format("📦 Склад: %d товаров, %d партий",
+        output.summary(String.format("📦 Склад: %d товаров, %d партий",
                 warehouse.getTotalProducts(), warehouse.getTotalBatches()));
 
-        System.out.println(String.format("🏪 Зал: %d полок, %d партий",
+        output.summary(String.format("🏪 Зал: %d полок, %d партий",
                 salesHall.getTotalProducts(), salesHall.getTotalBatches()));
 
         // Информация о покупателях
-        System.out.println("\n👥 СТАТИСТИКА ПОКУПАТЕЛЕЙ:");
-        System.out.println("• Всего постоянных покупателей: " + customerPool.size());
+        output.summary("\n👥 СТАТИСТИКА ПОКУПАТЕЛЕЙ:");
+        output.summary("• Всего постоянных покупателей: " + customerPool.size());
+
+        List<HandlerStats> handlerStats = dispatcher.getStatsByTotalTime();
+        if (!handlerStats.isEmpty()) {
+            output.summary("\n⏱️ ЗАТРАТЫ ОБРАБОТЧИКОВ СОБЫТИЙ:");
+            for (HandlerStats stats : handlerStats) {
+                output.summary("• " + stats);
+            }
+        }
     }
 
     public Warehouse getWarehouse() { return warehouse; }
     public SalesHall getSalesHall() { return salesHall; }
-    public double getTotalRevenue() { return totalRevenue; }
+    public EventQueue getEventQueue() { return eventQueue; }
+    public EventDispatcher getEventDispatcher() { return dispatcher; }
+    public EventJournal getJournal() { return journal; }
+    public SimulationOutput getOutput() { return output; }
+    public long getSeed() { return seed; }
+    public SimulationRandom getRandoms() { return randoms; }
+    public int getDaysSimulated() { return dayNumber - 1; }
+    public LocalDate getCurrentDate() { return currentDate; }
+    public int getCurrentDay() { return currentDay; }
+    public long getCurrentTime() { return currentTime; }
+    public double getTotalRevenue() { return Money.toRubles(totalRevenue); }
+    public long getTotalRevenueKopecks() { return totalRevenue; }
     public int getDailyPurchasesCount() { return dailyPurchasesCount; }
+    public long getTotalPurchasesCount() { return totalPurchasesCount; }
+    public long getWastedBatches() { return wastedBatches; }
+    public int getStockoutCount() { return salesHall.getStockoutCount(); }
+    public ProductCatalog getCatalog() { return catalog; }
+    public Workload getWorkload() { return workload; }
     public List<Customer> getCustomerPool() { return new ArrayList<>(customerPool); }
+    public int getDayNumber() { return dayNumber; }
+
+    // Восстановление счетчиков и покупателей из контрольной точки (между днями симуляции)
+    void restoreState(long currentTime, int dayNumber, long totalRevenue, int dailyPurchasesCount,
+                      long totalPurchasesCount, long wastedBatches,
+                      List<Customer> customerPool, List<Customer> dailyCustomers) {
+        this.currentTime = currentTime;
+        this.dayNumber = dayNumber;
+        this.totalRevenue = totalRevenue;
+        this.dailyPurchasesCount = dailyPurchasesCount;
+        this.totalPurchasesCount = totalPurchasesCount;
+        this.wastedBatches = wastedBatches;
+        this.customerPool = customerPool;
+        this.dailyCustomers = dailyCustomers;
+        randoms.startDay(dayNumber - 1);
+    }
     public List<Customer> getDailyCustomers() { return new ArrayList<>(dailyCustomers); }
 }
\ No newline at end of file
@@ -1,40 +1,80 @@
 package supermarket.customer;
 
+import supermarket.output.SimulationOutput;
+import supermarket.product.CountableProduct;
+import supermarket.product.Money;
 import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
+import supermarket.product.Quantity;
+import supermarket.random.SimulationRandom;
 import supermarket.storage.SalesHall;
+import supermarket.storage.Shelf;
 import java.util.*;
 
+// Бюджеты и суммы покупок - в копейках (Money); рубли в double только в конструкторах и методах доступа
 public class Customer {
     private String id;
     private String name;
-    private double budget;
+    private long budget;
     private CustomerPreferences preferences;
     private DiscountCard discountCard;
-    private Random random;
     private ShoppingCart shoppingCart;
-    private double baseBudget;
+    private long baseBudget;
 
     // Конструктор для существующего кода
     public Customer(String id, String name, double baseBudget, CustomerPreferences preferences) {
+        this(id, name, baseBudget, preferences, SimulationRandom.threadLocal());
+    }
+
+    public Customer(String id, String name, double baseBudget, CustomerPreferences preferences,
+                    SplittableRandom random) {
+        this(id, name, baseBudget, preferences, null, random);
+    }
+
+    public Customer(String id, String name, double baseBudget, CustomerPreferences preferences,
+                    DiscountCard discountCard, SplittableRandom random) {
         this.id = id;
         this.name = name;
-        this.baseBudget = baseBudget;
-        this.budget = baseBudget * (0.7 + Math.random() * 0.6); // 70-130% от базового
+        this.baseBudget = Money.ofRubles(baseBudget);
+        this.budget = Money.ofRubles(baseBudget * (0.7 + random.nextDouble() * 0.6)); // 70-130% от базового
         this.preferences = preferences;
-        this.random = new Random();
         this.shoppingCart = new ShoppingCart();
-        this.discountCard = null;
+        this.discountCard = discountCard;
     }
 
     // Конструктор для PredefinedCustomers (с картой)
     public Customer(String id, String name, CustomerPreferences.PreferenceType preferenceType, DiscountCard discountCard) {
+        this(id, name, preferenceType, discountCard, SimulationRandom.threadLocal());
+    }
+
+    public Customer(String id, String name, CustomerPreferences.PreferenceType preferenceType,
+                    DiscountCard discountCard, SplittableRandom random) {
+        this(id, name, preferenceType, discountCard, random, ProductCatalog.getDefault());
+    }
+
+    // Любимые товары ищутся в каталоге магазина, где покупатель делает покупки
+    public Customer(String id, String name, CustomerPreferences.PreferenceType preferenceType,
+                    DiscountCard discountCard, SplittableRandom random, ProductCatalog catalog) {
+        this.id = id;
+        this.name = name;
+        this.preferences = new CustomerPreferences(preferenceType, catalog);
+        this.shoppingCart = new ShoppingCart();
+        double baseRubles = 1200 + random.nextDouble() * 600; // примерный бюджет
+        this.baseBudget = Money.ofRubles(baseRubles);
+        this.budget = Money.ofRubles(baseRubles * (0.7 + random.nextDouble() * 0.6));
+        this.discountCard = discountCard;
+    }
+
+    // Покупатель с уже известными бюджетами (восстановление из контрольной точки)
+    public Customer(String id, String name, CustomerPreferences.PreferenceType preferenceType,
+                    DiscountCard discountCard, long baseBudgetKopecks, long budgetKopecks,
+                    ProductCatalog catalog) {
         this.id = id;
         this.name = name;
-        this.preferences = new CustomerPreferences(preferenceType);
-        this.random = new Random();
+        this.preferences = new CustomerPreferences(preferenceType, catalog);
         this.shoppingCart = new ShoppingCart();
-        this.baseBudget = 1200 + random.nextDouble() * 600; // примерный бюджет
-        this.budget = this.baseBudget * (0.7 + random.nextDouble() * 0.6);
+        this.baseBudget = baseBudgetKopecks;
+        this.budget = budgetKopecks;
         this.discountCard = discountCard;
     }
 
@@ -47,61 +87,70 @@ public class Customer {
     }
 
     public String getName() { return name; }
-    public double getBudget() { return budget; }
-    public double getBaseBudget() { return baseBudget; }
+    public double getBudget() { return Money.toRubles(budget); }
+    public double getBaseBudget() { return Money.toRubles(baseBudget); }
+    public long getBudgetKopecks() { return budget; }
+    public long getBaseBudgetKopecks() { return baseBudget; }
     public CustomerPreferences getPreferences() { return preferences; }
     public String getId() { return id; }
     public ShoppingCart getShoppingCart() { return shoppingCart; }
 
     public void setBudget(double budget) {
-        this.budget = budget;
+        this.budget = Money.ofRubles(budget);
     }
 
     // Восстановление бюджета
     public void restoreBudget() {
-        this.budget = 500 + random.nextDouble() * 500;
+        restoreBudget(SimulationRandom.threadLocal());
+    }
+
+    public void restoreBudget(SplittableRandom random) {
+        this.budget = Money.ofRubles(500 + random.nextDouble() * 500);
     }
 
     // Метод для выбора товаров
     public List<Product> selectProducts(SalesHall salesHall) {
-        List<Product> allProducts = salesHall.getProductsList();
+        return selectProducts(salesHall, SimulationRandom.threadLocal());
+    }
+
+    public List<Product> selectProducts(SalesHall salesHall, SplittableRandom random) {
         List<Product> selected = new ArrayList<>();
         List<Product> preferred = new ArrayList<>();
 
-        // Ищем любимые товары
-        for (Product product : allProducts) {
-            if (preferences.isFavoriteProduct(product.getId()) && product.getPrice() <= budget) {
-                preferred.add(product);
+        if (preferences.getCatalog() == salesHall.getCatalog()) {
+            // Любимые товары в наличии - пословное И множеств, полки смотрим только у них
+            for (int w = 0; w < preferences.getFavoriteWordCount(); w++) {
+                int wordIndex = preferences.getFavoriteWordIndex(w);
+                long candidates = preferences.getFavoriteWord(w) & salesHall.getInStockWord(wordIndex);
+                while (candidates != 0) {
+                    int ordinal = (wordIndex << 6) + Long.numberOfTrailingZeros(candidates);
+                    candidates &= candidates - 1;
+                    salesHall.collectBatchesAtMost(ordinal, budget, preferred);
+                }
+            }
+        } else {
+            // Предпочтения по другому каталогу: номера не совпадают, сверяем партии по идентификатору
+            for (Shelf shelf : salesHall.getShelvesView()) {
+                if (preferences.isFavoriteProduct(shelf.getProductId())) {
+                    salesHall.collectBatchesAtMost(shelf.getProductId(), budget, preferred);
+                }
             }
         }
 
         // Если есть любимые, берем до 3
         if (!preferred.isEmpty()) {
-            Collections.shuffle(preferred);
+            SimulationRandom.shuffle(preferred, random);
             int maxProducts = Math.min(3, preferred.size());
             for (int i = 0; i < maxProducts; i++) {
                 Product product = preferred.get(i);
-                if (product.getPrice() <= budget) {
+                if (product.getPriceKopecks() <= budget) {
                     selected.add(product);
                     // budget -= product.getPrice(); // Списание будет в makePurchase
                 }
             }
         } else {
-            // Если нет любимых, берем случайные
-            List<Product> affordable = new ArrayList<>();
-            for (Product product : allProducts) {
-                if (product.getPrice() <= budget * 0.3) { // Не дороже 30% бюджета
-                    affordable.add(product);
-                }
-            }
-
-            if (!affordable.isEmpty()) {
-                Collections.shuffle(affordable);
-                int maxProducts = Math.min(2, affordable.size());
-                for (int i = 0; i < maxProducts; i++) {
-                    selected.add(affordable.get(i));
-                }
-            }
+            // Если нет любимых, берем до 2 случайных не дороже 30% бюджета - выборка по индексу цен зала
+            selected.addAll(salesHall.sampleBatchesAtMost(budget * 3 / 10, 2, random));
         }
 
         return selected;
@@ -109,78 +158,140 @@ public class Customer {
 
     // Метод покупки с учетом скидочной карты
     public double makePurchase(SalesHall salesHall) {
-        System.out.println("\n👤 " + name + " (" + preferences.getDescription() +
-                ") | Бюджет: " + String.format("%.2f", budget) + " руб.");
+        return makePurchase(salesHall, SimulationOutput.defaultOutput());
+    }
 
-        if (hasDiscountCard()) {
-            System.out.println("   🎫 " + discountCard.toString());
+    public double makePurchase(SalesHall salesHall, SimulationOutput output) {
+        return makePurchase(salesHall, output, SimulationRandom.threadLocal());
+    }
+
+    public double makePurchase(SalesHall salesHall, SimulationOutput output, SplittableRandom random) {
+        return Money.toRubles(checkout(salesHall, output, random));
+    }
+
+    // Покупка целиком в копейках; возвращает сумму к оплате
+    public long checkout(SalesHall salesHall, SimulationOutput output, SplittableRandom random) {
+        boolean verbose = output.isVerbose();
+
+        if (verbose) {
+            output.verbose("\n👤 " + name + " (" + preferences.getDescription() +
+                    ") | Бюджет: " + Money.format(budget) + " руб.");
+
+            if (hasDiscountCard()) {
+                output.verbose("   🎫 " + discountCard.toString());
+            }
         }
 
-        List<Product> selectedProducts = selectProducts(salesHall);
+        List<Product> selectedProducts = selectProducts(salesHall, random);
 
-        if (selectedProducts.isEmpty()) {
-            System.out.println("   ❌ Не нашел подходящих товаров");
+        // Корзина: по каждому выбранному товару - сколько взять, в пределах полки и бюджета.
+        // Из каких партий продаст зал, заранее неизвестно, поэтому количество оценивается
+        // по самой дорогой партии на полке
+        shoppingCart.clear();
+        long budgetLeft = budget;
+        for (Product product : selectedProducts) {
+            long maxPrice = salesHall.getMaxPriceKopecks(product.getId());
+            long amount = chooseAmount(product, salesHall, maxPrice, budgetLeft, random);
+            if (amount > 0) {
+                shoppingCart.add(product, amount);
+                budgetLeft -= Money.costOf(maxPrice, amount);
+            }
+        }
+
+        if (shoppingCart.isEmpty()) {
+            output.verbose("   ❌ Не нашел подходящих товаров");
+            return 0;
+        }
+        // Зал сам сверяет итог по ценам проданных партий с бюджетом: дороже бюджета корзина не продается
+        if (!shoppingCart.checkout(salesHall, budget)) {
+            output.verbose("   ❌ Товара не хватило на полке или корзина вышла дороже бюджета");
+            shoppingCart.clear();
             return 0;
         }
 
-        double total = 0;
+        long total = 0;
 
-        // Показываем и считаем товары
-        for (Product product : selectedProducts) {
-            double price = product.getPrice();
-
-            if (hasDiscountCard() && product.getDiscount() > 0) {
-                double discountedPrice = product.getFinalPrice();
-                System.out.println("   🛒 " + product.getName() +
-                        " - " + String.format("%.2f", price) + " руб." +
-                        " → " + String.format("%.2f", discountedPrice) + " руб. 🎫" +
-                        " (-" + (int)(product.getDiscount() * 100) + "%)");
-                total += discountedPrice;
+        // Показываем и считаем строки корзины; скидки партий - только по карте
+        for (int i = 0; i < shoppingCart.size(); i++) {
+            Product product = shoppingCart.getProduct(i);
+            long baseCost = shoppingCart.getBaseCost(i);
+            long discountedCost = shoppingCart.getCost(i);
+            int discountPercent = baseCost > 0 ? (int) ((baseCost - discountedCost) * 100 / baseCost) : 0;
+
+            if (hasDiscountCard() && discountedCost < baseCost) {
+                if (verbose) {
+                    output.verbose("   🛒 " + product.getName() + " " + formatAmount(product, shoppingCart.getAmount(i)) +
+                            " - " + Money.format(baseCost) + " руб." +
+                            " → " + Money.format(discountedCost) + " руб. 🎫" +
+                            " (-" + discountPercent + "%)");
+                }
+                total += discountedCost;
             } else {
-                System.out.println("   🛒 " + product.getName() +
-                        " - " + String.format("%.2f", price) + " руб.");
-                total += price;
+                if (verbose) {
+                    output.verbose("   🛒 " + product.getName() + " " + formatAmount(product, shoppingCart.getAmount(i)) +
+                            " - " + Money.format(baseCost) + " руб.");
+                }
+                total += baseCost;
 
-                if (product.getDiscount() > 0 && !hasDiscountCard()) {
-                    System.out.println("      ⚠️  Скидка " + (int)(product.getDiscount() * 100) +
+                if (verbose && discountedCost < baseCost && !hasDiscountCard()) {
+                    output.verbose("      ⚠️  Скидка " + discountPercent +
                             "% только для владельцев карт!");
                 }
             }
         }
 
-        // Списание баллов
-        double pointsDiscount = 0;
+        // Списание баллов (1 балл = 1 рубль)
         if (hasDiscountCard()) {
-            pointsDiscount = discountCard.usePoints(total);
-            if (pointsDiscount > 0) {
-                System.out.println("   💳 Списано баллов: " + (int)pointsDiscount);
-                total -= pointsDiscount;
-                if (total < 0) total = 0;
+            int pointsUsed = discountCard.usePoints(total, random);
+            if (pointsUsed > 0) {
+                if (verbose) {
+                    output.verbose("   💳 Списано баллов: " + pointsUsed);
+                }
+                total = Math.max(0, total - pointsUsed * Money.KOPECKS_PER_RUBLE);
             }
         }
 
         // Накопление баллов
         if (hasDiscountCard()) {
             discountCard.addPoints(total);
-            System.out.println("   💰 Итог: " + String.format("%.2f", total) +
-                    " руб. | Баланс: " + discountCard.getPoints() + " баллов");
-        } else {
-            System.out.println("   💰 Итог: " + String.format("%.2f", total) + " руб.");
-        }
-
-        // Удаляем товары из зала
-        for (Product product : selectedProducts) {
-            salesHall.removeBatch(product.getId(), product.getBatchId());
+            if (verbose) {
+                output.verbose("   💰 Итог: " + Money.format(total) +
+                        " руб. | Баланс: " + discountCard.getPoints() + " баллов");
+            }
+        } else if (verbose) {
+            output.verbose("   💰 Итог: " + Money.format(total) + " руб.");
         }
 
         budget -= total;
         return total;
     }
 
+    // Сколько взять: 1-3 штуки или 0.5-2 кг, но не больше остатка на полке (за вычетом уже
+    // положенного в корзину) и не дороже остатка бюджета по цене maxPrice
+    private long chooseAmount(Product product, SalesHall salesHall, long maxPrice, long budgetLeft,
+                              SplittableRandom random) {
+        boolean countable = product instanceof CountableProduct;
+        long amount = countable ? Quantity.ofUnits(1 + random.nextInt(3))
+                : Quantity.ofKilograms(0.5 + random.nextDouble() * 1.5);
+        long available = salesHall.getStockAmount(product.getId()) - shoppingCart.getAmount(product.getId());
+        amount = Math.min(amount, available);
+        amount = Math.min(amount, Money.affordableAmount(budgetLeft, maxPrice));
+        if (countable) {
+            amount -= amount % Quantity.SCALE;
+        }
+        return Math.max(0, amount);
+    }
+
+    private static String formatAmount(Product product, long amount) {
+        return product instanceof CountableProduct
+                ? "x" + Quantity.toUnits(amount)
+                : Quantity.formatKilograms(amount) + " кг";
+    }
+
     @Override
     public String toString() {
         return name + " (" + preferences.getDescription() + ") - " +
-                String.format("%.2f", budget) + " руб." +
+                Money.format(budget) + " руб." +
                 (hasDiscountCard() ? " 🎫" : "");
     }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package supermarket.customer;
 
+import supermarket.product.ProductCatalog;
+import supermarket.random.SimulationRandom;
+
 import java.util.*;
 
 public class CustomerFactory {
@@ -12,8 +15,6 @@ public class CustomerFactory {
             "Константин Тихонов"
     };
 
-    private static final Random random = new Random();
-
     private static final CustomerPreferences.PreferenceType[] PREFERENCE_TYPES = {
             CustomerPreferences.PreferenceType.FAMILY,
             CustomerPreferences.PreferenceType.FAMILY,
@@ -27,9 +28,13 @@ public class CustomerFactory {
 
     // Только создание пула покупателей
     public static List<Customer> createCustomerPool() {
+        return createCustomerPool(SimulationRandom.threadLocal());
+    }
+
+    public static List<Customer> createCustomerPool(SplittableRandom random) {
         List<Customer> customers = new ArrayList<>();
         List<String> availableNames = new ArrayList<>(Arrays.asList(NAMES));
-        Collections.shuffle(availableNames);
+        SimulationRandom.shuffle(availableNames, random);
 
         for (int i = 0; i < 20; i++) {
             String name = availableNames.get(i % availableNames.size()) + " #" + (i+1);
@@ -40,11 +45,36 @@ public class CustomerFactory {
                     ];
 
             CustomerPreferences preferences = new CustomerPreferences(prefType);
-            Customer customer = new Customer("CUST_" + (i + 1), name, baseBudget, preferences);
+            Customer customer = new Customer("CUST_" + (i + 1), name, baseBudget, preferences, random);
 
             customers.add(customer);
         }
 
         return customers;
     }
+
+    // Пул любого размера для нагрузочных прогонов; 70% покупателей с картами.
+    // Предпочтения одного типа - общий объект: в них по флагу на каждый товар каталога,
+    // и на большом каталоге копия у каждого покупателя заняла бы гигабайты
+    public static List<Customer> createCustomerPool(int count, ProductCatalog catalog, SplittableRandom random) {
+        Map<CustomerPreferences.PreferenceType, CustomerPreferences> preferencesByType =
+                new EnumMap<>(CustomerPreferences.PreferenceType.class);
+        List<Customer> customers = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + " #" + (i + 1);
+            double baseBudget = 1200 + random.nextDouble() * 1800;
+
+            CustomerPreferences.PreferenceType prefType = PREFERENCE_TYPES[
+                    random.nextInt(PREFERENCE_TYPES.length)
+                    ];
+            CustomerPreferences preferences = preferencesByType.computeIfAbsent(prefType,
+                    type -> new CustomerPreferences(type, catalog));
+            DiscountCard card = random.nextInt(10) < 7 ? new DiscountCard("CARD-" + (i + 1)) : null;
+
+            customers.add(new Customer("CUST_" + (i + 1), name, baseBudget, preferences, card, random));
+        }
+
+        return customers;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package supermarket.customer;
 
+import supermarket.product.Product;
 import supermarket.product.ProductCatalog;
 import java.util.*;
 
@@ -24,13 +25,23 @@ public class CustomerPreferences {
     }
 
     private final PreferenceType preferenceType;
-    private final Random random;
     private final Set<String> favoriteProductIds;
+    // Битовое множество любимых товаров по порядковому номеру в каталоге, по 64 товара в слове;
+    // кандидаты на покупку - пословное И с множеством товаров в наличии (SalesHall.getInStockWord)
+    private final long[] favoriteWords;
+    // Только ненулевые слова: любимых товаров единицы, и на большом каталоге И идет по ним
+    private int[] favoriteWordIndexes = new int[0];
+    private final ProductCatalog catalog;
 
     public CustomerPreferences(PreferenceType preferenceType) {
+        this(preferenceType, ProductCatalog.getDefault());
+    }
+
+    public CustomerPreferences(PreferenceType preferenceType, ProductCatalog catalog) {
         this.preferenceType = preferenceType;
-        this.random = new Random();
         this.favoriteProductIds = new HashSet<>();
+        this.favoriteWords = new long[(catalog.getSkuCount() + 63) >>> 6];
+        this.catalog = catalog;
 
         initializeFavoriteProducts();
     }
@@ -79,8 +90,23 @@ public class CustomerPreferences {
 
     private void addFavoriteProducts(String... productIds) {
         for (String productId : productIds) {
-            if (ProductCatalog.findProductById(productId) != null) {
+            int ordinal = catalog.getOrdinal(productId);
+            if (ordinal >= 0) {
                 favoriteProductIds.add(productId);
+                favoriteWords[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        int count = 0;
+        for (long word : favoriteWords) {
+            if (word != 0) {
+                count++;
+            }
+        }
+        favoriteWordIndexes = new int[count];
+        count = 0;
+        for (int i = 0; i < favoriteWords.length; i++) {
+            if (favoriteWords[i] != 0) {
+                favoriteWordIndexes[count++] = i;
             }
         }
     }
@@ -89,6 +115,36 @@ public class CustomerPreferences {
         return favoriteProductIds.contains(productId);
     }
 
+    public boolean isFavoriteProduct(int skuOrdinal) {
+        return skuOrdinal >= 0 && (skuOrdinal >>> 6) < favoriteWords.length
+                && (favoriteWords[skuOrdinal >>> 6] & (1L << skuOrdinal)) != 0;
+    }
+
+    // Ненулевые слова множества любимых товаров: i-е слово покрывает номера
+    // с 64 * getFavoriteWordIndex(i) по 64 * getFavoriteWordIndex(i) + 63
+    public int getFavoriteWordCount() {
+        return favoriteWordIndexes.length;
+    }
+
+    public int getFavoriteWordIndex(int i) {
+        return favoriteWordIndexes[i];
+    }
+
+    public long getFavoriteWord(int i) {
+        return favoriteWords[favoriteWordIndexes[i]];
+    }
+
+    // Каталог, по номерам которого построено множество любимых товаров
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    // Партии со склада и из зала уже несут номер товара; без номера - поиск по идентификатору
+    public boolean isFavoriteProduct(Product product) {
+        int ordinal = product.getSkuOrdinal();
+        return ordinal >= 0 ? isFavoriteProduct(ordinal) : isFavoriteProduct(product.getId());
+    }
+
     public Set<String> getFavoriteProductIds() {
         return new HashSet<>(favoriteProductIds);
     }
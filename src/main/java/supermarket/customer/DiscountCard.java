@@ -1,25 +1,44 @@
 package supermarket.customer;
 
-import java.util.Random;
+import supermarket.product.Money;
+import supermarket.random.SimulationRandom;
+
+import java.util.SplittableRandom;
 
 public class DiscountCard {
     private String cardId;
     private int points;
-    private Random random;
 
     public DiscountCard(String cardId) {
+        this(cardId, 50);
+    }
+
+    public DiscountCard(String cardId, int points) {
         this.cardId = cardId;
-        this.points = 50;
-        this.random = new Random();
+        this.points = points;
     }
 
     public void addPoints(double purchaseAmount) {
-        this.points += (int)(purchaseAmount * 0.05); // 5% от суммы в баллы
+        addPoints(Money.ofRubles(purchaseAmount));
+    }
+
+    // Сумма покупки в копейках; 5% от суммы в баллы, дробная часть балла отбрасывается
+    public void addPoints(long purchaseKopecks) {
+        this.points += (int) (Money.share(purchaseKopecks, 500) / Money.KOPECKS_PER_RUBLE);
     }
 
     public double usePoints(double purchaseAmount) {
+        return usePoints(purchaseAmount, SimulationRandom.threadLocal());
+    }
+
+    public double usePoints(double purchaseAmount, SplittableRandom random) {
+        return usePoints(Money.ofRubles(purchaseAmount), random);
+    }
+
+    // Сколько баллов (рублей) списано с покупки на сумму в копейках
+    public int usePoints(long purchaseKopecks, SplittableRandom random) {
         if (points > 0 && random.nextDouble() < 0.3) { // 30% шанс потратить
-            int maxPoints = Math.min(points, (int)(purchaseAmount * 0.7));
+            int maxPoints = Math.min(points, (int) (Money.share(purchaseKopecks, 7000) / Money.KOPECKS_PER_RUBLE));
             int pointsToUse = random.nextInt(maxPoints + 1);
 
             if (pointsToUse > 0) {
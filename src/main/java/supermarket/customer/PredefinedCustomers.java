@@ -1,89 +1,109 @@
 package supermarket.customer;
 
+import supermarket.output.SimulationOutput;
+import supermarket.product.ProductCatalog;
+import supermarket.random.SimulationRandom;
+
 import java.util.*;
 
 public class PredefinedCustomers {
 
     public static List<Customer> getPredefinedCustomers() {
+        return getPredefinedCustomers(SimulationOutput.defaultOutput());
+    }
+
+    public static List<Customer> getPredefinedCustomers(SimulationOutput output) {
+        return getPredefinedCustomers(output, SimulationRandom.threadLocal());
+    }
+
+    // Бюджеты покупателей берутся из переданного генератора
+    public static List<Customer> getPredefinedCustomers(SimulationOutput output, SplittableRandom random) {
+        return getPredefinedCustomers(output, random, ProductCatalog.getDefault());
+    }
+
+    public static List<Customer> getPredefinedCustomers(SimulationOutput output, SplittableRandom random,
+                                                        ProductCatalog catalog) {
         List<Customer> customers = new ArrayList<>();
 
         // 1. Бюджетные (всегда с картами)
         customers.add(new Customer("CUST001", "Анна Иванова",
                 CustomerPreferences.PreferenceType.BUDGET,
-                new DiscountCard("CARD-001")));
+                new DiscountCard("CARD-001"), random, catalog));
         customers.add(new Customer("CUST002", "Сергей Петров",
                 CustomerPreferences.PreferenceType.BUDGET,
-                new DiscountCard("CARD-002")));
+                new DiscountCard("CARD-002"), random, catalog));
         customers.add(new Customer("CUST003", "Ольга Смирнова",
                 CustomerPreferences.PreferenceType.BUDGET,
-                new DiscountCard("CARD-003")));
+                new DiscountCard("CARD-003"), random, catalog));
 
         // 2. Здоровое питание
         customers.add(new Customer("CUST004", "Иван Козлов",
                 CustomerPreferences.PreferenceType.HEALTHY,
-                new DiscountCard("CARD-004")));
+                new DiscountCard("CARD-004"), random, catalog));
         customers.add(new Customer("CUST005", "Елена Васнецова",
                 CustomerPreferences.PreferenceType.HEALTHY,
-                null));
+                null, random, catalog));
 
         // 3. Семейные
         customers.add(new Customer("CUST006", "Дмитрий Орлов",
                 CustomerPreferences.PreferenceType.FAMILY,
-                null));
+                null, random, catalog));
         customers.add(new Customer("CUST007", "Мария Сидорова",
                 CustomerPreferences.PreferenceType.FAMILY,
-                new DiscountCard("CARD-007")));
+                new DiscountCard("CARD-007"), random, catalog));
 
         // 4. Гурманы
         customers.add(new Customer("CUST008", "Александр Волков",
                 CustomerPreferences.PreferenceType.GOURMET,
-                new DiscountCard("CARD-008")));
+                new DiscountCard("CARD-008"), random, catalog));
         customers.add(new Customer("CUST009", "Виктория Зайцева",
                 CustomerPreferences.PreferenceType.GOURMET,
-                new DiscountCard("CARD-009")));
+                new DiscountCard("CARD-009"), random, catalog));
 
         // 5. Студенты
         customers.add(new Customer("CUST010", "Роман Морозов",
                 CustomerPreferences.PreferenceType.STUDENT,
-                new DiscountCard("CARD-010")));
+                new DiscountCard("CARD-010"), random, catalog));
         customers.add(new Customer("CUST011", "Татьяна Лебедева",
                 CustomerPreferences.PreferenceType.STUDENT,
-                null));
+                null, random, catalog));
 
         // 6. Вегетарианцы (добавляем в CustomerPreferences.PreferenceType)
         customers.add(new Customer("CUST012", "Андрей Гусев",
                 CustomerPreferences.PreferenceType.VEGETARIAN,
-                new DiscountCard("CARD-012")));
+                new DiscountCard("CARD-012"), random, catalog));
         customers.add(new Customer("CUST013", "Ксения Воробьева",
                 CustomerPreferences.PreferenceType.VEGETARIAN,
-                null));
+                null, random, catalog));
 
         // 7. Остальные
         customers.add(new Customer("CUST014", "Павел Соколов",
                 CustomerPreferences.PreferenceType.FAMILY,
-                new DiscountCard("CARD-014")));
+                new DiscountCard("CARD-014"), random, catalog));
         customers.add(new Customer("CUST015", "Юлия Попова",
                 CustomerPreferences.PreferenceType.HEALTHY,
-                null));
+                null, random, catalog));
         customers.add(new Customer("CUST016", "Николай Федоров",
                 CustomerPreferences.PreferenceType.BUDGET,
-                new DiscountCard("CARD-016")));
+                new DiscountCard("CARD-016"), random, catalog));
         customers.add(new Customer("CUST017", "Екатерина Михайлова",
                 CustomerPreferences.PreferenceType.FAMILY,
-                null));
+                null, random, catalog));
         customers.add(new Customer("CUST018", "Георгий Новиков",
                 CustomerPreferences.PreferenceType.GOURMET,
-                new DiscountCard("CARD-018")));
+                new DiscountCard("CARD-018"), random, catalog));
         customers.add(new Customer("CUST019", "София Козлова",
                 CustomerPreferences.PreferenceType.VEGETARIAN,
-                null));
+                null, random, catalog));
         customers.add(new Customer("CUST020", "Артем Иванов",
                 CustomerPreferences.PreferenceType.STUDENT,
-                new DiscountCard("CARD-020")));
+                new DiscountCard("CARD-020"), random, catalog));
 
-        System.out.println("\n👥 Создан пул из " + customers.size() + " покупателей:");
-        for (Customer customer : customers) {
-            System.out.println("   • " + customer.toString());
+        if (output.isVerbose()) {
+            output.verbose("\n👥 Создан пул из " + customers.size() + " покупателей:");
+            for (Customer customer : customers) {
+                output.verbose("   • " + customer.toString());
+            }
         }
 
         return customers;
@@ -1,51 +1,171 @@
 package supermarket.customer;
 
-import java.util.HashMap;
-import java.util.Map;
+import supermarket.product.BatchIds;
+import supermarket.product.Product;
+import supermarket.product.Quantity;
+import supermarket.storage.SalesHall;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Корзина покупателя: товар и количество (Quantity - штуки или граммы), без привязки к партии -
+// из каких партий продать, решает зал при оформлении (FEFO). Строки хранятся в параллельных массивах,
+// корзина очищается и переиспользуется покупателем, поэтому покупка не создает объектов на строку.
 public class ShoppingCart {
-    private final Map<String, CartItem> items;
+    private Product[] samples = new Product[4]; // партия, по которой товар выбран: название, тип, цена
+    private String[] productIds = new String[4];
+    private long[] amounts = new long[4];
+    private long[] baseCosts = new long[4];     // стоимость строки по базовым ценам проданных партий, после checkout
+    private long[] costs = new long[4];         // стоимость строки со скидками партий, после checkout
+    private int size;
 
-    public ShoppingCart() {
-        this.items = new HashMap<>();
+    // Товар уже в корзине - количество прибавляется к его строке
+    public void add(Product product, long amount) {
+        for (int i = 0; i < size; i++) {
+            if (productIds[i].equals(product.getId())) {
+                amounts[i] += amount;
+                return;
+            }
+        }
+        if (size == productIds.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+            productIds = Arrays.copyOf(productIds, size * 2);
+            amounts = Arrays.copyOf(amounts, size * 2);
+            baseCosts = Arrays.copyOf(baseCosts, size * 2);
+            costs = Arrays.copyOf(costs, size * 2);
+        }
+        samples[size] = product;
+        productIds[size] = product.getId();
+        amounts[size] = amount;
+        baseCosts[size] = 0;
+        costs[size] = 0;
+        size++;
     }
 
+    // Прежний интерфейс: строка по идентификатору, штуки или килограммы. Партию теперь выбирает зал
+    // при оформлении (FEFO), поэтому метка партии не используется; getProduct(i) у такой строки - null
+    @Deprecated
     public void addItem(String productId, int quantity, double weight, String batchId) {
-        items.put(productId, new CartItem(productId, quantity, weight, batchId));
+        addItem(productId, quantity, weight, BatchIds.find(batchId));
     }
 
+    @Deprecated
+    public void addItem(String productId, int quantity, double weight, long batchNumber) {
+        removeItem(productId);
+        if (size == productIds.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+            productIds = Arrays.copyOf(productIds, size * 2);
+            amounts = Arrays.copyOf(amounts, size * 2);
+            baseCosts = Arrays.copyOf(baseCosts, size * 2);
+            costs = Arrays.copyOf(costs, size * 2);
+        }
+        samples[size] = null;
+        productIds[size] = productId;
+        amounts[size] = quantity > 0 ? Quantity.ofUnits(quantity) : Quantity.ofKilograms(weight);
+        baseCosts[size] = 0;
+        costs[size] = 0;
+        size++;
+    }
+
+    @Deprecated
     public void removeItem(String productId) {
-        items.remove(productId);
+        for (int i = 0; i < size; i++) {
+            if (productIds[i].equals(productId)) {
+                int tail = size - i - 1;
+                System.arraycopy(samples, i + 1, samples, i, tail);
+                System.arraycopy(productIds, i + 1, productIds, i, tail);
+                System.arraycopy(amounts, i + 1, amounts, i, tail);
+                System.arraycopy(baseCosts, i + 1, baseCosts, i, tail);
+                System.arraycopy(costs, i + 1, costs, i, tail);
+                size--;
+                samples[size] = null;
+                productIds[size] = null;
+                return;
+            }
+        }
+    }
+
+    // Количество товара, уже положенное в корзину
+    public long getAmount(String productId) {
+        for (int i = 0; i < size; i++) {
+            if (productIds[i].equals(productId)) {
+                return amounts[i];
+            }
+        }
+        return 0;
+    }
+
+    // Оформление: все строки списываются с полок зала одной атомарной продажей, либо ни одна.
+    // После успешного оформления getBaseCost(i) и getCost(i) - стоимость строки по ценам тех партий,
+    // из которых она продана, без скидок и со скидками
+    public boolean checkout(SalesHall salesHall) {
+        return checkout(salesHall, Long.MAX_VALUE);
+    }
+
+    // То же, но корзина дороже maxBaseTotal (по базовым ценам проданных партий) не оформляется
+    public boolean checkout(SalesHall salesHall, long maxBaseTotal) {
+        return salesHall.sell(productIds, amounts, size, maxBaseTotal, baseCosts, costs);
     }
 
     public void clear() {
-        items.clear();
+        Arrays.fill(samples, 0, size, null);
+        Arrays.fill(productIds, 0, size, null);
+        size = 0;
     }
 
-    public Map<String, CartItem> getItems() {
-        return new HashMap<>(items);
+    public int size() {
+        return size;
     }
 
     public boolean isEmpty() {
-        return items.isEmpty();
+        return size == 0;
+    }
+
+    public Product getProduct(int index) {
+        return samples[index];
+    }
+
+    public long getAmount(int index) {
+        return amounts[index];
+    }
+
+    // Стоимость строки по базовым ценам проданных партий, без скидок; после checkout
+    public long getBaseCost(int index) {
+        return baseCosts[index];
+    }
+
+    public long getCost(int index) {
+        return costs[index];
+    }
+
+    // Снимок строк для отображения и проверок; при покупке не используется
+    public List<CartItem> getItems() {
+        List<CartItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new CartItem(productIds[i], amounts[i], baseCosts[i], costs[i]));
+        }
+        return Collections.unmodifiableList(items);
     }
 
     public static class CartItem {
         private final String productId;
-        private final int quantity;
-        private final double weight;
-        private final String batchId;
+        private final long amount;
+        private final long baseCost;
+        private final long cost;
 
-        public CartItem(String productId, int quantity, double weight, String batchId) {
+        public CartItem(String productId, long amount, long baseCost, long cost) {
             this.productId = productId;
-            this.quantity = quantity;
-            this.weight = weight;
-            this.batchId = batchId;
+            this.amount = amount;
+            this.baseCost = baseCost;
+            this.cost = cost;
         }
 
         public String getProductId() { return productId; }
-        public int getQuantity() { return quantity; }
-        public double getWeight() { return weight; }
-        public String getBatchId() { return batchId; }
+        public long getAmount() { return amount; }
+        public double getQuantity() { return Quantity.toDouble(amount); }
+        public long getBaseCostKopecks() { return baseCost; }
+        public long getCostKopecks() { return cost; }
     }
-}
\ No newline at end of file
+}
@@ -4,13 +4,24 @@ import java.time.LocalDate;
 
 public class Event {
     private final EventType type;
-    private final LocalDate date;
+    private final long time; // момент симуляции, см. SimulationTime
     private final String description;
+    private final int number; // номер (например, покупателя); 0 - без номера
+    long sequence; // порядок постановки в очередь, назначается EventQueue
 
-    public Event(EventType type, LocalDate date, String description, Object data) {
+    public Event(EventType type, long time, String description, int number) {
         this.type = type;
-        this.date = date;
+        this.time = time;
         this.description = description;
+        this.number = number;
+    }
+
+    public Event(EventType type, long time, String description) {
+        this(type, time, description, 0);
+    }
+
+    public Event(EventType type, LocalDate date, String description, Object data) {
+        this(type, SimulationTime.startOfDay(date), description, 0);
     }
 
     public Event(EventType type, LocalDate date, String description) {
@@ -18,11 +29,22 @@ public class Event {
     }
 
     public EventType getType() { return type; }
-    public LocalDate getDate() { return date; }
-    public String getDescription() { return description; }
+    public long getTime() { return time; }
+    public long getEpochDay() { return SimulationTime.epochDay(time); }
+    public int getMinuteOfDay() { return SimulationTime.minuteOfDay(time); }
+    public LocalDate getDate() { return SimulationTime.toDate(time); }
+    public int getNumber() { return number; }
+
+    // Описание без номера
+    public String getBaseDescription() { return description; }
+
+    // Строка собирается только по запросу, чтобы не создавать её для каждого события
+    public String getDescription() {
+        return number > 0 ? description + " #" + number : description;
+    }
 
     @Override
     public String toString() {
-        return "[" + date + "] " + type + ": " + description;
+        return "[" + getDate() + " " + SimulationTime.formatClock(time) + "] " + type + ": " + getDescription();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,7 @@
+package supermarket.event;
+
+// Обработчик событий одного типа. Регистрируется в EventDispatcher.
+@FunctionalInterface
+public interface EventHandler {
+    void handle(Event event);
+}
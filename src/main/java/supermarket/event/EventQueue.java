@@ -1,86 +1,192 @@
 package supermarket.event;
 
+import supermarket.random.RandomStream;
+import supermarket.random.SimulationRandom;
+
 import java.time.LocalDate;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
 
+// Планировщик событий: двоичная куча на массиве, упорядоченная по времени события.
+// При равном времени события выходят в порядке постановки (FIFO).
+// Вставка и извлечение - O(log n), без узлов-обёрток на каждое событие.
 public class EventQueue {
-    private final Queue<Event> events;
-    private final Random random;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Расписание дня (минуты от полуночи)
+    public static final int REMOVE_EXPIRED_MINUTE = 7 * 60;
+    public static final int SET_DISCOUNT_MINUTE = 7 * 60 + 30;
+    public static final int DELIVERY_MINUTE = 8 * 60;
+    public static final int TRANSFER_MINUTE = 8 * 60 + 30;
+    public static final int OPENING_MINUTE = 9 * 60;
+    public static final int CHECK_STOCK_MINUTE = 15 * 60;
+    public static final int CLOSING_MINUTE = 22 * 60;
+    public static final int AUTO_RESTOCK_MINUTE = 22 * 60 + 30;
+
+    private Event[] heap;
+    private int size;
+    private long nextSequence;
+    private final SimulationRandom randoms;
     private LocalDate currentDate;
 
     public EventQueue(LocalDate startDate) {
-        this.events = new LinkedList<>();
-        this.random = new Random();
+        this(startDate, SimulationRandom.unseeded());
+    }
+
+    public EventQueue(LocalDate startDate, SimulationRandom randoms) {
+        this.heap = new Event[INITIAL_CAPACITY];
+        this.size = 0;
+        this.nextSequence = 0;
+        this.randoms = randoms;
         this.currentDate = startDate;
     }
 
     public void generateDailyEvents(int customerCount) {
-        addEvent(new Event(EventType.REMOVE_EXPIRED, currentDate,
-                "Ежедневная утилизация просроченных товаров"));
+        SplittableRandom random = randoms.get(RandomStream.EVENTS);
+        long day = currentDate.toEpochDay();
+
+        schedule(EventType.REMOVE_EXPIRED, day, REMOVE_EXPIRED_MINUTE,
+                "Ежедневная утилизация просроченных товаров");
 
-        addEvent(new Event(EventType.SET_DISCOUNT, currentDate,
-                "Проверка скидок на товары с истекающим сроком"));
+        schedule(EventType.SET_DISCOUNT, day, SET_DISCOUNT_MINUTE,
+                "Проверка скидок на товары с истекающим сроком");
 
         if (random.nextDouble() < 0.7) {
-            addEvent(new Event(EventType.DELIVERY, currentDate,
-                    "Завоз новых товаров на склад"));
+            schedule(EventType.DELIVERY, day, DELIVERY_MINUTE,
+                    "Завоз новых товаров на склад");
         }
 
-        addEvent(new Event(EventType.TRANSFER_TO_HALL, currentDate,
-                "Товаровед перемещает товары в торговый зал"));
-
+        schedule(EventType.TRANSFER_TO_HALL, day, TRANSFER_MINUTE,
+                "Товаровед перемещает товары в торговый зал");
 
+        // Покупатели приходят в случайное время в часы работы магазина
         for (int i = 0; i < customerCount; i++) {
-            addEvent(new Event(EventType.PURCHASE, currentDate,
-                    "Покупка покупателя #" + (i + 1)));
+            addEvent(new Event(EventType.PURCHASE, SimulationTime.of(day, randomOpenMinute(random)),
+                    "Покупка покупателя", i + 1));
         }
 
-        addEvent(new Event(EventType.CHECK_STOCK, currentDate,
-                "Товаровед проверяет остатки товаров"));
+        schedule(EventType.CHECK_STOCK, day, CHECK_STOCK_MINUTE,
+                "Товаровед проверяет остатки товаров");
 
-        addEvent(new Event(EventType.AUTO_RESTOCK, currentDate,
-                "Автоматическое пополнение торгового зала"));
+        schedule(EventType.AUTO_RESTOCK, day, AUTO_RESTOCK_MINUTE,
+                "Автоматическое пополнение торгового зала");
     }
 
     public void addRandomEvents() {
+        SplittableRandom random = randoms.get(RandomStream.EVENTS);
+        long day = currentDate.toEpochDay();
+
         if (random.nextDouble() < 0.25) {
-            addEvent(new Event(EventType.SET_DISCOUNT, currentDate,
-                    "Случайные акционные скидки"));
+            schedule(EventType.SET_DISCOUNT, day, randomOpenMinute(random),
+                    "Случайные акционные скидки");
         }
 
         if (random.nextDouble() < 0.2) {
-            addEvent(new Event(EventType.DELIVERY, currentDate,
-                    "Специальный завоз товаров"));
+            schedule(EventType.DELIVERY, day, randomOpenMinute(random),
+                    "Специальный завоз товаров");
         }
     }
 
+    private static int randomOpenMinute(SplittableRandom random) {
+        return OPENING_MINUTE + random.nextInt(CLOSING_MINUTE - OPENING_MINUTE);
+    }
+
     public void advanceDay() {
         currentDate = currentDate.plusDays(1);
 
-        int customerCount = 2 + random.nextInt(5);
+        int customerCount = 2 + randoms.get(RandomStream.EVENTS).nextInt(5);
         generateDailyEvents(customerCount);
         addRandomEvents();
     }
 
+    public void schedule(EventType type, long epochDay, int minuteOfDay, String description) {
+        addEvent(new Event(type, SimulationTime.of(epochDay, minuteOfDay), description));
+    }
+
     public void addEvent(Event event) {
-        events.offer(event);
+        event.sequence = nextSequence++;
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        siftUp(size++, event);
     }
 
     public Event getNextEvent() {
-        return events.poll();
+        if (size == 0) {
+            return null;
+        }
+        Event first = heap[0];
+        Event last = heap[--size];
+        heap[size] = null;
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return first;
+    }
+
+    public Event peekNextEvent() {
+        return size > 0 ? heap[0] : null;
     }
 
     public boolean hasEvents() {
-        return !events.isEmpty();
+        return size > 0;
+    }
+
+    // Есть ли события строго раньше указанного момента
+    public boolean hasEventsBefore(long time) {
+        return size > 0 && heap[0].getTime() < time;
+    }
+
+    // Ожидающие события в порядке выдачи; очередь не меняется
+    public List<Event> getPendingEvents() {
+        Event[] copy = Arrays.copyOf(heap, size);
+        Arrays.sort(copy, (a, b) -> isBefore(a, b) ? -1 : (isBefore(b, a) ? 1 : 0));
+        return Arrays.asList(copy);
     }
 
     public int getQueueSize() {
-        return events.size();
+        return size;
     }
 
     public LocalDate getCurrentDate() {
         return currentDate;
     }
-}
\ No newline at end of file
+
+    private void siftUp(int index, Event event) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Event parentEvent = heap[parent];
+            if (!isBefore(event, parentEvent)) {
+                break;
+            }
+            heap[index] = parentEvent;
+            index = parent;
+        }
+        heap[index] = event;
+    }
+
+    private void siftDown(int index, Event event) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && isBefore(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!isBefore(heap[child], event)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = event;
+    }
+
+    private static boolean isBefore(Event a, Event b) {
+        if (a.getTime() != b.getTime()) {
+            return a.getTime() < b.getTime();
+        }
+        return a.sequence < b.sequence;
+    }
+}
@@ -0,0 +1,51 @@
+package supermarket.event;
+
+// Счетчики обработчика: число вызовов, суммарное и максимальное время, выделенная память.
+// Если JVM не умеет считать выделения по потокам, allocatedBytes остается -1.
+public class HandlerStats {
+    private final EventType type;
+    private long invocations;
+    private long totalNanos;
+    private long maxNanos;
+    private long allocatedBytes;
+
+    public HandlerStats(EventType type) {
+        this.type = type;
+        this.allocatedBytes = -1;
+    }
+
+    void record(long nanos, long bytes) {
+        invocations++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+        if (bytes >= 0) {
+            allocatedBytes = allocatedBytes < 0 ? bytes : allocatedBytes + bytes;
+        }
+    }
+
+    void reset() {
+        invocations = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        allocatedBytes = -1;
+    }
+
+    public EventType getType() { return type; }
+    public long getInvocations() { return invocations; }
+    public long getTotalNanos() { return totalNanos; }
+    public long getMaxNanos() { return maxNanos; }
+    public long getAllocatedBytes() { return allocatedBytes; }
+
+    public double getMeanNanos() {
+        return invocations > 0 ? (double) totalNanos / invocations : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-16s вызовов: %7d | всего: %9.3f мс | среднее: %8.1f мкс | макс: %8.1f мкс | выделено: %s",
+                type, invocations, totalNanos / 1e6, getMeanNanos() / 1e3, maxNanos / 1e3,
+                allocatedBytes < 0 ? "н/д" : (allocatedBytes / 1024) + " КБ");
+    }
+}
@@ -0,0 +1,45 @@
+package supermarket.event;
+
+import java.time.LocalDate;
+
+// Момент симуляции хранится как одно число: минуты с начала эпохи (epochDay * 1440 + минута дня).
+// Так события сравниваются одной операцией над long, без создания LocalDate/LocalDateTime.
+public class SimulationTime {
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    public static long of(LocalDate date, int minuteOfDay) {
+        return of(date.toEpochDay(), minuteOfDay);
+    }
+
+    public static long of(long epochDay, int minuteOfDay) {
+        return epochDay * MINUTES_PER_DAY + minuteOfDay;
+    }
+
+    public static long of(long epochDay, int hour, int minute) {
+        return of(epochDay, hour * 60 + minute);
+    }
+
+    public static long startOfDay(LocalDate date) {
+        return of(date, 0);
+    }
+
+    public static long epochDay(long time) {
+        return Math.floorDiv(time, MINUTES_PER_DAY);
+    }
+
+    public static int minuteOfDay(long time) {
+        return Math.floorMod(time, MINUTES_PER_DAY);
+    }
+
+    public static LocalDate toDate(long time) {
+        return LocalDate.ofEpochDay(epochDay(time));
+    }
+
+    // Время в формате ЧЧ:ММ (только для вывода)
+    public static String formatClock(long time) {
+        int minute = minuteOfDay(time);
+        int hours = minute / 60;
+        int minutes = minute % 60;
+        return (hours < 10 ? "0" : "") + hours + ":" + (minutes < 10 ? "0" : "") + minutes;
+    }
+}
@@ -0,0 +1,258 @@
+package supermarket.journal;
+
+import supermarket.event.Event;
+import supermarket.product.BatchIds;
+import supermarket.product.CountableProduct;
+import supermarket.product.Product;
+import supermarket.storage.StorageListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Журнал симуляции: файл только на дозапись, отображенный в память, с записями фиксированного размера.
+// Пишутся обработанные события и каждое изменение склада и зала. Идентификаторы товаров
+// и названия интернируются: строка попадает в журнал один раз (записями STRING), дальше - номер.
+// Партия пишется своим 64-битным номером (BatchIds), 0 - запись не о партии.
+//
+// Формат (все записи по RECORD_SIZE байт, порядок байт big-endian):
+//   заголовок: 0 magic | 4 версия | 8 размер записи | 16 время начала | 24 длина данных с заголовком
+//              (пишется при flush и close; 0 - журнал не закрыт, конец ищется по нулевому типу)
+//   запись:    0 тип | 1 код (EventType / ProductType) | 2 флаги | 4 товар/номер | 8 название | 12 резерв
+//              16 время симуляции | 24 день производства | 28 срок годности
+//              32 цена, коп. | 40 количество (Quantity) | 48 скидка, б.п. | 56 партия
+// Нулевой тип записи означает конец журнала (хвост последнего отображенного участка).
+// Файл по длине данных не обрезается: на Windows обрезать файл с отображенными участками нельзя,
+// а снять отображение в Java можно только сборкой мусора.
+public class EventJournal implements StorageListener, AutoCloseable {
+    static final int MAGIC = 0x534D4A31; // "SMJ1"
+    static final int VERSION = 4;
+    static final int RECORD_SIZE = 64;
+    static final int HEADER_SIZE = RECORD_SIZE;
+    static final int LENGTH_OFFSET = 24;
+    static final int STRING_PAYLOAD = RECORD_SIZE - 8;
+    static final int FLAG_COUNTABLE = 1;
+    static final int FLAG_MORE = 1;
+    private static final long REGION_SIZE = 16384L * RECORD_SIZE; // 1 МБ
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<String, Integer> stringIds;
+    private final MappedByteBuffer header; // первый участок: в нем заголовок
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+    private long currentTime;
+    private long recordCount;
+    private boolean closed;
+
+    private EventJournal(Path path, FileChannel channel, long startTime) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.stringIds = new HashMap<>();
+        this.currentTime = startTime;
+        mapRegion(0);
+        this.header = region;
+
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, RECORD_SIZE);
+        header.putLong(16, startTime);
+        this.position = HEADER_SIZE;
+    }
+
+    // Новый журнал; существующий файл перезаписывается
+    public static EventJournal create(Path path, long startTime) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new EventJournal(path, channel, startTime);
+    }
+
+    // Событие задает время для всех следующих записей об изменениях склада и зала
+    public void recordEvent(Event event) {
+        currentTime = event.getTime();
+        int offset = nextRecord(JournalRecordType.EVENT);
+        region.put(offset + 1, (byte) event.getType().ordinal());
+        region.putInt(offset + 4, event.getNumber());
+        region.putLong(offset + 16, currentTime);
+    }
+
+    public void setCurrentTime(long time) {
+        this.currentTime = time;
+    }
+
+    @Override
+    public void warehouseProductAdded(Product product) {
+        writeProduct(JournalRecordType.WAREHOUSE_ADD, product);
+    }
+
+    @Override
+    public void warehouseBatchRemoved(String productId, long batchNumber) {
+        writeBatch(JournalRecordType.WAREHOUSE_REMOVE, productId, batchNumber, 0);
+    }
+
+    @Override
+    public void warehouseProductRemoved(String productId) {
+        writeBatch(JournalRecordType.WAREHOUSE_REMOVE_PRODUCT, productId, BatchIds.NONE, 0);
+    }
+
+    @Override
+    public void warehouseBatchDisposed(String productId, long batchNumber) {
+        writeBatch(JournalRecordType.WAREHOUSE_DISPOSE, productId, batchNumber, 0);
+    }
+
+    @Override
+    public void hallProductAdded(Product product) {
+        writeProduct(JournalRecordType.HALL_ADD, product);
+    }
+
+    @Override
+    public void hallBatchSold(String productId, long batchNumber) {
+        writeBatch(JournalRecordType.HALL_SALE, productId, batchNumber, 0);
+    }
+
+    // Та же запись о продаже, но с проданным количеством; у продажи всей партии количество 0
+    @Override
+    public void hallAmountSold(String productId, long batchNumber, long amount) {
+        int offset = writeBatch(JournalRecordType.HALL_SALE, productId, batchNumber, 0);
+        region.putLong(offset + 40, amount);
+    }
+
+    @Override
+    public void hallProductRemoved(String productId) {
+        writeBatch(JournalRecordType.HALL_REMOVE_PRODUCT, productId, BatchIds.NONE, 0);
+    }
+
+    @Override
+    public void hallBatchDisposed(String productId, long batchNumber) {
+        writeBatch(JournalRecordType.HALL_DISPOSE, productId, batchNumber, 0);
+    }
+
+    @Override
+    public void hallDiscountSet(String productId, long batchNumber, int discountBasisPoints) {
+        writeBatch(JournalRecordType.HALL_DISCOUNT, productId, batchNumber, discountBasisPoints);
+    }
+
+    private void writeProduct(JournalRecordType type, Product product) {
+        int productRef = intern(product.getId());
+        int nameRef = intern(product.getName());
+
+        int offset = nextRecord(type);
+        region.put(offset + 1, (byte) product.getType().ordinal());
+        region.putInt(offset + 4, productRef);
+        region.putInt(offset + 8, nameRef);
+        region.putLong(offset + 16, currentTime);
+        region.putInt(offset + 24, product.getProductionEpochDay());
+        region.putInt(offset + 28, product.getShelfLifeDays());
+        region.putLong(offset + 32, product.getPriceKopecks());
+        region.putLong(offset + 40, product.getAmount());
+        region.putLong(offset + 48, product.getDiscountBasisPoints());
+        region.putLong(offset + 56, product.getBatchNumber());
+
+        if (product instanceof CountableProduct) {
+            region.putShort(offset + 2, (short) FLAG_COUNTABLE);
+        }
+    }
+
+    private int writeBatch(JournalRecordType type, String productId, long batchNumber, int discountBasisPoints) {
+        int productRef = intern(productId);
+
+        int offset = nextRecord(type);
+        region.putInt(offset + 4, productRef);
+        region.putLong(offset + 16, currentTime);
+        region.putLong(offset + 48, discountBasisPoints);
+        region.putLong(offset + 56, batchNumber);
+        return offset;
+    }
+
+    private int intern(String value) {
+        Integer id = stringIds.get(value);
+        if (id != null) {
+            return id;
+        }
+        int newId = stringIds.size();
+        stringIds.put(value, newId);
+
+        // Длинные строки разбиваются на несколько записей, у всех кроме последней флаг FLAG_MORE
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int from = 0;
+        do {
+            int length = Math.min(STRING_PAYLOAD, bytes.length - from);
+            int offset = nextRecord(JournalRecordType.STRING);
+            region.put(offset + 1, (byte) (from + length < bytes.length ? FLAG_MORE : 0));
+            region.putShort(offset + 2, (short) length);
+            region.putInt(offset + 4, newId);
+            for (int i = 0; i < length; i++) {
+                region.put(offset + 8 + i, bytes[from + i]);
+            }
+            from += length;
+        } while (from < bytes.length);
+
+        return newId;
+    }
+
+    // Резервирует место под запись и возвращает ее смещение в текущем участке
+    private int nextRecord(JournalRecordType type) {
+        if (closed) {
+            throw new IllegalStateException("Журнал закрыт: " + path);
+        }
+        if (position + RECORD_SIZE > regionStart + REGION_SIZE) {
+            try {
+                mapRegion(position);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось расширить журнал " + path, e);
+            }
+        }
+        int offset = (int) (position - regionStart);
+        region.put(offset, type.getCode());
+        position += RECORD_SIZE;
+        recordCount++;
+        return offset;
+    }
+
+    private void mapRegion(long start) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, REGION_SIZE);
+        regionStart = start;
+    }
+
+    public void flush() {
+        header.putLong(LENGTH_OFFSET, position);
+        region.force();
+        header.force();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getInternedStringCount() {
+        return stringIds.size();
+    }
+
+    // Размер данных журнала в байтах (с заголовком)
+    public long getSize() {
+        return position;
+    }
+
+    // Сбрасывает данные на диск и записывает в заголовок длину данных
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        region = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,133 @@
+package supermarket.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Последовательное чтение журнала через отображение файла в память (только чтение).
+// Записи STRING разбираются внутри и пополняют таблицу строк; наружу отдаются остальные записи.
+public class JournalReader implements AutoCloseable {
+    private static final long REGION_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private long size; // конец данных: длина из заголовка, иначе размер файла
+    private final long startTime;
+    private final List<String> strings;
+    private final JournalRecord record;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+    private byte[] pending; // незавершенная строка из нескольких записей
+    private int pendingLength;
+
+    public JournalReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size() - channel.size() % EventJournal.RECORD_SIZE;
+        this.strings = new ArrayList<>();
+        this.record = new JournalRecord(strings);
+        this.pending = new byte[EventJournal.STRING_PAYLOAD * 2];
+
+        if (size < EventJournal.HEADER_SIZE) {
+            channel.close();
+            throw new IOException("Файл слишком мал для журнала: " + path);
+        }
+        mapRegion(0);
+        if (region.getInt(0) != EventJournal.MAGIC) {
+            channel.close();
+            throw new IOException("Файл не является журналом симуляции: " + path);
+        }
+        if (region.getInt(4) != EventJournal.VERSION || region.getInt(8) != EventJournal.RECORD_SIZE) {
+            channel.close();
+            throw new IOException("Неподдерживаемая версия журнала: " + path);
+        }
+        long length = region.getLong(EventJournal.LENGTH_OFFSET);
+        if (length >= EventJournal.HEADER_SIZE && length < size) {
+            size = length;
+        }
+        this.startTime = region.getLong(16);
+        this.position = EventJournal.HEADER_SIZE;
+    }
+
+    // Следующая запись или null в конце журнала
+    public JournalRecord next() throws IOException {
+        while (position < size) {
+            if (position + EventJournal.RECORD_SIZE > regionStart + region.capacity()) {
+                mapRegion(position);
+            }
+            int offset = (int) (position - regionStart);
+            JournalRecordType type = JournalRecordType.fromCode(region.get(offset));
+            if (type == null) {
+                position = size;
+                return null;
+            }
+            position += EventJournal.RECORD_SIZE;
+
+            if (type == JournalRecordType.STRING) {
+                readString(offset);
+                continue;
+            }
+
+            record.type = type;
+            record.code = region.get(offset + 1);
+            record.flags = region.getShort(offset + 2);
+            record.productRef = region.getInt(offset + 4);
+            record.nameRef = region.getInt(offset + 8);
+            record.time = region.getLong(offset + 16);
+            record.productionDay = region.getInt(offset + 24);
+            record.shelfLifeDays = region.getInt(offset + 28);
+            record.priceKopecks = region.getLong(offset + 32);
+            record.amount = region.getLong(offset + 40);
+            record.discountBasisPoints = (int) region.getLong(offset + 48);
+            record.batchNumber = region.getLong(offset + 56);
+            return record;
+        }
+        return null;
+    }
+
+    private void readString(int offset) throws IOException {
+        boolean more = (region.get(offset + 1) & EventJournal.FLAG_MORE) != 0;
+        int length = region.getShort(offset + 2);
+        int id = region.getInt(offset + 4);
+
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+        }
+        for (int i = 0; i < length; i++) {
+            pending[pendingLength + i] = region.get(offset + 8 + i);
+        }
+        pendingLength += length;
+
+        if (!more) {
+            if (id != strings.size()) {
+                throw new IOException("Нарушен порядок строк журнала: " + id + " вместо " + strings.size());
+            }
+            strings.add(new String(pending, 0, pendingLength, StandardCharsets.UTF_8));
+            pendingLength = 0;
+        }
+    }
+
+    private void mapRegion(long start) throws IOException {
+        long length = Math.min(REGION_SIZE, size - start);
+        region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        regionStart = start;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public int getStringCount() {
+        return strings.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
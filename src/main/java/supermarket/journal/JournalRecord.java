@@ -0,0 +1,92 @@
+package supermarket.journal;
+
+import supermarket.event.EventType;
+import supermarket.product.BatchIds;
+import supermarket.product.CountableProduct;
+import supermarket.product.Money;
+import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
+import supermarket.product.ProductDefinition;
+import supermarket.product.ProductType;
+import supermarket.product.Quantity;
+import supermarket.product.WeightableProduct;
+import java.util.List;
+
+// Прочитанная запись журнала. JournalReader переиспользует один объект для всех записей,
+// поэтому значения нужно забрать до следующего вызова next().
+public class JournalRecord {
+    private static final EventType[] EVENT_TYPES = EventType.values();
+    private static final ProductType[] PRODUCT_TYPES = ProductType.values();
+
+    private final List<String> strings;
+    JournalRecordType type;
+    int code;
+    int flags;
+    int productRef;
+    int nameRef;
+    long time;
+    int productionDay;
+    int shelfLifeDays;
+    long priceKopecks;
+    long amount; // Quantity
+    int discountBasisPoints;
+    long batchNumber;
+
+    JournalRecord(List<String> strings) {
+        this.strings = strings;
+    }
+
+    public JournalRecordType getType() { return type; }
+    public long getTime() { return time; }
+    public double getDiscount() { return Money.discountToFraction(discountBasisPoints); }
+    public int getDiscountBasisPoints() { return discountBasisPoints; }
+
+    public EventType getEventType() {
+        return EVENT_TYPES[code];
+    }
+
+    public int getEventNumber() {
+        return productRef;
+    }
+
+    public String getProductId() {
+        return strings.get(productRef);
+    }
+
+    // Количество в записи (Quantity); у продажи всей партии - 0
+    public long getAmount() {
+        return amount;
+    }
+
+    public long getBatchNumber() {
+        return batchNumber;
+    }
+
+    public String getBatchId() {
+        return batchNumber != BatchIds.NONE ? BatchIds.toText(batchNumber) : null;
+    }
+
+    // Партия в том виде, в каком она была передана складу или залу.
+    // Счетчик номеров сдвигается за номер из журнала, чтобы новые партии его не повторили
+    public Product toProduct() {
+        return toProduct(ProductCatalog.getDefault());
+    }
+
+    // Описание берется из каталога, если поля записи с ним совпадают
+    public Product toProduct(ProductCatalog catalog) {
+        String id = strings.get(productRef);
+        BatchIds.advancePast(batchNumber);
+        String name = strings.get(nameRef);
+        ProductDefinition definition = catalog.definitionOf(id, name, PRODUCT_TYPES[code], priceKopecks,
+                shelfLifeDays);
+
+        Product product;
+        if ((flags & EventJournal.FLAG_COUNTABLE) != 0) {
+            product = new CountableProduct(definition, batchNumber, productionDay, Quantity.toUnits(amount));
+        } else {
+            product = new WeightableProduct(definition, batchNumber, productionDay, amount);
+        }
+        product.setDiscountBasisPoints(discountBasisPoints);
+        return product;
+    }
+}
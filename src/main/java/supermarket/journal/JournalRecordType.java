@@ -0,0 +1,42 @@
+package supermarket.journal;
+
+// Типы записей журнала. Код 0 зарезервирован: нулевые байты в конце файла - признак конца журнала.
+public enum JournalRecordType {
+    STRING(1),                   // Фрагмент строки из таблицы интернированных строк
+    EVENT(2),                    // Обработанное событие симуляции
+    WAREHOUSE_ADD(3),            // Партия принята на склад
+    WAREHOUSE_REMOVE(4),         // Партия ушла со склада (в зал)
+    WAREHOUSE_REMOVE_PRODUCT(5), // Со склада убраны все партии товара
+    WAREHOUSE_DISPOSE(6),        // Просроченная партия утилизирована на складе
+    HALL_ADD(7),                 // Партия выставлена в зал
+    HALL_SALE(8),                // Продана партия целиком или ее часть (количество)
+    HALL_REMOVE_PRODUCT(9),      // Из зала убрана полка товара
+    HALL_DISPOSE(10),            // Просроченная партия утилизирована в зале
+    HALL_DISCOUNT(11);           // Изменена скидка на партию в зале
+
+    private static final JournalRecordType[] BY_CODE = new JournalRecordType[12];
+
+    static {
+        for (JournalRecordType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+
+    JournalRecordType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    // null для кода 0 (конец журнала)
+    public static JournalRecordType fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalStateException("Неизвестный тип записи журнала: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,98 @@
+package supermarket.journal;
+
+import supermarket.event.SimulationTime;
+import supermarket.storage.SalesHall;
+import supermarket.storage.Warehouse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+// Восстановление склада и зала по журналу: записи применяются теми же методами Warehouse и SalesHall,
+// что и в симуляции, но без генерации событий, выбора покупателей и случайных чисел.
+// Целевые склад и зал должны быть пустыми и без подключенного журнала.
+public class JournalReplayer {
+    private final Warehouse warehouse;
+    private final SalesHall salesHall;
+    private long eventsReplayed;
+    private long changesReplayed;
+    private long lastEventTime;
+
+    public JournalReplayer(Warehouse warehouse, SalesHall salesHall) {
+        this.warehouse = warehouse;
+        this.salesHall = salesHall;
+        this.lastEventTime = -1;
+    }
+
+    public void replay(Path path) throws IOException {
+        replayUntil(path, Long.MAX_VALUE);
+    }
+
+    // Применяет записи до первого события с временем >= untilTime (состояние на этот момент)
+    public void replayUntil(Path path, long untilTime) throws IOException {
+        try (JournalReader reader = new JournalReader(path)) {
+            LocalDate date = null;
+            long dateDay = Long.MIN_VALUE;
+
+            JournalRecord record;
+            while ((record = reader.next()) != null) {
+                long day = SimulationTime.epochDay(record.getTime());
+                if (day != dateDay) {
+                    dateDay = day;
+                    date = LocalDate.ofEpochDay(day);
+                }
+                if (record.getType() == JournalRecordType.EVENT) {
+                    if (record.getTime() >= untilTime) {
+                        return;
+                    }
+                    eventsReplayed++;
+                    lastEventTime = record.getTime();
+                    continue;
+                }
+                apply(record, date);
+                changesReplayed++;
+            }
+        }
+    }
+
+    private void apply(JournalRecord record, LocalDate date) {
+        switch (record.getType()) {
+            case WAREHOUSE_ADD:
+                warehouse.addProduct(record.toProduct(salesHall.getCatalog()), date);
+                break;
+            case WAREHOUSE_REMOVE:
+            case WAREHOUSE_DISPOSE:
+                warehouse.removeBatch(record.getProductId(), record.getBatchNumber());
+                break;
+            case WAREHOUSE_REMOVE_PRODUCT:
+                warehouse.removeProduct(record.getProductId());
+                break;
+            case HALL_ADD:
+                salesHall.addProduct(record.toProduct(salesHall.getCatalog()), date);
+                break;
+            case HALL_SALE:
+                if (record.getAmount() > 0) {
+                    salesHall.sellFromBatch(record.getProductId(), record.getBatchNumber(), record.getAmount());
+                } else {
+                    salesHall.removeBatch(record.getProductId(), record.getBatchNumber());
+                }
+                break;
+            case HALL_DISPOSE:
+                salesHall.disposeBatch(record.getProductId(), record.getBatchNumber());
+                break;
+            case HALL_REMOVE_PRODUCT:
+                salesHall.removeProduct(record.getProductId());
+                break;
+            case HALL_DISCOUNT:
+                salesHall.applyDiscountToBatch(record.getProductId(), record.getBatchNumber(),
+                        record.getDiscountBasisPoints());
+                break;
+            default:
+                throw new IllegalStateException("Неожиданная запись журнала: " + record.getType());
+        }
+    }
+
+    public long getEventsReplayed() { return eventsReplayed; }
+    public long getChangesReplayed() { return changesReplayed; }
+    public long getLastEventTime() { return lastEventTime; }
+}
@@ -0,0 +1,171 @@
+package supermarket.output;
+
+import java.io.PrintStream;
+import java.util.concurrent.locks.LockSupport;
+
+// Асинхронный вывод: строки кладутся в кольцевой буфер, а печатает их отдельный поток.
+// Поток симуляции не ждёт консоль; ждёт только если буфер переполнен.
+public class AsyncConsoleSink implements OutputSink {
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+
+    private final PrintStream out;
+    private final String[] buffer;
+    private final int mask;
+    private final Object producerLock = new Object();
+    // Монитор ожидания места в буфере: поток вывода будит ждущих после каждой напечатанной пачки
+    private final Object drained = new Object();
+    private final Thread writerThread;
+
+    private volatile long head; // следующая строка для печати (меняет только поток вывода)
+    private volatile long tail; // следующая свободная ячейка (меняют производители под producerLock)
+    private volatile boolean closed;
+    private volatile boolean writerStopped; // поток вывода завершился (в том числе с исключением)
+
+    public AsyncConsoleSink() {
+        this(System.out, DEFAULT_CAPACITY);
+    }
+
+    public AsyncConsoleSink(PrintStream out, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.out = out;
+        this.buffer = new String[size];
+        this.mask = size - 1;
+        this.writerThread = new Thread(this::drainLoop, "simulation-output");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void write(String line) {
+        synchronized (producerLock) {
+            // close() выставляет closed под этой же блокировкой: после проверки строка не потеряется
+            if (closed) {
+                return;
+            }
+            long position = tail;
+            // Буфер полон - ждём, пока поток вывода освободит место
+            if (!awaitHead(position - buffer.length + 1)) {
+                // Поток вывода остановился (исключение при печати) - печатаем сами
+                drainRemaining();
+                out.println(line);
+                return;
+            }
+            buffer[(int) position & mask] = line;
+            tail = position + 1;
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (!awaitHead(tail)) {
+            synchronized (producerLock) {
+                drainRemaining();
+            }
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        synchronized (producerLock) {
+            closed = true;
+        }
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Поток вывода мог остановиться раньше, не дописав буфер
+        if (!writerThread.isAlive()) {
+            synchronized (producerLock) {
+                drainRemaining();
+            }
+        }
+        out.flush();
+    }
+
+    // Ждёт без вращения, пока head не дойдёт до position; false - поток вывода остановился раньше
+    private boolean awaitHead(long position) {
+        if (head >= position) {
+            return true;
+        }
+        LockSupport.unpark(writerThread);
+        // Прерывание не отменяет ожидание: иначе строки печатали бы два потока сразу
+        boolean interrupted = false;
+        try {
+            synchronized (drained) {
+                while (head < position) {
+                    if (writerStopped) {
+                        return false;
+                    }
+                    try {
+                        drained.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void signalDrained() {
+        synchronized (drained) {
+            drained.notifyAll();
+        }
+    }
+
+    // Печать оставшихся строк в потоке вызова; только когда поток вывода уже не работает
+    private void drainRemaining() {
+        for (long position = head; position < tail; position++) {
+            int index = (int) position & mask;
+            out.println(buffer[index]);
+            buffer[index] = null;
+        }
+        head = tail;
+    }
+
+    private void drainLoop() {
+        try {
+            drainBatches();
+        } finally {
+            writerStopped = true;
+            signalDrained();
+        }
+    }
+
+    private void drainBatches() {
+        StringBuilder batch = new StringBuilder(4096);
+        while (true) {
+            long available = tail;
+            long position = head;
+
+            if (position == available) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            for (long p = position; p < available; p++) {
+                batch.append(buffer[(int) p & mask]).append(System.lineSeparator());
+            }
+            out.print(batch);
+            out.flush();
+            batch.setLength(0);
+            // Ячейки освобождаются только после печати: если печать упала, строки допечатает drainRemaining
+            for (long p = position; p < available; p++) {
+                buffer[(int) p & mask] = null;
+            }
+            head = available;
+            signalDrained();
+        }
+    }
+}
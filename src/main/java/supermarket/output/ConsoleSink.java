@@ -0,0 +1,26 @@
+package supermarket.output;
+
+import java.io.PrintStream;
+
+// Синхронный вывод в консоль (поведение по умолчанию)
+public class ConsoleSink implements OutputSink {
+    private final PrintStream out;
+
+    public ConsoleSink() {
+        this(System.out);
+    }
+
+    public ConsoleSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(String line) {
+        out.println(line);
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
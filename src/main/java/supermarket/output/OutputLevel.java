@@ -0,0 +1,7 @@
+package supermarket.output;
+
+public enum OutputLevel {
+    SILENT,     // Ничего не выводим (пакетные прогоны, бенчмарки)
+    SUMMARY,    // Только итоги дня и симуляции
+    VERBOSE     // Подробный журнал каждого действия
+}
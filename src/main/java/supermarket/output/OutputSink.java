@@ -0,0 +1,13 @@
+package supermarket.output;
+
+// Куда уходят строки вывода симуляции
+public interface OutputSink {
+    void write(String line);
+
+    default void flush() {
+    }
+
+    default void close() {
+        flush();
+    }
+}
@@ -0,0 +1,77 @@
+package supermarket.output;
+
+// Вывод симуляции с уровнями подробности.
+// Вызывающий код проверяет isVerbose()/isSummary() до сборки строки,
+// поэтому на отключённом уровне не тратится ни форматирование, ни конкатенация.
+public class SimulationOutput {
+    private static final SimulationOutput DEFAULT = new SimulationOutput(OutputLevel.VERBOSE, new ConsoleSink());
+    private static final SimulationOutput SILENT = new SimulationOutput(OutputLevel.SILENT, line -> { });
+
+    private final OutputLevel level;
+    private final OutputSink sink;
+    private final boolean verbose;
+    private final boolean summary;
+
+    public SimulationOutput(OutputLevel level, OutputSink sink) {
+        this.level = level;
+        this.sink = sink;
+        this.verbose = level == OutputLevel.VERBOSE;
+        this.summary = level != OutputLevel.SILENT;
+    }
+
+    // Подробный вывод в консоль - как было до появления уровней
+    public static SimulationOutput defaultOutput() {
+        return DEFAULT;
+    }
+
+    public static SimulationOutput silent() {
+        return SILENT;
+    }
+
+    public static SimulationOutput console(OutputLevel level) {
+        if (level == OutputLevel.SILENT) {
+            return SILENT;
+        }
+        return new SimulationOutput(level, new ConsoleSink());
+    }
+
+    // Подробный уровень пишем через кольцевой буфер, чтобы консоль не тормозила симуляцию
+    public static SimulationOutput async(OutputLevel level) {
+        if (level == OutputLevel.SILENT) {
+            return SILENT;
+        }
+        return new SimulationOutput(level, new AsyncConsoleSink());
+    }
+
+    public OutputLevel getLevel() {
+        return level;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    public boolean isSummary() {
+        return summary;
+    }
+
+    public void verbose(String line) {
+        if (verbose) {
+            sink.write(line);
+        }
+    }
+
+    public void summary(String line) {
+        if (summary) {
+            sink.write(line);
+        }
+    }
+
+    public void flush() {
+        sink.flush();
+    }
+
+    public void close() {
+        sink.close();
+    }
+}
@@ -0,0 +1,79 @@
+package supermarket.product;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Номера партий: 64-битный счетчик, общий для всех потоков и всех симуляций процесса,
+// поэтому два выданных номера не совпадают никогда. Внутри склада и зала партия - это число,
+// текст "BATCH_<16 hex-цифр>" строится из номера только для вывода.
+//
+// Номера из контрольной точки или журнала сдвигают счетчик (advancePast), чтобы новые партии
+// их не повторили. Произвольная строка (старые конструкторы товаров, тесты) переводится в номер
+// хешем без всякого хранения: старший бит у таких номеров всегда установлен, поэтому со счетчиком
+// они не пересекаются, а одна и та же строка всегда дает один номер. Сам текст метки хранит партия
+// (Product.getBatchId), класс ничего не запоминает и память процесса не растет.
+public final class BatchIds {
+    public static final long NONE = 0; // выдача начинается с 1
+    private static final String PREFIX = "BATCH_";
+    private static final int HEX_DIGITS = 16;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private BatchIds() {
+    }
+
+    public static long next() {
+        return sequence.incrementAndGet();
+    }
+
+    public static void advancePast(long batchNumber) {
+        sequence.accumulateAndGet(batchNumber, Math::max);
+    }
+
+    // Номер партии по тексту: "BATCH_<hex>" разбирается, любая другая метка хешируется
+    public static long of(String batchId) {
+        long number = parse(batchId);
+        return number != NONE ? number : labelNumber(batchId);
+    }
+
+    // То же, но null - NONE (поиск партии по тексту из внешних данных)
+    public static long find(String batchId) {
+        return batchId != null ? of(batchId) : NONE;
+    }
+
+    // Метка из текста, а не из номера: toText(of(label)) ее не восстановит
+    public static boolean isLabel(String batchId) {
+        return parse(batchId) == NONE;
+    }
+
+    public static String toText(long batchNumber) {
+        String hex = Long.toHexString(batchNumber).toUpperCase();
+        StringBuilder text = new StringBuilder(PREFIX.length() + HEX_DIGITS).append(PREFIX);
+        for (int i = hex.length(); i < HEX_DIGITS; i++) {
+            text.append('0');
+        }
+        return text.append(hex).toString();
+    }
+
+    private static long parse(String batchId) {
+        if (batchId.length() != PREFIX.length() + HEX_DIGITS || !batchId.startsWith(PREFIX)) {
+            return NONE;
+        }
+        try {
+            return Long.parseUnsignedLong(batchId.substring(PREFIX.length()), 16);
+        } catch (NumberFormatException e) {
+            return NONE;
+        }
+    }
+
+    // FNV-1a по символам метки; совпадение у двух разных меток за время жизни тестов и старых данных
+    // практически исключено (63 бита)
+    private static long labelNumber(String label) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < label.length(); i++) {
+            hash = (hash ^ label.charAt(i)) * FNV_PRIME;
+        }
+        return hash | Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,594 @@
+package supermarket.product;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Каталог товаров в файле: CSV или компактный двоичный формат, формат определяется по сигнатуре.
+//
+// CSV (UTF-8): id,name,type,price[,shelfLifeDays] - по строке на товар; первая строка,
+// начинающаяся с "id,", считается заголовком. Название с запятой или кавычкой берется
+// в кавычки, кавычка внутри удваивается. type - имя ProductType, price - рубли с копейками
+// через точку, без shelfLifeDays срок берется по типу.
+//
+// Двоичный формат (big-endian): сигнатура, версия, число товаров, затем товары:
+//   type (1 байт) | shelfLifeDays (2 байта, 0 - по типу) | цена в копейках (8 байт) |
+//   id и name - длина (2 байта) и байты UTF-8.
+//
+// Файл отображается в память и разбирается прямо по байтам, без промежуточных строк.
+// Загрузка только проверяет записи и запоминает их смещения; описание товара создается при первом
+// обращении к нему, поэтому каталог на миллион товаров загружается без миллиона объектов.
+// Отображение одним буфером ограничивает файл 2 ГБ - это десятки миллионов товаров.
+public final class CatalogFile {
+    private static final int MAGIC = 0x534D4354; // "SMCT"
+    private static final int VERSION = 1;
+    private static final int BINARY_HEADER_SIZE = 12;
+    private static final ProductType[] TYPES = ProductType.values();
+    private static final byte[][] TYPE_NAMES = new byte[TYPES.length][];
+    private static final byte[] CSV_HEADER = "id,".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        for (ProductType type : TYPES) {
+            TYPE_NAMES[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private CatalogFile() {
+    }
+
+    public static ProductCatalog load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Каталог " + path + " больше 2 ГБ");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            Parser parser = size >= BINARY_HEADER_SIZE && buffer.getInt(0) == MAGIC
+                    ? new BinaryParser(buffer)
+                    : new CsvParser(buffer);
+            return load(parser); // отображение остается действительным и после закрытия канала
+        }
+    }
+
+    // Двоичный каталог из памяти (например, из контрольной точки) - с теми же проверками, что и файл
+    public static ProductCatalog loadBinary(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < BINARY_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Это не двоичный каталог");
+        }
+        return load(new BinaryParser(buffer));
+    }
+
+    private static ProductCatalog load(Parser parser) throws IOException {
+        parser.scan();
+        parser.releaseIds();
+        return new ProductCatalog(parser);
+    }
+
+    public static void writeCsv(ProductCatalog catalog, Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("id,name,type,price,shelfLifeDays\n");
+            StringBuilder line = new StringBuilder(128);
+            for (int ordinal = 0; ordinal < catalog.getSkuCount(); ordinal++) {
+                ProductCatalog.ProductInfo info = catalog.getProductInfo(ordinal);
+                ProductDefinition definition = requireDefinition(info);
+                line.setLength(0);
+                line.append(info.getId()).append(',');
+                appendCsvField(line, info.getName());
+                line.append(',').append(info.getType().name()).append(',');
+                Money.append(line, definition.getPriceKopecks()).append(',')
+                        .append(definition.getShelfLifeDays()).append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    public static void writeBinary(ProductCatalog catalog, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            writeBinary(catalog, out);
+        }
+    }
+
+    // Двоичный каталог в открытый поток; поток остается открытым
+    public static void writeBinary(ProductCatalog catalog, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(catalog.getSkuCount());
+        for (int ordinal = 0; ordinal < catalog.getSkuCount(); ordinal++) {
+            ProductCatalog.ProductInfo info = catalog.getProductInfo(ordinal);
+            ProductDefinition definition = requireDefinition(info);
+            out.writeByte(info.getType().ordinal());
+            out.writeShort(definition.getShelfLifeDays());
+            out.writeLong(definition.getPriceKopecks());
+            writeBytes(out, info.getId().getBytes(StandardCharsets.UTF_8));
+            writeBytes(out, info.getName().getBytes(StandardCharsets.UTF_8));
+        }
+        out.flush();
+    }
+
+    private static ProductDefinition requireDefinition(ProductCatalog.ProductInfo info) throws IOException {
+        if (info.getDefinition() == null) {
+            throw new IOException("Товар без типа не записывается в каталог: " + info.getId());
+        }
+        if (info.getDefinition().getShelfLifeDays() > 0xFFFF) {
+            throw new IOException("Срок годности не помещается в формат каталога: " + info.getId());
+        }
+        return info.getDefinition();
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Строка каталога длиннее 65535 байт");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void appendCsvField(StringBuilder line, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    // Общее у разборщиков. Загрузка - один проход по файлу: каждая запись проверяется целиком
+    // (тип, цена, срок, границы строк, неповторяющийся id), но запоминается только ее смещение.
+    // Повтор id ищется по хешу байтов id в таблице номеров записей, тоже без создания строк;
+    // таблица нужна только на время загрузки. Строки и описание товара
+    // создаются повторным разбором записи при первом обращении к товару (ProductCatalog.Source);
+    // каталог вызывает read под своей блокировкой, поэтому буфер и позиция у разборщика свои.
+    private abstract static class Parser implements ProductCatalog.Source {
+        final ByteBuffer buffer;
+        byte[] scratch = new byte[256];
+        int[] offsets = new int[1024];
+        int count;
+        // id записей для поиска повторов: начало, длина (у поля в кавычках - со старшим битом), хеш
+        private int[] idStarts = new int[1024];
+        private int[] idLengths = new int[1024];
+        private int[] idHashes = new int[1024];
+        private int[] idTable = new int[2048]; // номер записи плюс один, 0 - пусто
+
+        Parser(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        // Проверяет файл и запоминает смещения записей
+        abstract void scan() throws IOException;
+
+        // Разбор записи, уже проверенной при загрузке
+        abstract ProductCatalog.ProductInfo parseRecord(int offset, int ordinal) throws IOException;
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public ProductCatalog.ProductInfo read(int ordinal) {
+            try {
+                return parseRecord(offsets[ordinal], ordinal);
+            } catch (IOException | RuntimeException e) {
+                // Запись проверена при загрузке - значит, файл изменили после нее
+                throw new IllegalStateException("Файл каталога изменился после загрузки, товар #" + ordinal, e);
+            }
+        }
+
+        // id последней добавленной записи (addOffset); возвращает номер записи с тем же id или -1
+        int registerId(int start, int length, boolean quoted) {
+            int record = count - 1;
+            if (record == idStarts.length) {
+                int capacity = idStarts.length * 2;
+                idStarts = Arrays.copyOf(idStarts, capacity);
+                idLengths = Arrays.copyOf(idLengths, capacity);
+                idHashes = Arrays.copyOf(idHashes, capacity);
+            }
+            idStarts[record] = start;
+            idLengths[record] = quoted ? length | Integer.MIN_VALUE : length;
+            idHashes[record] = hashId(record);
+            if (count * 2 > idTable.length) {
+                idTable = new int[idTable.length * 2];
+                for (int i = 0; i < record; i++) {
+                    insertId(i);
+                }
+            }
+            return insertId(record);
+        }
+
+        void releaseIds() {
+            idStarts = null;
+            idLengths = null;
+            idHashes = null;
+            idTable = null;
+        }
+
+        private int insertId(int record) {
+            int mask = idTable.length - 1;
+            int hash = idHashes[record];
+            for (int slot = (hash ^ (hash >>> 16)) & mask; ; slot = (slot + 1) & mask) {
+                int entry = idTable[slot];
+                if (entry == 0) {
+                    idTable[slot] = record + 1;
+                    return -1;
+                }
+                if (idHashes[entry - 1] == hash && sameId(entry - 1, record)) {
+                    return entry - 1;
+                }
+            }
+        }
+
+        // Байты id по смыслу: в поле CSV в кавычках удвоенная кавычка - один байт
+        private int hashId(int record) {
+            int hash = 0;
+            int end = idStarts[record] + (idLengths[record] & Integer.MAX_VALUE);
+            boolean quoted = idLengths[record] < 0;
+            for (int i = idStarts[record]; i < end; i++) {
+                byte b = buffer.get(i);
+                hash = 31 * hash + b;
+                if (quoted && b == '"') {
+                    i++;
+                }
+            }
+            return hash;
+        }
+
+        private boolean sameId(int a, int b) {
+            int i = idStarts[a];
+            int j = idStarts[b];
+            int endA = i + (idLengths[a] & Integer.MAX_VALUE);
+            int endB = j + (idLengths[b] & Integer.MAX_VALUE);
+            while (i < endA && j < endB) {
+                byte x = buffer.get(i);
+                if (x != buffer.get(j)) {
+                    return false;
+                }
+                i += idLengths[a] < 0 && x == '"' ? 2 : 1;
+                j += idLengths[b] < 0 && x == '"' ? 2 : 1;
+            }
+            return i >= endA && j >= endB;
+        }
+
+        void addOffset(int offset) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = offset;
+        }
+
+        String decode(int offset, int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.position(offset);
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        ProductType typeAt(int offset, int length) {
+            for (int t = 0; t < TYPE_NAMES.length; t++) {
+                byte[] name = TYPE_NAMES[t];
+                if (name.length == length && matches(offset, name)) {
+                    return TYPES[t];
+                }
+            }
+            return null;
+        }
+
+        boolean matches(int offset, byte[] expected) {
+            if (offset + expected.length > buffer.limit()) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (buffer.get(offset + i) != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class BinaryParser extends Parser {
+        BinaryParser(ByteBuffer buffer) {
+            super(buffer);
+        }
+
+        @Override
+        void scan() throws IOException {
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия каталога: " + version);
+            }
+            int expected = buffer.getInt(8);
+            if (expected < 0) {
+                throw new IOException("Поврежденный каталог: число товаров " + expected);
+            }
+            // Запись не короче 15 байт - число товаров не может обещать больше, чем вмещает файл
+            if (expected > (buffer.limit() - BINARY_HEADER_SIZE) / 15) {
+                throw new IOException("Поврежденный каталог: файл обрывается");
+            }
+            offsets = new int[Math.max(1, expected)];
+            int offset = BINARY_HEADER_SIZE;
+            try {
+                for (int i = 0; i < expected; i++) {
+                    if ((buffer.get(offset) & 0xFF) >= TYPES.length) {
+                        throw new IOException("Поврежденный каталог: тип товара #" + i);
+                    }
+                    addOffset(offset);
+                    offset += 11;
+                    int idLength = buffer.getShort(offset) & 0xFFFF;
+                    if (offset + 2 + idLength > buffer.limit()) {
+                        throw new IOException("Поврежденный каталог: файл обрывается");
+                    }
+                    int same = registerId(offset + 2, idLength, false);
+                    if (same >= 0) {
+                        throw new IOException("Поврежденный каталог: товар #" + i + " повторяет id товара #" + same
+                                + " (" + decode(offset + 2, idLength) + ")");
+                    }
+                    offset += 2 + idLength;
+                    offset += 2 + (buffer.getShort(offset) & 0xFFFF);
+                }
+            } catch (IndexOutOfBoundsException e) {
+                throw new IOException("Поврежденный каталог: файл обрывается", e);
+            }
+            if (offset > buffer.limit()) {
+                throw new IOException("Поврежденный каталог: файл обрывается");
+            }
+        }
+
+        @Override
+        ProductCatalog.ProductInfo parseRecord(int offset, int ordinal) {
+            ProductType type = TYPES[buffer.get(offset) & 0xFF];
+            int shelfLifeDays = buffer.getShort(offset + 1) & 0xFFFF;
+            long priceKopecks = buffer.getLong(offset + 3);
+            offset += 11;
+            int idLength = buffer.getShort(offset) & 0xFFFF;
+            String id = decode(offset + 2, idLength);
+            offset += 2 + idLength;
+            int nameLength = buffer.getShort(offset) & 0xFFFF;
+            String name = decode(offset + 2, nameLength);
+            return new ProductCatalog.ProductInfo(id, name, priceKopecks, type, shelfLifeDays, ordinal);
+        }
+    }
+
+    // Строка CSV разбирается в поля-смещения; при загрузке строки не декодируются
+    private static final class CsvParser extends Parser {
+        private int position;
+        private int lineNumber;
+        private int fieldStart;
+        private int fieldLength;
+        private boolean fieldQuoted;
+
+        // Поля последней разобранной строки
+        private int idStart, idLength, nameStart, nameLength;
+        private boolean idQuoted, nameQuoted;
+        private ProductType type;
+        private long priceKopecks;
+        private int shelfLifeDays;
+
+        CsvParser(ByteBuffer buffer) {
+            super(buffer);
+        }
+
+        @Override
+        void scan() throws IOException {
+            int limit = buffer.limit();
+            offsets = new int[limit / 48 + 1]; // оценка по средней длине строки
+            skipBom();
+            if (matches(position, CSV_HEADER)) {
+                lineNumber++;
+                skipLine();
+            }
+            while (position < limit) {
+                lineNumber++;
+                if (atLineEnd()) {
+                    skipLine(); // пустая строка
+                    continue;
+                }
+                addOffset(position);
+                parseLine();
+                if (registerId(idStart, idLength, idQuoted) >= 0) {
+                    throw error("повторный id товара " + text(idStart, idLength, idQuoted));
+                }
+            }
+        }
+
+        @Override
+        ProductCatalog.ProductInfo parseRecord(int offset, int ordinal) throws IOException {
+            position = offset;
+            parseLine();
+            String id = text(idStart, idLength, idQuoted);
+            String name = text(nameStart, nameLength, nameQuoted);
+            return new ProductCatalog.ProductInfo(id, name, priceKopecks, type, shelfLifeDays, ordinal);
+        }
+
+        private void parseLine() throws IOException {
+            int limit = buffer.limit();
+            nextField();
+            idStart = fieldStart;
+            idLength = fieldLength;
+            idQuoted = fieldQuoted;
+            expectComma();
+            nextField();
+            nameStart = fieldStart;
+            nameLength = fieldLength;
+            nameQuoted = fieldQuoted;
+            expectComma();
+            nextField();
+            type = typeAt(fieldStart, fieldLength);
+            if (type == null) {
+                throw error("неизвестный тип товара " + decode(fieldStart, fieldLength));
+            }
+            expectComma();
+            nextField();
+            priceKopecks = parseKopecks();
+            shelfLifeDays = 0;
+            if (position < limit && buffer.get(position) == ',') {
+                position++;
+                nextField();
+                shelfLifeDays = parseInt();
+            }
+            if (!atLineEnd()) {
+                throw error("лишние поля");
+            }
+            skipLine();
+        }
+
+        private void skipBom() {
+            if (buffer.limit() >= 3 && (buffer.get(0) & 0xFF) == 0xEF
+                    && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+                position = 3;
+            }
+        }
+
+        private boolean atLineEnd() {
+            if (position >= buffer.limit()) {
+                return true;
+            }
+            byte b = buffer.get(position);
+            return b == '\n' || b == '\r';
+        }
+
+        private void skipLine() {
+            int limit = buffer.limit();
+            while (position < limit && buffer.get(position) != '\n') {
+                position++;
+            }
+            position++;
+        }
+
+        private void expectComma() throws IOException {
+            if (position >= buffer.limit() || buffer.get(position) != ',') {
+                throw error("ожидалась запятая");
+            }
+            position++;
+        }
+
+        // Поле до запятой или конца строки; в кавычках - до закрывающей кавычки
+        private void nextField() throws IOException {
+            int limit = buffer.limit();
+            fieldQuoted = position < limit && buffer.get(position) == '"';
+            if (fieldQuoted) {
+                fieldStart = ++position;
+                while (true) {
+                    if (position >= limit) {
+                        throw error("нет закрывающей кавычки");
+                    }
+                    if (buffer.get(position) == '"') {
+                        if (position + 1 < limit && buffer.get(position + 1) == '"') {
+                            position += 2; // удвоенная кавычка внутри поля
+                            continue;
+                        }
+                        break;
+                    }
+                    position++;
+                }
+                fieldLength = position - fieldStart;
+                position++; // закрывающая кавычка
+                return;
+            }
+            fieldStart = position;
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b == ',' || b == '\n' || b == '\r') {
+                    break;
+                }
+                position++;
+            }
+            fieldLength = position - fieldStart;
+        }
+
+        private String text(int start, int length, boolean quoted) {
+            if (!quoted) {
+                return decode(start, length);
+            }
+            // Удвоенные кавычки схлопываются при копировании в буфер
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            int copied = 0;
+            for (int i = start; i < start + length; i++) {
+                byte b = buffer.get(i);
+                scratch[copied++] = b;
+                if (b == '"') {
+                    i++;
+                }
+            }
+            return new String(scratch, 0, copied, StandardCharsets.UTF_8);
+        }
+
+        // "89.99", "90", "90.5" -> копейки; третий знак после точки округляет, остальные отбрасываются
+        private long parseKopecks() throws IOException {
+            long rubles = 0;
+            long kopecks = 0;
+            int fractionDigits = 0;
+            boolean point = false;
+            boolean digits = false;
+            for (int i = fieldStart; i < fieldStart + fieldLength; i++) {
+                byte b = buffer.get(i);
+                if (b == '.' && !point) {
+                    point = true;
+                } else if (b >= '0' && b <= '9') {
+                    digits = true;
+                    if (!point) {
+                        rubles = rubles * 10 + (b - '0');
+                    } else if (fractionDigits < 2) {
+                        kopecks = kopecks * 10 + (b - '0');
+                        fractionDigits++;
+                    } else if (fractionDigits == 2) {
+                        kopecks += b >= '5' ? 1 : 0;
+                        fractionDigits++;
+                    }
+                } else {
+                    throw error("неверная цена " + decode(fieldStart, fieldLength));
+                }
+            }
+            if (!digits) {
+                throw error("пустая цена");
+            }
+            if (fractionDigits == 1) {
+                kopecks *= 10;
+            }
+            return rubles * Money.KOPECKS_PER_RUBLE + kopecks;
+        }
+
+        private int parseInt() throws IOException {
+            if (fieldLength == 0 || fieldLength > 9) {
+                throw error("неверный срок годности");
+            }
+            int value = 0;
+            for (int i = fieldStart; i < fieldStart + fieldLength; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    throw error("неверный срок годности " + decode(fieldStart, fieldLength));
+                }
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        private IOException error(String message) {
+            return new IOException("Каталог, строка " + lineNumber + ": " + message);
+        }
+    }
+}
@@ -11,6 +11,11 @@ public class CountableProduct extends Product {
         this.quantity = quantity;
     }
 
+    public CountableProduct(ProductDefinition definition, long batchNumber, int productionEpochDay, int quantity) {
+        super(definition, batchNumber, productionEpochDay);
+        this.quantity = quantity;
+    }
+
     public int getQuantity() {
         return quantity;
     }
@@ -23,8 +28,13 @@ public class CountableProduct extends Product {
         this.quantity = Math.max(0, this.quantity - amount);
     }
 
+    @Override
+    public long getAmount() {
+        return Quantity.ofUnits(quantity);
+    }
+
     @Override
     public String toString() {
-        return super.toString() + String.format(" - %d шт.", quantity);
+        return super.toString() + " - " + quantity + " шт.";
     }
 }
\ No newline at end of file
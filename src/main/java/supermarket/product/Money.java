@@ -0,0 +1,82 @@
+package supermarket.product;
+
+// Деньги в копейках (long) и скидки в базисных пунктах (int, 10000 = 100%).
+// Вся арифметика целочисленная и точная: суммы за миллионы покупок не накапливают
+// ошибок округления. Рубли в double остаются только на границе - в конструкторах
+// из конфигурации и в старых методах доступа.
+public final class Money {
+    public static final long KOPECKS_PER_RUBLE = 100;
+    public static final int FULL_DISCOUNT = 10_000; // базисных пунктов в 100%
+
+    private Money() {
+    }
+
+    public static long ofRubles(double rubles) {
+        return Math.round(rubles * KOPECKS_PER_RUBLE);
+    }
+
+    public static double toRubles(long kopecks) {
+        return kopecks / (double) KOPECKS_PER_RUBLE;
+    }
+
+    public static int discountOf(double fraction) {
+        return (int) Math.round(fraction * FULL_DISCOUNT);
+    }
+
+    public static double discountToFraction(int basisPoints) {
+        return basisPoints / (double) FULL_DISCOUNT;
+    }
+
+    // Цена со скидкой, округленная до копейки (половина копейки - вверх)
+    public static long discounted(long kopecks, int discountBasisPoints) {
+        return (kopecks * (FULL_DISCOUNT - discountBasisPoints) + FULL_DISCOUNT / 2) / FULL_DISCOUNT;
+    }
+
+    // Стоимость amount (Quantity) товара по цене за штуку или килограмм, округленная до копейки
+    public static long costOf(long kopecksPerUnit, long amount) {
+        return (kopecksPerUnit * amount + Quantity.SCALE / 2) / Quantity.SCALE;
+    }
+
+    // Наибольшее количество (Quantity), которое стоит не дороже budget по цене kopecksPerUnit
+    // с округлением как в costOf. Бюджет, при котором budget * SCALE не помещается в long, ничего
+    // не ограничивает - возвращается Long.MAX_VALUE
+    public static long affordableAmount(long budget, long kopecksPerUnit) {
+        if (budget < 0) {
+            return 0;
+        }
+        if (kopecksPerUnit <= 0 || Math.multiplyHigh(budget + 1, Quantity.SCALE) != 0
+                || (budget + 1) * Quantity.SCALE < 0) {
+            return Long.MAX_VALUE;
+        }
+        // costOf(p, a) <= budget  <=>  p * a + SCALE / 2 < (budget + 1) * SCALE
+        return ((budget + 1) * Quantity.SCALE - Quantity.SCALE / 2 - 1) / kopecksPerUnit;
+    }
+
+    // Доля суммы в базисных пунктах с отбрасыванием дробной части (например, 5% в баллы)
+    public static long share(long kopecks, int basisPoints) {
+        return kopecks * basisPoints / FULL_DISCOUNT;
+    }
+
+    // Целые проценты скидки для вывода
+    public static int discountPercent(int basisPoints) {
+        return basisPoints / 100;
+    }
+
+    // "1234.56" - как String.format("%.2f"), но без Formatter и без double
+    public static String format(long kopecks) {
+        return append(new StringBuilder(24), kopecks).toString();
+    }
+
+    public static StringBuilder append(StringBuilder out, long kopecks) {
+        if (kopecks < 0) {
+            out.append('-');
+            kopecks = -kopecks;
+        }
+        long cents = kopecks % KOPECKS_PER_RUBLE;
+        out.append(kopecks / KOPECKS_PER_RUBLE).append('.');
+        if (cents < 10) {
+            out.append('0');
+        }
+        return out.append(cents);
+    }
+}
@@ -3,87 +3,154 @@ package supermarket.product;
 import supermarket.SupermarketConfig;
 
 import java.time.LocalDate;
-import java.util.Locale;
 
+// Партия товара: ссылка на общее описание товара (ProductDefinition) и собственное состояние партии -
+// номер, день окончания срока, номер товара в каталоге, скидка и остаток (в подклассах).
+// Название, тип, цена и срок годности берутся из описания и в партиях не повторяются.
 public abstract class Product {
-    protected final String id;
-    protected final String batchId;
-    protected String name;
-    protected ProductType type;
-    protected double price;
-    protected LocalDate productionDate;
-    protected int shelfLifeDays;
-    protected double discount;
+    protected final ProductDefinition definition;
+    protected final long batchNumber; // см. BatchIds
+    // Текст метки из старого конструктора ("B1", "FRESH"); null - текст строится из номера
+    private String batchLabel;
+    // Срок хранится днем от эпохи: проверки в циклах - сравнение целых без LocalDate.
+    // День производства и день начала скидки из него вычисляются
+    private final int expiryEpochDay;
+    // Порядковый номер товара в каталоге, -1 пока не известен
+    private int skuOrdinal = -1;
+    private int discountBasisPoints; // см. Money
 
     public Product(String id, String batchId, String name, ProductType type, double price,
                    LocalDate productionDate, int shelfLifeDays) {
-        this.id = id;
-        this.batchId = batchId;
-        this.name = name;
-        this.type = type;
-        this.price = price;
-        this.productionDate = productionDate;
-        this.shelfLifeDays = shelfLifeDays;
-        this.discount = 0.0;
+        this(ProductCatalog.getDefault().definitionOf(id, name, type, Money.ofRubles(price), shelfLifeDays),
+                BatchIds.of(batchId),
+                (int) productionDate.toEpochDay());
+        this.batchLabel = BatchIds.isLabel(batchId) ? batchId : null;
+    }
+
+    protected Product(ProductDefinition definition, long batchNumber, int productionEpochDay) {
+        this.definition = definition;
+        this.batchNumber = batchNumber;
+        this.expiryEpochDay = productionEpochDay + definition.getShelfLifeDays();
     }
 
     public boolean isExpired(LocalDate currentDate) {
-        return currentDate.isAfter(productionDate.plusDays(shelfLifeDays));
+        return isExpired((int) currentDate.toEpochDay());
+    }
+
+    public boolean isExpired(int currentEpochDay) {
+        return currentEpochDay > expiryEpochDay;
     }
 
     public boolean expiresSoon(LocalDate currentDate) {
-        LocalDate expiryDate = productionDate.plusDays(shelfLifeDays);
-        return !currentDate.plusDays(SupermarketConfig.DAYS_FOR_DISCOUNT)
-                .isBefore(expiryDate);
+        return expiresSoon((int) currentDate.toEpochDay());
+    }
+
+    public boolean expiresSoon(int currentEpochDay) {
+        return currentEpochDay >= getDiscountFromEpochDay();
+    }
+
+    public int getSkuOrdinal() {
+        return skuOrdinal;
+    }
+
+    public void setSkuOrdinal(int skuOrdinal) {
+        this.skuOrdinal = skuOrdinal;
+    }
+
+    public int getExpiryEpochDay() {
+        return expiryEpochDay;
+    }
+
+    // С этого дня действует скидка на истекающий срок
+    public int getDiscountFromEpochDay() {
+        return expiryEpochDay - SupermarketConfig.DAYS_FOR_DISCOUNT;
+    }
+
+    public int getProductionEpochDay() {
+        return expiryEpochDay - definition.getShelfLifeDays();
+    }
+
+    public ProductDefinition getDefinition() {
+        return definition;
     }
 
     public double getFinalPrice() {
-        return price * (1 - discount);
+        return Money.toRubles(getFinalPriceKopecks());
+    }
+
+    public long getFinalPriceKopecks() {
+        return Money.discounted(definition.getPriceKopecks(), discountBasisPoints);
     }
 
     public LocalDate getExpiryDate() {
-        return productionDate.plusDays(shelfLifeDays);
+        return LocalDate.ofEpochDay(expiryEpochDay);
     }
 
     public String getId() {
-        return id;
+        return definition.getId();
     }
 
+    public long getBatchNumber() {
+        return batchNumber;
+    }
+
+    // Текст номера партии, только для вывода и внешних форматов
     public String getBatchId() {
-        return batchId;
+        return batchLabel != null ? batchLabel : BatchIds.toText(batchNumber);
+    }
+
+    // Копии партии (ProductFactory) выводятся с той же меткой, что и оригинал
+    void copyBatchLabel(Product original) {
+        this.batchLabel = original.batchLabel;
     }
 
     public String getName() {
-        return name;
+        return definition.getName();
     }
 
     public ProductType getType() {
-        return type;
+        return definition.getType();
     }
 
     public double getPrice() {
-        return price;
+        return definition.getPrice();
+    }
+
+    public long getPriceKopecks() {
+        return definition.getPriceKopecks();
     }
 
     public LocalDate getProductionDate() {
-        return productionDate;
+        return LocalDate.ofEpochDay(getProductionEpochDay());
     }
 
     public int getShelfLifeDays() {
-        return shelfLifeDays;
+        return definition.getShelfLifeDays();
     }
 
     public double getDiscount() {
-        return discount;
+        return Money.discountToFraction(discountBasisPoints);
     }
 
     public void setDiscount(double discount) {
-        this.discount = discount;
+        this.discountBasisPoints = Money.discountOf(discount);
+    }
+
+    public int getDiscountBasisPoints() {
+        return discountBasisPoints;
     }
 
+    public void setDiscountBasisPoints(int discountBasisPoints) {
+        this.discountBasisPoints = discountBasisPoints;
+    }
+
+    // Остаток партии в тысячных долях единицы (Quantity): граммы или тысячные штуки
+    public abstract long getAmount();
+
     @Override
     public String toString() {
-        return String.format(Locale.US, "%s [%s] - %.2f руб. (скидка: %.0f%%)",
-                name, id, getFinalPrice(), discount * 100);
+        StringBuilder text = new StringBuilder(64).append(getName()).append(" [").append(getId()).append("] - ");
+        return Money.append(text, getFinalPriceKopecks()).append(" руб. (скидка: ")
+                .append(Money.discountPercent(discountBasisPoints)).append("%)").toString();
     }
 }
\ No newline at end of file
@@ -2,12 +2,49 @@ package supermarket.product;
 
 import java.util.*;
 
+// Каталог товаров. Экземпляр неизменяем после создания, поэтому один каталог
+// можно без блокировок разделять между параллельными симуляциями.
+// Каждый товар получает плотный порядковый номер (0..getSkuCount()-1) в порядке добавления:
+// по нему склад, зал и предпочтения покупателей хранят данные в массивах вместо карт по строкам.
+// Индексы по идентификатору и по типу строятся при первом обращении: каталог из файла
+// на миллион товаров не платит при загрузке за индекс, который никто не спросит.
+// Построенный индекс публикуется через volatile; два потока в худшем случае построят его дважды.
+// Каталог из файла (CatalogFile) и сами описания товаров создает при первом обращении к номеру.
 public class ProductCatalog {
-    private static final Map<String, ProductInfo> productsById = new HashMap<>();
-    private static final Map<ProductType, List<ProductInfo>> productsByType = new HashMap<>();
+    private static final ProductCatalog DEFAULT = createDefault();
 
-    static {
-        addProducts(ProductType.DAIRY, Arrays.asList(
+    // Источник описаний, которые еще не созданы: читает товар с данным номером из файла
+    interface Source {
+        int size();
+
+        ProductInfo read(int ordinal);
+    }
+
+    private ProductInfo[] productsByOrdinal; // у каталога из файла заполняется при обращении
+    private int skuCount;
+    private final Source source; // null - все описания уже в массиве
+    private volatile Map<String, ProductInfo> productsById;
+    private volatile Map<ProductType, List<ProductInfo>> productsByType;
+    private final ProductInfo fallbackProduct = new ProductInfo("PRODUCT", "Товар", 100.0);
+
+    // Встроенный ассортимент магазина
+    public static ProductCatalog getDefault() {
+        return DEFAULT;
+    }
+
+    // Каталог из готового ассортимента; порядковые номера идут в порядке типов и товаров внутри типа
+    public static ProductCatalog of(Map<ProductType, ? extends List<ProductInfo>> assortment) {
+        ProductCatalog catalog = new ProductCatalog();
+        for (Map.Entry<ProductType, ? extends List<ProductInfo>> entry : assortment.entrySet()) {
+            catalog.addProducts(entry.getKey(), entry.getValue());
+        }
+        return catalog;
+    }
+
+    private static ProductCatalog createDefault() {
+        ProductCatalog catalog = new ProductCatalog();
+
+        catalog.addProducts(ProductType.DAIRY, Arrays.asList(
                 new ProductInfo("MILK", "Молоко", 80.0),
                 new ProductInfo("YOGURT", "Йогурт", 60.0),
                 new ProductInfo("SOUR_CREAM", "Сметана", 90.0),
@@ -18,7 +55,7 @@ public class ProductCatalog {
                 new ProductInfo("CREAM", "Сливки", 110.0)
         ));
 
-        addProducts(ProductType.BAKERY, Arrays.asList(
+        catalog.addProducts(ProductType.BAKERY, Arrays.asList(
                 new ProductInfo("WHITE_BREAD", "Хлеб белый", 50.0),
                 new ProductInfo("BLACK_BREAD", "Хлеб черный", 55.0),
                 new ProductInfo("BATON", "Батон", 45.0),
@@ -29,7 +66,7 @@ public class ProductCatalog {
                 new ProductInfo("CRACKERS", "Сухари", 80.0)
         ));
 
-        addProducts(ProductType.MEAT, Arrays.asList(
+        catalog.addProducts(ProductType.MEAT, Arrays.asList(
                 new ProductInfo("BEEF", "Говядина", 400.0),
                 new ProductInfo("PORK", "Свинина", 350.0),
                 new ProductInfo("CHICKEN", "Курица", 250.0),
@@ -40,7 +77,7 @@ public class ProductCatalog {
                 new ProductInfo("BACON", "Бекон", 450.0)
         ));
 
-        addProducts(ProductType.VEGETABLES, Arrays.asList(
+        catalog.addProducts(ProductType.VEGETABLES, Arrays.asList(
                 new ProductInfo("POTATO", "Картофель", 40.0),
                 new ProductInfo("CARROT", "Морковь", 50.0),
                 new ProductInfo("TOMATO", "Помидоры", 150.0),
@@ -51,7 +88,7 @@ public class ProductCatalog {
                 new ProductInfo("ONION", "Лук", 30.0)
         ));
 
-        addProducts(ProductType.GROCERIES, Arrays.asList(
+        catalog.addProducts(ProductType.GROCERIES, Arrays.asList(
                 new ProductInfo("PASTA", "Макароны", 60.0),
                 new ProductInfo("RICE", "Рис", 80.0),
                 new ProductInfo("BUCKWHEAT", "Гречка", 70.0),
@@ -62,7 +99,7 @@ public class ProductCatalog {
                 new ProductInfo("TEA", "Чай", 120.0)
         ));
 
-        addProducts(ProductType.CHEMICALS, Arrays.asList(
+        catalog.addProducts(ProductType.CHEMICALS, Arrays.asList(
                 new ProductInfo("DETERGENT", "Стиральный порошок", 200.0),
                 new ProductInfo("SOAP", "Мыло", 40.0),
                 new ProductInfo("SHAMPOO", "Шампунь", 180.0),
@@ -73,7 +110,7 @@ public class ProductCatalog {
                 new ProductInfo("FABRIC_SOFTENER", "Кондиционер для белья", 160.0)
         ));
 
-        addProducts(ProductType.ALCOHOL, Arrays.asList(
+        catalog.addProducts(ProductType.ALCOHOL, Arrays.asList(
                 new ProductInfo("BEER", "Пиво", 120.0),
                 new ProductInfo("RED_WINE", "Вино красное", 400.0),
                 new ProductInfo("WHITE_WINE", "Вино белое", 380.0),
@@ -83,52 +120,161 @@ public class ProductCatalog {
                 new ProductInfo("CHAMPAGNE", "Шампанское", 450.0),
                 new ProductInfo("LIQUEUR", "Ликер", 350.0)
         ));
+
+        return catalog;
     }
 
-    private static void addProducts(ProductType type, List<ProductInfo> products) {
-        productsByType.put(type, products);
+    ProductCatalog() {
+        this(16);
+    }
+
+    ProductCatalog(int expectedSkuCount) {
+        productsByOrdinal = new ProductInfo[Math.max(1, expectedSkuCount)];
+        source = null;
+    }
+
+    ProductCatalog(Source source) {
+        this.source = source;
+        this.skuCount = source.size();
+        this.productsByOrdinal = new ProductInfo[skuCount];
+    }
+
+    private void addProducts(ProductType type, List<ProductInfo> products) {
         for (ProductInfo product : products) {
-            product.setType(type);
-            productsById.put(product.getId(), product);
+            add(product.getId(), product.getName(), Money.ofRubles(product.getBasePrice()), type,
+                    product.shelfLifeDays);
         }
     }
 
-    public static ProductInfo findProductById(String id) {
-        return productsById.get(id);
+    // Добавление товара при сборке каталога (до того, как каталог кто-то увидел)
+    void add(String id, String name, long priceKopecks, ProductType type, int shelfLifeDays) {
+        if (skuCount == productsByOrdinal.length) {
+            productsByOrdinal = Arrays.copyOf(productsByOrdinal, skuCount * 2);
+        }
+        productsByOrdinal[skuCount] = new ProductInfo(id, name, priceKopecks, type, shelfLifeDays, skuCount);
+        skuCount++;
+    }
+
+    // Описание из файла; поля ProductInfo final, поэтому созданное под блокировкой описание
+    // безопасно читать из массива и без нее
+    private synchronized ProductInfo load(int ordinal) {
+        ProductInfo info = productsByOrdinal[ordinal];
+        if (info == null) {
+            info = source.read(ordinal);
+            productsByOrdinal[ordinal] = info;
+        }
+        return info;
+    }
+
+    private Map<String, ProductInfo> productsById() {
+        Map<String, ProductInfo> index = productsById;
+        if (index == null) {
+            index = new HashMap<>(skuCount * 4 / 3 + 1);
+            for (int ordinal = 0; ordinal < skuCount; ordinal++) {
+                ProductInfo info = getProductInfo(ordinal);
+                index.put(info.getId(), info);
+            }
+            productsById = index;
+        }
+        return index;
+    }
+
+    private Map<ProductType, List<ProductInfo>> productsByType() {
+        Map<ProductType, List<ProductInfo>> index = productsByType;
+        if (index == null) {
+            Map<ProductType, List<ProductInfo>> typed = new EnumMap<>(ProductType.class);
+            for (int ordinal = 0; ordinal < skuCount; ordinal++) {
+                ProductInfo info = getProductInfo(ordinal);
+                typed.computeIfAbsent(info.getType(), type -> new ArrayList<>()).add(info);
+            }
+            index = new EnumMap<>(ProductType.class);
+            for (Map.Entry<ProductType, List<ProductInfo>> entry : typed.entrySet()) {
+                index.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            }
+            productsByType = index;
+        }
+        return index;
     }
 
-    public static String getProductNameById(String id) {
+    public ProductInfo findProductById(String id) {
+        return productsById().get(id);
+    }
+
+    // Описание товара, собранного по полям: описание каталога, если поля совпадают,
+    // иначе отдельное описание только для этой партии
+    public ProductDefinition definitionOf(String id, String name, ProductType type, long priceKopecks,
+                                          int shelfLifeDays) {
+        ProductDefinition definition = ProductDefinition.ofKopecks(id, name, type, priceKopecks, shelfLifeDays);
+        ProductInfo info = findProductById(id);
+        return info != null && definition.equals(info.getDefinition()) ? info.getDefinition() : definition;
+    }
+
+    // Порядковый номер товара или -1, если товара нет в каталоге
+    public int getOrdinal(String id) {
+        ProductInfo product = findProductById(id);
+        return product != null ? product.getOrdinal() : -1;
+    }
+
+    // Номер товара партии в этом каталоге. Номер, уже записанный в партии, проверяется
+    // сравнением идентификатора, иначе ищется по карте и запоминается в партии.
+    public int ordinalOf(Product product) {
+        int ordinal = product.getSkuOrdinal();
+        if (ordinal >= 0 && ordinal < skuCount && getProductInfo(ordinal).getId().equals(product.getId())) {
+            return ordinal;
+        }
+        ordinal = getOrdinal(product.getId());
+        product.setSkuOrdinal(ordinal);
+        return ordinal;
+    }
+
+    public ProductInfo getProductInfo(int ordinal) {
+        if (ordinal < 0 || ordinal >= skuCount) {
+            throw new IndexOutOfBoundsException("Товар #" + ordinal + ", в каталоге " + skuCount);
+        }
+        ProductInfo info = productsByOrdinal[ordinal];
+        return info != null ? info : load(ordinal);
+    }
+
+    public int getSkuCount() {
+        return skuCount;
+    }
+
+    public String getProductNameById(String id) {
         ProductInfo product = findProductById(id);
         return product != null ? product.getName() : null;
     }
 
-    public static Double getProductPriceById(String id) {
+    public Double getProductPriceById(String id) {
         ProductInfo product = findProductById(id);
         return product != null ? product.getBasePrice() : null;
     }
 
 
-    public static ProductType getProductTypeById(String id) {
+    public ProductType getProductTypeById(String id) {
         ProductInfo product = findProductById(id);
         return product != null ? product.getType() : null;
     }
 
 
-    public static ProductInfo getRandomProductInfo(ProductType type) {
-        List<ProductInfo> products = productsByType.get(type);
+    public ProductInfo getRandomProductInfo(ProductType type, SplittableRandom random) {
+        List<ProductInfo> products = productsByType().get(type);
         if (products == null || products.isEmpty()) {
-            return new ProductInfo("PRODUCT", "Товар", 100.0);
+            return fallbackProduct;
         }
-        return products.get(new Random().nextInt(products.size()));
+        return products.get(random.nextInt(products.size()));
     }
 
-    public static List<ProductInfo> getAllProductsForType(ProductType type) {
-        return new ArrayList<>(productsByType.getOrDefault(type, new ArrayList<>()));
+    public List<ProductInfo> getAllProductsForType(ProductType type) {
+        return new ArrayList<>(productsByType().getOrDefault(type, Collections.emptyList()));
     }
 
 
-    public static List<ProductInfo> getAllProducts() {
-        return new ArrayList<>(productsById.values());
+    public List<ProductInfo> getAllProducts() {
+        List<ProductInfo> products = new ArrayList<>(skuCount);
+        for (int ordinal = 0; ordinal < skuCount; ordinal++) {
+            products.add(getProductInfo(ordinal));
+        }
+        return products;
     }
 
 
@@ -137,7 +283,7 @@ public class ProductCatalog {
     }
 
 
-    public static boolean isCountableProduct(String productId) {
+    public boolean isCountableProduct(String productId) {
         ProductType type = getProductTypeById(productId);
         return type != null && isCountableType(type);
     }
@@ -146,21 +292,48 @@ public class ProductCatalog {
         private final String id;
         private final String productName;
         private final double basePrice;
-        private ProductType type;
+        private final ProductType type;
+        private final int shelfLifeDays; // 0 - срок по типу товара
+        private final int ordinal; // -1 у описаний вне каталога
+        private final ProductDefinition definition; // общее для всех партий товара, null без типа
 
         public ProductInfo(String id, String productName, double basePrice) {
-            this.id = id;
-            this.productName = productName;
-            this.basePrice = basePrice;
+            this(id, productName, basePrice, null);
+        }
+
+        public ProductInfo(String id, String productName, double basePrice, ProductType type) {
+            this(id, productName, basePrice, type, 0);
         }
 
-        public void setType(ProductType type) {
+        // Товар со своим сроком годности вместо срока по типу
+        public ProductInfo(String id, String productName, double basePrice, ProductType type, int shelfLifeDays) {
+            this(id, productName, basePrice, type, shelfLifeDays, -1);
+        }
+
+        private ProductInfo(String id, String productName, double basePrice, ProductType type, int shelfLifeDays,
+                            int ordinal) {
+            this(id, productName, Money.ofRubles(basePrice), type, shelfLifeDays, ordinal);
+        }
+
+        ProductInfo(String id, String productName, long priceKopecks, ProductType type, int shelfLifeDays,
+                    int ordinal) {
+            this.id = id;
+            this.productName = productName;
+            this.basePrice = Money.toRubles(priceKopecks);
             this.type = type;
+            this.shelfLifeDays = shelfLifeDays;
+            this.ordinal = ordinal;
+            this.definition = type != null
+                    ? new ProductDefinition(id, productName, type, priceKopecks, getShelfLifeDays())
+                    : null;
         }
 
         public String getId() { return id; }
         public String getName() { return productName; }
         public double getBasePrice() { return basePrice; }
         public ProductType getType() { return type; }
+        public int getShelfLifeDays() { return shelfLifeDays > 0 || type == null ? shelfLifeDays : type.getShelfLifeDays(); }
+        public int getOrdinal() { return ordinal; }
+        public ProductDefinition getDefinition() { return definition; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package supermarket.product;
+
+import java.util.Objects;
+
+// Неизменяемое описание товара (SKU): то, что одинаково у всех его партий.
+// Партия (Product) хранит ссылку на описание и только свое состояние, поэтому одно описание
+// разделяют все партии товара, а также параллельные симуляции.
+// Разделяемые описания - по одному на номер товара - хранит ProductCatalog и живут они, пока жив каталог.
+// Товары, собранные по отдельным полям (конструкторы с названием и ценой, контрольная точка, журнал),
+// берут описание каталога через ProductCatalog.definitionOf, если поля с ним совпадают; иначе
+// of() создает отдельное, ни с кем не разделяемое описание. Общего пула на весь процесс нет.
+public final class ProductDefinition {
+
+    private final String id;
+    private final String name;
+    private final ProductType type;
+    private final long priceKopecks;
+    private final int shelfLifeDays;
+
+    ProductDefinition(String id, String name, ProductType type, long priceKopecks, int shelfLifeDays) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.priceKopecks = priceKopecks;
+        this.shelfLifeDays = shelfLifeDays;
+    }
+
+    public static ProductDefinition of(String id, String name, ProductType type, double price, int shelfLifeDays) {
+        return ofKopecks(id, name, type, Money.ofRubles(price), shelfLifeDays);
+    }
+
+    public static ProductDefinition ofKopecks(String id, String name, ProductType type, long priceKopecks,
+                                              int shelfLifeDays) {
+        return new ProductDefinition(id, name, type, priceKopecks, shelfLifeDays);
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public ProductType getType() { return type; }
+    public double getPrice() { return Money.toRubles(priceKopecks); }
+    public long getPriceKopecks() { return priceKopecks; }
+    public int getShelfLifeDays() { return shelfLifeDays; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductDefinition)) {
+            return false;
+        }
+        ProductDefinition other = (ProductDefinition) o;
+        return priceKopecks == other.priceKopecks && shelfLifeDays == other.shelfLifeDays
+                && type == other.type && Objects.equals(id, other.id) && Objects.equals(name, other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, type, priceKopecks, shelfLifeDays);
+    }
+}
@@ -1,79 +1,88 @@
 package supermarket.product;
 
+import supermarket.random.SimulationRandom;
+
 import java.time.LocalDate;
-import java.util.Random;
+import java.util.SplittableRandom;
 
+// Фабрика не хранит общего состояния: каталог, генератор случайных чисел и текущую дату
+// передает вызывающий код (у каждой симуляции свои). Короткие варианты методов
+// используют встроенный каталог, генератор текущего потока и сегодняшнюю дату.
 public class ProductFactory {
-    private static Random random = new Random();
 
     public static Product createRandomProduct(ProductType type) {
-        ProductCatalog.ProductInfo info = ProductCatalog.getRandomProductInfo(type);
+        return createRandomProduct(ProductCatalog.getDefault(), type, SimulationRandom.threadLocal(), LocalDate.now());
+    }
+
+    public static Product createRandomProduct(ProductCatalog catalog, ProductType type,
+                                              SplittableRandom random, LocalDate today) {
+        ProductCatalog.ProductInfo info = catalog.getRandomProductInfo(type, random);
+        ProductDefinition definition = info.getType() == type ? info.getDefinition()
+                : ProductDefinition.of(info.getId(), info.getName(), type, info.getBasePrice(), type.getShelfLifeDays());
 
-        String id = info.getId();
-        String batchId = generateBatchId();
-        LocalDate productionDate = LocalDate.now().minusDays(random.nextInt(5));
-        int shelfLife = type.getShelfLifeDays();
+        long batchNumber = BatchIds.next();
+        int productionDay = (int) today.toEpochDay() - random.nextInt(5);
 
+        Product product;
         if (ProductCatalog.isCountableType(type)) {
             int quantity = 20 + random.nextInt(30);
-            return new CountableProduct(id, batchId, info.getName(), type,
-                    info.getBasePrice(), productionDate, shelfLife, quantity);
+            product = new CountableProduct(definition, batchNumber, productionDay, quantity);
         } else {
             double weight = 5.0 + random.nextDouble() * 10.0;
-            return new WeightableProduct(id, batchId, info.getName(), type,
-                    info.getBasePrice(), productionDate, shelfLife, weight);
+            product = new WeightableProduct(definition, batchNumber, productionDay, weight);
         }
+        product.setSkuOrdinal(info.getOrdinal());
+        return product;
     }
 
     public static Product createProductById(String productId) {
-        ProductCatalog.ProductInfo info = ProductCatalog.findProductById(productId);
+        return createProductById(ProductCatalog.getDefault(), productId, SimulationRandom.threadLocal(), LocalDate.now());
+    }
+
+    public static Product createProductById(ProductCatalog catalog, String productId,
+                                            SplittableRandom random, LocalDate today) {
+        ProductCatalog.ProductInfo info = catalog.findProductById(productId);
         if (info == null) {
             throw new IllegalArgumentException("Продукт не найден по ID: " + productId);
         }
 
-        ProductType type = ProductCatalog.getProductTypeById(productId);
-        String id = productId;
-        String batchId = generateBatchId();
-        LocalDate productionDate = LocalDate.now().minusDays(random.nextInt(3));
-        int shelfLife = type.getShelfLifeDays();
+        ProductDefinition definition = info.getDefinition();
+        long batchNumber = BatchIds.next();
+        int productionDay = (int) today.toEpochDay() - random.nextInt(3);
 
-        if (ProductCatalog.isCountableType(type)) {
-            int quantity = 25;
-            return new CountableProduct(id, batchId, info.getName(), type,
-                    info.getBasePrice(), productionDate, shelfLife, quantity);
+        Product product;
+        if (ProductCatalog.isCountableType(definition.getType())) {
+            product = new CountableProduct(definition, batchNumber, productionDay, 25);
         } else {
-            double weight = 8.0;
-            return new WeightableProduct(id, batchId, info.getName(), type,
-                    info.getBasePrice(), productionDate, shelfLife, weight);
+            product = new WeightableProduct(definition, batchNumber, productionDay, 8.0);
         }
+        product.setSkuOrdinal(info.getOrdinal());
+        return product;
     }
 
+    // Копия партии с другим остатком: описание товара общее, копируется только состояние партии
     public static Product createCopy(Product original, double newAmount) {
-        String id = original.getId();
-        String batchId = original.getBatchId();
-        String name = original.getName();
-        ProductType type = original.getType();
-        double price = original.getPrice();
-        LocalDate productionDate = original.getProductionDate();
-        LocalDate expirationDate = original.getExpiryDate();
-        double discount = original.getDiscount();
+        return createPartialCopy(original, original instanceof WeightableProduct
+                ? Quantity.ofKilograms(newAmount) : Quantity.ofUnits((int) newAmount));
+    }
 
-        // Вычисляем срок годности в днях
-        int shelfLifeDays = original.getShelfLifeDays();
+    // То же с остатком в тысячных долях единицы (Quantity)
+    public static Product createPartialCopy(Product original, long amount) {
+        ProductDefinition definition = original.getDefinition();
+        long batchNumber = original.getBatchNumber();
+        int productionDay = original.getProductionEpochDay();
 
+        Product copy;
         if (original instanceof CountableProduct) {
-            return new CountableProduct(id, batchId, name, type, price,
-                    productionDate, shelfLifeDays, (int) newAmount);
+            copy = new CountableProduct(definition, batchNumber, productionDay, Quantity.toUnits(amount));
         } else if (original instanceof WeightableProduct) {
-            return new WeightableProduct(id, batchId, name, type, price,
-                    productionDate, shelfLifeDays, newAmount);
+            copy = new WeightableProduct(definition, batchNumber, productionDay, amount);
+        } else {
+            // Для безопасности - возвращаем null если тип неизвестен
+            return null;
         }
-
-        // Для безопасности - возвращаем null если тип неизвестен
-        return null;
-    }
-
-    private static String generateBatchId() {
-        return "BATCH_" + LocalDate.now() + "_" + System.currentTimeMillis() + "_" + random.nextInt(1000);
+        copy.setSkuOrdinal(original.getSkuOrdinal());
+        copy.copyBatchLabel(original);
+        return copy;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package supermarket.product;
+
+// Количество товара в тысячных долях единицы (long): граммы для весовых товаров,
+// тысячные штуки для штучных. Одна шкала для обоих видов позволяет полке, складу
+// и залу складывать остатки без проверки вида товара и без сравнений с эпсилоном.
+public final class Quantity {
+    public static final long SCALE = 1000; // граммов в килограмме, тысячных в штуке
+
+    private Quantity() {
+    }
+
+    public static long ofUnits(long units) {
+        return units * SCALE;
+    }
+
+    // Целых штук в количестве (дробная часть отбрасывается)
+    public static int toUnits(long amount) {
+        return (int) (amount / SCALE);
+    }
+
+    public static long ofKilograms(double kilograms) {
+        return Math.round(kilograms * SCALE);
+    }
+
+    // Штуки или килограммы в double - для вывода и старых методов доступа
+    public static double toDouble(long amount) {
+        return amount / (double) SCALE;
+    }
+
+    // "12.345" - килограммы с точностью до грамма
+    public static String formatKilograms(long grams) {
+        StringBuilder out = new StringBuilder(16);
+        if (grams < 0) {
+            out.append('-');
+            grams = -grams;
+        }
+        long fraction = grams % SCALE;
+        out.append(grams / SCALE).append('.');
+        if (fraction < 100) {
+            out.append('0');
+        }
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction).toString();
+    }
+}
@@ -2,24 +2,47 @@ package supermarket.product;
 
 import java.time.LocalDate;
 
+// Весовой товар: вес партии хранится в граммах
 public class WeightableProduct extends Product {
-    private double weight;
+    private long grams;
 
     public WeightableProduct(String id, String batchId, String name, ProductType type, double price,
                              LocalDate productionDate, int shelfLifeDays, double weight) {
         super(id, batchId, name, type, price, productionDate, shelfLifeDays);
-        this.weight = weight;
+        this.grams = Quantity.ofKilograms(weight);
+    }
+
+    public WeightableProduct(ProductDefinition definition, long batchNumber, int productionEpochDay, double weight) {
+        this(definition, batchNumber, productionEpochDay, Quantity.ofKilograms(weight));
+    }
+
+    public WeightableProduct(ProductDefinition definition, long batchNumber, int productionEpochDay, long grams) {
+        super(definition, batchNumber, productionEpochDay);
+        this.grams = grams;
     }
 
     public double getWeight() {
-        return weight;
+        return Quantity.toDouble(grams);
     }
 
     public void setWeight(double weight) {
-        this.weight = weight;
+        this.grams = Quantity.ofKilograms(weight);
+    }
+
+    public long getGrams() {
+        return grams;
+    }
+
+    public void setGrams(long grams) {
+        this.grams = grams;
     }
 
     public void decreaseWeight(double amount) {
-        this.weight -= amount;
+        this.grams -= Quantity.ofKilograms(amount);
+    }
+
+    @Override
+    public long getAmount() {
+        return grams;
     }
-}
\ No newline at end of file
+}
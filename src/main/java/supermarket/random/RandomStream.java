@@ -0,0 +1,10 @@
+package supermarket.random;
+
+// Независимые потоки случайных чисел по компонентам симуляции
+public enum RandomStream {
+    STORE,      // Планирование дня: начальный товар, покупатели дня и их бюджеты
+    EVENTS,     // Расписание событий
+    SUPPLY,     // Товаровед: поставки и пополнение
+    DISCOUNTS,  // Случайные акции в зале
+    CUSTOMERS   // Покупки: выбор покупателя и товаров, списание баллов
+}
@@ -0,0 +1,73 @@
+package supermarket.random;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Единый источник случайности симуляции на основе SplittableRandom.
+// Поток каждого компонента выводится из одного зерна, номера компонента и номера дня,
+// поэтому прогон с тем же зерном повторяется бит в бит, а с начала любого дня
+// (например, после восстановления из контрольной точки) продолжается так же, как без остановки.
+// Экземпляр принадлежит одной симуляции: общих с другими потоками объектов нет.
+public class SimulationRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final ThreadLocal<SplittableRandom> THREAD_RANDOM =
+            ThreadLocal.withInitial(SplittableRandom::new);
+
+    private final long seed;
+    private final SplittableRandom[] streams;
+    private long day;
+
+    public SimulationRandom(long seed) {
+        this.seed = seed;
+        this.streams = new SplittableRandom[RandomStream.values().length];
+        startDay(0);
+    }
+
+    // Зерно из системной энтропии - для кода, которому воспроизводимость не нужна
+    public static SimulationRandom unseeded() {
+        return new SimulationRandom(THREAD_RANDOM.get().nextLong());
+    }
+
+    // Генератор текущего потока для вспомогательных методов без явного генератора
+    public static SplittableRandom threadLocal() {
+        return THREAD_RANDOM.get();
+    }
+
+    // Переключить все потоки на указанный день симуляции
+    public void startDay(long day) {
+        this.day = day;
+        for (RandomStream stream : RandomStream.values()) {
+            streams[stream.ordinal()] = new SplittableRandom(mix(mix(seed, stream.ordinal() + 1), day));
+        }
+    }
+
+    public SplittableRandom get(RandomStream stream) {
+        return streams[stream.ordinal()];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getDay() {
+        return day;
+    }
+
+    // Перемешивание SplitMix64: из пары чисел получаем некоррелированное 64-битное значение
+    public static long mix(long value, long salt) {
+        long z = value + (salt + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Тасование Фишера-Йетса (Collections.shuffle принимает только java.util.Random)
+    public static <T> void shuffle(List<T> list, SplittableRandom random) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            if (i != j) {
+                list.set(i, list.set(j, list.get(i)));
+            }
+        }
+    }
+}
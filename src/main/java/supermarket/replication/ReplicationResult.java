@@ -0,0 +1,34 @@
+package supermarket.replication;
+
+// Итог одного независимого прогона симуляции
+public class ReplicationResult {
+    private final int index;
+    private final long seed;
+    private final double revenue;
+    private final long purchases;
+    private final long wastedBatches;
+    private final long stockouts;
+
+    public ReplicationResult(int index, long seed, double revenue, long purchases,
+                             long wastedBatches, long stockouts) {
+        this.index = index;
+        this.seed = seed;
+        this.revenue = revenue;
+        this.purchases = purchases;
+        this.wastedBatches = wastedBatches;
+        this.stockouts = stockouts;
+    }
+
+    public int getIndex() { return index; }
+    public long getSeed() { return seed; }
+    public double getRevenue() { return revenue; }
+    public long getPurchases() { return purchases; }
+    public long getWastedBatches() { return wastedBatches; }
+    public long getStockouts() { return stockouts; }
+
+    @Override
+    public String toString() {
+        return String.format("#%d (seed %d): выручка %.2f руб., покупок %d, утилизировано %d, дефицитов %d",
+                index, seed, revenue, purchases, wastedBatches, stockouts);
+    }
+}
@@ -0,0 +1,88 @@
+package supermarket.replication;
+
+import supermarket.PacingPolicy;
+import supermarket.Supermarket;
+import supermarket.output.SimulationOutput;
+import supermarket.random.SimulationRandom;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Монте-Карло: N независимых копий симуляции с разными зернами, параллельно на fork-join пуле.
+// Каждая копия владеет своим складом, залом, покупателями и генераторами случайных чисел,
+// поэтому потоки не разделяют изменяемого состояния и не ждут друг друга.
+public class ReplicationRunner {
+    private final ForkJoinPool pool;
+
+    public ReplicationRunner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ReplicationRunner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public ReplicationSummary run(int replications, int days, long baseSeed, LocalDate startDate) {
+        if (replications <= 0) {
+            throw new IllegalArgumentException("Число прогонов должно быть положительным: " + replications);
+        }
+
+        long startNanos = System.nanoTime();
+        ReplicationResult[] results = new ReplicationResult[replications];
+        pool.invoke(new ReplicationTask(results, 0, replications, days, baseSeed, startDate));
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+
+        return new ReplicationSummary(Arrays.asList(results), days, elapsedMillis);
+    }
+
+    // Один прогон: тихий вывод и максимальный темп
+    public static ReplicationResult runReplication(int index, long seed, int days, LocalDate startDate) {
+        Supermarket supermarket = new Supermarket(startDate, seed, SimulationOutput.silent());
+        supermarket.runSimulation(days, PacingPolicy.asFastAsPossible());
+
+        return new ReplicationResult(index, seed,
+                supermarket.getTotalRevenue(),
+                supermarket.getTotalPurchasesCount(),
+                supermarket.getWastedBatches(),
+                supermarket.getStockoutCount());
+    }
+
+    // Зерно прогона выводится из базового зерна и номера,
+    // так что соседние номера дают некоррелированные потоки случайных чисел
+    public static long replicationSeed(long baseSeed, int index) {
+        return SimulationRandom.mix(baseSeed, index);
+    }
+
+    private static class ReplicationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ReplicationResult[] results;
+        private final int from;
+        private final int to;
+        private final int days;
+        private final long baseSeed;
+        private final LocalDate startDate;
+
+        ReplicationTask(ReplicationResult[] results, int from, int to, int days, long baseSeed, LocalDate startDate) {
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.days = days;
+            this.baseSeed = baseSeed;
+            this.startDate = startDate;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = runReplication(from, replicationSeed(baseSeed, from), days, startDate);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ReplicationTask(results, from, middle, days, baseSeed, startDate),
+                    new ReplicationTask(results, middle, to, days, baseSeed, startDate));
+        }
+    }
+}
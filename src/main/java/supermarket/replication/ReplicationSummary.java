@@ -0,0 +1,46 @@
+package supermarket.replication;
+
+import java.util.Collections;
+import java.util.List;
+
+// Сводка по всем прогонам: средние значения и доверительные интервалы
+public class ReplicationSummary {
+    private final List<ReplicationResult> results;
+    private final int days;
+    private final long elapsedMillis;
+    private final Statistic revenue = new Statistic("Выручка, руб.");
+    private final Statistic purchases = new Statistic("Покупок");
+    private final Statistic wastedBatches = new Statistic("Утилизировано партий");
+    private final Statistic stockouts = new Statistic("Дефицитов на полках");
+
+    public ReplicationSummary(List<ReplicationResult> results, int days, long elapsedMillis) {
+        this.results = Collections.unmodifiableList(results);
+        this.days = days;
+        this.elapsedMillis = elapsedMillis;
+
+        for (ReplicationResult result : results) {
+            revenue.add(result.getRevenue());
+            purchases.add(result.getPurchases());
+            wastedBatches.add(result.getWastedBatches());
+            stockouts.add(result.getStockouts());
+        }
+    }
+
+    public List<ReplicationResult> getResults() { return results; }
+    public int getReplications() { return results.size(); }
+    public int getDays() { return days; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public Statistic getRevenue() { return revenue; }
+    public Statistic getPurchases() { return purchases; }
+    public Statistic getWastedBatches() { return wastedBatches; }
+    public Statistic getStockouts() { return stockouts; }
+
+    @Override
+    public String toString() {
+        return "📈 " + results.size() + " прогонов по " + days + " дней (" + elapsedMillis + " мс)\n" +
+                "   " + revenue + "\n" +
+                "   " + purchases + "\n" +
+                "   " + wastedBatches + "\n" +
+                "   " + stockouts;
+    }
+}
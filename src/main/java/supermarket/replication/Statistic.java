@@ -0,0 +1,56 @@
+package supermarket.replication;
+
+// Выборочное среднее, стандартное отклонение и 95% доверительный интервал (t-распределение).
+// Накопление по алгоритму Уэлфорда - устойчиво к погрешностям округления.
+public class Statistic {
+    // Квантили t-распределения уровня 0.975 для 1..30 степеней свободы
+    private static final double[] T_975 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    private static final double Z_975 = 1.960;
+
+    private final String name;
+    private long count;
+    private double mean;
+    private double sumOfSquares;
+
+    public Statistic(String name) {
+        this.name = name;
+    }
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumOfSquares += delta * (value - mean);
+    }
+
+    public String getName() { return name; }
+    public long getCount() { return count; }
+    public double getMean() { return mean; }
+
+    public double getStandardDeviation() {
+        return count > 1 ? Math.sqrt(sumOfSquares / (count - 1)) : 0.0;
+    }
+
+    // Половина ширины 95% доверительного интервала для среднего
+    public double getHalfWidth95() {
+        if (count < 2) {
+            return 0.0;
+        }
+        long degreesOfFreedom = count - 1;
+        double t = degreesOfFreedom <= T_975.length ? T_975[(int) degreesOfFreedom - 1] : Z_975;
+        return t * getStandardDeviation() / Math.sqrt(count);
+    }
+
+    public double getLower95() { return mean - getHalfWidth95(); }
+    public double getUpper95() { return mean + getHalfWidth95(); }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.2f ± %.2f (95%% ДИ [%.2f; %.2f], n = %d)",
+                name, mean, getHalfWidth95(), getLower95(), getUpper95(), count);
+    }
+}
@@ -0,0 +1,142 @@
+package supermarket.storage;
+
+import supermarket.product.Product;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Колесо сроков годности: партии разложены по корзинам по дню окончания срока (epoch-day).
+// Корзина дня d - это d mod WHEEL_SIZE; партии с долгим сроком попадают в ту же корзину на
+// следующих оборотах и при разборе пропускаются сравнением дня.
+// Ежедневная утилизация просматривает только корзины прошедших дней, а не все партии.
+// Партии различаются по ссылке: склад и зал регистрируют свои объекты партий.
+public class ExpiryWheel {
+    private static final int WHEEL_SIZE = 64; // степень двойки
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final Node[] buckets;
+    private final Map<Product, Node> nodes;
+    // Все партии в колесе истекают не раньше этого дня; дни до него уже разобраны
+    private long cursorDay;
+
+    public ExpiryWheel() {
+        this.buckets = new Node[WHEEL_SIZE];
+        this.nodes = new IdentityHashMap<>();
+        this.cursorDay = Long.MAX_VALUE;
+    }
+
+    public void add(Product batch) {
+        if (nodes.containsKey(batch)) {
+            return;
+        }
+        long expiryDay = batch.getExpiryEpochDay();
+        Node node = new Node(batch, expiryDay);
+        nodes.put(batch, node);
+        link(node);
+        if (expiryDay < cursorDay) {
+            cursorDay = expiryDay;
+        }
+    }
+
+    public boolean remove(Product batch) {
+        Node node = nodes.remove(batch);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    public boolean contains(Product batch) {
+        return nodes.containsKey(batch);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public void clear() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets[i] = null;
+        }
+        nodes.clear();
+        cursorDay = Long.MAX_VALUE;
+    }
+
+    // Убирает из колеса партии, просроченные на currentEpochDay (срок закончился раньше этого дня),
+    // и передает их в action. Возвращает их число.
+    public int drainExpired(long currentEpochDay, Consumer<Product> action) {
+        long lastDay = currentEpochDay - 1;
+        if (nodes.isEmpty() || lastDay < cursorDay) {
+            if (nodes.isEmpty()) {
+                cursorDay = Long.MAX_VALUE;
+            }
+            return 0;
+        }
+
+        int drained = 0;
+        if (lastDay - cursorDay + 1 >= WHEEL_SIZE) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                drained += drainBucket(i, lastDay, action);
+            }
+        } else {
+            for (long day = cursorDay; day <= lastDay; day++) {
+                drained += drainBucket((int) (day & MASK), lastDay, action);
+            }
+        }
+        cursorDay = nodes.isEmpty() ? Long.MAX_VALUE : lastDay + 1;
+        return drained;
+    }
+
+    private int drainBucket(int index, long lastDay, Consumer<Product> action) {
+        int drained = 0;
+        Node node = buckets[index];
+        while (node != null) {
+            Node next = node.next;
+            if (node.expiryDay <= lastDay) {
+                unlink(node);
+                nodes.remove(node.batch);
+                action.accept(node.batch);
+                drained++;
+            }
+            node = next;
+        }
+        return drained;
+    }
+
+    private void link(Node node) {
+        int index = (int) (node.expiryDay & MASK);
+        Node head = buckets[index];
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        }
+        buckets[index] = node;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            buckets[(int) (node.expiryDay & MASK)] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static final class Node {
+        final Product batch;
+        final long expiryDay;
+        Node prev;
+        Node next;
+
+        Node(Product batch, long expiryDay) {
+            this.batch = batch;
+            this.expiryDay = expiryDay;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package supermarket.storage;
+
+import supermarket.product.Product;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+// Партии одного товара на складе в порядке FEFO (first expired - first out):
+// двоичная min-куча по дню окончания срока, при равном сроке - по номеру партии.
+// Каждый элемент кучи помнит свое место, а индекс номер партии -> элемент дает
+// удаление партии за O(log n) без перебора. Снаружи это список только для чтения:
+// get(0) - партия, которая истекает раньше всех, остальные идут в порядке кучи.
+class FefoBatches extends AbstractList<Product> implements RandomAccess {
+    private Slot[] heap = new Slot[4];
+    private int size;
+    private final LongMap<Slot> slotsByBatchId = new LongMap<>();
+    private long totalAmount; // остаток всех партий (Quantity), ведется при каждом изменении
+
+    private static final class Slot {
+        final Product batch;
+        int index;
+        Slot sameBatchId; // партии с тем же номером (обычно нет)
+
+        Slot(Product batch) {
+            this.batch = batch;
+        }
+    }
+
+    @Override
+    public Product get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return heap[index].batch;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    Product first() {
+        return size > 0 ? heap[0].batch : null;
+    }
+
+    long getTotalAmount() {
+        return totalAmount;
+    }
+
+    void offer(Product batch) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        Slot slot = new Slot(batch);
+        Slot existing = slotsByBatchId.putIfAbsent(batch.getBatchNumber(), slot);
+        if (existing != null) {
+            slot.sameBatchId = existing.sameBatchId;
+            existing.sameBatchId = slot;
+        }
+        modCount++;
+        totalAmount += batch.getAmount();
+        siftUp(size++, slot);
+    }
+
+    // Удаляет одну партию с этим номером и возвращает ее; null - такой партии нет
+    Product removeBatch(long batchNumber) {
+        Slot slot = slotsByBatchId.get(batchNumber);
+        if (slot == null) {
+            return null;
+        }
+        if (slot.sameBatchId != null) {
+            slotsByBatchId.put(batchNumber, slot.sameBatchId);
+        } else {
+            slotsByBatchId.remove(batchNumber);
+        }
+        removeAt(slot.index);
+        return slot.batch;
+    }
+
+    // Удаляет именно эту партию (сравнение по ссылке)
+    boolean removeBatch(Product batch) {
+        long batchNumber = batch.getBatchNumber();
+        Slot previous = null;
+        for (Slot slot = slotsByBatchId.get(batchNumber); slot != null; slot = slot.sameBatchId) {
+            if (slot.batch == batch) {
+                if (previous != null) {
+                    previous.sameBatchId = slot.sameBatchId;
+                } else if (slot.sameBatchId != null) {
+                    slotsByBatchId.put(batchNumber, slot.sameBatchId);
+                } else {
+                    slotsByBatchId.remove(batchNumber);
+                }
+                removeAt(slot.index);
+                return true;
+            }
+            previous = slot;
+        }
+        return false;
+    }
+
+    private void removeAt(int index) {
+        modCount++;
+        totalAmount -= heap[index].batch.getAmount();
+        Slot last = heap[--size];
+        heap[size] = null;
+        if (index == size) {
+            return;
+        }
+        siftDown(index, last);
+        if (heap[index] == last) {
+            siftUp(index, last);
+        }
+    }
+
+    private void siftUp(int index, Slot slot) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Slot parentSlot = heap[parent];
+            if (!expiresBefore(slot.batch, parentSlot.batch)) {
+                break;
+            }
+            place(index, parentSlot);
+            index = parent;
+        }
+        place(index, slot);
+    }
+
+    private void siftDown(int index, Slot slot) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && expiresBefore(heap[right].batch, heap[child].batch)) {
+                child = right;
+            }
+            if (!expiresBefore(heap[child].batch, slot.batch)) {
+                break;
+            }
+            place(index, heap[child]);
+            index = child;
+        }
+        place(index, slot);
+    }
+
+    private void place(int index, Slot slot) {
+        heap[index] = slot;
+        slot.index = index;
+    }
+
+    // Порядок зависит только от самих партий, поэтому восстановленный склад выдает их так же
+    private static boolean expiresBefore(Product a, Product b) {
+        if (a.getExpiryEpochDay() != b.getExpiryEpochDay()) {
+            return a.getExpiryEpochDay() < b.getExpiryEpochDay();
+        }
+        return a.getBatchNumber() < b.getBatchNumber();
+    }
+}
@@ -0,0 +1,81 @@
+package supermarket.storage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+// Множество порядковых номеров товаров каталога: атомарные слова по 64 бита.
+// Бит меняется CAS-циклом по своему слову, поэтому биты разных товаров пишут потоки под разными
+// полосами зала без общей блокировки; слово читается без блокировок. Запись пропускается,
+// если бит уже имеет нужное значение: частые одинаковые отметки не гоняют строку кэша между ядрами.
+final class OrdinalBits {
+    private final AtomicLongArray words;
+
+    OrdinalBits(int size) {
+        this.words = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    boolean get(int ordinal) {
+        return (words.get(ordinal >>> 6) & 1L << ordinal) != 0;
+    }
+
+    // true - бит изменился
+    boolean set(int ordinal, boolean value) {
+        int index = ordinal >>> 6;
+        long bit = 1L << ordinal;
+        long word;
+        do {
+            word = words.get(index);
+            if (((word & bit) != 0) == value) {
+                return false;
+            }
+        } while (!words.compareAndSet(index, word, word ^ bit));
+        return true;
+    }
+
+    int wordCount() {
+        return words.length();
+    }
+
+    long word(int index) {
+        return words.get(index);
+    }
+
+    int cardinality() {
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    // Первый номер не меньше from или -1
+    int nextSetBit(int from) {
+        int index = from >>> 6;
+        if (index >= words.length()) {
+            return -1;
+        }
+        long word = words.get(index) & -1L << from;
+        while (word == 0) {
+            if (++index == words.length()) {
+                return -1;
+            }
+            word = words.get(index);
+        }
+        return (index << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    // Снимает все биты и передает их номера в action по возрастанию. Бит, поставленный во время
+    // обхода, либо попадает в этот обход, либо остается до следующего
+    void drain(IntConsumer action) {
+        for (int index = 0; index < words.length(); index++) {
+            if (words.get(index) == 0) {
+                continue;
+            }
+            long word = words.getAndSet(index, 0);
+            while (word != 0) {
+                action.accept((index << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+}
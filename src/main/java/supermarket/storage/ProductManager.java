@@ -1,24 +1,59 @@
 package supermarket.storage;
 
 import supermarket.SupermarketConfig;
+import supermarket.output.SimulationOutput;
 import supermarket.product.*;
+import supermarket.random.RandomStream;
+import supermarket.random.SimulationRandom;
 
 import java.time.LocalDate;
 import java.util.*;
 
 public class ProductManager {
+    // Товар перемещается в зал, пока полка заполнена меньше чем на полтора минимальных запаса
+    private static final double TRANSFER_FILL_RATIO = 1.5;
+
     private final Warehouse warehouse;
     private final SalesHall salesHall;
-    private final Random random;
+    private final ProductCatalog catalog;
+    private final SimulationRandom randoms;
+    private final SimulationOutput output;
+    private LocalDate currentDate;
+    private int currentDay; // currentDate как epoch-day
+    private int[] polledSkus = new int[16]; // товары, извлеченные из очереди за одно перемещение
 
     public ProductManager(Warehouse warehouse, SalesHall salesHall) {
+        this(warehouse, salesHall, SimulationOutput.defaultOutput());
+    }
+
+    public ProductManager(Warehouse warehouse, SalesHall salesHall, SimulationOutput output) {
+        this(warehouse, salesHall, ProductCatalog.getDefault(), SimulationRandom.unseeded(), output);
+    }
+
+    // Поставки берут числа из потока SUPPLY общего источника симуляции
+    public ProductManager(Warehouse warehouse, SalesHall salesHall, ProductCatalog catalog,
+                          SimulationRandom randoms, SimulationOutput output) {
         this.warehouse = warehouse;
         this.salesHall = salesHall;
-        this.random = new Random();
+        this.catalog = catalog;
+        this.randoms = randoms;
+        this.output = output;
+        setCurrentDate(LocalDate.now());
+        warehouse.trackDeficits(salesHall.getDeficitQueue());
+    }
+
+    // Текущая дата симуляции: с ней товаровед принимает и перемещает товары
+    public void setCurrentDate(LocalDate currentDate) {
+        this.currentDate = currentDate;
+        this.currentDay = (int) currentDate.toEpochDay();
+    }
+
+    public LocalDate getCurrentDate() {
+        return currentDate;
     }
 
     public void checkAndRestockAll() {
-        System.out.println("\n🔄 Товаровед проверяет запасы...");
+        output.verbose("\n🔄 Товаровед проверяет запасы...");
 
         checkAndRestockWarehouse();
 
@@ -34,50 +69,60 @@ public class ProductManager {
     }
 
     private void handleWarehouseRestocking() {
+        SplittableRandom random = randoms.get(RandomStream.SUPPLY);
         if (warehouse.isEmpty()) {
-            System.out.println("⚠️ Товаровед: Склад пуст! Срочное пополнение...");
+            output.verbose("⚠️ Товаровед: Склад пуст! Срочное пополнение...");
             emergencyWarehouseDelivery(12 + random.nextInt(8));
         } else if (warehouse.needsRestocking()) {
-            System.out.println("⚠️ Товаровед: На складе мало товаров. Пополняем...");
+            output.verbose("⚠️ Товаровед: На складе мало товаров. Пополняем...");
             emergencyWarehouseDelivery(8 + random.nextInt(5));
         }
     }
 
     private void emergencyWarehouseDelivery(int count) {
+        SplittableRandom random = randoms.get(RandomStream.SUPPLY);
         int addedCount = 0;
         for (int i = 0; i < count; i++) {
             ProductType randomType = ProductType.values()[random.nextInt(ProductType.values().length)];
-            Product product = ProductFactory.createRandomProduct(randomType);
-            if (warehouse.addProduct(product, LocalDate.now())) {
+            Product product = ProductFactory.createRandomProduct(catalog, randomType, random, currentDate);
+            if (warehouse.addProduct(product, currentDay)) {
                 addedCount++;
-                System.out.println("   📦 На склад добавлен: " + product.getName());
+                if (output.isVerbose()) {
+                    output.verbose("   📦 На склад добавлен: " + product.getName());
+                }
             }
         }
-        System.out.println("   ✅ Товаровед пополнил склад: +" + addedCount + " товаров");
+        if (output.isVerbose()) {
+            output.verbose("   ✅ Товаровед пополнил склад: +" + addedCount + " товаров");
+        }
     }
 
     private void restockLowWarehouseItems() {
+        SplittableRandom random = randoms.get(RandomStream.SUPPLY);
         List<String> lowStockProducts = warehouse.getLowStockProductIds();
         int restockedCount = 0;
 
         for (String productId : lowStockProducts) {
             if (restockedCount >= 3) break;
 
-            String productName = ProductCatalog.getProductNameById(productId);
-            System.out.println("   🔄 Товаровед пополняет на складе: " + productName);
+            if (output.isVerbose()) {
+                output.verbose("   🔄 Товаровед пополняет на складе: " + catalog.getProductNameById(productId));
+            }
 
             int batchesToAdd = 1 + random.nextInt(2);
             for (int i = 0; i < batchesToAdd; i++) {
-                Product product = ProductFactory.createProductById(productId);
-                if (warehouse.addProduct(product, LocalDate.now())) {
+                Product product = ProductFactory.createProductById(catalog, productId, random, currentDate);
+                if (warehouse.addProduct(product, currentDay)) {
                     restockedCount++;
-                    System.out.println("     📦 Добавлена партия: " + product.getName());
+                    if (output.isVerbose()) {
+                        output.verbose("     📦 Добавлена партия: " + product.getName());
+                    }
                 }
             }
         }
 
-        if (restockedCount > 0) {
-            System.out.println("   ✅ Товаровед пополнил " + restockedCount + " позиций на складе");
+        if (restockedCount > 0 && output.isVerbose()) {
+            output.verbose("   ✅ Товаровед пополнил " + restockedCount + " позиций на складе");
         }
     }
 
@@ -100,69 +145,97 @@ public class ProductManager {
         }
 
         if (restockedCount == 0 && !lowStockProducts.isEmpty()) {
-            System.out.println("   ℹ️ Товаровед: Нет товаров на складе для пополнения зала");
+            output.verbose("   ℹ️ Товаровед: Нет товаров на складе для пополнения зала");
         }
     }
 
     public void transferProductsToHall() {
-        System.out.println("\n🔄 Перемещение товаров в зал:");
+        output.verbose("\n🔄 Перемещение товаров в зал:");
 
         int transferredCount = 0;
         int maxTransfers = 10;
 
-        Map<String, List<Product>> allProducts = warehouse.getAllProducts();
-        List<Product> availableProducts = new ArrayList<>();
-
-        // Собираем все доступные товары
-        for (Map.Entry<String, List<Product>> entry : allProducts.entrySet()) {
-            availableProducts.addAll(entry.getValue());
+        // Товары берутся из очереди нехватки зала: сначала самые пустые полки.
+        // Перемещаем только пока заполненность ниже полутора минимальных запасов
+        ShelfDeficitQueue deficits = salesHall.getDeficitQueue();
+        int polledCount = 0;
+        while (transferredCount < maxTransfers && deficits.peekFillRatio() < TRANSFER_FILL_RATIO) {
+            int skuOrdinal = deficits.poll();
+            if (polledCount == polledSkus.length) {
+                polledSkus = Arrays.copyOf(polledSkus, polledCount * 2);
+            }
+            polledSkus[polledCount++] = skuOrdinal;
+            transferredCount += transferBatches(skuOrdinal, maxTransfers - transferredCount);
+        }
+        // Товары, которые остались на складе, возвращаются в очередь с новой заполненностью
+        for (int i = 0; i < polledCount; i++) {
+            if (warehouse.hasStock(polledSkus[i])) {
+                deficits.add(polledSkus[i]);
+            }
         }
 
-        // Сортируем по приоритету: сначала товары с низкими запасами в зале
-        availableProducts.sort((p1, p2) -> {
-            double stock1 = salesHall.getTotalAmount(p1.getId());
-            double stock2 = salesHall.getTotalAmount(p2.getId());
-            return Double.compare(stock1, stock2); // Сначала самые низкие запасы
-        });
-
-        for (Product product : availableProducts) {
-            if (transferredCount >= maxTransfers) break;
-
-            String productId = product.getId();
-            double hallStock = salesHall.getTotalAmount(productId);
-            double minStock = getMinStockForProduct(productId);
+        if (transferredCount < maxTransfers && warehouse.getUncatalogedProductCount() > 0) {
+            transferredCount += transferUncatalogedProducts(maxTransfers - transferredCount);
+        }
 
-            // Перемещаем только если нужно пополнить
-            if (hallStock < minStock * 1.5) {
-                if (salesHall.addProduct(product, LocalDate.now())) {
-                    warehouse.removeBatch(productId, product.getBatchId());
-                    transferredCount++;
-                }
+        if (output.isVerbose()) {
+            if (transferredCount > 0) {
+                output.verbose("   ✅ Перемещено: " + transferredCount + " товаров");
+            } else {
+                output.verbose("   ℹ️ Перемещение не требуется");
             }
         }
+    }
 
-        if (transferredCount > 0) {
-            System.out.println("   ✅ Перемещено: " + transferredCount + " товаров");
-        } else {
-            System.out.println("   ℹ️ Перемещение не требуется");
+    // Партии одного товара по FEFO, пока полка не заполнится. Если первую по сроку партию
+    // зал не принял, следующие тоже не переносим: иначе свежий товар обгонит старый
+    private int transferBatches(int skuOrdinal, int limit) {
+        int transferred = 0;
+        while (transferred < limit && salesHall.getDeficitQueue().fillRatio(skuOrdinal) < TRANSFER_FILL_RATIO) {
+            Product product = warehouse.getProduct(skuOrdinal);
+            if (product == null || !salesHall.addProduct(product, currentDay)) {
+                break;
+            }
+            warehouse.removeBatch(product.getId(), product.getBatchNumber());
+            transferred++;
         }
+        return transferred;
     }
 
-    public void restockProduct(String productId) {
-        List<Product> warehouseBatches = warehouse.findProductsById(productId);
-        int restocked = 0;
+    // Товары вне каталога не попадают в очередь нехватки: для них прежний перебор партий
+    private int transferUncatalogedProducts(int limit) {
+        List<Product> candidates = new ArrayList<>();
+        warehouse.forEachBatch(product -> {
+            if (product.getSkuOrdinal() < 0) {
+                candidates.add(product);
+            }
+        });
+        candidates.sort((p1, p2) -> Double.compare(hallStock(p1), hallStock(p2)));
 
-        for (Product product : warehouseBatches) {
-            if (salesHall.addProduct(product, LocalDate.now())) {
-                warehouse.removeBatch(productId, product.getBatchId());
-                restocked++;
-                break;
+        int transferred = 0;
+        for (Product product : candidates) {
+            if (transferred >= limit) break;
+
+            if (hallStock(product) < getMinStockForProduct(product) * TRANSFER_FILL_RATIO
+                    && salesHall.addProduct(product, currentDay)) {
+                warehouse.removeBatch(product.getId(), product.getBatchNumber());
+                transferred++;
             }
         }
+        return transferred;
+    }
 
-        if (restocked > 0) {
-            String productName = ProductCatalog.getProductNameById(productId);
-            System.out.println("   🔄 Товаровед пополнил в зале: " + productName);
+    // Переносится партия, которая истекает раньше всех (первая в FEFO-порядке склада). Если ее
+    // зал не принял, другие не пробуем: как в transferBatches, свежий товар не обгоняет старый
+    public void restockProduct(String productId) {
+        Product product = warehouse.getProduct(productId);
+        if (product == null || !salesHall.addProduct(product, currentDay)) {
+            return;
+        }
+        warehouse.removeBatch(productId, product.getBatchNumber());
+
+        if (output.isVerbose()) {
+            output.verbose("   🔄 Товаровед пополнил в зале: " + catalog.getProductNameById(productId));
         }
     }
 
@@ -172,8 +245,22 @@ public class ProductManager {
         return currentAmount < minStock;
     }
 
+    // Остаток товара партии в зале: по номеру в каталоге, если он известен
+    private double hallStock(Product product) {
+        int ordinal = product.getSkuOrdinal();
+        return ordinal >= 0 ? salesHall.getTotalAmount(ordinal) : salesHall.getTotalAmount(product.getId());
+    }
+
+    private double getMinStockForProduct(Product batch) {
+        int ordinal = batch.getSkuOrdinal();
+        return minStockFor(ordinal >= 0 ? salesHall.getProduct(ordinal) : salesHall.getProduct(batch.getId()));
+    }
+
     private double getMinStockForProduct(String productId) {
-        Product product = salesHall.getProduct(productId);
+        return minStockFor(salesHall.getProduct(productId));
+    }
+
+    private static double minStockFor(Product product) {
         if (product == null) {
             return 1.0;
         }
@@ -186,31 +273,34 @@ public class ProductManager {
     }
 
     public void generateDelivery() {
+        SplittableRandom random = randoms.get(RandomStream.SUPPLY);
         int productsToAdd;
 
         if (warehouse.isEmpty()) {
             productsToAdd = 15 + random.nextInt(10);
-            System.out.println("🚨 Товаровед: Склад пуст! Заказываем большую партию...");
+            output.verbose("🚨 Товаровед: Склад пуст! Заказываем большую партию...");
         } else if (warehouse.needsRestocking()) {
             productsToAdd = 8 + random.nextInt(7);
-            System.out.println("⚠️ Товаровед: Заказываем товары для пополнения склада...");
+            output.verbose("⚠️ Товаровед: Заказываем товары для пополнения склада...");
         } else {
             productsToAdd = 3 + random.nextInt(4);
-            System.out.println("📦 Товаровед: Регулярная доставка на склад...");
+            output.verbose("📦 Товаровед: Регулярная доставка на склад...");
         }
 
         int addedCount = 0;
         for (int i = 0; i < productsToAdd; i++) {
             ProductType randomType = ProductType.values()[random.nextInt(ProductType.values().length)];
-            Product product = ProductFactory.createRandomProduct(randomType);
-            if (warehouse.addProduct(product, LocalDate.now())) {
+            Product product = ProductFactory.createRandomProduct(catalog, randomType, random, currentDate);
+            if (warehouse.addProduct(product, currentDay)) {
                 addedCount++;
-                System.out.println("   📦 Доставлен на склад: " + product.getName());
+                if (output.isVerbose()) {
+                    output.verbose("   📦 Доставлен на склад: " + product.getName());
+                }
             }
         }
 
-        if (addedCount > 0) {
-            System.out.println("   ✅ Товаровед принял на склад: " + addedCount + " товаров");
+        if (addedCount > 0 && output.isVerbose()) {
+            output.verbose("   ✅ Товаровед принял на склад: " + addedCount + " товаров");
         }
     }
 }
\ No newline at end of file
@@ -9,10 +9,15 @@ import java.util.*;
 public interface ProductStorage {
     boolean addProduct(Product product, LocalDate currentDate);
 
+    // То же с днем симуляции как epoch-day: без LocalDate в горячих циклах
+    boolean addProduct(Product product, int currentEpochDay);
+
     List<Product> findProductsById(String productId);
 
     int removeExpiredProducts(LocalDate currentDate);
 
+    int removeExpiredProducts(int currentEpochDay);
+
     Product getProduct(String productId);
 
     int getTotalProducts();
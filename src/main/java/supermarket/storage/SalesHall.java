@@ -1,28 +1,214 @@
 package supermarket.storage;
 
 import supermarket.SupermarketConfig;
+import supermarket.output.SimulationOutput;
+import supermarket.product.BatchIds;
 import supermarket.product.CountableProduct;
+import supermarket.product.Money;
 import supermarket.product.Product;
 import supermarket.product.ProductCatalog;
+import supermarket.product.ProductFactory;
+import supermarket.product.Quantity;
 import supermarket.product.WeightableProduct;
+import supermarket.random.SimulationRandom;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
+// Торговый зал. Обычный зал однопоточный; зал из concurrent() допускает покупателей и пополнение
+// из разных потоков. Полка товара защищена полосой - одной из STRIPES блокировок по хешу
+// идентификатора; у каждой полосы свое колесо сроков. Продажа и пополнение общей блокировки
+// не берут: индексы по товару (наличие, малый запас, партии без цены каталога) - атомарные
+// множества номеров, число партий - атомарный счетчик, а индекс цен и очередь нехватки получают
+// только отметку об изменении полки. Блокировка индексов нужна лишь запросам по всем полкам:
+// отбор по цене и чтение очереди нехватки переносят отмеченные изменения под ней.
+// Порядок: полосы по возрастанию номера, затем индексы; полоса под блокировкой индексов
+// не берется. Остаток полки volatile, поэтому getStockAmount и getTotalAmount читают его без блокировок.
+// В однопоточном зале блокировок нет вовсе (stripes и indexLock - null).
 public class SalesHall implements ProductStorage {
-    private Map<String, Shelf> shelvesByProductId;
-    private Map<String, String> productIdToName;
+    private static final int EXPIRING_DISCOUNT = Money.discountOf(SupermarketConfig.EXPIRING_DISCOUNT);
+    private static final int STRIPES = 256; // степень двойки
+
+    private final Map<String, Shelf> shelvesByProductId;
+    private final Map<String, String> productIdToName;
+    // Те же полки по порядковому номеру товара в каталоге: поиск без хеширования строк
+    private final ProductCatalog catalog;
+    private final AtomicReferenceArray<Shelf> shelvesByOrdinal;
+    private final Lock[] stripes;   // null - однопоточный зал
+    private final Lock indexLock;   // null - однопоточный зал
+    // Номера полос текущей продажи, по возрастанию; массив свой у каждого потока и переиспользуется
+    private final ThreadLocal<int[]> stripeOrder = ThreadLocal.withInitial(() -> new int[8]);
+    // Индекс цен знает только цену каталога; полки товаров вне каталога и полки с партиями
+    // по другой цене (offPriceOrdinals) отбор по цене просматривает напрямую
+    private ShelfPriceIndex priceIndex; // строится при первом отборе по цене, под блокировкой индексов
+    // Партий полки для индекса цен по номеру товара: пишется под полосой товара, в индекс переносится
+    // при отборе по цене; priceDirty - номера, изменения которых еще не перенесены
+    private final AtomicIntegerArray indexedBatches;
+    private final OrdinalBits priceDirty;
+    private final IntConsumer applyPriceChange = this::applyPriceChange;
+    private final Map<String, Shelf> unindexedShelves;
+    private final OrdinalBits offPriceOrdinals;
+    private final Map<String, Shelf> shelvesView;
+    private final Collection<Shelf> shelvesCollectionView;
+    private final AtomicInteger totalBatches = new AtomicInteger(); // партий на всех полках
+    private final ShelfDeficitQueue deficits;
+    // Полки, заполненные меньше чем на 30%: по номеру в каталоге, затем товары вне каталога
+    private final OrdinalBits lowStockOrdinals;
+    // Товары каталога с непустой полкой, по 64 в слове - для пословного И с предпочтениями покупателей
+    private final OrdinalBits inStockOrdinals;
+    private final Set<String> lowStockUncataloged;
+    private final SimulationOutput output;
+    private final AtomicInteger stockoutCount = new AtomicInteger(); // сколько раз полка опустела из-за продаж
+    private final ExpiryWheel[] expiryWheels; // партии на полках по дню окончания срока, колесо на полосу
+    private volatile StorageListener listener;
+    private final Shelf.SaleListener recordSale = this::recordSale;
 
     public SalesHall() {
-        this.shelvesByProductId = new HashMap<>();
-        this.productIdToName = new HashMap<>();
+        this(SimulationOutput.defaultOutput());
+    }
+
+    public SalesHall(SimulationOutput output) {
+        this(output, ProductCatalog.getDefault());
+    }
+
+    public SalesHall(SimulationOutput output, ProductCatalog catalog) {
+        this(output, catalog, 0);
+    }
+
+    // Зал для покупателей и пополнения из разных потоков. Слушатель (setListener) вызывается
+    // из потоков покупателей под блокировкой полки и сам должен быть потокобезопасным -
+    // журнал событий таким не является
+    public static SalesHall concurrent(SimulationOutput output, ProductCatalog catalog) {
+        return concurrent(output, catalog, STRIPES);
+    }
+
+    // То же с заданным числом полос (степень двойки); одна полоса - все полки под одной блокировкой
+    public static SalesHall concurrent(SimulationOutput output, ProductCatalog catalog, int stripeCount) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Число полос должно быть степенью двойки: " + stripeCount);
+        }
+        return new SalesHall(output, catalog, stripeCount);
+    }
+
+    // stripeCount 0 - однопоточный зал без блокировок
+    private SalesHall(SimulationOutput output, ProductCatalog catalog, int stripeCount) {
+        if (stripeCount > 0) {
+            this.shelvesByProductId = new ConcurrentHashMap<>();
+            this.productIdToName = new ConcurrentHashMap<>();
+            this.stripes = new Lock[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new ReentrantLock();
+            }
+            this.indexLock = new ReentrantLock();
+            this.unindexedShelves = new ConcurrentHashMap<>();
+            this.lowStockUncataloged = new ConcurrentSkipListSet<>();
+        } else {
+            this.shelvesByProductId = new LinkedHashMap<>();
+            this.productIdToName = new HashMap<>();
+            this.stripes = null;
+            this.indexLock = null;
+            this.unindexedShelves = new LinkedHashMap<>();
+            this.lowStockUncataloged = new TreeSet<>();
+        }
+        int skuCount = catalog.getSkuCount();
+        this.catalog = catalog;
+        this.shelvesByOrdinal = new AtomicReferenceArray<>(skuCount);
+        this.indexedBatches = new AtomicIntegerArray(skuCount);
+        this.priceDirty = new OrdinalBits(skuCount);
+        this.offPriceOrdinals = new OrdinalBits(skuCount);
+        this.lowStockOrdinals = new OrdinalBits(skuCount);
+        this.inStockOrdinals = new OrdinalBits(skuCount);
+        this.shelvesView = Collections.unmodifiableMap(shelvesByProductId);
+        this.shelvesCollectionView = Collections.unmodifiableCollection(shelvesByProductId.values());
+        this.deficits = new ShelfDeficitQueue(this, catalog, indexLock);
+        this.expiryWheels = new ExpiryWheel[stripes != null ? stripes.length : 1];
+        for (int i = 0; i < expiryWheels.length; i++) {
+            expiryWheels[i] = new ExpiryWheel();
+        }
+        this.output = output;
+    }
+
+    // Берет полосу товара и возвращает ее для unlock; в однопоточном зале - null без блокировки
+    private Lock lockStripe(String productId) {
+        if (stripes == null) {
+            return null;
+        }
+        Lock lock = stripes[stripeIndex(productId)];
+        lock.lock();
+        return lock;
+    }
+
+    private Lock lockIndex() {
+        if (indexLock != null) {
+            indexLock.lock();
+        }
+        return indexLock;
+    }
+
+    private static void unlock(Lock lock) {
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
+    private int stripeIndex(String productId) {
+        int h = productId.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    // Полосы всех строк по возрастанию номера, каждая один раз. Номера сортируются один раз
+    // в массив потока (stripeOrder) и возвращаются для unlockStripes; в однопоточном зале - null
+    private int[] lockStripes(String[] productIds, int count) {
+        if (stripes == null) {
+            return null;
+        }
+        int[] order = stripeOrder.get();
+        if (order.length < count + 1) {
+            order = new int[Math.max(count + 1, 2 * order.length)];
+            stripeOrder.set(order);
+        }
+        for (int i = 0; i < count; i++) {
+            order[i] = stripeIndex(productIds[i]);
+        }
+        Arrays.sort(order, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || order[i] != order[distinct - 1]) {
+                order[distinct++] = order[i];
+            }
+        }
+        order[distinct] = -1;
+        for (int i = 0; i < distinct; i++) {
+            stripes[order[i]].lock();
+        }
+        return order;
     }
 
-    // Создать или получить полку для товара
+    private void unlockStripes(int[] order) {
+        if (order == null) {
+            return;
+        }
+        for (int i = 0; order[i] >= 0; i++) {
+            stripes[order[i]].unlock();
+        }
+    }
+
+    // Создать или получить полку для товара (под полосой товара)
     private Shelf getOrCreateShelf(Product product) {
         String productId = product.getId();
+        int ordinal = catalog.ordinalOf(product);
+        Shelf shelf = ordinal >= 0 ? shelvesByOrdinal.get(ordinal) : shelvesByProductId.get(productId);
 
-        if (!shelvesByProductId.containsKey(productId)) {
+        if (shelf == null) {
             // Определяем максимальную вместимость для полки в зависимости от типа товара
             double maxCapacity;
             if (ProductCatalog.isCountableType(product.getType())) {
@@ -31,39 +217,284 @@ public class SalesHall implements ProductStorage {
                 maxCapacity = SupermarketConfig.SHELF_MAX_WEIGHTABLE;
             }
 
-            Shelf shelf = new Shelf(productId, maxCapacity);
+            shelf = new Shelf(productId, product.getName(), maxCapacity);
             shelvesByProductId.put(productId, shelf);
             productIdToName.put(productId, product.getName());
+            if (ordinal >= 0) {
+                shelvesByOrdinal.set(ordinal, shelf);
+            } else {
+                unindexedShelves.put(productId, shelf);
+            }
+        }
+        if (ordinal >= 0
+                && product.getPriceKopecks() != catalog.getProductInfo(ordinal).getDefinition().getPriceKopecks()
+                && offPriceOrdinals.set(ordinal, true)) {
+            unindexedShelves.put(productId, shelf);
+        }
+
+        return shelf;
+    }
+
+    private boolean removeFromShelf(Shelf shelf, Product batch) {
+        int batchesBefore = shelf.getBatchCount();
+        boolean removed = shelf.removeProduct(batch);
+        shelfChanged(batch.getId(), batch.getSkuOrdinal(), shelf.getBatchCount() - batchesBefore);
+        return removed;
+    }
+
+    private void removeShelf(String productId, int batchDelta) {
+        shelvesByProductId.remove(productId);
+        productIdToName.remove(productId);
+        int ordinal = catalog.getOrdinal(productId);
+        if (ordinal >= 0) {
+            shelvesByOrdinal.set(ordinal, null);
+        }
+        shelfChanged(productId, ordinal, batchDelta);
+    }
+
+    // Полка товара изменилась (вызывается под полосой товара). Общей блокировки здесь нет:
+    // множества номеров и счетчик партий атомарные, а индекс цен и очередь нехватки получают
+    // только отметку - изменения переносятся в них под блокировкой индексов при чтении
+    private void shelfChanged(String productId, int skuOrdinal, int batchDelta) {
+        Shelf shelf = skuOrdinal >= 0 ? shelvesByOrdinal.get(skuOrdinal) : shelvesByProductId.get(productId);
+        boolean low = shelf != null && shelf.needsRestocking();
+        if (batchDelta != 0) {
+            totalBatches.addAndGet(batchDelta);
+        }
+        if (skuOrdinal < 0) {
+            if (shelf == null) {
+                unindexedShelves.remove(productId);
+            }
+            if (low) {
+                lowStockUncataloged.add(productId);
+            } else {
+                lowStockUncataloged.remove(productId);
+            }
+            return;
+        }
+
+        if (shelf == null && offPriceOrdinals.set(skuOrdinal, false)) {
+            unindexedShelves.remove(productId);
+        }
+        lowStockOrdinals.set(skuOrdinal, low);
+        inStockOrdinals.set(skuOrdinal, shelf != null && !shelf.isEmpty());
+        int indexed = shelf != null && !offPriceOrdinals.get(skuOrdinal) ? shelf.getBatchCount() : 0;
+        if (indexedBatches.get(skuOrdinal) != indexed) {
+            // Сначала число, потом отметка: снявший отметку увидит уже новое число
+            indexedBatches.set(skuOrdinal, indexed);
+            priceDirty.set(skuOrdinal, true);
+        }
+        deficits.amountChanged(skuOrdinal);
+    }
+
+    // Под блокировкой индексов: индекс строится при первом отборе по цене, затем в него
+    // переносятся отмеченные изменения полок
+    private ShelfPriceIndex priceIndex() {
+        if (priceIndex == null) {
+            priceIndex = new ShelfPriceIndex(catalog);
+        }
+        priceDirty.drain(applyPriceChange);
+        return priceIndex;
+    }
+
+    private void applyPriceChange(int skuOrdinal) {
+        priceIndex.setBatchCount(skuOrdinal, indexedBatches.get(skuOrdinal));
+    }
+
+    // Колесо сроков полосы товара; вызывается под этой полосой
+    private ExpiryWheel expiryWheel(String productId) {
+        return expiryWheels[stripes != null ? stripeIndex(productId) : 0];
+    }
+
+    private void trackExpiry(Product batch) {
+        expiryWheel(batch.getId()).add(batch);
+    }
+
+    private void untrackExpiry(Product batch) {
+        expiryWheel(batch.getId()).remove(batch);
+    }
+
+    // Число партий на полках не дороже maxPriceKopecks (цена до скидки)
+    public int countBatchesAtMost(long maxPriceKopecks) {
+        int count;
+        Lock index = lockIndex();
+        try {
+            count = priceIndex().countAtMost(maxPriceKopecks);
+        } finally {
+            unlock(index);
+        }
+        return count + unindexedBatchesAtMost(maxPriceKopecks).size();
+    }
+
+    // До count разных случайных партий не дороже maxPriceKopecks (цена до скидки); все такие партии
+    // равновероятны, как при перемешивании полного списка. Партии выбираются по индексу цен:
+    // O(count * log n) вместо обхода зала. Номера выбираются под блокировкой индексов, партии
+    // берутся с полок под их полосами; партия, проданная между этими шагами, в выборку не попадает
+    public List<Product> sampleBatchesAtMost(long maxPriceKopecks, int count, SplittableRandom random) {
+        List<Product> unindexed = unindexedBatchesAtMost(maxPriceKopecks);
+        int wanted;
+        int[] ordinals;
+        int[] offsets;
+        Lock index = lockIndex();
+        try {
+            ShelfPriceIndex prices = priceIndex();
+            int indexed = prices.countAtMost(maxPriceKopecks);
+            int total = indexed + unindexed.size();
+            wanted = Math.min(count, total);
+            ordinals = new int[wanted];
+            offsets = new int[wanted];
+            int[] picked = new int[wanted];
+            for (int n = 0; n < wanted; n++) {
+                // Выбор без повторов: совпавший номер вытягивается заново
+                int k;
+                do {
+                    k = random.nextInt(total);
+                } while (contains(picked, n, k));
+                picked[n] = k;
+
+                if (k < indexed) {
+                    int position = prices.positionOf(k);
+                    ordinals[n] = prices.ordinalAt(position);
+                    offsets[n] = prices.offsetOf(k, position);
+                } else {
+                    ordinals[n] = -1;
+                    offsets[n] = k - indexed;
+                }
+            }
+        } finally {
+            unlock(index);
+        }
+
+        List<Product> sample = new ArrayList<>(wanted);
+        for (int n = 0; n < wanted; n++) {
+            Product batch = ordinals[n] >= 0 ? batchAt(ordinals[n], offsets[n]) : unindexed.get(offsets[n]);
+            if (batch != null) {
+                sample.add(batch);
+            }
+        }
+        return sample;
+    }
+
+    private Product batchAt(int skuOrdinal, int offset) {
+        Lock lock = lockStripe(catalog.getProductInfo(skuOrdinal).getId());
+        try {
+            Shelf shelf = shelvesByOrdinal.get(skuOrdinal);
+            return shelf != null && offset < shelf.getBatchCount() ? shelf.getAllBatches().get(offset) : null;
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    // Партии не дороже maxPriceKopecks с полок мимо индекса цен
+    private List<Product> unindexedBatchesAtMost(long maxPriceKopecks) {
+        if (unindexedShelves.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Shelf> shelves = new ArrayList<>(unindexedShelves.values());
+        List<Product> batches = new ArrayList<>();
+        for (Shelf shelf : shelves) {
+            collectBatchesAtMost(shelf.getProductId(), maxPriceKopecks, batches);
+        }
+        return batches;
+    }
+
+    // Партии полки товара не дороже maxPriceKopecks (цена до скидки) добавляются в out
+    public void collectBatchesAtMost(int skuOrdinal, long maxPriceKopecks, List<Product> out) {
+        Lock lock = lockStripe(catalog.getProductInfo(skuOrdinal).getId());
+        try {
+            collectBatchesAtMost(shelvesByOrdinal.get(skuOrdinal), maxPriceKopecks, out);
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    public void collectBatchesAtMost(String productId, long maxPriceKopecks, List<Product> out) {
+        Lock lock = lockStripe(productId);
+        try {
+            collectBatchesAtMost(shelvesByProductId.get(productId), maxPriceKopecks, out);
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    private static void collectBatchesAtMost(Shelf shelf, long maxPriceKopecks, List<Product> out) {
+        if (shelf == null) {
+            return;
+        }
+        List<Product> batches = shelf.getAllBatches();
+        for (int i = 0; i < batches.size(); i++) {
+            if (batches.get(i).getPriceKopecks() <= maxPriceKopecks) {
+                out.add(batches.get(i));
+            }
+        }
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        return shelvesByProductId.get(productId);
+    // Товары со склада в порядке нехватки на полках; членство ведет присоединенный склад
+    public ShelfDeficitQueue getDeficitQueue() {
+        return deficits;
     }
 
     public boolean addProduct(Product product, LocalDate currentDate) {
+        return addProduct(product, (int) currentDate.toEpochDay());
+    }
+
+    public boolean addProduct(Product product, int currentEpochDay) {
         // 1. Проверка срока годности
-        if (product.isExpired(currentDate)) {
-            System.out.println("   ❌ Товар " + product.getName() + " просрочен и не принят в торговый зал");
+        if (product.isExpired(currentEpochDay)) {
+            if (output.isVerbose()) {
+                output.verbose("   ❌ Товар " + product.getName() + " просрочен и не принят в торговый зал");
+            }
             return false;
         }
 
-        // 2. Получаем соответствующую полку
-        Shelf shelf = getOrCreateShelf(product);
+        long actuallyAdded;
+        Lock lock = lockStripe(product.getId());
+        try {
+            // 2. Получаем соответствующую полку
+            Shelf shelf = getOrCreateShelf(product);
 
-        // 3. Добавляем товар на полку
-        double actuallyAdded = shelf.addProduct(product);
+            // 3. Добавляем товар на полку
+            int batchesBefore = shelf.getBatchCount();
+            actuallyAdded = shelf.addBatch(product);
+            shelfChanged(product.getId(), product.getSkuOrdinal(), shelf.getBatchCount() - batchesBefore);
+
+            if (actuallyAdded > 0) {
+                // Новая партия на полке - копия; при слиянии с имеющейся партией колесо не меняется
+                trackExpiry(shelf.getBatch(product.getBatchNumber()));
+                StorageListener listener = this.listener;
+                if (listener != null) {
+                    // Слушатель получает то, что попало на полку: при ограничении полки - копию с этим остатком
+                    listener.hallProductAdded(actuallyAdded == product.getAmount()
+                            ? product : ProductFactory.createPartialCopy(product, actuallyAdded));
+                }
+            }
+        } finally {
+            unlock(lock);
+        }
 
         if (actuallyAdded > 0) {
-            double originalAmount = getAmountFromProduct(product);
+            if (output.isVerbose()) {
+                long originalAmount = product.getAmount();
 
-            if (Math.abs(actuallyAdded - originalAmount) > 0.001) {
-                // Если добавили не всё
-                System.out.println("   📦 " + product.getName() + ": " +
-                        formatAmount(actuallyAdded, product) + " из " +
-                        formatAmount(originalAmount, product) + " (ограничение полки)");
-            } else {
-                // Если добавили всё
-                System.out.println("   📦 " + product.getName() + ": +" +
-                        formatAmount(actuallyAdded, product));
+                if (actuallyAdded != originalAmount) {
+                    // Если добавили не всё
+                    output.verbose("   📦 " + product.getName() + ": " +
+                            formatAmount(actuallyAdded, product) + " из " +
+                            formatAmount(originalAmount, product) + " (ограничение полки)");
+                } else {
+                    // Если добавили всё
+                    output.verbose("   📦 " + product.getName() + ": +" +
+                            formatAmount(actuallyAdded, product));
+                }
             }
             return true;
         }
@@ -71,148 +502,254 @@ public class SalesHall implements ProductStorage {
         return false;
     }
 
-    private String formatAmount(double amount, Product product) {
+    // Партия из контрольной точки: выставляется как есть, без проверки срока и без уведомлений
+    public void restoreBatch(Product batch) {
+        Lock lock = lockStripe(batch.getId());
+        try {
+            getOrCreateShelf(batch).restoreBatch(batch);
+            shelfChanged(batch.getId(), batch.getSkuOrdinal(), 1);
+            trackExpiry(batch);
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    public void restoreShelfAmount(String productId, long currentAmount) {
+        Lock lock = lockStripe(productId);
+        try {
+            Shelf shelf = shelvesByProductId.get(productId);
+            if (shelf != null) {
+                shelf.restoreCurrentAmount(currentAmount);
+                shelfChanged(productId, catalog.getOrdinal(productId), 0);
+            }
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    public void restoreStockoutCount(int stockoutCount) {
+        this.stockoutCount.set(stockoutCount);
+    }
+
+    public void setListener(StorageListener listener) {
+        this.listener = listener;
+    }
+
+    private String formatAmount(long amount, Product product) {
         if (product instanceof WeightableProduct) {
-            return String.format("%.3f кг", amount);
+            return Quantity.formatKilograms(amount) + " кг";
         } else {
-            return String.format("%.0f шт", amount);
+            return Quantity.toUnits(amount) + " шт";
         }
     }
 
+    // Партии полки только для чтения, без копирования. Список живой: в зале из concurrent()
+    // его можно читать, только пока другие потоки зал не меняют
     public List<Product> findProductsById(String productId) {
         Shelf shelf = shelvesByProductId.get(productId);
         if (shelf != null) {
             return shelf.getAllBatches();
         }
-        return new ArrayList<>();
+        return Collections.emptyList();
     }
 
+    // Просматриваются только партии, срок которых истек (корзины колеса сроков)
     public int removeExpiredProducts(LocalDate currentDate) {
-        int removed = 0;
-        Iterator<Map.Entry<String, Shelf>> iterator = shelvesByProductId.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, Shelf> entry = iterator.next();
-            Shelf shelf = entry.getValue();
-            String productId = entry.getKey();
+        return removeExpiredProducts((int) currentDate.toEpochDay());
+    }
 
-            // Получаем все партии с полки
-            List<Product> batches = shelf.getAllBatches();
-            Iterator<Product> batchIterator = batches.iterator();
-
-            while (batchIterator.hasNext()) {
-                Product batch = batchIterator.next();
-                if (batch.isExpired(currentDate)) {
-                    // Удаляем товар с полки
-                    if (shelf.removeProduct(batch)) {
-                        System.out.println("   🗑️ Утилизирован из зала: " + productIdToName.get(productId) +
-                                " (партия: " + batch.getBatchId() + ")");
-                        removed++;
-                    }
-                }
+    public int removeExpiredProducts(int currentEpochDay) {
+        // Колесо каждой полосы разбирается под этой полосой, под ней же утилизируются его партии
+        List<Product> expired = new ArrayList<>();
+        int removed = 0;
+        for (int stripe = 0; stripe < expiryWheels.length; stripe++) {
+            Lock lock = stripes != null ? stripes[stripe] : null;
+            if (lock != null) {
+                lock.lock();
             }
-
-            // Если полка пуста, удаляем ее
-            if (shelf.isEmpty()) {
-                iterator.remove();
-                productIdToName.remove(productId);
+            try {
+                expired.clear();
+                expiryWheels[stripe].drainExpired(currentEpochDay, expired::add);
+                for (int i = 0; i < expired.size(); i++) {
+                    disposeExpired(expired.get(i));
+                }
+                removed += expired.size();
+            } finally {
+                unlock(lock);
             }
         }
         return removed;
     }
 
-    public void applyDiscountToProductById(String productId, double discount) {
+    private void disposeExpired(Product batch) {
+        String productId = batch.getId();
         Shelf shelf = shelvesByProductId.get(productId);
-        if (shelf != null) {
-            for (Product batch : shelf.getAllBatches()) {
-                batch.setDiscount(discount);
+        if (shelf == null || !removeFromShelf(shelf, batch)) {
+            return;
+        }
+        StorageListener listener = this.listener;
+        if (listener != null) {
+            listener.hallBatchDisposed(productId, batch.getBatchNumber());
+        }
+        if (output.isVerbose()) {
+            output.verbose("   🗑️ Утилизирован из зала: " + productIdToName.get(productId) +
+                    " (партия: " + batch.getBatchId() + ")");
+        }
+
+        // Если полка пуста, удаляем ее
+        if (shelf.isEmpty()) {
+            removeShelf(productId, 0);
+        }
+    }
+
+    public void applyDiscountToProductById(String productId, double discount) {
+        Lock lock = lockStripe(productId);
+        try {
+            Shelf shelf = shelvesByProductId.get(productId);
+            if (shelf != null) {
+                int basisPoints = Money.discountOf(discount);
+                for (Product batch : shelf.getAllBatches()) {
+                    setDiscount(batch, basisPoints);
+                }
             }
+        } finally {
+            unlock(lock);
         }
     }
 
     public void applyDiscountToBatch(String productId, String batchId, double discount) {
-        Shelf shelf = shelvesByProductId.get(productId);
-        if (shelf != null) {
-            Product batch = shelf.getBatch(batchId);
-            if (batch != null) {
-                batch.setDiscount(discount);
+        applyDiscountToBatch(productId, BatchIds.find(batchId), discount);
+    }
+
+    public void applyDiscountToBatch(String productId, long batchNumber, double discount) {
+        applyDiscountToBatch(productId, batchNumber, Money.discountOf(discount));
+    }
+
+    // Скидка в базисных пунктах (Money)
+    public void applyDiscountToBatch(String productId, long batchNumber, int discountBasisPoints) {
+        Lock lock = lockStripe(productId);
+        try {
+            Shelf shelf = shelvesByProductId.get(productId);
+            if (shelf != null) {
+                Product batch = shelf.getBatch(batchNumber);
+                if (batch != null) {
+                    setDiscount(batch, discountBasisPoints);
+                }
             }
+        } finally {
+            unlock(lock);
         }
     }
 
     public int applyExpiringDiscounts(LocalDate currentDate) {
+        return applyExpiringDiscounts((int) currentDate.toEpochDay());
+    }
+
+    public int applyExpiringDiscounts(int currentEpochDay) {
         int discountCount = 0;
         for (Map.Entry<String, Shelf> entry : shelvesByProductId.entrySet()) {
             Shelf shelf = entry.getValue();
             String productId = entry.getKey();
 
-            for (Product batch : shelf.getAllBatches()) {
-                if (batch.expiresSoon(currentDate) && batch.getDiscount() < SupermarketConfig.EXPIRING_DISCOUNT) {
-                    batch.setDiscount(SupermarketConfig.EXPIRING_DISCOUNT);
-                    discountCount++;
-                    System.out.println("   🏷️ Скидка на товар с истекающим сроком: " +
-                            productIdToName.get(productId));
+            Lock lock = lockStripe(productId);
+            try {
+                for (Product batch : shelf.getAllBatches()) {
+                    if (batch.expiresSoon(currentEpochDay) && batch.getDiscountBasisPoints() < EXPIRING_DISCOUNT) {
+                        setDiscount(batch, EXPIRING_DISCOUNT);
+                        discountCount++;
+                        if (output.isVerbose()) {
+                            output.verbose("   🏷️ Скидка на товар с истекающим сроком: " +
+                                    productIdToName.get(productId));
+                        }
+                    }
                 }
+            } finally {
+                unlock(lock);
             }
         }
         return discountCount;
     }
 
     public void applyRandomDiscounts() {
-        Random random = new Random();
+        applyRandomDiscounts(SimulationRandom.threadLocal());
+    }
+
+    public void applyRandomDiscounts(SplittableRandom random) {
         int discountCount = 0;
 
         for (Map.Entry<String, Shelf> entry : shelvesByProductId.entrySet()) {
             Shelf shelf = entry.getValue();
 
-            for (Product batch : shelf.getAllBatches()) {
-                if (random.nextDouble() < 0.15) {
-                    double discount = SupermarketConfig.RANDOM_DISCOUNT_MIN +
-                            random.nextDouble() * (SupermarketConfig.RANDOM_DISCOUNT_MAX - SupermarketConfig.RANDOM_DISCOUNT_MIN);
-                    batch.setDiscount(discount);
-                    discountCount++;
+            Lock lock = lockStripe(entry.getKey());
+            try {
+                for (Product batch : shelf.getAllBatches()) {
+                    if (random.nextDouble() < 0.15) {
+                        double discount = SupermarketConfig.RANDOM_DISCOUNT_MIN +
+                                random.nextDouble() * (SupermarketConfig.RANDOM_DISCOUNT_MAX - SupermarketConfig.RANDOM_DISCOUNT_MIN);
+                        setDiscount(batch, Money.discountOf(discount));
+                        discountCount++;
+                    }
                 }
+            } finally {
+                unlock(lock);
             }
         }
 
-        if (discountCount > 0) {
-            System.out.println("   🏷️ Установлены случайные скидки на " + discountCount + " товаров");
+        if (discountCount > 0 && output.isVerbose()) {
+            output.verbose("   🏷️ Установлены случайные скидки на " + discountCount + " товаров");
         }
     }
 
     public void removeAllDiscounts() {
-        for (Shelf shelf : shelvesByProductId.values()) {
-            for (Product batch : shelf.getAllBatches()) {
-                batch.setDiscount(0.0);
-            }
-        }
+        forEachProduct(batch -> setDiscount(batch, 0));
     }
 
+    // Набор ведется при каждом изменении полок, поэтому полки не перебираются; читается без блокировок
     public List<String> getLowStockProductIds() {
-        List<String> lowStockIds = new ArrayList<>();
-
-        for (Map.Entry<String, Shelf> entry : shelvesByProductId.entrySet()) {
-            String productId = entry.getKey();
-            Shelf shelf = entry.getValue();
-
-            // Проверяем заполненность полки
-            if (shelf.needsRestocking()) {
-                lowStockIds.add(productId);
-            }
+        List<String> lowStockIds = new ArrayList<>(getLowStockCount());
+        for (int ordinal = lowStockOrdinals.nextSetBit(0); ordinal >= 0;
+             ordinal = lowStockOrdinals.nextSetBit(ordinal + 1)) {
+            lowStockIds.add(catalog.getProductInfo(ordinal).getId());
         }
-
+        lowStockIds.addAll(lowStockUncataloged);
         return lowStockIds;
     }
 
+    public int getLowStockCount() {
+        return lowStockOrdinals.cardinality() + lowStockUncataloged.size();
+    }
+
+    public boolean isLowStock(int skuOrdinal) {
+        return lowStockOrdinals.get(skuOrdinal);
+    }
+
+    // Полки только для чтения, без копирования; карта отражает последующие изменения зала.
+    // Как и findProductsById, в зале из concurrent() - только пока другие потоки зал не меняют
     public Map<String, Shelf> getAllShelves() {
-        return new HashMap<>(shelvesByProductId);
+        return shelvesView;
     }
 
-    public List<Product> getProductsList() {
-        List<Product> allProducts = new ArrayList<>();
+    // Полки в порядке обхода зала, без копирования
+    public Collection<Shelf> getShelvesView() {
+        return shelvesCollectionView;
+    }
+
+    // Обход всех партий зала без промежуточного списка; полка обходится под своей полосой
+    public void forEachProduct(Consumer<? super Product> action) {
         for (Shelf shelf : shelvesByProductId.values()) {
-            allProducts.addAll(shelf.getAllBatches());
+            Lock lock = lockStripe(shelf.getProductId());
+            try {
+                shelf.forEachBatch(action);
+            } finally {
+                unlock(lock);
+            }
         }
+    }
+
+    // Снимок партий зала: для кода, который меняет зал во время обхода
+    public List<Product> getProductsList() {
+        List<Product> allProducts = new ArrayList<>();
+        forEachProduct(allProducts::add);
         return allProducts;
     }
 
@@ -221,85 +758,254 @@ public class SalesHall implements ProductStorage {
     }
 
     public int getTotalBatches() {
-        int total = 0;
-        for (Shelf shelf : shelvesByProductId.values()) {
-            total += shelf.getAllBatches().size();
-        }
-        return total;
+        return totalBatches.get();
     }
 
     public Product getProduct(String productId) {
-        Shelf shelf = shelvesByProductId.get(productId);
-        if (shelf != null && !shelf.isEmpty()) {
-            List<Product> batches = shelf.getAllBatches();
-            if (!batches.isEmpty()) {
-                return batches.get(0);
-            }
+        Lock lock = lockStripe(productId);
+        try {
+            return firstBatch(shelvesByProductId.get(productId));
+        } finally {
+            unlock(lock);
         }
-        return null;
     }
 
-    public List<Product> getBatchesForProduct(String productId) {
-        Shelf shelf = shelvesByProductId.get(productId);
-        if (shelf != null) {
-            return shelf.getAllBatches();
+    public Product getProduct(int skuOrdinal) {
+        Lock lock = lockStripe(catalog.getProductInfo(skuOrdinal).getId());
+        try {
+            return firstBatch(shelvesByOrdinal.get(skuOrdinal));
+        } finally {
+            unlock(lock);
         }
-        return new ArrayList<>();
+    }
+
+    // Живая полка, как getAllShelves
+    public Shelf getShelf(int skuOrdinal) {
+        return shelvesByOrdinal.get(skuOrdinal);
+    }
+
+    // Слово множества товаров в наличии: бит i - товар с номером 64 * wordIndex + i
+    public long getInStockWord(int wordIndex) {
+        return wordIndex < inStockOrdinals.wordCount() ? inStockOrdinals.word(wordIndex) : 0;
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    private static Product firstBatch(Shelf shelf) {
+        return shelf != null ? shelf.getFirstBatch() : null;
+    }
+
+    public List<Product> getBatchesForProduct(String productId) {
+        return findProductsById(productId);
     }
 
     public void removeBatch(String productId, String batchId) {
-        Shelf shelf = shelvesByProductId.get(productId);
-        if (shelf != null) {
-            Product batch = shelf.getBatch(batchId);
-            if (batch != null) {
-                shelf.removeProduct(batch);
-                if (shelf.isEmpty()) {
-                    shelvesByProductId.remove(productId);
-                    productIdToName.remove(productId);
+        removeBatch(productId, BatchIds.find(batchId));
+    }
+
+    public void removeBatch(String productId, long batchNumber) {
+        Lock lock = lockStripe(productId);
+        try {
+            Shelf shelf = shelvesByProductId.get(productId);
+            if (shelf != null) {
+                Product batch = shelf.getBatch(batchNumber);
+                if (batch != null) {
+                    removeFromShelf(shelf, batch);
+                    untrackExpiry(batch);
+                    if (shelf.isEmpty()) {
+                        removeShelf(productId, 0);
+                        stockoutCount.incrementAndGet();
+                    }
+                    StorageListener listener = this.listener;
+                    if (listener != null) {
+                        listener.hallBatchSold(productId, batchNumber);
+                    }
                 }
             }
+        } finally {
+            unlock(lock);
         }
     }
 
-    public void removeProduct(String productId) {
-        shelvesByProductId.remove(productId);
-        productIdToName.remove(productId);
+    // Атомарная продажа строк корзины: первые count строк (товар и количество в Quantity) списываются
+    // целиком, а если какого-то товара на полке не хватает или строки по базовым ценам стоят дороже
+    // maxBaseTotal - не списывается ничего и возвращается false.
+    // Каждая строка списывается по FEFO за один проход по полке. В baseCosts записывается стоимость
+    // строки по базовым ценам тех партий, из которых она продана, в costs - по их ценам со скидками.
+    // Товары в строках не повторяются, штучный товар - целыми штуками.
+    // Массивы принадлежат вызывающему коду, поэтому продажа ничего не выделяет.
+    // Полосы всех строк берутся на время проверки и списания - корзины с разными товарами не ждут друг друга
+    public boolean sell(String[] productIds, long[] amounts, int count, long maxBaseTotal,
+                        long[] baseCosts, long[] costs) {
+        int[] order = lockStripes(productIds, count);
+        try {
+            long baseTotal = 0;
+            for (int i = 0; i < count; i++) {
+                Shelf shelf = shelvesByProductId.get(productIds[i]);
+                if (shelf == null || amounts[i] <= 0 || shelf.getAmount() < amounts[i]) {
+                    return false;
+                }
+                if (shelf.getFirstBatch() instanceof CountableProduct && amounts[i] % Quantity.SCALE != 0) {
+                    throw new IllegalArgumentException("Штучный товар продается целыми штуками: " + productIds[i]);
+                }
+                baseCosts[i] = shelf.baseCostOf(amounts[i]);
+                baseTotal += baseCosts[i];
+            }
+            if (baseTotal > maxBaseTotal) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                Shelf shelf = shelvesByProductId.get(productIds[i]);
+                int batchesBefore = shelf.getBatchCount();
+                costs[i] = shelf.sell(amounts[i], recordSale);
+                afterSale(shelf, batchesBefore);
+            }
+            return true;
+        } finally {
+            unlockStripes(order);
+        }
     }
 
-    public double getTotalAmount(String productId) {
-        Shelf shelf = shelvesByProductId.get(productId);
-        if (shelf != null) {
-            return shelf.getCurrentAmount();
+    // Самая высокая базовая цена партий товара на полке, 0 - полки нет: по ней покупатель
+    // оценивает, сколько товара ему по карману, не зная, из каких партий продаст зал
+    public long getMaxPriceKopecks(String productId) {
+        Lock lock = lockStripe(productId);
+        try {
+            Shelf shelf = shelvesByProductId.get(productId);
+            return shelf != null ? shelf.maxPriceKopecks() : 0;
+        } finally {
+            unlock(lock);
         }
-        return 0;
     }
 
-    private double getMinStockForProduct(String productId) {
-        Product product = getProduct(productId);
-        if (product instanceof CountableProduct) {
-            return SupermarketConfig.SALES_HALL_MIN_COUNTABLE;
-        } else if (product instanceof WeightableProduct) {
-            return SupermarketConfig.SALES_HALL_MIN_WEIGHTABLE;
+    // Продажа из указанной партии (воспроизведение журнала); возвращает стоимость проданного
+    public long sellFromBatch(String productId, long batchNumber, long amount) {
+        Lock lock = lockStripe(productId);
+        try {
+            Shelf shelf = shelvesByProductId.get(productId);
+            if (shelf == null) {
+                return 0;
+            }
+            int batchesBefore = shelf.getBatchCount();
+            long cost = shelf.sellFromBatch(batchNumber, amount, recordSale);
+            afterSale(shelf, batchesBefore);
+            return cost;
+        } finally {
+            unlock(lock);
         }
-        return 0;
     }
 
-    public boolean isEmpty() {
-        return shelvesByProductId.isEmpty();
+    private void recordSale(Product batch, long soldAmount, boolean emptied) {
+        if (emptied) {
+            untrackExpiry(batch);
+        }
+        StorageListener listener = this.listener;
+        if (listener != null) {
+            listener.hallAmountSold(batch.getId(), batch.getBatchNumber(), soldAmount);
+        }
+    }
+
+    private void afterSale(Shelf shelf, int batchesBefore) {
+        int batchDelta = shelf.getBatchCount() - batchesBefore;
+        String productId = shelf.getProductId();
+        if (shelf.isEmpty()) {
+            removeShelf(productId, batchDelta);
+            stockoutCount.incrementAndGet();
+        } else {
+            shelfChanged(productId, shelf.getFirstBatch().getSkuOrdinal(), batchDelta);
+        }
+    }
+
+    // Утилизация одной партии: как при удалении просрочки, без учета в числе опустевших полок
+    public boolean disposeBatch(String productId, String batchId) {
+        return disposeBatch(productId, BatchIds.find(batchId));
+    }
+
+    public boolean disposeBatch(String productId, long batchNumber) {
+        Lock lock = lockStripe(productId);
+        try {
+            Shelf shelf = shelvesByProductId.get(productId);
+            if (shelf == null) {
+                return false;
+            }
+            Product batch = shelf.getBatch(batchNumber);
+            if (batch == null || !removeFromShelf(shelf, batch)) {
+                return false;
+            }
+            untrackExpiry(batch);
+            if (shelf.isEmpty()) {
+                removeShelf(productId, 0);
+            }
+            StorageListener listener = this.listener;
+            if (listener != null) {
+                listener.hallBatchDisposed(productId, batchNumber);
+            }
+            return true;
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    public void removeProduct(String productId) {
+        Lock lock = lockStripe(productId);
+        try {
+            Shelf shelf = shelvesByProductId.get(productId);
+            int batchDelta = 0;
+            if (shelf != null) {
+                for (Product batch : shelf.getAllBatches()) {
+                    untrackExpiry(batch);
+                }
+                batchDelta = -shelf.getBatchCount();
+            }
+            removeShelf(productId, batchDelta);
+            StorageListener listener = this.listener;
+            if (listener != null) {
+                listener.hallProductRemoved(productId);
+            }
+        } finally {
+            unlock(lock);
+        }
     }
 
-    // Вспомогательный метод для получения количества из продукта
-    private double getAmountFromProduct(Product product) {
-        if (product instanceof CountableProduct) {
-            return ((CountableProduct) product).getQuantity();
-        } else if (product instanceof WeightableProduct) {
-            return ((WeightableProduct) product).getWeight();
+    private void setDiscount(Product batch, int discountBasisPoints) {
+        batch.setDiscountBasisPoints(discountBasisPoints);
+        StorageListener listener = this.listener;
+        if (listener != null) {
+            listener.hallDiscountSet(batch.getId(), batch.getBatchNumber(), discountBasisPoints);
         }
-        return 0.0;
+    }
+
+    public double getTotalAmount(String productId) {
+        return Quantity.toDouble(getStockAmount(productId));
+    }
+
+    public double getTotalAmount(int skuOrdinal) {
+        return Quantity.toDouble(getStockAmount(skuOrdinal));
+    }
+
+    // Остаток товара на полке в тысячных долях единицы (Quantity); читается без блокировок
+    public long getStockAmount(String productId) {
+        Shelf shelf = shelvesByProductId.get(productId);
+        return shelf != null ? shelf.getAmount() : 0;
+    }
+
+    public long getStockAmount(int skuOrdinal) {
+        Shelf shelf = shelvesByOrdinal.get(skuOrdinal);
+        return shelf != null ? shelf.getAmount() : 0;
+    }
+
+    public boolean isEmpty() {
+        return shelvesByProductId.isEmpty();
     }
 
     // Метод для отображения полок с заполнением менее 15%
     public void displayCriticalShelves() {
+        if (!output.isSummary()) {
+            return;
+        }
+
         // Собираем все полки с заполнением менее 15%
         List<Shelf> criticalShelves = new ArrayList<>();
 
@@ -315,12 +1021,12 @@ public class SalesHall implements ProductStorage {
 
         // Выводим результат
         if (!criticalShelves.isEmpty()) {
-            System.out.println("⚠️ ПОЛКИ С МАЛЫМ ЗАПАСОМ (<15%):");
+            output.summary("⚠️ ПОЛКИ С МАЛЫМ ЗАПАСОМ (<15%):");
             for (Shelf shelf : criticalShelves) {
                 printShelfStatus(shelf);
             }
         } else {
-            System.out.println("✅ Все полки в норме");
+            output.summary("✅ Все полки в норме");
         }
     }
 
@@ -333,7 +1039,7 @@ public class SalesHall implements ProductStorage {
         double fill = shelf.getFillPercentage();
         String amountInfo = getShelfAmountInfo(shelf);
 
-        System.out.println(String.format("   🔴 %-20s %5.0f%% (%s)",
+        output.summary(String.format("   🔴 %-20s %5.0f%% (%s)",
                 productName,
                 fill,
                 amountInfo));
@@ -343,11 +1049,11 @@ public class SalesHall implements ProductStorage {
         double amount = shelf.getCurrentAmount();
         double max = shelf.getMaxCapacity();
 
-        if (shelf.isEmpty()) {
+        Product sample = lockedFirstBatch(shelf);
+        if (sample == null) {
             return "пусто";
         }
 
-        Product sample = shelf.getAllBatches().get(0);
         if (sample instanceof WeightableProduct) {
             return String.format("%.1f/%.0f кг", amount, max);
         } else {
@@ -355,7 +1061,25 @@ public class SalesHall implements ProductStorage {
         }
     }
 
+    private Product lockedFirstBatch(Shelf shelf) {
+        Lock lock = lockStripe(shelf.getProductId());
+        try {
+            return shelf.getFirstBatch();
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    public int getStockoutCount() {
+        return stockoutCount.get();
+    }
+
     public String getProductName(String productId) {
         return productIdToName.get(productId);
     }
-}
\ No newline at end of file
+
+    public String getProductName(int skuOrdinal) {
+        Shelf shelf = shelvesByOrdinal.get(skuOrdinal);
+        return shelf != null ? shelf.getProductName() : null;
+    }
+}
@@ -2,23 +2,34 @@ package supermarket.storage;
 
 import supermarket.product.*;
 import java.util.*;
+import java.util.function.Consumer;
 
+// Полка одного товара. Вместимость и остаток - в тысячных долях единицы (Quantity),
+// поэтому сложение и вычитание остатков точные и обходятся без сравнений с эпсилоном
 public class Shelf {
     private final String productId;
-    private final double maxCapacity;
-    private Map<String, Product> batchesByBatchId;
-    private double currentAmount;
-    private String productName;
+    private final long maxCapacity;
+    private final LongMap<Product> batchesByBatchId;
+    // Партии по сроку годности (FEFO: ближайший срок первым, при равном - в порядке выставления);
+    // batchesByBatchId - индекс к ним по номеру партии
+    private final List<Product> batches;
+    private final List<Product> batchesView;
+    // volatile: зал из SalesHall.concurrent() читает остаток без блокировки полки
+    private volatile long currentAmount;
+    private final String productName;
 
     public Shelf(String productId, double maxCapacity) {
+        this(productId, ProductCatalog.getDefault().getProductNameById(productId), maxCapacity);
+    }
+
+    public Shelf(String productId, String productName, double maxCapacity) {
         this.productId = productId;
-        this.maxCapacity = maxCapacity;
-        this.batchesByBatchId = new HashMap<>();
-        this.currentAmount = 0.0;
-        this.productName = ProductCatalog.getProductNameById(productId);
-        if (this.productName == null) {
-            this.productName = productId;
-        }
+        this.maxCapacity = Quantity.ofKilograms(maxCapacity);
+        this.batchesByBatchId = new LongMap<>();
+        this.batches = new ArrayList<>();
+        this.batchesView = Collections.unmodifiableList(batches);
+        this.currentAmount = 0;
+        this.productName = productName != null ? productName : productId;
     }
 
     public String getProductId() {
@@ -30,159 +41,253 @@ public class Shelf {
     }
 
     public double getMaxCapacity() {
-        return maxCapacity;
+        return Quantity.toDouble(maxCapacity);
     }
 
     public double getCurrentAmount() {
+        return Quantity.toDouble(currentAmount);
+    }
+
+    // Остаток и вместимость в тысячных долях единицы
+    public long getAmount() {
         return currentAmount;
     }
 
+    public long getCapacity() {
+        return maxCapacity;
+    }
+
     public double getAvailableSpace() {
-        return Math.max(0, maxCapacity - currentAmount);
+        return Quantity.toDouble(availableSpace());
     }
 
     public double getFillPercentage() {
-        return maxCapacity > 0 ? (currentAmount / maxCapacity) * 100 : 0;
+        return maxCapacity > 0 ? (currentAmount * 100.0) / maxCapacity : 0;
     }
 
+    // Меньше 30% вместимости; сравнение целых без деления
     public boolean needsRestocking() {
-        return getFillPercentage() < 30.0;
+        return maxCapacity > 0 ? currentAmount * 10 < maxCapacity * 3 : true;
     }
 
     public boolean isEmpty() {
-        return batchesByBatchId.isEmpty();
+        return batches.isEmpty();
     }
 
+    // Партии полки только для чтения, без копирования; список отражает последующие изменения полки
     public List<Product> getAllBatches() {
-        // Возвращаем все партии
-        return new ArrayList<>(batchesByBatchId.values());
+        return batchesView;
+    }
+
+    public void forEachBatch(Consumer<? super Product> action) {
+        for (int i = 0; i < batches.size(); i++) {
+            action.accept(batches.get(i));
+        }
+    }
+
+    public int getBatchCount() {
+        return batches.size();
+    }
+
+    public Product getFirstBatch() {
+        return batches.isEmpty() ? null : batches.get(0);
+    }
+
+    public Product getBatch(long batchNumber) {
+        return batchesByBatchId.get(batchNumber);
     }
 
     public Product getBatch(String batchId) {
-        return batchesByBatchId.get(batchId);
+        return getBatch(BatchIds.find(batchId));
     }
 
-    // Основной метод добавления товара на полку
+    // Основной метод добавления товара на полку; возвращает, сколько поместилось (штуки или кг)
     public double addProduct(Product product) {
+        return Quantity.toDouble(addBatch(product));
+    }
+
+    // То же в тысячных долях единицы. Штучный товар кладется только целыми штуками
+    public long addBatch(Product product) {
         if (!productId.equals(product.getId())) {
-            return 0.0;
+            return 0;
         }
 
-        String batchId = product.getBatchId();
-        double amountToAdd = getAmountFromProduct(product);
-
-        if (amountToAdd <= 0) {
-            return 0.0;
+        long amountToAdd = product.getAmount();
+        long amountCanAdd = Math.min(amountToAdd, availableSpace());
+        if (product instanceof CountableProduct) {
+            amountCanAdd -= amountCanAdd % Quantity.SCALE;
         }
-
-        double availableSpace = getAvailableSpace();
-
-        if (availableSpace <= 0.001) {
-            return 0.0;
+        if (amountCanAdd <= 0) {
+            return 0;
         }
 
-        double amountCanAdd = Math.min(amountToAdd, availableSpace);
-
         // Проверяем, есть ли уже такая партия на полке
-        Product existingBatch = batchesByBatchId.get(batchId);
+        Product existingBatch = batchesByBatchId.get(product.getBatchNumber());
 
         if (existingBatch != null) {
             // Объединяем с существующей партией
-            return mergeWithExistingBatch(existingBatch, product, amountCanAdd);
+            if (!addToBatch(existingBatch, product, amountCanAdd)) {
+                return 0;
+            }
         } else {
             // Создаем новую партию на полке
-            return createNewBatch(product, amountCanAdd);
+            Product batchForShelf = createPartialProduct(product, amountCanAdd);
+            if (batchForShelf == null) {
+                return 0;
+            }
+            putBatch(batchForShelf);
         }
+        currentAmount += amountCanAdd;
+        return amountCanAdd;
+    }
+
+    // Партия из контрольной точки: кладется как есть, без ограничения вместимости
+    public void restoreBatch(Product batch) {
+        putBatch(batch);
+        currentAmount += batch.getAmount();
+    }
+
+    public void restoreCurrentAmount(long currentAmount) {
+        this.currentAmount = currentAmount;
     }
 
     // Удалить товар с полки
     public boolean removeProduct(Product product) {
-        String batchId = product.getBatchId();
-        Product batchOnShelf = batchesByBatchId.get(batchId);
-
-        if (batchOnShelf != null) {
-            double amountToRemove = getAmountFromProduct(product);
-            double batchAmount = getAmountFromProduct(batchOnShelf);
-
-            if (batchAmount >= amountToRemove) {
-                // Уменьшаем количество в партии
-                if (batchOnShelf instanceof CountableProduct && product instanceof CountableProduct) {
-                    CountableProduct shelfCountable = (CountableProduct) batchOnShelf;
-                    CountableProduct removeCountable = (CountableProduct) product;
-                    shelfCountable.setQuantity(shelfCountable.getQuantity() - removeCountable.getQuantity());
-                } else if (batchOnShelf instanceof WeightableProduct && product instanceof WeightableProduct) {
-                    WeightableProduct shelfWeightable = (WeightableProduct) batchOnShelf;
-                    WeightableProduct removeWeightable = (WeightableProduct) product;
-                    shelfWeightable.setWeight(shelfWeightable.getWeight() - removeWeightable.getWeight());
-                }
-
-                currentAmount -= amountToRemove;
-
-                // Если после удаления товара на полке не осталось
-                if (getAmountFromProduct(batchOnShelf) <= 0.001) {
-                    batchesByBatchId.remove(batchId);
-                }
-
-                return true;
-            }
+        Product batchOnShelf = batchesByBatchId.get(product.getBatchNumber());
+        if (batchOnShelf == null) {
+            return false;
         }
 
-        return false;
+        long amountToRemove = product.getAmount();
+        if (batchOnShelf.getAmount() < amountToRemove || !addToBatch(batchOnShelf, product, -amountToRemove)) {
+            return false;
+        }
+        currentAmount -= amountToRemove;
+
+        // Если после удаления товара на полке не осталось
+        if (batchOnShelf.getAmount() <= 0) {
+            batchesByBatchId.remove(product.getBatchNumber());
+            batches.remove(batchOnShelf);
+        }
+        return true;
     }
 
-    // Приватные вспомогательные методы
-    private double mergeWithExistingBatch(Product existingBatch, Product newProduct, double amountCanAdd) {
-        if (existingBatch instanceof CountableProduct && newProduct instanceof CountableProduct) {
-            CountableProduct existingCountable = (CountableProduct) existingBatch;
-            CountableProduct newCountable = (CountableProduct) newProduct;
+    // Продажа amount с полки по FEFO за один проход: партии с ближайшим сроком расходуются первыми.
+    // Опустевшие партии образуют начало списка и убираются одним сдвигом после прохода.
+    // Остаток проверяет вызывающий код; штучный товар продается целыми штуками.
+    // Возвращает стоимость проданного по ценам партий со скидками
+    long sell(long amount, SaleListener listener) {
+        long cost = 0;
+        int emptied = 0;
+        for (int i = 0; i < batches.size() && amount > 0; i++) {
+            Product batch = batches.get(i);
+            long sold = take(batch, amount);
+            amount -= sold;
+            cost += Money.costOf(batch.getFinalPriceKopecks(), sold);
+            boolean empty = batch.getAmount() <= 0;
+            if (empty) {
+                batchesByBatchId.remove(batch.getBatchNumber());
+                emptied++;
+            }
+            listener.sold(batch, sold, empty);
+        }
+        if (emptied > 0) {
+            batches.subList(0, emptied).clear();
+        }
+        return cost;
+    }
 
-            int addQuantity = (int) Math.min(newCountable.getQuantity(), amountCanAdd);
-            existingCountable.setQuantity(existingCountable.getQuantity() + addQuantity);
-            currentAmount += addQuantity;
-            return addQuantity;
+    // Стоимость amount по базовым ценам партий (без скидок) в том же порядке FEFO, что и sell;
+    // полка не меняется. Остаток проверяет вызывающий код
+    long baseCostOf(long amount) {
+        long cost = 0;
+        for (int i = 0; i < batches.size() && amount > 0; i++) {
+            Product batch = batches.get(i);
+            long taken = Math.min(amount, batch.getAmount());
+            cost += Money.costOf(batch.getPriceKopecks(), taken);
+            amount -= taken;
+        }
+        return cost;
+    }
 
-        } else if (existingBatch instanceof WeightableProduct && newProduct instanceof WeightableProduct) {
-            WeightableProduct existingWeightable = (WeightableProduct) existingBatch;
-            WeightableProduct newWeightable = (WeightableProduct) newProduct;
+    // Самая высокая базовая цена среди партий полки, 0 - полка пуста
+    long maxPriceKopecks() {
+        long max = 0;
+        for (int i = 0; i < batches.size(); i++) {
+            max = Math.max(max, batches.get(i).getPriceKopecks());
+        }
+        return max;
+    }
 
-            double addWeight = Math.min(newWeightable.getWeight(), amountCanAdd);
-            existingWeightable.setWeight(existingWeightable.getWeight() + addWeight);
-            currentAmount += addWeight;
-            return addWeight;
+    // Продажа из указанной партии (воспроизведение журнала); 0 - партии нет на полке
+    long sellFromBatch(long batchNumber, long amount, SaleListener listener) {
+        Product batch = batchesByBatchId.get(batchNumber);
+        if (batch == null) {
+            return 0;
+        }
+        long sold = take(batch, amount);
+        boolean empty = batch.getAmount() <= 0;
+        if (empty) {
+            batchesByBatchId.remove(batchNumber);
+            batches.remove(batch);
         }
+        listener.sold(batch, sold, empty);
+        return Money.costOf(batch.getFinalPriceKopecks(), sold);
+    }
 
-        return 0.0;
+    private long take(Product batch, long amount) {
+        long sold = Math.min(amount, batch.getAmount());
+        addToBatch(batch, batch, -sold);
+        currentAmount -= sold;
+        return sold;
     }
 
-    private double createNewBatch(Product product, double amountCanAdd) {
-        String batchId = product.getBatchId();
+    // Получает каждую партию, из которой продано, сразу после списания
+    interface SaleListener {
+        void sold(Product batch, long soldAmount, boolean emptied);
+    }
 
-        // Создаем новый продукт с нужным количеством
-        Product batchForShelf = createPartialProduct(product, amountCanAdd);
-        batchesByBatchId.put(batchId, batchForShelf);
-        currentAmount += amountCanAdd;
+    // Изменяет остаток партии полки; партии разных видов не смешиваются
+    private static boolean addToBatch(Product batch, Product source, long amount) {
+        if (batch instanceof CountableProduct && source instanceof CountableProduct) {
+            CountableProduct countable = (CountableProduct) batch;
+            countable.setQuantity(countable.getQuantity() + (int) (amount / Quantity.SCALE));
+            return true;
+        } else if (batch instanceof WeightableProduct && source instanceof WeightableProduct) {
+            WeightableProduct weightable = (WeightableProduct) batch;
+            weightable.setGrams(weightable.getGrams() + amount);
+            return true;
+        }
+        return false;
+    }
 
-        return amountCanAdd;
+    private long availableSpace() {
+        return Math.max(0, maxCapacity - currentAmount);
     }
 
-    private Product createPartialProduct(Product original, double partialAmount) {
-        // Используем ProductFactory для создания копии
-        Product partialProduct = ProductFactory.createCopy(original, partialAmount);
+    private void putBatch(Product batch) {
+        Product previous = batchesByBatchId.put(batch.getBatchNumber(), batch);
+        if (previous != null) {
+            batches.set(batches.indexOf(previous), batch);
+            return;
+        }
+        // Место по сроку ищется с конца: новые партии обычно свежее уже выставленных
+        int index = batches.size();
+        while (index > 0 && batches.get(index - 1).getExpiryEpochDay() > batch.getExpiryEpochDay()) {
+            index--;
+        }
+        batches.add(index, batch);
+    }
+
+    private Product createPartialProduct(Product original, long partialAmount) {
+        // Описание товара общее, копируется только состояние партии
+        Product partialProduct = ProductFactory.createPartialCopy(original, partialAmount);
 
         // Сохраняем скидку от оригинала
         if (partialProduct != null) {
-            partialProduct.setDiscount(original.getDiscount());
+            partialProduct.setDiscountBasisPoints(original.getDiscountBasisPoints());
         }
 
         return partialProduct;
     }
-
-    private double getAmountFromProduct(Product product) {
-        if (product instanceof CountableProduct) {
-            return ((CountableProduct) product).getQuantity();
-        } else if (product instanceof WeightableProduct) {
-            return ((WeightableProduct) product).getWeight();
-        }
-        return 0.0;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,245 @@
+package supermarket.storage;
+
+import supermarket.SupermarketConfig;
+import supermarket.product.ProductCatalog;
+
+import java.util.concurrent.locks.Lock;
+import java.util.function.IntConsumer;
+
+// Очередь товаров зала по нехватке: двоичная min-куча порядковых номеров товаров каталога.
+// Ключ - заполненность полки относительно минимального запаса зала (0 - полки нет).
+// В очереди только товары, которые есть на складе: членством управляет склад,
+// ключи обновляет зал при каждом изменении полки. Изменение ключа и извлечение - O(log n).
+// Очередь защищена блокировкой индексов зала. Потоки покупателей ее не берут: изменение полки
+// только отмечается (dirty), а ключи отмеченных товаров пересчитываются при чтении очереди.
+// У однопоточного зала блокировки нет (null), и ключ пересчитывается сразу.
+public class ShelfDeficitQueue {
+    private final SalesHall salesHall;
+    private final ProductCatalog catalog;
+    private final Lock lock; // null - однопоточный зал
+    private final int[] heap;      // номера товаров
+    private final int[] position;  // место номера в куче плюс один; 0 - номера нет в очереди
+    private final double[] keys;
+    private final OrdinalBits dirty; // null - однопоточный зал
+    private final IntConsumer refreshKey = this::refreshKey;
+    private int size;
+
+    ShelfDeficitQueue(SalesHall salesHall, ProductCatalog catalog, Lock lock) {
+        int skuCount = catalog.getSkuCount();
+        this.salesHall = salesHall;
+        this.catalog = catalog;
+        this.lock = lock;
+        this.heap = new int[skuCount];
+        this.position = new int[skuCount];
+        this.keys = new double[skuCount];
+        this.dirty = lock != null ? new OrdinalBits(skuCount) : null;
+    }
+
+    // Заполненность полки товара в долях минимального запаса зала
+    public double fillRatio(int skuOrdinal) {
+        double amount = salesHall.getTotalAmount(skuOrdinal);
+        if (amount <= 0) {
+            return 0;
+        }
+        boolean countable = ProductCatalog.isCountableType(catalog.getProductInfo(skuOrdinal).getType());
+        return amount / (countable ? SupermarketConfig.SALES_HALL_MIN_COUNTABLE
+                : SupermarketConfig.SALES_HALL_MIN_WEIGHTABLE);
+    }
+
+    ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    public boolean contains(int skuOrdinal) {
+        lock();
+        try {
+            return position[skuOrdinal] != 0;
+        } finally {
+            unlock();
+        }
+    }
+
+    public int size() {
+        lock();
+        try {
+            return size;
+        } finally {
+            unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Номер самого нуждающегося товара или -1
+    public int peek() {
+        lock();
+        try {
+            refreshKeys();
+            return size > 0 ? heap[0] : -1;
+        } finally {
+            unlock();
+        }
+    }
+
+    public double peekFillRatio() {
+        lock();
+        try {
+            refreshKeys();
+            return size > 0 ? keys[heap[0]] : Double.POSITIVE_INFINITY;
+        } finally {
+            unlock();
+        }
+    }
+
+    public int poll() {
+        lock();
+        try {
+            refreshKeys();
+            if (size == 0) {
+                return -1;
+            }
+            int first = heap[0];
+            removeAt(0);
+            return first;
+        } finally {
+            unlock();
+        }
+    }
+
+    void add(int skuOrdinal) {
+        lock();
+        try {
+            if (position[skuOrdinal] != 0) {
+                return;
+            }
+            keys[skuOrdinal] = fillRatio(skuOrdinal);
+            siftUp(size++, skuOrdinal);
+        } finally {
+            unlock();
+        }
+    }
+
+    void remove(int skuOrdinal) {
+        lock();
+        try {
+            if (position[skuOrdinal] != 0) {
+                removeAt(position[skuOrdinal] - 1);
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    // Полка товара изменилась (вызывается залом под полосой товара, без блокировки очереди)
+    void amountChanged(int skuOrdinal) {
+        if (dirty != null) {
+            dirty.set(skuOrdinal, true);
+        } else {
+            refreshKey(skuOrdinal);
+        }
+    }
+
+    // Под блокировкой очереди: ключи отмеченных товаров пересчитываются
+    private void refreshKeys() {
+        if (dirty != null) {
+            dirty.drain(refreshKey);
+        }
+    }
+
+    // Ключ пересчитывается, товар встает на новое место
+    private void refreshKey(int skuOrdinal) {
+        if (position[skuOrdinal] == 0) {
+            return;
+        }
+        double old = keys[skuOrdinal];
+        keys[skuOrdinal] = fillRatio(skuOrdinal);
+        int index = position[skuOrdinal] - 1;
+        if (keys[skuOrdinal] < old) {
+            siftUp(index, skuOrdinal);
+        } else {
+            siftDown(index, skuOrdinal);
+        }
+    }
+
+    void clear() {
+        lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                position[heap[i]] = 0;
+            }
+            size = 0;
+        } finally {
+            unlock();
+        }
+    }
+
+    private void lock() {
+        if (lock != null) {
+            lock.lock();
+        }
+    }
+
+    private void unlock() {
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
+    private void removeAt(int index) {
+        int removed = heap[index];
+        position[removed] = 0;
+        int last = heap[--size];
+        if (index == size) {
+            return;
+        }
+        siftDown(index, last);
+        if (heap[index] == last) {
+            siftUp(index, last);
+        }
+    }
+
+    private void siftUp(int index, int sku) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentSku = heap[parent];
+            if (!isBefore(sku, parentSku)) {
+                break;
+            }
+            place(index, parentSku);
+            index = parent;
+        }
+        place(index, sku);
+    }
+
+    private void siftDown(int index, int sku) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && isBefore(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!isBefore(heap[child], sku)) {
+                break;
+            }
+            place(index, heap[child]);
+            index = child;
+        }
+        place(index, sku);
+    }
+
+    private void place(int index, int sku) {
+        heap[index] = sku;
+        position[sku] = index + 1;
+    }
+
+    // При равной заполненности раньше товар с меньшим номером - порядок не зависит от истории
+    private boolean isBefore(int a, int b) {
+        if (keys[a] != keys[b]) {
+            return keys[a] < keys[b];
+        }
+        return a < b;
+    }
+}
@@ -0,0 +1,107 @@
+package supermarket.storage;
+
+import supermarket.product.ProductCatalog;
+
+import java.util.Arrays;
+
+// Партии на полках зала по цене товара: товары каталога упорядочены по возрастанию цены,
+// дерево Фенвика над этим порядком хранит число партий на полке каждого товара.
+// Партий не дороже X - префиксная сумма до последней позиции с ценой <= X, k-я из них - спуск
+// по дереву; оба запроса O(log n) вместо обхода всех полок. Партии одного товара делят описание
+// (ProductDefinition), поэтому цена - свойство товара, а не партии, и порядок не меняется.
+// Скидки в порядке не участвуют: отбор по бюджету идет по цене до скидки.
+final class ShelfPriceIndex {
+    private final int[] ordinalByPosition; // номера товаров по возрастанию цены
+    private final int[] positionByOrdinal;
+    private final long[] prices;           // цена по позиции, по возрастанию
+    private final int[] counts;            // партий на полке по позиции
+    private final int[] tree;              // дерево Фенвика над counts, индексы с единицы
+    private final int highestBit;
+
+    ShelfPriceIndex(ProductCatalog catalog) {
+        int skuCount = catalog.getSkuCount();
+        long[] priceByOrdinal = new long[skuCount];
+        for (int ordinal = 0; ordinal < skuCount; ordinal++) {
+            priceByOrdinal[ordinal] = catalog.getProductInfo(ordinal).getDefinition().getPriceKopecks();
+        }
+        prices = priceByOrdinal.clone();
+        Arrays.sort(prices);
+
+        // Позиция товара - первая позиция его цены плюс число уже размещенных товаров с той же ценой,
+        // поэтому товары с равной ценой идут в порядке каталога
+        ordinalByPosition = new int[skuCount];
+        positionByOrdinal = new int[skuCount];
+        int[] placed = new int[skuCount];
+        for (int ordinal = 0; ordinal < skuCount; ordinal++) {
+            int first = firstPositionAbove(priceByOrdinal[ordinal] - 1);
+            int position = first + placed[first]++;
+            ordinalByPosition[position] = ordinal;
+            positionByOrdinal[ordinal] = position;
+        }
+
+        counts = new int[skuCount];
+        tree = new int[skuCount + 1];
+        highestBit = skuCount > 0 ? Integer.highestOneBit(skuCount) : 0;
+    }
+
+    void setBatchCount(int ordinal, int batches) {
+        int position = positionByOrdinal[ordinal];
+        int delta = batches - counts[position];
+        if (delta == 0) {
+            return;
+        }
+        counts[position] = batches;
+        for (int i = position + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Число партий товаров с ценой не выше maxPriceKopecks
+    int countAtMost(long maxPriceKopecks) {
+        int sum = 0;
+        for (int i = firstPositionAbove(maxPriceKopecks); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Позиция, на которую приходится партия с номером k (с нуля) в порядке цены;
+    // номер партии на полке - k минус партии на предыдущих позициях (см. offsetOf)
+    int positionOf(int k) {
+        int position = 0;
+        for (int bit = highestBit; bit > 0; bit >>= 1) {
+            int next = position + bit;
+            if (next < tree.length && tree[next] <= k) {
+                position = next;
+                k -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    int offsetOf(int k, int position) {
+        for (int i = position; i > 0; i -= i & -i) {
+            k -= tree[i];
+        }
+        return k;
+    }
+
+    int ordinalAt(int position) {
+        return ordinalByPosition[position];
+    }
+
+    // Первая позиция с ценой больше price (число позиций с ценой <= price)
+    private int firstPositionAbove(long price) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (prices[middle] <= price) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,31 @@
+package supermarket.storage;
+
+import supermarket.product.Product;
+
+// Наблюдатель за изменениями склада и зала (например, журнал событий).
+// Вызывается только для состоявшихся изменений, после того как они применены.
+// Партии передаются номерами (BatchIds), без построения текста.
+public interface StorageListener {
+    void warehouseProductAdded(Product product);
+
+    void warehouseBatchRemoved(String productId, long batchNumber);
+
+    void warehouseProductRemoved(String productId);
+
+    void warehouseBatchDisposed(String productId, long batchNumber);
+
+    // Партия в том количестве, что поместилось на полку: исходная или ее копия с меньшим остатком
+    void hallProductAdded(Product product);
+
+    void hallBatchSold(String productId, long batchNumber);
+
+    // Продана часть партии (Quantity); опустевшая партия убирается с полки
+    void hallAmountSold(String productId, long batchNumber, long amount);
+
+    void hallProductRemoved(String productId);
+
+    void hallBatchDisposed(String productId, long batchNumber);
+
+    // Скидка в базисных пунктах (Money)
+    void hallDiscountSet(String productId, long batchNumber, int discountBasisPoints);
+}
@@ -1,97 +1,262 @@
 package supermarket.storage;
 
 import supermarket.SupermarketConfig;
+import supermarket.output.SimulationOutput;
 import supermarket.product.*;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
+// Партии каждого товара хранятся в порядке FEFO: первой выдается партия, которая истекает раньше всех
 public class Warehouse implements ProductStorage {
-    private Map<String, List<Product>> productsByBatch;
+    private Map<String, FefoBatches> productsByBatch;
+    // Те же партии по порядковому номеру товара в каталоге: поиск без хеширования строк
+    private final ProductCatalog catalog;
+    private final FefoBatches[] batchesByOrdinal;
+    // Списки партий сами только для чтения, поэтому вид на карту ничего не копирует
+    private final Map<String, List<Product>> productsView;
+    private int totalBatches; // партий на складе, ведется при каждом изменении
+    private int uncatalogedProducts; // товары вне каталога: у них нет номера и места в массивах
+    private ShelfDeficitQueue deficits; // очередь нехватки зала: в ней товары, которые есть на складе
+    // Товары ниже минимального запаса склада: входят и выходят при пересечении порога.
+    // Порядок - по номеру в каталоге, он не зависит от истории склада (и восстановления из точки)
+    private final BitSet lowStockOrdinals = new BitSet();
+    private final Set<String> lowStockUncataloged = new TreeSet<>();
+    private final ExpiryWheel expiryWheel; // партии склада по дню окончания срока
+    private final SimulationOutput output;
+    private StorageListener listener;
+    private final Consumer<Product> disposeExpired = this::disposeExpired;
 
     public Warehouse() {
-        this.productsByBatch = new HashMap<>();
+        this(SimulationOutput.defaultOutput());
+    }
+
+    public Warehouse(SimulationOutput output) {
+        this(output, ProductCatalog.getDefault());
+    }
+
+    public Warehouse(SimulationOutput output, ProductCatalog catalog) {
+        this.productsByBatch = new LinkedHashMap<>();
+        this.catalog = catalog;
+        this.batchesByOrdinal = new FefoBatches[catalog.getSkuCount()];
+        this.productsView = Collections.unmodifiableMap(productsByBatch);
+        this.expiryWheel = new ExpiryWheel();
+        this.output = output;
     }
 
     public boolean addProduct(Product product, LocalDate currentDate) {
-        if (product.isExpired(currentDate)) {
-            System.out.println(" Товар " + product.getName() + " не валиден и не принят на склад");
+        return addProduct(product, (int) currentDate.toEpochDay());
+    }
+
+    public boolean addProduct(Product product, int currentEpochDay) {
+        if (product.isExpired(currentEpochDay)) {
+            if (output.isVerbose()) {
+                output.verbose(" Товар " + product.getName() + " не валиден и не принят на склад");
+            }
             return false;
         }
 
+        batchesFor(product).offer(product);
+        totalBatches++;
+        stockChanged(product.getId(), product.getSkuOrdinal());
+        expiryWheel.add(product);
+        if (listener != null) {
+            listener.warehouseProductAdded(product);
+        }
+        return true;
+    }
+
+    // Партия из контрольной точки: принимается как есть, без проверки срока и без уведомлений
+    public void restoreBatch(Product product) {
+        batchesFor(product).offer(product);
+        totalBatches++;
+        stockChanged(product.getId(), product.getSkuOrdinal());
+        expiryWheel.add(product);
+    }
+
+    // Список партий товара (создается при первой партии) и его регистрация по номеру в каталоге
+    private FefoBatches batchesFor(Product product) {
         String productId = product.getId();
+        int ordinal = catalog.ordinalOf(product);
+        FefoBatches batches = ordinal >= 0 ? batchesByOrdinal[ordinal] : productsByBatch.get(productId);
+        if (batches == null) {
+            batches = new FefoBatches();
+            productsByBatch.put(productId, batches);
+            if (ordinal >= 0) {
+                batchesByOrdinal[ordinal] = batches;
+                if (deficits != null) {
+                    deficits.add(ordinal);
+                }
+            } else {
+                uncatalogedProducts++;
+            }
+        }
+        return batches;
+    }
 
-        if (!productsByBatch.containsKey(productId)) {
-            productsByBatch.put(productId, new ArrayList<>());
+    private void forgetProduct(String productId) {
+        productsByBatch.remove(productId);
+        int ordinal = catalog.getOrdinal(productId);
+        if (ordinal >= 0) {
+            batchesByOrdinal[ordinal] = null;
+            if (deficits != null) {
+                deficits.remove(ordinal);
+            }
+        } else {
+            uncatalogedProducts--;
         }
+        stockChanged(productId, ordinal);
+    }
 
-        productsByBatch.get(productId).add(product);
-        return true;
+    // Остаток товара изменился: товар входит в набор нехватки или выходит из него
+    private void stockChanged(String productId, int ordinal) {
+        FefoBatches batches = ordinal >= 0 ? batchesByOrdinal[ordinal] : productsByBatch.get(productId);
+        boolean low = batches != null && !batches.isEmpty()
+                && batches.getTotalAmount() < getMinStockFor(batches.first());
+        if (ordinal >= 0) {
+            lowStockOrdinals.set(ordinal, low);
+        } else if (low) {
+            lowStockUncataloged.add(productId);
+        } else {
+            lowStockUncataloged.remove(productId);
+        }
+    }
+
+    // Склад ведет членство в очереди нехватки зала: товар в очереди, пока на складе есть его партии
+    void trackDeficits(ShelfDeficitQueue deficits) {
+        if (deficits.getCatalog() != catalog) {
+            throw new IllegalArgumentException("Склад и зал должны использовать один каталог товаров");
+        }
+        if (this.deficits != null) {
+            this.deficits.clear();
+        }
+        this.deficits = deficits;
+        deficits.clear();
+        for (int ordinal = 0; ordinal < batchesByOrdinal.length; ordinal++) {
+            if (batchesByOrdinal[ordinal] != null) {
+                deficits.add(ordinal);
+            }
+        }
+    }
+
+    public int getUncatalogedProductCount() {
+        return uncatalogedProducts;
     }
 
+    public boolean hasStock(int skuOrdinal) {
+        return batchesByOrdinal[skuOrdinal] != null;
+    }
+
+    public void setListener(StorageListener listener) {
+        this.listener = listener;
+    }
+
+    // Партия товара, которая истекает раньше всех
     public Product getProduct(String productId) {
-        List<Product> batches = productsByBatch.get(productId);
-        return (batches != null && !batches.isEmpty()) ? batches.get(0) : null;
+        FefoBatches batches = productsByBatch.get(productId);
+        return batches != null ? batches.first() : null;
     }
 
+    public Product getProduct(int skuOrdinal) {
+        FefoBatches batches = batchesByOrdinal[skuOrdinal];
+        return batches != null ? batches.first() : null;
+    }
+
+    // Партии товара только для чтения, без копирования; список отражает последующие изменения склада.
+    // Первая партия истекает раньше всех, остальные - в порядке кучи
     public List<Product> findProductsById(String productId) {
-        List<Product> batches = productsByBatch.get(productId);
-        if (batches != null) {
-            return new ArrayList<>(batches);
+        FefoBatches batches = productsByBatch.get(productId);
+        return batches != null ? batches : Collections.emptyList();
+    }
+
+    public void forEachBatch(Consumer<? super Product> action) {
+        for (FefoBatches batches : productsByBatch.values()) {
+            for (int i = 0; i < batches.size(); i++) {
+                action.accept(batches.get(i));
+            }
         }
-        return new ArrayList<>();
     }
 
     public void removeProduct(String productId) {
-        productsByBatch.remove(productId);
+        FefoBatches batches = productsByBatch.get(productId);
+        if (batches == null) {
+            return;
+        }
+        forgetProduct(productId);
+        for (Product batch : batches) {
+            expiryWheel.remove(batch);
+        }
+        totalBatches -= batches.size();
+        if (listener != null) {
+            listener.warehouseProductRemoved(productId);
+        }
     }
 
     public void removeBatch(String productId, String batchId) {
-        List<Product> batches = productsByBatch.get(productId);
+        removeBatch(productId, BatchIds.find(batchId));
+    }
+
+    public void removeBatch(String productId, long batchNumber) {
+        FefoBatches batches = productsByBatch.get(productId);
         if (batches != null) {
-            batches.removeIf(product -> product.getBatchId().equals(batchId));
+            boolean removed = false;
+            Product product;
+            while ((product = batches.removeBatch(batchNumber)) != null) {
+                totalBatches--;
+                expiryWheel.remove(product);
+                removed = true;
+            }
             if (batches.isEmpty()) {
-                productsByBatch.remove(productId);
+                forgetProduct(productId);
+            } else if (removed) {
+                stockChanged(productId, batches.first().getSkuOrdinal());
+            }
+            if (removed && listener != null) {
+                listener.warehouseBatchRemoved(productId, batchNumber);
             }
         }
     }
 
     public List<Product> getBatchesForProduct(String productId) {
-        return new ArrayList<>(productsByBatch.getOrDefault(productId, new ArrayList<>()));
+        return findProductsById(productId);
     }
 
+    // Просматриваются только партии, срок которых истек (корзины колеса сроков)
     public int removeExpiredProducts(LocalDate currentDate) {
-        int removed = 0;
-        Iterator<Map.Entry<String, List<Product>>> iterator = productsByBatch.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, List<Product>> entry = iterator.next();
-            List<Product> batches = entry.getValue();
-
-            Iterator<Product> batchIterator = batches.iterator();
-            while (batchIterator.hasNext()) {
-                Product batch = batchIterator.next();
-                if (batch.isExpired(currentDate)) {
-                    System.out.println(" Утилизирован просроченный товар со склада: " +
-                            batch.getName() + " (партия: " + batch.getBatchId() + ")");
-                    batchIterator.remove();
-                    removed++;
-                }
-            }
+        return removeExpiredProducts((int) currentDate.toEpochDay());
+    }
 
-            if (batches.isEmpty()) {
-                iterator.remove();
-            }
+    public int removeExpiredProducts(int currentEpochDay) {
+        return expiryWheel.drainExpired(currentEpochDay, disposeExpired);
+    }
+
+    private void disposeExpired(Product batch) {
+        FefoBatches batches = productsByBatch.get(batch.getId());
+        if (batches == null) {
+            return;
+        }
+        if (batches.removeBatch(batch)) {
+            totalBatches--;
+        }
+        if (batches.isEmpty()) {
+            forgetProduct(batch.getId());
+        } else {
+            stockChanged(batch.getId(), batch.getSkuOrdinal());
+        }
+
+        if (output.isVerbose()) {
+            output.verbose(" Утилизирован просроченный товар со склада: " +
+                    batch.getName() + " (партия: " + batch.getBatchId() + ")");
+        }
+        if (listener != null) {
+            listener.warehouseBatchDisposed(batch.getId(), batch.getBatchNumber());
         }
-        return removed;
     }
 
+    // Товары склада только для чтения, без копирования
     public Map<String, List<Product>> getAllProducts() {
-        Map<String, List<Product>> copy = new HashMap<>();
-        for (Map.Entry<String, List<Product>> entry : productsByBatch.entrySet()) {
-            copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
-        }
-        return copy;
+        return productsView;
     }
 
     public int getTotalProducts() {
@@ -99,30 +264,31 @@ public class Warehouse implements ProductStorage {
     }
 
     public int getTotalBatches() {
-        int total = 0;
-        for (List<Product> batches : productsByBatch.values()) {
-            total += batches.size();
-        }
-        return total;
+        return totalBatches;
     }
 
     public Collection<List<Product>> getProductsCollection() {
-        return productsByBatch.values();
+        return productsView.values();
     }
 
+    // Итог ведется при каждом изменении склада, без пересчета партий
     public double getTotalAmount(String productId) {
-        List<Product> batches = productsByBatch.get(productId);
-        if (batches == null) return 0;
+        return Quantity.toDouble(getStockAmount(productId));
+    }
 
-        double total = 0;
-        for (Product batch : batches) {
-            if (batch instanceof CountableProduct) {
-                total += ((CountableProduct) batch).getQuantity();
-            } else if (batch instanceof WeightableProduct) {
-                total += ((WeightableProduct) batch).getWeight();
-            }
-        }
-        return total;
+    public double getTotalAmount(int skuOrdinal) {
+        return Quantity.toDouble(getStockAmount(skuOrdinal));
+    }
+
+    // Остаток товара в тысячных долях единицы (Quantity)
+    public long getStockAmount(String productId) {
+        FefoBatches batches = productsByBatch.get(productId);
+        return batches != null ? batches.getTotalAmount() : 0;
+    }
+
+    public long getStockAmount(int skuOrdinal) {
+        FefoBatches batches = batchesByOrdinal[skuOrdinal];
+        return batches != null ? batches.getTotalAmount() : 0;
     }
 
     public boolean needsRestocking() {
@@ -133,26 +299,31 @@ public class Warehouse implements ProductStorage {
         return productsByBatch.isEmpty();
     }
 
+    // Товары ниже минимального запаса: по номеру в каталоге, затем товары вне каталога
     public List<String> getLowStockProductIds() {
-        List<String> lowStockIds = new ArrayList<>();
-        for (String productId : productsByBatch.keySet()) {
-            double totalAmount = getTotalAmount(productId);
-            double minStock = getMinStockForProduct(productId);
-
-            if (totalAmount < minStock) {
-                lowStockIds.add(productId);
-            }
+        List<String> lowStockIds = new ArrayList<>(getLowStockCount());
+        for (int ordinal = lowStockOrdinals.nextSetBit(0); ordinal >= 0;
+             ordinal = lowStockOrdinals.nextSetBit(ordinal + 1)) {
+            lowStockIds.add(catalog.getProductInfo(ordinal).getId());
         }
+        lowStockIds.addAll(lowStockUncataloged);
         return lowStockIds;
     }
 
-    private double getMinStockForProduct(String productId) {
-        Product product = getProduct(productId);
+    public int getLowStockCount() {
+        return lowStockOrdinals.cardinality() + lowStockUncataloged.size();
+    }
+
+    public boolean isLowStock(int skuOrdinal) {
+        return lowStockOrdinals.get(skuOrdinal);
+    }
+
+    private static long getMinStockFor(Product product) {
         if (product instanceof CountableProduct) {
-            return SupermarketConfig.WAREHOUSE_MIN_COUNTABLE;
+            return Quantity.ofUnits(SupermarketConfig.WAREHOUSE_MIN_COUNTABLE);
         } else if (product instanceof WeightableProduct) {
-            return SupermarketConfig.WAREHOUSE_MIN_WEIGHTABLE;
+            return Quantity.ofKilograms(SupermarketConfig.WAREHOUSE_MIN_WEIGHTABLE);
         }
-        return 1.0;
+        return Quantity.SCALE;
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package supermarket.workload;
+
+import supermarket.product.ProductCatalog;
+
+import java.util.SplittableRandom;
+
+// Размер магазина для нагрузочных прогонов: каталог, глубина запасов и число покупателей.
+// Каталог неизменяем и может быть общим для многих магазинов; склад, зал и покупателей
+// каждый магазин создает сам из своего зерна (см. Supermarket).
+public final class Workload {
+    private final ProductCatalog catalog;
+    private final int warehouseDepth;   // партий каждого товара на складе
+    private final int hallDepth;        // партий каждого товара в зале
+    private final int customerCount;    // покупателей в пуле
+    private final int customersPerDay;  // покупателей в день (не больше пула)
+
+    public Workload(ProductCatalog catalog, int warehouseDepth, int hallDepth, int customerCount, int customersPerDay) {
+        if (warehouseDepth < 0 || hallDepth < 0 || customerCount < 0 || customersPerDay < 0) {
+            throw new IllegalArgumentException("Размеры нагрузки не могут быть отрицательными");
+        }
+        this.catalog = catalog;
+        this.warehouseDepth = warehouseDepth;
+        this.hallDepth = hallDepth;
+        this.customerCount = customerCount;
+        this.customersPerDay = Math.min(customersPerDay, customerCount);
+    }
+
+    // Нагрузка со сгенерированным каталогом из skuCount товаров
+    public static Workload generate(long seed, int skuCount, int warehouseDepth, int hallDepth,
+                                    int customerCount, int customersPerDay) {
+        ProductCatalog catalog = WorkloadGenerator.generateCatalog(skuCount, new SplittableRandom(seed));
+        return new Workload(catalog, warehouseDepth, hallDepth, customerCount, customersPerDay);
+    }
+
+    public ProductCatalog getCatalog() { return catalog; }
+    public int getWarehouseDepth() { return warehouseDepth; }
+    public int getHallDepth() { return hallDepth; }
+    public int getCustomerCount() { return customerCount; }
+    public int getCustomersPerDay() { return customersPerDay; }
+}
@@ -0,0 +1,147 @@
+package supermarket.workload;
+
+import supermarket.SupermarketConfig;
+import supermarket.product.BatchIds;
+import supermarket.product.CountableProduct;
+import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
+import supermarket.product.ProductDefinition;
+import supermarket.product.ProductType;
+import supermarket.product.Quantity;
+import supermarket.product.WeightableProduct;
+import supermarket.storage.SalesHall;
+import supermarket.storage.Warehouse;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Синтетическая нагрузка: каталог любого размера, склад и зал заданной глубины.
+// Как и ProductFactory, генератор не хранит состояния - генератор случайных чисел передает
+// вызывающий код, поэтому одно зерно всегда дает один и тот же магазин.
+public final class WorkloadGenerator {
+    private static final ProductType[] TYPES = ProductType.values();
+
+    // Доли типов в ассортименте, проценты (в порядке ProductType)
+    private static final int[] TYPE_SHARES = {14, 9, 11, 16, 28, 13, 9};
+    // Медианная цена по типам, руб. (в порядке ProductType); цены распределены логнормально
+    private static final double[] MEDIAN_PRICES = {90, 55, 320, 95, 85, 150, 450};
+    private static final double PRICE_SIGMA = 0.55;
+    // Срок годности - логнормальный разброс вокруг срока по типу
+    private static final double SHELF_LIFE_SIGMA = 0.3;
+    private static final int FRESH_DAYS = 3; // партии на складе - из недавних поставок
+
+    private WorkloadGenerator() {
+    }
+
+    // Встроенный ассортимент (его товары знают предпочтения покупателей) плюс синтетические товары
+    // до skuCount. Синтетический товар называется по случайному товару того же типа с номером
+    public static ProductCatalog generateCatalog(int skuCount, SplittableRandom random) {
+        ProductCatalog base = ProductCatalog.getDefault();
+        Map<ProductType, List<ProductCatalog.ProductInfo>> assortment = new EnumMap<>(ProductType.class);
+        int expectedPerType = skuCount / TYPES.length + 1;
+
+        int builtIn = Math.min(skuCount, base.getSkuCount());
+        for (int i = 0; i < builtIn; i++) {
+            ProductCatalog.ProductInfo info = base.getProductInfo(i);
+            productsOf(assortment, info.getType(), expectedPerType).add(info);
+        }
+        for (int i = builtIn; i < skuCount; i++) {
+            ProductType type = randomType(random);
+            ProductCatalog.ProductInfo stem = base.getRandomProductInfo(type, random);
+            productsOf(assortment, type, expectedPerType).add(new ProductCatalog.ProductInfo(
+                    type.name() + "_" + i, stem.getName() + " №" + i,
+                    randomPrice(type, random), type, randomShelfLife(type, random)));
+        }
+        return ProductCatalog.of(assortment);
+    }
+
+    // depth свежих партий каждого товара каталога
+    public static int stockWarehouse(Warehouse warehouse, ProductCatalog catalog, int depth,
+                                     SplittableRandom random, int currentEpochDay) {
+        int added = 0;
+        for (int ordinal = 0; ordinal < catalog.getSkuCount(); ordinal++) {
+            ProductCatalog.ProductInfo info = catalog.getProductInfo(ordinal);
+            int freshDays = Math.min(FRESH_DAYS, info.getShelfLifeDays());
+            for (int i = 0; i < depth; i++) {
+                int productionDay = currentEpochDay - random.nextInt(freshDays);
+                long amount = ProductCatalog.isCountableType(info.getType())
+                        ? Quantity.ofUnits(20 + random.nextInt(30))
+                        : Quantity.ofKilograms(5.0 + random.nextDouble() * 10.0);
+                if (warehouse.addProduct(createBatch(info, productionDay, amount), currentEpochDay)) {
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    // depth партий каждого товара на полках; партии делят вместимость полки поровну (штучный товар -
+    // не меньше штуки, поэтому глубже вместимости полка не заполняется), а дни производства
+    // разбросаны по всему сроку годности, поэтому истекают партии в разные дни
+    public static int stockHall(SalesHall salesHall, ProductCatalog catalog, int depth,
+                                SplittableRandom random, int currentEpochDay) {
+        if (depth == 0) {
+            return 0;
+        }
+        long countableAmount = Math.max(1, SupermarketConfig.SHELF_MAX_COUNTABLE / depth) * Quantity.SCALE;
+        long weightableAmount = Math.max(100, Quantity.ofKilograms(SupermarketConfig.SHELF_MAX_WEIGHTABLE) / depth);
+
+        int added = 0;
+        for (int ordinal = 0; ordinal < catalog.getSkuCount(); ordinal++) {
+            ProductCatalog.ProductInfo info = catalog.getProductInfo(ordinal);
+            long amount = ProductCatalog.isCountableType(info.getType()) ? countableAmount : weightableAmount;
+            for (int i = 0; i < depth; i++) {
+                int productionDay = currentEpochDay - random.nextInt(info.getShelfLifeDays());
+                if (salesHall.addProduct(createBatch(info, productionDay, amount), currentEpochDay)) {
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    private static Product createBatch(ProductCatalog.ProductInfo info, int productionDay, long amount) {
+        ProductDefinition definition = info.getDefinition();
+        Product batch = ProductCatalog.isCountableType(info.getType())
+                ? new CountableProduct(definition, BatchIds.next(), productionDay, Quantity.toUnits(amount))
+                : new WeightableProduct(definition, BatchIds.next(), productionDay, amount);
+        batch.setSkuOrdinal(info.getOrdinal());
+        return batch;
+    }
+
+    private static List<ProductCatalog.ProductInfo> productsOf(
+            Map<ProductType, List<ProductCatalog.ProductInfo>> assortment, ProductType type, int expectedSize) {
+        return assortment.computeIfAbsent(type, t -> new ArrayList<>(expectedSize));
+    }
+
+    private static ProductType randomType(SplittableRandom random) {
+        int point = random.nextInt(100);
+        for (int i = 0; i < TYPES.length; i++) {
+            point -= TYPE_SHARES[i];
+            if (point < 0) {
+                return TYPES[i];
+            }
+        }
+        return TYPES[TYPES.length - 1];
+    }
+
+    // Цена вида 89.99, не дешевле 9.99
+    private static double randomPrice(ProductType type, SplittableRandom random) {
+        double price = MEDIAN_PRICES[type.ordinal()] * Math.exp(PRICE_SIGMA * gaussian(random));
+        return Math.max(10, Math.round(price)) - 0.01;
+    }
+
+    private static int randomShelfLife(ProductType type, SplittableRandom random) {
+        double days = type.getShelfLifeDays() * Math.exp(SHELF_LIFE_SIGMA * gaussian(random));
+        return (int) Math.max(1, Math.round(days));
+    }
+
+    // Стандартное нормальное число (преобразование Бокса-Мюллера)
+    private static double gaussian(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble(); // (0, 1]
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
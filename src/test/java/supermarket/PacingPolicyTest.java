@@ -0,0 +1,75 @@
+package supermarket;
+
+import org.junit.jupiter.api.Test;
+import supermarket.output.SimulationOutput;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PacingPolicyTest {
+
+    @Test
+    void testFastPacingRunsAllDays() {
+        Supermarket supermarket = new Supermarket(LocalDate.of(2024, 1, 1), 1L, SimulationOutput.silent());
+
+        long start = System.nanoTime();
+        supermarket.runSimulation(30, PacingPolicy.asFastAsPossible());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        assertEquals(30, supermarket.getDaysSimulated());
+        assertEquals(LocalDate.of(2024, 1, 31), supermarket.getCurrentDate());
+        assertTrue(elapsedMillis < 30_000);
+    }
+
+    @Test
+    void testFixedRateWaitsBetweenDays() throws InterruptedException {
+        PacingPolicy pacing = PacingPolicy.fixedRate(20);
+
+        long start = System.nanoTime();
+        for (int day = 0; day < 4; day++) {
+            assertTrue(pacing.beforeDay(day));
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        assertTrue(elapsedMillis >= 60);
+    }
+
+    @Test
+    void testStepPacingRunsOnlyRequestedDays() throws InterruptedException {
+        Supermarket supermarket = new Supermarket(LocalDate.of(2024, 1, 1), 2L, SimulationOutput.silent());
+        StepPacing pacing = PacingPolicy.step();
+
+        Thread simulation = new Thread(() -> supermarket.runSimulation(10, pacing));
+        simulation.start();
+
+        pacing.step(3);
+        pacing.stop();
+        simulation.join(10_000);
+
+        assertFalse(simulation.isAlive());
+        assertEquals(3, supermarket.getDaysSimulated());
+    }
+
+    @Test
+    void testStepPacingSignalsCompletedDays() throws InterruptedException {
+        Supermarket supermarket = new Supermarket(LocalDate.of(2024, 1, 1), 3L, SimulationOutput.silent());
+        StepPacing pacing = PacingPolicy.step();
+
+        Thread simulation = new Thread(() -> supermarket.runSimulation(5, pacing));
+        simulation.start();
+
+        // После ожидания день уже выполнен целиком, а следующий не начат
+        pacing.step();
+        pacing.awaitCompletedDays(1);
+        assertEquals(1, supermarket.getDaysSimulated());
+        pacing.step();
+        pacing.awaitCompletedDays(2);
+        assertEquals(2, pacing.getCompletedDays());
+        assertEquals(2, supermarket.getDaysSimulated());
+
+        pacing.stop();
+        simulation.join(10_000);
+        assertFalse(simulation.isAlive());
+    }
+}
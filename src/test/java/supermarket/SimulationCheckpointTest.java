@@ -0,0 +1,136 @@
+package supermarket;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import supermarket.customer.Customer;
+import supermarket.output.SimulationOutput;
+import supermarket.product.CatalogFile;
+import supermarket.product.ProductCatalog;
+import supermarket.workload.Workload;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationCheckpointTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRestoredRunContinuesExactly() throws IOException {
+        Supermarket uninterrupted = new Supermarket(START, 77L, SimulationOutput.silent());
+        uninterrupted.runSimulation(30, PacingPolicy.asFastAsPossible());
+
+        Supermarket firstHalf = new Supermarket(START, 77L, SimulationOutput.silent());
+        firstHalf.runSimulation(20, PacingPolicy.asFastAsPossible());
+        Path path = tempDir.resolve("day20.checkpoint");
+        SimulationCheckpoint.save(firstHalf, path);
+
+        Supermarket restored = SimulationCheckpoint.restore(path, SimulationOutput.silent());
+        assertEquals(firstHalf.getCurrentDate(), restored.getCurrentDate());
+        assertEquals(firstHalf.getTotalRevenue(), restored.getTotalRevenue());
+        assertEquals(firstHalf.getWarehouse().getTotalBatches(), restored.getWarehouse().getTotalBatches());
+        assertEquals(firstHalf.getSalesHall().getTotalBatches(), restored.getSalesHall().getTotalBatches());
+        assertEquals(firstHalf.getEventQueue().getQueueSize(), restored.getEventQueue().getQueueSize());
+
+        restored.runSimulation(10, PacingPolicy.asFastAsPossible());
+
+        assertEquals(30, restored.getDaysSimulated());
+        assertEquals(uninterrupted.getCurrentDate(), restored.getCurrentDate());
+        assertEquals(uninterrupted.getTotalRevenue(), restored.getTotalRevenue());
+        assertEquals(uninterrupted.getTotalPurchasesCount(), restored.getTotalPurchasesCount());
+        assertEquals(uninterrupted.getWastedBatches(), restored.getWastedBatches());
+        assertEquals(uninterrupted.getStockoutCount(), restored.getStockoutCount());
+        assertEquals(uninterrupted.getWarehouse().getTotalBatches(), restored.getWarehouse().getTotalBatches());
+    }
+
+    @Test
+    void testCustomersAndCardsAreRestored() throws IOException {
+        Supermarket supermarket = new Supermarket(START, 5L, SimulationOutput.silent());
+        supermarket.runSimulation(7, PacingPolicy.asFastAsPossible());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SimulationCheckpoint.save(supermarket, bytes);
+        Supermarket restored = SimulationCheckpoint.restore(
+                new ByteArrayInputStream(bytes.toByteArray()), SimulationOutput.silent());
+
+        List<Customer> original = supermarket.getCustomerPool();
+        List<Customer> copy = restored.getCustomerPool();
+        assertEquals(original.size(), copy.size());
+        for (int i = 0; i < original.size(); i++) {
+            assertEquals(original.get(i).getId(), copy.get(i).getId());
+            assertEquals(original.get(i).getBudget(), copy.get(i).getBudget());
+            assertEquals(original.get(i).hasDiscountCard(), copy.get(i).hasDiscountCard());
+            if (original.get(i).hasDiscountCard()) {
+                assertEquals(original.get(i).getDiscountCard().getPoints(), copy.get(i).getDiscountCard().getPoints());
+            }
+        }
+        assertEquals(supermarket.getDailyCustomers().size(), restored.getDailyCustomers().size());
+    }
+
+    @Test
+    void testWorkloadStoreContinuesExactly() throws IOException {
+        Workload workload = Workload.generate(11L, 500, 3, 2, 200, 20);
+        Supermarket uninterrupted = new Supermarket(START, 42L, SimulationOutput.silent(), workload);
+        uninterrupted.runSimulation(6, PacingPolicy.asFastAsPossible());
+
+        Supermarket firstHalf = new Supermarket(START, 42L, SimulationOutput.silent(), workload);
+        firstHalf.runSimulation(3, PacingPolicy.asFastAsPossible());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SimulationCheckpoint.save(firstHalf, bytes);
+
+        Supermarket restored = SimulationCheckpoint.restore(
+                new ByteArrayInputStream(bytes.toByteArray()), SimulationOutput.silent());
+        assertEquals(500, restored.getCatalog().getSkuCount());
+        assertEquals(20, restored.getWorkload().getCustomersPerDay());
+        assertEquals(firstHalf.getDailyCustomers().size(), restored.getDailyCustomers().size());
+
+        restored.runSimulation(3, PacingPolicy.asFastAsPossible());
+
+        assertEquals(uninterrupted.getTotalRevenueKopecks(), restored.getTotalRevenueKopecks());
+        assertEquals(uninterrupted.getTotalPurchasesCount(), restored.getTotalPurchasesCount());
+        assertEquals(uninterrupted.getWastedBatches(), restored.getWastedBatches());
+        assertEquals(uninterrupted.getWarehouse().getTotalBatches(), restored.getWarehouse().getTotalBatches());
+    }
+
+    @Test
+    void testCatalogFileStoreContinuesExactly() throws IOException {
+        Path catalogPath = tempDir.resolve("catalog.csv");
+        CatalogFile.writeCsv(Workload.generate(5L, 80, 1, 1, 1, 1).getCatalog(), catalogPath);
+        ProductCatalog catalog = CatalogFile.load(catalogPath);
+
+        Supermarket uninterrupted = new Supermarket(START, 9L, SimulationOutput.silent(), catalog);
+        uninterrupted.runSimulation(10, PacingPolicy.asFastAsPossible());
+
+        Supermarket firstHalf = new Supermarket(START, 9L, SimulationOutput.silent(), catalog);
+        firstHalf.runSimulation(5, PacingPolicy.asFastAsPossible());
+        Path path = tempDir.resolve("day5.checkpoint");
+        SimulationCheckpoint.save(firstHalf, path);
+
+        Supermarket restored = SimulationCheckpoint.restore(path, SimulationOutput.silent());
+        assertEquals(80, restored.getCatalog().getSkuCount());
+        assertNull(restored.getWorkload());
+
+        restored.runSimulation(5, PacingPolicy.asFastAsPossible());
+
+        assertEquals(uninterrupted.getTotalRevenueKopecks(), restored.getTotalRevenueKopecks());
+        assertEquals(uninterrupted.getTotalPurchasesCount(), restored.getTotalPurchasesCount());
+        assertEquals(uninterrupted.getWarehouse().getTotalBatches(), restored.getWarehouse().getTotalBatches());
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        Path path = tempDir.resolve("foreign.bin");
+        Files.write(path, new byte[64]);
+
+        assertThrows(IOException.class, () -> SimulationCheckpoint.restore(path, SimulationOutput.silent()));
+    }
+}
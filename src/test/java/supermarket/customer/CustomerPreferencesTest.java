@@ -0,0 +1,71 @@
+package supermarket.customer;
+
+import org.junit.jupiter.api.Test;
+import supermarket.output.SimulationOutput;
+import supermarket.product.*;
+import supermarket.storage.SalesHall;
+import supermarket.workload.WorkloadGenerator;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerPreferencesTest {
+
+    private final LocalDate today = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void testFavoriteWordsMatchFavoriteIds() {
+        ProductCatalog catalog = WorkloadGenerator.generateCatalog(5_000, new SplittableRandom(1));
+        CustomerPreferences preferences = new CustomerPreferences(CustomerPreferences.PreferenceType.VEGETARIAN, catalog);
+
+        int favorites = 0;
+        for (int w = 0; w < preferences.getFavoriteWordCount(); w++) {
+            long word = preferences.getFavoriteWord(w);
+            assertNotEquals(0, word);
+            for (long bits = word; bits != 0; bits &= bits - 1) {
+                int ordinal = (preferences.getFavoriteWordIndex(w) << 6) + Long.numberOfTrailingZeros(bits);
+                assertTrue(preferences.isFavoriteProduct(catalog.getProductInfo(ordinal).getId()));
+                favorites++;
+            }
+        }
+        assertEquals(preferences.getFavoriteProductIds().size(), favorites);
+        assertTrue(preferences.isFavoriteProduct(catalog.getOrdinal("APPLE")));
+        assertFalse(preferences.isFavoriteProduct(catalog.getOrdinal("VODKA")));
+        assertFalse(preferences.isFavoriteProduct(catalog.getSkuCount() + 100));
+    }
+
+    @Test
+    void testSelectionTakesOnlyFavoritesInStock() {
+        ProductCatalog catalog = ProductCatalog.getDefault();
+        SalesHall salesHall = new SalesHall(SimulationOutput.silent(), catalog);
+        salesHall.addProduct(batch("VODKA", "V1", 500.0), today);
+        salesHall.addProduct(batch("PASTA", "P1", 60.0), today);
+        salesHall.addProduct(batch("RICE", "R1", 80.0), today);
+        salesHall.addProduct(batch("SALT", "S1", 20.0), today);
+        salesHall.removeBatch("SALT", "S1"); // полка опустела - соль больше не в наличии
+
+        Customer customer = new Customer("C1", "Покупатель", CustomerPreferences.PreferenceType.BUDGET,
+                null, new SplittableRandom(2), catalog);
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 20; i++) {
+            List<Product> selected = customer.selectProducts(salesHall, random);
+            assertEquals(2, selected.size());
+            for (Product product : selected) {
+                assertTrue(product.getId().equals("PASTA") || product.getId().equals("RICE"), product.getId());
+            }
+        }
+
+        // Предпочтения по другому каталогу сверяются по идентификатору
+        ProductCatalog other = WorkloadGenerator.generateCatalog(200, new SplittableRandom(4));
+        Customer visitor = new Customer("C2", "Гость", CustomerPreferences.PreferenceType.BUDGET,
+                null, new SplittableRandom(5), other);
+        assertEquals(2, visitor.selectProducts(salesHall, random).size());
+    }
+
+    private CountableProduct batch(String id, String batchId, double price) {
+        return new CountableProduct(id, batchId, id, ProductType.GROCERIES, price, today, 30, 10);
+    }
+}
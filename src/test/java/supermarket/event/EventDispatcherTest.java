@@ -0,0 +1,76 @@
+package supermarket.event;
+
+import org.junit.jupiter.api.Test;
+import supermarket.PacingPolicy;
+import supermarket.Supermarket;
+import supermarket.output.SimulationOutput;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventDispatcherTest {
+
+    @Test
+    void testDispatchesByTypeAndCountsInvocations() {
+        EventDispatcher dispatcher = new EventDispatcher();
+        List<String> handled = new ArrayList<>();
+        dispatcher.register(EventType.DELIVERY, event -> handled.add("delivery"));
+        dispatcher.register(EventType.PURCHASE, event -> handled.add("purchase " + event.getNumber()));
+
+        dispatcher.dispatch(new Event(EventType.PURCHASE, 0L, "Покупка", 1));
+        dispatcher.dispatch(new Event(EventType.DELIVERY, 0L, "Завоз"));
+        dispatcher.dispatch(new Event(EventType.PURCHASE, 0L, "Покупка", 2));
+
+        assertEquals(List.of("purchase 1", "delivery", "purchase 2"), handled);
+        assertEquals(2, dispatcher.getStats(EventType.PURCHASE).getInvocations());
+        assertEquals(1, dispatcher.getStats(EventType.DELIVERY).getInvocations());
+        assertEquals(0, dispatcher.getStats(EventType.CHECK_STOCK).getInvocations());
+        assertEquals(2, dispatcher.getStatsByTotalTime().size());
+    }
+
+    @Test
+    void testRecordsLatencyAndAllocations() {
+        EventDispatcher dispatcher = new EventDispatcher();
+        dispatcher.register(EventType.DELIVERY, event -> {
+            long[] garbage = new long[100_000];
+            garbage[0] = System.nanoTime();
+        });
+
+        dispatcher.dispatch(new Event(EventType.DELIVERY, 0L, "Завоз"));
+
+        HandlerStats stats = dispatcher.getStats(EventType.DELIVERY);
+        assertTrue(stats.getTotalNanos() > 0);
+        assertEquals(stats.getTotalNanos(), stats.getMaxNanos());
+        if (dispatcher.isAllocationTrackingSupported()) {
+            assertTrue(stats.getAllocatedBytes() >= 800_000);
+        } else {
+            assertEquals(-1, stats.getAllocatedBytes());
+        }
+    }
+
+    @Test
+    void testMissingHandlerIsReported() {
+        EventDispatcher dispatcher = new EventDispatcher();
+
+        assertThrows(IllegalStateException.class,
+                () -> dispatcher.dispatch(new Event(EventType.SET_DISCOUNT, 0L, "Скидки")));
+    }
+
+    @Test
+    void testSupermarketHandlerCanBeReplaced() {
+        Supermarket supermarket = new Supermarket(LocalDate.of(2024, 1, 1), 3L, SimulationOutput.silent());
+        int[] deliveries = {0};
+        EventHandler previous = supermarket.registerHandler(EventType.DELIVERY, event -> deliveries[0]++);
+
+        supermarket.runSimulation(5, PacingPolicy.asFastAsPossible());
+
+        assertNotNull(previous);
+        assertTrue(deliveries[0] > 0);
+        assertEquals(deliveries[0],
+                supermarket.getEventDispatcher().getStats(EventType.DELIVERY).getInvocations());
+        assertEquals(5, supermarket.getEventDispatcher().getStats(EventType.AUTO_RESTOCK).getInvocations());
+    }
+}
@@ -0,0 +1,108 @@
+package supermarket.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventQueueTest {
+
+    private EventQueue eventQueue;
+    private LocalDate startDate;
+    private long day;
+
+    @BeforeEach
+    void setUp() {
+        startDate = LocalDate.of(2024, 1, 1);
+        eventQueue = new EventQueue(startDate);
+        day = startDate.toEpochDay();
+    }
+
+    @Test
+    void testEventsAreOrderedByTime() {
+        eventQueue.schedule(EventType.PURCHASE, day, 600, "Покупка");
+        eventQueue.schedule(EventType.REMOVE_EXPIRED, day, 420, "Утилизация");
+        eventQueue.schedule(EventType.AUTO_RESTOCK, day, 1350, "Пополнение");
+        eventQueue.schedule(EventType.DELIVERY, day, 480, "Завоз");
+
+        assertEquals(EventType.REMOVE_EXPIRED, eventQueue.getNextEvent().getType());
+        assertEquals(EventType.DELIVERY, eventQueue.getNextEvent().getType());
+        assertEquals(EventType.PURCHASE, eventQueue.getNextEvent().getType());
+        assertEquals(EventType.AUTO_RESTOCK, eventQueue.getNextEvent().getType());
+        assertFalse(eventQueue.hasEvents());
+        assertNull(eventQueue.getNextEvent());
+    }
+
+    @Test
+    void testEventsWithSameTimeKeepInsertionOrder() {
+        for (int i = 1; i <= 100; i++) {
+            eventQueue.addEvent(new Event(EventType.PURCHASE, SimulationTime.of(day, 600), "Покупка", i));
+        }
+
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(i, eventQueue.getNextEvent().getNumber());
+        }
+    }
+
+    @Test
+    void testHasEventsBefore() {
+        eventQueue.schedule(EventType.PURCHASE, day + 1, 600, "Покупка завтра");
+        eventQueue.schedule(EventType.PURCHASE, day, 600, "Покупка сегодня");
+
+        long tomorrow = SimulationTime.of(day + 1, 0);
+
+        assertTrue(eventQueue.hasEventsBefore(tomorrow));
+        assertEquals("Покупка сегодня", eventQueue.getNextEvent().getDescription());
+        assertFalse(eventQueue.hasEventsBefore(tomorrow));
+        assertEquals(1, eventQueue.getQueueSize());
+    }
+
+    @Test
+    void testRandomInsertionDrainsInTimeOrder() {
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            eventQueue.schedule(EventType.PURCHASE, day + random.nextInt(3),
+                    random.nextInt(SimulationTime.MINUTES_PER_DAY), "Покупка");
+        }
+
+        long previous = Long.MIN_VALUE;
+        while (eventQueue.hasEvents()) {
+            long time = eventQueue.getNextEvent().getTime();
+            assertTrue(time >= previous);
+            previous = time;
+        }
+    }
+
+    @Test
+    void testDailyEventsStayWithinDay() {
+        eventQueue.generateDailyEvents(5);
+
+        long dayStart = SimulationTime.of(day, 0);
+        long dayEnd = SimulationTime.of(day + 1, 0);
+        int purchases = 0;
+
+        while (eventQueue.hasEvents()) {
+            Event event = eventQueue.getNextEvent();
+            assertTrue(event.getTime() >= dayStart && event.getTime() < dayEnd);
+            assertEquals(startDate, event.getDate());
+            if (event.getType() == EventType.PURCHASE) {
+                purchases++;
+                assertTrue(event.getMinuteOfDay() >= EventQueue.OPENING_MINUTE);
+                assertTrue(event.getMinuteOfDay() < EventQueue.CLOSING_MINUTE);
+            }
+        }
+
+        assertEquals(5, purchases);
+    }
+
+    @Test
+    void testSimulationTimeConversion() {
+        long time = SimulationTime.of(startDate, 9 * 60 + 5);
+
+        assertEquals(startDate, SimulationTime.toDate(time));
+        assertEquals(545, SimulationTime.minuteOfDay(time));
+        assertEquals("09:05", SimulationTime.formatClock(time));
+    }
+}
@@ -0,0 +1,153 @@
+package supermarket.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import supermarket.PacingPolicy;
+import supermarket.Supermarket;
+import supermarket.event.Event;
+import supermarket.event.EventType;
+import supermarket.event.SimulationTime;
+import supermarket.output.SimulationOutput;
+import supermarket.product.CountableProduct;
+import supermarket.product.Money;
+import supermarket.product.Product;
+import supermarket.product.ProductType;
+import supermarket.storage.SalesHall;
+import supermarket.storage.Shelf;
+import supermarket.storage.Warehouse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplayRebuildsWarehouseAndHall() throws IOException {
+        Path path = tempDir.resolve("run.journal");
+        Supermarket supermarket;
+        try (EventJournal journal = EventJournal.create(path, SimulationTime.startOfDay(START))) {
+            supermarket = new Supermarket(START, 11L, SimulationOutput.silent(), journal);
+            supermarket.runSimulation(30, PacingPolicy.asFastAsPossible());
+        }
+
+        Warehouse warehouse = new Warehouse(SimulationOutput.silent());
+        SalesHall salesHall = new SalesHall(SimulationOutput.silent());
+        JournalReplayer replayer = new JournalReplayer(warehouse, salesHall);
+        replayer.replay(path);
+
+        assertTrue(replayer.getEventsReplayed() > 30 * 7);
+        assertEquals(warehouseState(supermarket.getWarehouse()), warehouseState(warehouse));
+        assertEquals(hallState(supermarket.getSalesHall()), hallState(salesHall));
+        assertEquals(supermarket.getStockoutCount(), salesHall.getStockoutCount());
+    }
+
+    @Test
+    void testReplayUntilStopsAtTime() throws IOException {
+        Path path = tempDir.resolve("partial.journal");
+        try (EventJournal journal = EventJournal.create(path, SimulationTime.startOfDay(START))) {
+            Supermarket supermarket = new Supermarket(START, 5L, SimulationOutput.silent(), journal);
+            supermarket.runSimulation(3, PacingPolicy.asFastAsPossible());
+        }
+
+        JournalReplayer replayer = new JournalReplayer(new Warehouse(SimulationOutput.silent()),
+                new SalesHall(SimulationOutput.silent()));
+        long secondDay = SimulationTime.startOfDay(START.plusDays(1));
+        replayer.replayUntil(path, secondDay);
+
+        assertTrue(replayer.getEventsReplayed() > 0);
+        assertTrue(replayer.getLastEventTime() < secondDay);
+    }
+
+    @Test
+    void testRecordsRoundTripWithLongStrings() throws IOException {
+        Path path = tempDir.resolve("records.journal");
+        String longName = "Очень длинное название товара, которое не помещается в одну запись журнала";
+        Product product = new CountableProduct("P-1", "BATCH-1", longName, ProductType.DAIRY,
+                99.5, START, 7, 12);
+
+        try (EventJournal journal = EventJournal.create(path, 0L)) {
+            journal.recordEvent(new Event(EventType.DELIVERY, SimulationTime.of(START, 480), "Завоз"));
+            journal.warehouseProductAdded(product);
+            journal.hallDiscountSet("P-1", product.getBatchNumber(), Money.discountOf(0.25));
+            assertEquals(2, journal.getInternedStringCount());
+            journal.close();
+            // Файл не обрезается (на Windows нельзя при отображенных участках): конец данных - в заголовке
+            assertTrue(Files.size(path) > journal.getSize());
+            // Мусорная запись за концом данных не читается
+            byte[] garbage = new byte[EventJournal.RECORD_SIZE];
+            garbage[0] = JournalRecordType.EVENT.getCode();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(garbage), journal.getSize());
+            }
+        }
+
+        try (JournalReader reader = new JournalReader(path)) {
+            JournalRecord event = reader.next();
+            assertEquals(JournalRecordType.EVENT, event.getType());
+            assertEquals(EventType.DELIVERY, event.getEventType());
+
+            JournalRecord added = reader.next();
+            assertEquals(JournalRecordType.WAREHOUSE_ADD, added.getType());
+            Product restored = added.toProduct();
+            assertEquals(longName, restored.getName());
+            assertEquals(product.getBatchNumber(), restored.getBatchNumber()); // журнал хранит номер, не метку
+            assertEquals(12, ((CountableProduct) restored).getQuantity());
+            assertEquals(99.5, restored.getPrice());
+            assertEquals(START, restored.getProductionDate());
+
+            JournalRecord discount = reader.next();
+            assertEquals(JournalRecordType.HALL_DISCOUNT, discount.getType());
+            assertEquals(0.25, discount.getDiscount());
+            assertEquals(product.getBatchNumber(), discount.getBatchNumber());
+
+            assertNull(reader.next());
+            assertEquals(2, reader.getStringCount());
+        }
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        Path path = tempDir.resolve("foreign.bin");
+        Files.write(path, new byte[256]);
+
+        assertThrows(IOException.class, () -> new JournalReader(path));
+    }
+
+    private static Map<String, String> warehouseState(Warehouse warehouse) {
+        Map<String, String> state = new TreeMap<>();
+        for (Map.Entry<String, List<Product>> entry : warehouse.getAllProducts().entrySet()) {
+            StringBuilder batches = new StringBuilder();
+            for (Product batch : entry.getValue()) {
+                batches.append(batch).append(';');
+            }
+            state.put(entry.getKey(), batches.toString());
+        }
+        return state;
+    }
+
+    private static Map<String, String> hallState(SalesHall salesHall) {
+        Map<String, String> state = new TreeMap<>();
+        for (Map.Entry<String, Shelf> entry : salesHall.getAllShelves().entrySet()) {
+            Map<String, String> batches = new TreeMap<>();
+            for (Product batch : entry.getValue().getAllBatches()) {
+                batches.put(batch.getBatchId(), batch.toString());
+            }
+            state.put(entry.getKey(), entry.getValue().getCurrentAmount() + " " + batches);
+        }
+        return state;
+    }
+}
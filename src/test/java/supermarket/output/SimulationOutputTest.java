@@ -0,0 +1,134 @@
+package supermarket.output;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SimulationOutputTest {
+
+    @Test
+    void testSilentLevelWritesNothing() {
+        List<String> lines = new ArrayList<>();
+        SimulationOutput output = new SimulationOutput(OutputLevel.SILENT, lines::add);
+
+        output.verbose("подробно");
+        output.summary("итог");
+
+        assertFalse(output.isVerbose());
+        assertFalse(output.isSummary());
+        assertTrue(lines.isEmpty());
+    }
+
+    @Test
+    void testSummaryLevelSkipsVerboseLines() {
+        List<String> lines = new ArrayList<>();
+        SimulationOutput output = new SimulationOutput(OutputLevel.SUMMARY, lines::add);
+
+        output.verbose("подробно");
+        output.summary("итог");
+
+        assertFalse(output.isVerbose());
+        assertTrue(output.isSummary());
+        assertEquals(List.of("итог"), lines);
+    }
+
+    @Test
+    void testVerboseLevelWritesEverything() {
+        List<String> lines = new ArrayList<>();
+        SimulationOutput output = new SimulationOutput(OutputLevel.VERBOSE, lines::add);
+
+        output.verbose("подробно");
+        output.summary("итог");
+
+        assertEquals(List.of("подробно", "итог"), lines);
+    }
+
+    @Test
+    void testAsyncSinkKeepsOrderAndDrainsOnClose() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncConsoleSink sink = new AsyncConsoleSink(new PrintStream(bytes, true), 8);
+
+        // Строк больше, чем ёмкость буфера - производитель должен дождаться потока вывода
+        for (int i = 0; i < 1000; i++) {
+            sink.write("line " + i);
+        }
+        sink.close();
+
+        String[] written = bytes.toString().split(System.lineSeparator());
+        assertEquals(1000, written.length);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("line " + i, written[i]);
+        }
+    }
+
+    @Test
+    void testAsyncSinkDoesNotHangWhenWriterStops() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // Первая печать роняет поток вывода; дальше строки печатает сам производитель
+        PrintStream failing = new PrintStream(bytes, true) {
+            private boolean failed;
+
+            @Override
+            public void print(Object value) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("консоль недоступна");
+                }
+                super.print(value);
+            }
+        };
+        AsyncConsoleSink sink = new AsyncConsoleSink(failing, 4);
+        for (int i = 0; i < 100; i++) {
+            sink.write("line " + i);
+        }
+        sink.close();
+        sink.write("after close");
+
+        String[] written = bytes.toString().split(System.lineSeparator());
+        assertEquals(100, written.length);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("line " + i, written[i]);
+        }
+    }
+
+    @Test
+    void testAsyncSinkWaitsForSlowConsoleWithoutSpinning() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isCurrentThreadCpuTimeSupported());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // Медленная консоль: каждая пачка печатается 5 мс, буфер почти всё время полон
+        PrintStream slow = new PrintStream(bytes, true) {
+            @Override
+            public void print(Object value) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.print(value);
+            }
+        };
+        AsyncConsoleSink sink = new AsyncConsoleSink(slow, 4);
+        long wallStart = System.nanoTime();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < 100; i++) {
+            sink.write("line " + i);
+        }
+        sink.flush();
+        long cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+        long wall = System.nanoTime() - wallStart;
+        sink.close();
+
+        assertEquals(100, bytes.toString().split(System.lineSeparator()).length);
+        // Ожидающий производитель спит, а не вращается
+        assertTrue(cpu < wall / 2, "cpu " + cpu + " ns из " + wall + " ns");
+    }
+}
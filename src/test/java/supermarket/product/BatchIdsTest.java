@@ -0,0 +1,79 @@
+package supermarket.product;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchIdsTest {
+
+    @Test
+    void testNumbersAreUniqueAcrossThreads() throws InterruptedException {
+        Set<Long> numbers = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    assertTrue(numbers.add(BatchIds.next()));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, numbers.size());
+    }
+
+    @Test
+    void testTextRoundTrip() {
+        long number = BatchIds.next();
+        String text = BatchIds.toText(number);
+
+        assertTrue(text.startsWith("BATCH_"));
+        assertEquals(number, BatchIds.find(text));
+        assertEquals(BatchIds.NONE, BatchIds.find(null));
+    }
+
+    @Test
+    void testLabelsMapToStableNumbersWithoutRegistry() {
+        long label = BatchIds.of("LEGACY_LABEL");
+        assertEquals(label, BatchIds.of("LEGACY_LABEL"));
+        assertEquals(label, BatchIds.find("LEGACY_LABEL"));
+        assertNotEquals(label, BatchIds.of("LEGACY_LABEL_2"));
+        assertTrue(label < 0); // старший бит: счетчик такие номера не выдает
+        assertEquals(label, BatchIds.find(BatchIds.toText(label)));
+
+        // Метку хранит сама партия и ее копии
+        Product product = new CountableProduct("MILK", "LEGACY_LABEL", "Молоко", ProductType.DAIRY,
+                80.0, java.time.LocalDate.of(2024, 1, 1), 7, 10);
+        assertEquals("LEGACY_LABEL", product.getBatchId());
+        assertEquals("LEGACY_LABEL", ProductFactory.createCopy(product, 3).getBatchId());
+        assertEquals(label, product.getBatchNumber());
+    }
+
+    @Test
+    void testRestoredNumbersAreNotReissued() {
+        long restored = BatchIds.next() + 1_000;
+        BatchIds.advancePast(restored);
+
+        Set<Long> issued = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            issued.add(BatchIds.next());
+        }
+        assertTrue(issued.stream().allMatch(number -> number > restored));
+    }
+
+    @Test
+    void testFactoryProductsKeepNumberInCopies() {
+        Product product = ProductFactory.createProductById("MILK");
+        Product copy = ProductFactory.createCopy(product, 5);
+
+        assertEquals(product.getBatchNumber(), copy.getBatchNumber());
+        assertEquals(product.getBatchId(), copy.getBatchId());
+        assertNotEquals(product.getBatchNumber(), ProductFactory.createProductById("MILK").getBatchNumber());
+    }
+}
@@ -0,0 +1,99 @@
+package supermarket.product;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import supermarket.workload.WorkloadGenerator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void testCsvAndBinaryRoundTrip() throws IOException {
+        ProductCatalog catalog = WorkloadGenerator.generateCatalog(500, new SplittableRandom(5));
+        Path csv = dir.resolve("catalog.csv");
+        Path binary = dir.resolve("catalog.bin");
+        CatalogFile.writeCsv(catalog, csv);
+        CatalogFile.writeBinary(catalog, binary);
+
+        for (ProductCatalog loaded : new ProductCatalog[]{CatalogFile.load(csv), CatalogFile.load(binary)}) {
+            assertEquals(catalog.getSkuCount(), loaded.getSkuCount());
+            // Сначала обращение не по порядку: описания создаются при первом обращении
+            assertEquals(catalog.getProductInfo(321).getId(), loaded.getProductInfo(321).getId());
+            for (int ordinal = 0; ordinal < catalog.getSkuCount(); ordinal++) {
+                ProductCatalog.ProductInfo expected = catalog.getProductInfo(ordinal);
+                ProductCatalog.ProductInfo actual = loaded.getProductInfo(ordinal);
+                assertEquals(expected.getId(), actual.getId());
+                assertEquals(expected.getName(), actual.getName());
+                assertEquals(expected.getType(), actual.getType());
+                assertEquals(expected.getDefinition().getPriceKopecks(), actual.getDefinition().getPriceKopecks());
+                assertEquals(expected.getShelfLifeDays(), actual.getShelfLifeDays());
+                assertEquals(ordinal, actual.getOrdinal());
+            }
+            assertEquals(catalog.getOrdinal("MILK"), loaded.getOrdinal("MILK"));
+            assertSame(loaded.getProductInfo(7), loaded.getProductInfo(7));
+        }
+    }
+
+    @Test
+    void testCsvQuotedFieldsHeaderAndBom() throws IOException {
+        Path csv = write("\uFEFFid,name,type,price,shelfLifeDays\r\n"
+                + "OIL,\"Масло, \"\"Золотое\"\"\",GROCERIES,129.9\r\n"
+                + "\n"
+                + "STEAK,Стейк,MEAT,899.99,4\n");
+
+        ProductCatalog catalog = CatalogFile.load(csv);
+
+        assertEquals(2, catalog.getSkuCount());
+        assertEquals("Масло, \"Золотое\"", catalog.getProductNameById("OIL"));
+        assertEquals(12990, catalog.findProductById("OIL").getDefinition().getPriceKopecks());
+        assertEquals(ProductType.GROCERIES.getShelfLifeDays(), catalog.findProductById("OIL").getShelfLifeDays());
+        assertEquals(4, catalog.findProductById("STEAK").getShelfLifeDays());
+        assertEquals(1, catalog.getOrdinal("STEAK"));
+        assertEquals(1, catalog.getAllProductsForType(ProductType.MEAT).size());
+    }
+
+    @Test
+    void testBadRecordsAreRejectedAtLoad() throws IOException {
+        IOException type = assertThrows(IOException.class,
+                () -> CatalogFile.load(write("MILK,Молоко,DAIRY,80\nFISH,Рыба,SEAFOOD,300\n")));
+        assertTrue(type.getMessage().contains("строка 2"), type.getMessage());
+        assertThrows(IOException.class, () -> CatalogFile.load(write("MILK,Молоко,DAIRY,8o.00\n")));
+        assertThrows(IOException.class, () -> CatalogFile.load(write("MILK,\"Молоко,DAIRY,80\n")));
+        IOException duplicate = assertThrows(IOException.class,
+                () -> CatalogFile.load(write("id,name,type,price\nMILK,Молоко,DAIRY,80\nBREAD,Хлеб,BAKERY,40\n"
+                        + "\"MILK\",Молоко 2,DAIRY,90\n")));
+        assertTrue(duplicate.getMessage().contains("строка 4"), duplicate.getMessage());
+        assertTrue(duplicate.getMessage().contains("MILK"), duplicate.getMessage());
+
+        Path binary = dir.resolve("catalog.bin");
+        CatalogFile.writeBinary(ProductCatalog.getDefault(), binary);
+        byte[] bytes = Files.readAllBytes(binary);
+        Path truncated = dir.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 5));
+        assertThrows(IOException.class, () -> CatalogFile.load(truncated));
+
+        // В двоичном каталоге повтор id - тоже ошибка загрузки
+        ProductCatalog twice = new ProductCatalog();
+        twice.add("MILK", "Молоко", 8000, ProductType.DAIRY, 7);
+        twice.add("MILK", "Молоко", 8000, ProductType.DAIRY, 7);
+        Path repeated = dir.resolve("repeated.bin");
+        CatalogFile.writeBinary(twice, repeated);
+        assertThrows(IOException.class, () -> CatalogFile.load(repeated));
+    }
+
+    private Path write(String content) throws IOException {
+        Path path = Files.createTempFile(dir, "catalog", ".csv");
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
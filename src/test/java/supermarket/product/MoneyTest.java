@@ -0,0 +1,63 @@
+package supermarket.product;
+
+import org.junit.jupiter.api.Test;
+import supermarket.customer.DiscountCard;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testDiscountedPriceIsRoundedToKopeck() {
+        assertEquals(5999, Money.ofRubles(59.99));
+        assertEquals(4799, Money.discounted(5999, Money.discountOf(0.2))); // 47.992
+        assertEquals(3000, Money.discounted(5999, Money.discountOf(0.5))); // 29.995 -> вверх
+        assertEquals(5999, Money.discounted(5999, 0));
+        assertEquals(0, Money.discounted(5999, Money.FULL_DISCOUNT));
+    }
+
+    @Test
+    void testSumsStayExact() {
+        long total = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            total += Money.ofRubles(0.1);
+        }
+        assertEquals(10_000_000, total);
+        assertEquals("100000.00", Money.format(total));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("-12.30", Money.format(-1230));
+    }
+
+    @Test
+    void testQuantityScale() {
+        assertEquals(3000, Quantity.ofUnits(3));
+        assertEquals(2, Quantity.toUnits(2999));
+        assertEquals(1250, Quantity.ofKilograms(1.25));
+        assertEquals("1.005", Quantity.formatKilograms(1005));
+        assertEquals(1.25, Quantity.toDouble(1250));
+    }
+
+    @Test
+    void testDiscountCardPointsFromKopecks() {
+        DiscountCard card = new DiscountCard("CARD-1", 0);
+        card.addPoints(Money.ofRubles(199.99)); // 5% = 9.9995 -> 9 баллов
+        assertEquals(9, card.getPoints());
+
+        // Списать можно не больше 70% покупки: от 10 рублей - не больше 7 баллов
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100; i++) {
+            int used = card.usePoints(Money.ofRubles(10), random);
+            assertTrue(used <= 7);
+            card.addPoints(Money.ofRubles(20 * used));
+        }
+    }
+
+    @Test
+    void testAffordableAmountDoesNotOverflow() {
+        assertEquals(Long.MAX_VALUE, Money.affordableAmount(Long.MAX_VALUE / 2, 100));
+        assertEquals(Quantity.ofUnits(2), Money.affordableAmount(16000, 8000));
+        assertEquals(0, Money.affordableAmount(-1, 8000));
+    }
+}
@@ -156,4 +156,19 @@ class ProductFactoryTest {
 
         assertNotEquals(product1.getBatchId(), product2.getBatchId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCatalogOrdinalsAreDense() {
+        ProductCatalog catalog = ProductCatalog.getDefault();
+        for (int i = 0; i < catalog.getSkuCount(); i++) {
+            ProductCatalog.ProductInfo info = catalog.getProductInfo(i);
+            assertEquals(i, info.getOrdinal());
+            assertEquals(i, catalog.getOrdinal(info.getId()));
+        }
+        assertEquals(-1, catalog.getOrdinal("UNKNOWN"));
+
+        Product milk = ProductFactory.createProductById("MILK");
+        assertEquals(catalog.getOrdinal("MILK"), milk.getSkuOrdinal());
+        assertEquals(milk.getSkuOrdinal(), ProductFactory.createCopy(milk, 3).getSkuOrdinal());
+    }
+}
@@ -6,6 +6,7 @@ import supermarket.SupermarketConfig;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class ProductTest {
 
@@ -156,4 +157,104 @@ class ProductTest {
         product.setWeight(12.5);
         assertEquals(12.5, product.getWeight());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPrecomputedExpiryDays() {
+        LocalDate production = LocalDate.of(2024, 1, 1);
+        CountableProduct product = new CountableProduct(
+                "CP009", "BATCH012", "Кефир", ProductType.DAIRY, 70.0, production, 7, 5
+        );
+        int expiry = (int) production.plusDays(7).toEpochDay();
+
+        assertEquals(expiry, product.getExpiryEpochDay());
+        assertEquals(expiry - SupermarketConfig.DAYS_FOR_DISCOUNT, product.getDiscountFromEpochDay());
+        assertEquals(production.plusDays(7), product.getExpiryDate());
+        assertFalse(product.isExpired(expiry));
+        assertTrue(product.isExpired(expiry + 1));
+        assertFalse(product.expiresSoon(expiry - SupermarketConfig.DAYS_FOR_DISCOUNT - 1));
+        assertTrue(product.expiresSoon(expiry - SupermarketConfig.DAYS_FOR_DISCOUNT));
+        // Совпадает с проверками по LocalDate
+        for (int offset = -5; offset <= 5; offset++) {
+            LocalDate date = production.plusDays(7 + offset);
+            assertEquals(product.isExpired(date), product.isExpired((int) date.toEpochDay()));
+            assertEquals(product.expiresSoon(date), product.expiresSoon((int) date.toEpochDay()));
+        }
+    }
+
+    @Test
+    void testExpiryChecksDoNotAllocate() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported());
+
+        Product[] products = new Product[1000];
+        LocalDate production = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new CountableProduct("CP" + i, "B" + i, "Товар", ProductType.DAIRY,
+                    50.0, production.plusDays(i % 30), 7, 1);
+        }
+        int today = (int) production.plusDays(15).toEpochDay();
+        LocalDate todayDate = production.plusDays(15);
+        long threadId = Thread.currentThread().getId();
+
+        int expired = 0;
+        for (int round = 0; round < 100; round++) { // прогрев
+            expired += countExpired(products, today, todayDate);
+        }
+        allocations.getThreadAllocatedBytes(threadId);
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int round = 0; round < 100; round++) {
+            expired += countExpired(products, today, todayDate);
+        }
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(expired > 0);
+        // 400 тысяч проверок: прежний вариант через plusDays создавал LocalDate на каждую,
+        // допускаем только шум JVM в пределах пары килобайт
+        assertTrue(allocated < 4096, "проверки сроков не должны создавать объекты: " + allocated);
+    }
+
+    @Test
+    void testBatchesShareProductDefinition() {
+        ProductCatalog catalog = ProductCatalog.getDefault();
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        java.util.SplittableRandom random = new java.util.SplittableRandom(1);
+        Product first = ProductFactory.createProductById(catalog, "MILK", random, today);
+        Product second = ProductFactory.createProductById(catalog, "MILK", random, today);
+        Product partial = ProductFactory.createCopy(first, 4);
+
+        assertSame(catalog.findProductById("MILK").getDefinition(), first.getDefinition());
+        assertSame(first.getDefinition(), second.getDefinition());
+        assertSame(first.getDefinition(), partial.getDefinition());
+        assertEquals(first.getProductionEpochDay(), partial.getProductionEpochDay());
+        assertEquals(first.getExpiryEpochDay(), partial.getExpiryEpochDay());
+        assertEquals(4, ((CountableProduct) partial).getQuantity());
+
+        // Товар, собранный по полям каталога, получает описание каталога
+        ProductCatalog.ProductInfo milk = catalog.findProductById("MILK");
+        CountableProduct fromFields = new CountableProduct("MILK", "B0", milk.getName(), milk.getType(),
+                milk.getBasePrice(), today, milk.getShelfLifeDays(), 1);
+        assertSame(milk.getDefinition(), fromFields.getDefinition());
+
+        // Товар вне каталога - отдельное описание, общего пула нет
+        CountableProduct a = new CountableProduct("X1", "B1", "Товар", ProductType.GROCERIES, 10.0, today, 30, 1);
+        CountableProduct b = new CountableProduct("X1", "B2", "Товар", ProductType.GROCERIES, 10.0, today, 30, 2);
+        assertNotSame(a.getDefinition(), b.getDefinition());
+        assertEquals(a.getDefinition(), b.getDefinition());
+        assertEquals(today, a.getProductionDate());
+    }
+
+    private static int countExpired(Product[] products, int today, LocalDate todayDate) {
+        int count = 0;
+        for (Product product : products) {
+            if (product.isExpired(today) || product.isExpired(todayDate)) {
+                count++;
+            }
+            if (product.expiresSoon(today) && product.expiresSoon(todayDate)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,67 @@
+package supermarket.random;
+
+import org.junit.jupiter.api.Test;
+import supermarket.PacingPolicy;
+import supermarket.Supermarket;
+import supermarket.output.SimulationOutput;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationRandomTest {
+
+    @Test
+    void testSameSeedReproducesSimulation() {
+        Supermarket first = runSimulation(42L, 60);
+        Supermarket second = runSimulation(42L, 60);
+
+        assertEquals(first.getTotalRevenue(), second.getTotalRevenue());
+        assertEquals(first.getTotalPurchasesCount(), second.getTotalPurchasesCount());
+        assertEquals(first.getWastedBatches(), second.getWastedBatches());
+        assertEquals(first.getStockoutCount(), second.getStockoutCount());
+        assertEquals(first.getWarehouse().getTotalBatches(), second.getWarehouse().getTotalBatches());
+    }
+
+    @Test
+    void testDifferentSeedsDiverge() {
+        Supermarket first = runSimulation(1L, 30);
+        Supermarket second = runSimulation(2L, 30);
+
+        assertNotEquals(first.getTotalRevenue(), second.getTotalRevenue());
+    }
+
+    @Test
+    void testDayStreamsDependOnlyOnSeedAndDay() {
+        SimulationRandom randoms = new SimulationRandom(7L);
+        randoms.get(RandomStream.SUPPLY).nextLong(); // расход чисел не влияет на следующие дни
+        randoms.startDay(3);
+        long afterRun = randoms.get(RandomStream.SUPPLY).nextLong();
+
+        SimulationRandom fresh = new SimulationRandom(7L);
+        fresh.startDay(3);
+
+        assertEquals(3, randoms.getDay());
+        assertEquals(afterRun, fresh.get(RandomStream.SUPPLY).nextLong());
+        assertNotEquals(afterRun, fresh.get(RandomStream.CUSTOMERS).nextLong());
+    }
+
+    @Test
+    void testShuffleIsPermutation() {
+        List<Integer> list = new ArrayList<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8));
+        SimulationRandom.shuffle(list, new SimulationRandom(5L).get(RandomStream.STORE));
+
+        List<Integer> sorted = new ArrayList<>(list);
+        sorted.sort(null);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8), sorted);
+    }
+
+    private static Supermarket runSimulation(long seed, int days) {
+        Supermarket supermarket = new Supermarket(LocalDate.of(2024, 1, 1), seed, SimulationOutput.silent());
+        supermarket.runSimulation(days, PacingPolicy.asFastAsPossible());
+        return supermarket;
+    }
+}
@@ -0,0 +1,56 @@
+package supermarket.replication;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationRunnerTest {
+
+    @Test
+    void testRunsAllReplicationsWithDistinctSeeds() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ReplicationSummary summary = new ReplicationRunner(pool)
+                    .run(8, 10, 123L, LocalDate.of(2024, 1, 1));
+
+            assertEquals(8, summary.getReplications());
+            assertEquals(8, summary.getRevenue().getCount());
+            for (int i = 0; i < 8; i++) {
+                ReplicationResult result = summary.getResults().get(i);
+                assertEquals(i, result.getIndex());
+                assertEquals(ReplicationRunner.replicationSeed(123L, i), result.getSeed());
+                assertTrue(result.getRevenue() >= 0);
+            }
+            assertTrue(summary.getRevenue().getMean() > 0);
+            assertTrue(summary.getRevenue().getLower95() <= summary.getRevenue().getUpper95());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testStatisticMeanAndConfidenceInterval() {
+        Statistic statistic = new Statistic("x");
+        for (double value : new double[]{2, 4, 4, 4, 5, 5, 7, 9}) {
+            statistic.add(value);
+        }
+
+        assertEquals(8, statistic.getCount());
+        assertEquals(5.0, statistic.getMean(), 1e-9);
+        assertEquals(2.138, statistic.getStandardDeviation(), 1e-3);
+        // t(0.975, 7) = 2.365
+        assertEquals(2.365 * 2.138 / Math.sqrt(8), statistic.getHalfWidth95(), 1e-3);
+    }
+
+    @Test
+    void testSingleValueHasZeroWidth() {
+        Statistic statistic = new Statistic("x");
+        statistic.add(42);
+
+        assertEquals(42.0, statistic.getMean());
+        assertEquals(0.0, statistic.getHalfWidth95());
+    }
+}
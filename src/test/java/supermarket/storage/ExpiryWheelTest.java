@@ -0,0 +1,89 @@
+package supermarket.storage;
+
+import org.junit.jupiter.api.Test;
+import supermarket.product.CountableProduct;
+import supermarket.product.Product;
+import supermarket.product.ProductType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryWheelTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+
+    private static Product batch(String batchId, LocalDate productionDate, int shelfLifeDays) {
+        return new CountableProduct("MILK", batchId, "Молоко", ProductType.DAIRY,
+                80.0, productionDate, shelfLifeDays, 10);
+    }
+
+    @Test
+    void testDrainsOnlyExpiredBatches() {
+        ExpiryWheel wheel = new ExpiryWheel();
+        Product expiresToday = batch("B1", TODAY.minusDays(7), 7);     // годен до сегодня включительно
+        Product expiredYesterday = batch("B2", TODAY.minusDays(8), 7);
+        Product longLife = batch("B3", TODAY.minusDays(8), 365);       // та же корзина на другом обороте
+        wheel.add(expiresToday);
+        wheel.add(expiredYesterday);
+        wheel.add(longLife);
+
+        List<Product> drained = new ArrayList<>();
+        assertEquals(1, wheel.drainExpired(TODAY.toEpochDay(), drained::add));
+        assertEquals(List.of(expiredYesterday), drained);
+
+        drained.clear();
+        assertEquals(1, wheel.drainExpired(TODAY.plusDays(1).toEpochDay(), drained::add));
+        assertEquals(List.of(expiresToday), drained);
+        assertTrue(wheel.contains(longLife));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void testRemovedBatchIsNotDrained() {
+        ExpiryWheel wheel = new ExpiryWheel();
+        Product first = batch("B1", TODAY.minusDays(10), 3);
+        Product second = batch("B2", TODAY.minusDays(10), 3);
+        wheel.add(first);
+        wheel.add(second);
+
+        assertTrue(wheel.remove(first));
+        assertFalse(wheel.remove(first));
+
+        List<Product> drained = new ArrayList<>();
+        wheel.drainExpired(TODAY.toEpochDay(), drained::add);
+        assertEquals(List.of(second), drained);
+    }
+
+    @Test
+    void testLongGapAndLateAddedExpiredBatch() {
+        ExpiryWheel wheel = new ExpiryWheel();
+        Product old = batch("B1", TODAY.minusDays(200), 30);
+        Product fresh = batch("B2", TODAY, 30);
+        wheel.add(fresh);
+        wheel.drainExpired(TODAY.toEpochDay(), product -> fail("ничего не просрочено"));
+
+        // Партия, истекшая раньше уже разобранных дней, разбирается при следующем проходе
+        wheel.add(old);
+        List<Product> drained = new ArrayList<>();
+        wheel.drainExpired(TODAY.plusDays(200).toEpochDay(), drained::add);
+        assertEquals(2, drained.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testWarehouseDisposesThroughWheel() {
+        Warehouse warehouse = new Warehouse();
+        Product expiring = batch("B1", TODAY.minusDays(6), 7);
+        Product fresh = batch("B2", TODAY, 7);
+        warehouse.addProduct(expiring, TODAY);
+        warehouse.addProduct(fresh, TODAY);
+        warehouse.removeBatch("MILK", "B2");
+
+        assertEquals(0, warehouse.removeExpiredProducts(TODAY.plusDays(1)));
+        assertEquals(1, warehouse.removeExpiredProducts(TODAY.plusDays(2)));
+        assertTrue(warehouse.isEmpty());
+        assertEquals(0, warehouse.removeExpiredProducts(TODAY.plusDays(30)));
+    }
+}
@@ -0,0 +1,95 @@
+package supermarket.storage;
+
+import org.junit.jupiter.api.Test;
+import supermarket.product.BatchIds;
+import supermarket.product.CountableProduct;
+import supermarket.product.Product;
+import supermarket.product.ProductType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FefoBatchesTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void testFirstIsSoonestToExpire() {
+        FefoBatches batches = new FefoBatches();
+        batches.offer(milk("B1", 5));
+        batches.offer(milk("B2", 1));
+        batches.offer(milk("B3", 3));
+
+        assertEquals("B2", batches.first().getBatchId());
+        assertEquals("B2", batches.removeBatch(BatchIds.of("B2")).getBatchId());
+        assertEquals("B3", batches.first().getBatchId());
+        assertNull(batches.removeBatch(BatchIds.of("B2")));
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    void testRandomOperationsKeepFefoOrder() {
+        SplittableRandom random = new SplittableRandom(9);
+        FefoBatches batches = new FefoBatches();
+        List<Product> expected = new ArrayList<>();
+
+        for (int step = 0; step < 2000; step++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                Product batch = milk("B" + step, random.nextInt(20));
+                batches.offer(batch);
+                expected.add(batch);
+            } else {
+                Product victim = expected.remove(random.nextInt(expected.size()));
+                if (random.nextBoolean()) {
+                    assertSame(victim, batches.removeBatch(victim.getBatchNumber()));
+                } else {
+                    assertTrue(batches.removeBatch(victim));
+                }
+            }
+            expected.sort(Comparator.comparingInt(Product::getExpiryEpochDay).thenComparingLong(Product::getBatchNumber));
+            assertEquals(expected.size(), batches.size());
+            assertSame(expected.isEmpty() ? null : expected.get(0), batches.first());
+        }
+    }
+
+    @Test
+    void testDuplicateBatchIdsAreAllRemovable() {
+        FefoBatches batches = new FefoBatches();
+        Product first = milk("SAME", 2);
+        Product second = milk("SAME", 4);
+        batches.offer(first);
+        batches.offer(second);
+
+        assertTrue(batches.removeBatch(second));
+        assertSame(first, batches.removeBatch(BatchIds.of("SAME")));
+        assertTrue(batches.isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> batches.add(first));
+    }
+
+    @Test
+    void testRestockMovesSoonestExpiringBatch() {
+        Warehouse warehouse = new Warehouse();
+        SalesHall salesHall = new SalesHall();
+        ProductManager productManager = new ProductManager(warehouse, salesHall);
+        productManager.setCurrentDate(TODAY);
+        warehouse.addProduct(milk("FRESH", 6), TODAY);
+        warehouse.addProduct(milk("OLD", 1), TODAY);
+        warehouse.addProduct(milk("MIDDLE", 3), TODAY);
+
+        productManager.restockProduct("MILK");
+
+        assertNotNull(salesHall.getAllShelves().get("MILK").getBatch("OLD"));
+        assertEquals("MIDDLE", warehouse.getProduct("MILK").getBatchId());
+    }
+
+    // Партия молока, которая истекает через daysLeft дней
+    private static Product milk(String batchId, int daysLeft) {
+        return new CountableProduct("MILK", batchId, "Молоко", ProductType.DAIRY,
+                80.0, TODAY.minusDays(7 - daysLeft), 7, 10);
+    }
+}
@@ -0,0 +1,46 @@
+package supermarket.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrdinalBitsTest {
+
+    @Test
+    void testRandomOperationsMatchBitSet() {
+        SplittableRandom random = new SplittableRandom(7);
+        OrdinalBits bits = new OrdinalBits(200);
+        BitSet expected = new BitSet();
+
+        for (int step = 0; step < 5_000; step++) {
+            int ordinal = random.nextInt(200);
+            boolean value = random.nextBoolean();
+            assertEquals(expected.get(ordinal) != value, bits.set(ordinal, value));
+            expected.set(ordinal, value);
+        }
+        assertEquals(expected.cardinality(), bits.cardinality());
+        for (int ordinal = 0; ordinal < 200; ordinal++) {
+            assertEquals(expected.get(ordinal), bits.get(ordinal));
+            assertEquals(expected.nextSetBit(ordinal), bits.nextSetBit(ordinal));
+        }
+        assertEquals(-1, bits.nextSetBit(200));
+    }
+
+    @Test
+    void testDrainClearsInOrder() {
+        OrdinalBits bits = new OrdinalBits(130);
+        bits.set(129, true);
+        bits.set(3, true);
+        bits.set(64, true);
+
+        List<Integer> drained = new ArrayList<>();
+        bits.drain(drained::add);
+        assertEquals(List.of(3, 64, 129), drained);
+        assertEquals(0, bits.cardinality());
+    }
+}
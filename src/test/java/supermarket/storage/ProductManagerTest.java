@@ -95,6 +95,22 @@ class ProductManagerTest {
         assertTrue(warehouse.findProductsById("MILK").isEmpty());
     }
 
+    @Test
+    @DisplayName("Пополнение не переносит свежую партию, если зал не принял раннюю")
+    void testRestockProductKeepsFefoOrder() {
+        warehouse.addProduct(new CountableProduct("MILK", "OLD", "Молоко", ProductType.DAIRY, 80.0,
+                currentDate, 2, 10), currentDate);
+        warehouse.addProduct(new CountableProduct("MILK", "FRESH", "Молоко", ProductType.DAIRY, 80.0,
+                currentDate, 10, 10), currentDate);
+
+        // К этому дню ранняя партия просрочена, и зал ее не принимает
+        productManager.setCurrentDate(currentDate.plusDays(5));
+        productManager.restockProduct("MILK");
+
+        assertTrue(salesHall.findProductsById("MILK").isEmpty());
+        assertEquals(2, warehouse.findProductsById("MILK").size());
+    }
+
     @Test
     @DisplayName("Пополнение несуществующего товара")
     void testRestockNonExistentProduct() {
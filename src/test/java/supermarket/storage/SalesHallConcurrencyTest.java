@@ -0,0 +1,238 @@
+package supermarket.storage;
+
+import org.junit.jupiter.api.Test;
+import supermarket.customer.ShoppingCart;
+import supermarket.output.SimulationOutput;
+import supermarket.product.Product;
+import supermarket.product.ProductCatalog;
+import supermarket.product.Quantity;
+import supermarket.random.SimulationRandom;
+import supermarket.workload.WorkloadGenerator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesHallConcurrencyTest {
+
+    private static final int SHOPPERS = 4;
+    private static final int CARTS = 3_000;
+
+    private final LocalDate today = LocalDate.of(2024, 1, 1);
+    private final int todayEpochDay = (int) today.toEpochDay();
+    // Небольшой каталог: покупатели часто берут одни и те же товары
+    private final ProductCatalog catalog = WorkloadGenerator.generateCatalog(64, new SplittableRandom(1));
+
+    @Test
+    void testParallelCheckoutsKeepStock() throws Exception {
+        SalesHall salesHall = SalesHall.concurrent(SimulationOutput.silent(), catalog);
+        WorkloadGenerator.stockHall(salesHall, catalog, 3, new SplittableRandom(2), todayEpochDay);
+        SoldAmounts listener = new SoldAmounts();
+        salesHall.setListener(listener);
+        long initialStock = totalStock(salesHall);
+
+        LongAdder sold = new LongAdder();
+        runShoppers(salesHall, sold, () -> { });
+
+        assertEquals(initialStock - sold.sum(), totalStock(salesHall));
+        assertEquals(sold.sum(), listener.sold.sum());
+        assertTrue(sold.sum() > 0);
+        assertConsistent(salesHall);
+    }
+
+    @Test
+    void testSingleStripeHallKeepsStock() throws Exception {
+        // Одна полоса - базовый вариант бенчмарка: все продажи под одной блокировкой
+        SalesHall salesHall = SalesHall.concurrent(SimulationOutput.silent(), catalog, 1);
+        WorkloadGenerator.stockHall(salesHall, catalog, 3, new SplittableRandom(2), todayEpochDay);
+        long initialStock = totalStock(salesHall);
+
+        LongAdder sold = new LongAdder();
+        runShoppers(salesHall, sold, () -> { });
+
+        assertEquals(initialStock - sold.sum(), totalStock(salesHall));
+        assertConsistent(salesHall);
+        assertThrows(IllegalArgumentException.class,
+                () -> SalesHall.concurrent(SimulationOutput.silent(), catalog, 3));
+    }
+
+    @Test
+    void testRestockRunsAlongsideShoppers() throws Exception {
+        SalesHall salesHall = SalesHall.concurrent(SimulationOutput.silent(), catalog);
+        Warehouse warehouse = new Warehouse(SimulationOutput.silent(), catalog);
+        ProductManager productManager = new ProductManager(warehouse, salesHall, catalog, new SimulationRandom(3L),
+                SimulationOutput.silent());
+        productManager.setCurrentDate(today);
+        WorkloadGenerator.stockWarehouse(warehouse, catalog, 20, new SplittableRandom(4), todayEpochDay);
+        WorkloadGenerator.stockHall(salesHall, catalog, 1, new SplittableRandom(5), todayEpochDay);
+        SoldAmounts listener = new SoldAmounts();
+        salesHall.setListener(listener);
+        long initialStock = totalStock(salesHall);
+
+        // Товаровед пополняет зал со склада, пока покупатели оформляют корзины
+        LongAdder sold = new LongAdder();
+        runShoppers(salesHall, sold, productManager::transferProductsToHall);
+
+        assertEquals(sold.sum(), listener.sold.sum());
+        assertTrue(listener.added.sum() > 0);
+        assertEquals(initialStock + listener.addedAmount.sum() - sold.sum(), totalStock(salesHall));
+        assertConsistent(salesHall);
+    }
+
+    private void runShoppers(SalesHall salesHall, LongAdder sold, Runnable restock) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SHOPPERS + 1);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicBoolean shopping = new AtomicBoolean(true);
+            List<Future<?>> shoppers = new ArrayList<>();
+            for (int t = 0; t < SHOPPERS; t++) {
+                SplittableRandom random = new SplittableRandom(100 + t);
+                shoppers.add(executor.submit(() -> {
+                    start.await();
+                    shop(salesHall, random, sold);
+                    return null;
+                }));
+            }
+            Future<?> restocker = executor.submit(() -> {
+                start.await();
+                while (shopping.get()) {
+                    restock.run();
+                    Thread.yield();
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> shopper : shoppers) {
+                shopper.get(60, TimeUnit.SECONDS);
+            }
+            shopping.set(false);
+            restocker.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void shop(SalesHall salesHall, SplittableRandom random, LongAdder sold) {
+        ShoppingCart cart = new ShoppingCart();
+        for (int i = 0; i < CARTS; i++) {
+            cart.clear();
+            int lines = 1 + random.nextInt(3);
+            for (int line = 0; line < lines; line++) {
+                Product product = salesHall.getProduct(random.nextInt(catalog.getSkuCount()));
+                if (product != null) {
+                    cart.add(product, Quantity.ofUnits(1));
+                }
+            }
+            if (!cart.isEmpty() && cart.checkout(salesHall)) {
+                for (int line = 0; line < cart.size(); line++) {
+                    sold.add(cart.getAmount(line));
+                }
+            }
+        }
+    }
+
+    private long totalStock(SalesHall salesHall) {
+        long total = 0;
+        for (int ordinal = 0; ordinal < catalog.getSkuCount(); ordinal++) {
+            total += salesHall.getStockAmount(ordinal);
+        }
+        return total;
+    }
+
+    // Полки и индексы зала согласованы между собой (зал уже никто не меняет)
+    private void assertConsistent(SalesHall salesHall) {
+        int batches = 0;
+        for (Shelf shelf : salesHall.getShelvesView()) {
+            assertFalse(shelf.isEmpty(), shelf.getProductId());
+            long amount = 0;
+            int previousExpiry = Integer.MIN_VALUE;
+            for (Product batch : shelf.getAllBatches()) {
+                assertTrue(batch.getAmount() > 0);
+                assertTrue(batch.getExpiryEpochDay() >= previousExpiry);
+                previousExpiry = batch.getExpiryEpochDay();
+                amount += batch.getAmount();
+            }
+            assertEquals(amount, shelf.getAmount(), shelf.getProductId());
+            batches += shelf.getBatchCount();
+        }
+        assertEquals(batches, salesHall.getTotalBatches());
+        assertEquals(batches, salesHall.countBatchesAtMost(Long.MAX_VALUE));
+
+        for (int ordinal = 0; ordinal < catalog.getSkuCount(); ordinal++) {
+            Shelf shelf = salesHall.getShelf(ordinal);
+            assertEquals(shelf != null && shelf.needsRestocking(), salesHall.isLowStock(ordinal));
+            boolean inStock = (salesHall.getInStockWord(ordinal >>> 6) & 1L << ordinal) != 0;
+            assertEquals(shelf != null, inStock);
+        }
+
+        // Отмеченные изменения полок перенесены в очередь нехватки при чтении: первым идет
+        // товар с наименьшей заполненностью
+        ShelfDeficitQueue deficits = salesHall.getDeficitQueue();
+        if (!deficits.isEmpty()) {
+            double first = deficits.peekFillRatio();
+            assertEquals(deficits.fillRatio(deficits.peek()), first);
+            for (int ordinal = 0; ordinal < catalog.getSkuCount(); ordinal++) {
+                if (deficits.contains(ordinal)) {
+                    assertTrue(deficits.fillRatio(ordinal) >= first);
+                }
+            }
+        }
+    }
+
+    // Слушатель зала из многих потоков: только счетчики
+    private static final class SoldAmounts implements StorageListener {
+        final LongAdder sold = new LongAdder();
+        final LongAdder added = new LongAdder();
+        final LongAdder addedAmount = new LongAdder();
+
+        @Override
+        public void hallAmountSold(String productId, long batchNumber, long amount) {
+            sold.add(amount);
+        }
+
+        @Override
+        public void hallProductAdded(Product product) {
+            added.increment();
+            addedAmount.add(product.getAmount());
+        }
+
+        @Override
+        public void warehouseProductAdded(Product product) {
+        }
+
+        @Override
+        public void warehouseBatchRemoved(String productId, long batchNumber) {
+        }
+
+        @Override
+        public void warehouseProductRemoved(String productId) {
+        }
+
+        @Override
+        public void warehouseBatchDisposed(String productId, long batchNumber) {
+        }
+
+        @Override
+        public void hallBatchSold(String productId, long batchNumber) {
+        }
+
+        @Override
+        public void hallProductRemoved(String productId) {
+        }
+
+        @Override
+        public void hallBatchDisposed(String productId, long batchNumber) {
+        }
+
+        @Override
+        public void hallDiscountSet(String productId, long batchNumber, int discountBasisPoints) {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package supermarket.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import supermarket.customer.ShoppingCart;
+import supermarket.output.SimulationOutput;
+import supermarket.product.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesHallSaleTest {
+
+    private final LocalDate today = LocalDate.of(2024, 1, 1);
+    private SalesHall salesHall;
+
+    @BeforeEach
+    void setUp() {
+        salesHall = new SalesHall(SimulationOutput.silent());
+    }
+
+    @Test
+    void testSaleTakesEarliestExpiryFirst() {
+        // Свежая партия выставлена раньше, но продается последней
+        salesHall.addProduct(milk("FRESH", today, 10), today);
+        salesHall.addProduct(milk("OLD", today.minusDays(5), 4), today);
+        salesHall.applyDiscountToBatch("MILK", BatchIds.find("OLD"), 0.5);
+
+        ShoppingCart cart = new ShoppingCart();
+        cart.add(salesHall.getProduct("MILK"), Quantity.ofUnits(6));
+        assertTrue(cart.checkout(salesHall));
+
+        List<Product> batches = salesHall.findProductsById("MILK");
+        assertEquals(1, batches.size());
+        assertEquals("FRESH", batches.get(0).getBatchId());
+        assertEquals(Quantity.ofUnits(8), batches.get(0).getAmount());
+        assertEquals(Quantity.ofUnits(8), salesHall.getStockAmount("MILK"));
+        assertEquals(1, salesHall.getTotalBatches());
+        assertEquals(4 * 4000 + 2 * 8000, cart.getCost(0)); // 4 шт. по 40 руб. со скидкой и 2 по 80
+        assertEquals(6 * 8000, cart.getBaseCost(0));
+    }
+
+    @Test
+    void testCartIsSoldAtomically() {
+        salesHall.addProduct(milk("M1", today, 5), today);
+        salesHall.addProduct(potato("P1", 2.0), today);
+
+        ShoppingCart cart = new ShoppingCart();
+        cart.add(salesHall.getProduct("MILK"), Quantity.ofUnits(3));
+        cart.add(salesHall.getProduct("POTATO"), Quantity.ofKilograms(2.5)); // на полке только 2 кг
+        assertFalse(cart.checkout(salesHall));
+        assertEquals(Quantity.ofUnits(5), salesHall.getStockAmount("MILK"));
+        assertEquals(Quantity.ofKilograms(2.0), salesHall.getStockAmount("POTATO"));
+
+        cart.clear();
+        cart.add(salesHall.getProduct("MILK"), Quantity.ofUnits(3));
+        cart.add(salesHall.getProduct("POTATO"), Quantity.ofKilograms(0.75));
+        cart.add(salesHall.getProduct("MILK"), Quantity.ofUnits(2)); // та же строка
+        assertEquals(2, cart.size());
+        assertTrue(cart.checkout(salesHall));
+
+        assertNull(salesHall.getProduct("MILK")); // полка опустела
+        assertEquals(1, salesHall.getStockoutCount());
+        assertEquals(Quantity.ofKilograms(1.25), salesHall.getStockAmount("POTATO"));
+        assertEquals(3000, cart.getCost(1)); // 0.75 кг по 40 руб.
+        assertEquals(1, salesHall.getTotalBatches());
+    }
+
+    @Test
+    void testBaseCostFollowsSoldBatchPrices() {
+        // Старая партия дешевле выборки, по которой строка попала в корзину
+        salesHall.addProduct(milk("FRESH", today, 10), today);
+        salesHall.addProduct(new CountableProduct("MILK", "OLD", "Молоко", ProductType.DAIRY, 60.0,
+                today.minusDays(5), 7, 4), today);
+        assertEquals(8000, salesHall.getMaxPriceKopecks("MILK"));
+
+        ShoppingCart cart = new ShoppingCart();
+        cart.add(salesHall.getProduct("MILK"), Quantity.ofUnits(6));
+        assertFalse(cart.checkout(salesHall, 4 * 6000 + 2 * 8000 - 1)); // на копейку дороже бюджета
+        assertEquals(Quantity.ofUnits(14), salesHall.getStockAmount("MILK"));
+        assertEquals(2, salesHall.getTotalBatches());
+
+        assertTrue(cart.checkout(salesHall, 4 * 6000 + 2 * 8000));
+        assertEquals(4 * 6000 + 2 * 8000, cart.getBaseCost(0));
+        assertEquals(4 * 6000 + 2 * 8000, cart.getCost(0));
+        assertEquals(Quantity.ofUnits(8), salesHall.getStockAmount("MILK"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testDeprecatedCartInterfaceStillSells() {
+        salesHall.addProduct(milk("M1", today, 5), today);
+        salesHall.addProduct(potato("P1", 2.0), today);
+
+        // Прежние вызовы с меткой партии компилируются и продают по FEFO
+        ShoppingCart cart = new ShoppingCart();
+        cart.addItem("MILK", 2, 0, "M1");
+        cart.addItem("POTATO", 0, 0.5, "P1");
+        cart.addItem("MILK", 3, 0, "M1"); // строка товара заменяется
+        assertEquals(2, cart.size());
+        assertTrue(cart.checkout(salesHall));
+
+        assertEquals(Quantity.ofUnits(2), salesHall.getStockAmount("MILK"));
+        assertEquals(Quantity.ofKilograms(1.5), salesHall.getStockAmount("POTATO"));
+        cart.removeItem("MILK");
+        assertEquals(1, cart.size());
+    }
+
+    @Test
+    void testCountableIsSoldInWholeUnits() {
+        salesHall.addProduct(milk("M1", today, 5), today);
+        ShoppingCart cart = new ShoppingCart();
+        cart.add(salesHall.getProduct("MILK"), 1500);
+        assertThrows(IllegalArgumentException.class, () -> cart.checkout(salesHall));
+    }
+
+    private CountableProduct milk(String batchId, LocalDate productionDate, int quantity) {
+        return new CountableProduct("MILK", batchId, "Молоко", ProductType.DAIRY, 80.0, productionDate, 7, quantity);
+    }
+
+    private WeightableProduct potato(String batchId, double kilograms) {
+        return new WeightableProduct("POTATO", batchId, "Картофель", ProductType.VEGETABLES, 40.0, today, 10, kilograms);
+    }
+}
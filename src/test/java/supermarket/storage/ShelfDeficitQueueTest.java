@@ -0,0 +1,121 @@
+package supermarket.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import supermarket.output.SimulationOutput;
+import supermarket.product.*;
+import supermarket.random.SimulationRandom;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShelfDeficitQueueTest {
+
+    private final ProductCatalog catalog = ProductCatalog.getDefault();
+    private final LocalDate today = LocalDate.of(2024, 1, 1);
+    private Warehouse warehouse;
+    private SalesHall salesHall;
+    private ProductManager productManager;
+    private ShelfDeficitQueue deficits;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = new Warehouse(SimulationOutput.silent(), catalog);
+        salesHall = new SalesHall(SimulationOutput.silent(), catalog);
+        productManager = new ProductManager(warehouse, salesHall, catalog, new SimulationRandom(1L),
+                SimulationOutput.silent());
+        productManager.setCurrentDate(today);
+        deficits = salesHall.getDeficitQueue();
+    }
+
+    @Test
+    void testMembershipFollowsWarehouseStock() {
+        int milk = catalog.getOrdinal("MILK");
+        warehouse.addProduct(countable("MILK", "B1", 20), today);
+        warehouse.addProduct(countable("MILK", "B2", 20), today);
+
+        assertTrue(deficits.contains(milk));
+        assertEquals(1, deficits.size());
+
+        warehouse.removeBatch("MILK", "B1");
+        assertTrue(deficits.contains(milk));
+        warehouse.removeBatch("MILK", "B2");
+        assertFalse(deficits.contains(milk));
+        assertTrue(deficits.isEmpty());
+    }
+
+    @Test
+    void testKeysFollowShelfChanges() {
+        warehouse.addProduct(countable("MILK", "W1", 20), today);
+        warehouse.addProduct(countable("KEFIR", "W2", 20), today);
+        salesHall.addProduct(countable("MILK", "H1", 5), today);
+        salesHall.addProduct(countable("KEFIR", "H2", 15), today);
+
+        assertEquals(catalog.getOrdinal("MILK"), deficits.peek());
+        assertEquals(0.5, deficits.peekFillRatio(), 1e-9);
+
+        salesHall.addProduct(countable("MILK", "H3", 20), today);
+        assertEquals(catalog.getOrdinal("KEFIR"), deficits.peek());
+
+        salesHall.removeBatch("KEFIR", "H2");
+        assertEquals(0.0, deficits.peekFillRatio());
+        assertEquals(catalog.getOrdinal("KEFIR"), deficits.peek());
+    }
+
+    @Test
+    void testPollOrderMatchesSortedFillRatios() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (ProductCatalog.ProductInfo info : catalog.getAllProducts()) {
+            Product product = ProductFactory.createProductById(catalog, info.getId(), random, today);
+            warehouse.addProduct(product, today);
+            if (random.nextBoolean()) {
+                salesHall.addProduct(ProductFactory.createProductById(catalog, info.getId(), random, today), today);
+            }
+        }
+        // Часть полок меняется после постановки в очередь
+        for (Shelf shelf : new ArrayList<>(salesHall.getShelvesView())) {
+            if (random.nextInt(3) == 0) {
+                salesHall.removeBatch(shelf.getProductId(), shelf.getFirstBatch().getBatchId());
+            }
+        }
+
+        List<Double> polled = new ArrayList<>();
+        while (!deficits.isEmpty()) {
+            double expected = deficits.peekFillRatio();
+            int sku = deficits.poll();
+            assertEquals(deficits.fillRatio(sku), expected, 1e-9);
+            polled.add(expected);
+        }
+        assertEquals(catalog.getSkuCount(), polled.size());
+        for (int i = 1; i < polled.size(); i++) {
+            assertTrue(polled.get(i - 1) <= polled.get(i));
+        }
+    }
+
+    @Test
+    void testTransferSkipsWellStockedShelves() {
+        salesHall.addProduct(countable("MILK", "H1", 20), today);   // 2.0 минимального запаса
+        salesHall.addProduct(countable("YOGURT", "H2", 5), today);  // 0.5
+        warehouse.addProduct(countable("MILK", "W1", 10), today);
+        warehouse.addProduct(countable("YOGURT", "W2", 10), today);
+        warehouse.addProduct(countable("CHEESE", "W3", 10), today);
+
+        productManager.transferProductsToHall();
+
+        assertEquals(10.0, warehouse.getTotalAmount("MILK"));
+        assertEquals(0.0, warehouse.getTotalAmount("YOGURT"));
+        assertEquals(0.0, warehouse.getTotalAmount("CHEESE"));
+        assertEquals(15.0, salesHall.getTotalAmount("YOGURT"));
+        assertTrue(deficits.contains(catalog.getOrdinal("MILK")));
+        assertEquals(1, deficits.size());
+    }
+
+    private CountableProduct countable(String id, String batchId, int quantity) {
+        return new CountableProduct(id, batchId, catalog.getProductNameById(id), ProductType.DAIRY,
+                80.0, today, 7, quantity);
+    }
+}
@@ -0,0 +1,110 @@
+package supermarket.storage;
+
+import org.junit.jupiter.api.Test;
+import supermarket.output.SimulationOutput;
+import supermarket.product.*;
+import supermarket.workload.WorkloadGenerator;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShelfPriceIndexTest {
+
+    private final LocalDate today = LocalDate.of(2024, 1, 1);
+    private final int todayEpochDay = (int) today.toEpochDay();
+
+    @Test
+    void testCountsFollowShelfChanges() {
+        ProductCatalog catalog = WorkloadGenerator.generateCatalog(300, new SplittableRandom(2));
+        SalesHall salesHall = new SalesHall(SimulationOutput.silent(), catalog);
+        SplittableRandom random = new SplittableRandom(3);
+        WorkloadGenerator.stockHall(salesHall, catalog, 2, random, todayEpochDay);
+
+        long[] limits = {0, 5_000, 15_000, 50_000, Long.MAX_VALUE};
+        assertCounts(salesHall, limits); // индекс строится по уже заполненному залу
+
+        // Продажи, утилизация и новые партии обновляют уже построенный индекс
+        for (int i = 0; i < 200; i++) {
+            int ordinal = random.nextInt(catalog.getSkuCount());
+            Product batch = salesHall.getProduct(ordinal);
+            if (batch != null && random.nextBoolean()) {
+                salesHall.removeBatch(batch.getId(), batch.getBatchNumber());
+            } else if (batch != null) {
+                salesHall.disposeBatch(batch.getId(), batch.getBatchNumber());
+            } else {
+                WorkloadGenerator.stockHall(salesHall, catalog, 1, random, todayEpochDay);
+            }
+            assertCounts(salesHall, limits);
+        }
+        assertEquals(salesHall.getTotalBatches(), salesHall.countBatchesAtMost(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testSampleIsDistinctAndWithinPrice() {
+        ProductCatalog catalog = WorkloadGenerator.generateCatalog(500, new SplittableRandom(4));
+        SalesHall salesHall = new SalesHall(SimulationOutput.silent(), catalog);
+        SplittableRandom random = new SplittableRandom(5);
+        WorkloadGenerator.stockHall(salesHall, catalog, 3, random, todayEpochDay);
+
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            List<Product> sample = salesHall.sampleBatchesAtMost(10_000, 2, random);
+            assertEquals(2, sample.size());
+            assertNotEquals(sample.get(0).getBatchNumber(), sample.get(1).getBatchNumber());
+            for (Product batch : sample) {
+                assertTrue(batch.getPriceKopecks() <= 10_000);
+                assertSame(batch, salesHall.getShelf(batch.getSkuOrdinal()).getBatch(batch.getBatchNumber()));
+                seen.add(batch.getBatchNumber());
+            }
+        }
+        // Выборка покрывает почти все подходящие партии, а не только начало индекса
+        assertTrue(seen.size() > salesHall.countBatchesAtMost(10_000) * 9 / 10);
+        assertTrue(salesHall.sampleBatchesAtMost(0, 2, random).isEmpty());
+    }
+
+    @Test
+    void testBatchesOffCatalogPriceAreSampledByTheirOwnPrice() {
+        ProductCatalog catalog = ProductCatalog.getDefault();
+        SalesHall salesHall = new SalesHall(SimulationOutput.silent(), catalog);
+        // Кефир в каталоге за 70 руб., эта партия - за 500
+        salesHall.addProduct(new CountableProduct("KEFIR", "K1", "Кефир", ProductType.DAIRY,
+                500.0, today, 7, 10), today);
+        salesHall.addProduct(new CountableProduct("MILK", "M1", "Молоко", ProductType.DAIRY,
+                80.0, today, 7, 10), today);
+        salesHall.addProduct(new CountableProduct("NOT_IN_CATALOG", "X1", "Товар", ProductType.DAIRY,
+                60.0, today, 7, 10), today);
+
+        assertEquals(2, salesHall.countBatchesAtMost(Money.ofRubles(100)));
+        assertEquals(3, salesHall.countBatchesAtMost(Money.ofRubles(500)));
+        SplittableRandom random = new SplittableRandom(6);
+        for (int i = 0; i < 50; i++) {
+            for (Product batch : salesHall.sampleBatchesAtMost(Money.ofRubles(100), 3, random)) {
+                assertNotEquals("KEFIR", batch.getId());
+            }
+        }
+
+        salesHall.removeBatch("KEFIR", "K1");
+        salesHall.addProduct(new CountableProduct("KEFIR", "K2", "Кефир", ProductType.DAIRY,
+                70.0, today, 7, 10), today);
+        assertEquals(3, salesHall.countBatchesAtMost(Money.ofRubles(100)));
+    }
+
+    private static void assertCounts(SalesHall salesHall, long[] limits) {
+        for (long limit : limits) {
+            int expected = 0;
+            for (Shelf shelf : salesHall.getShelvesView()) {
+                for (Product batch : shelf.getAllBatches()) {
+                    if (batch.getPriceKopecks() <= limit) {
+                        expected++;
+                    }
+                }
+            }
+            assertEquals(expected, salesHall.countBatchesAtMost(limit));
+        }
+    }
+}
@@ -2,10 +2,17 @@ package supermarket.storage;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import supermarket.PacingPolicy;
+import supermarket.Supermarket;
+import supermarket.SupermarketConfig;
+import supermarket.output.SimulationOutput;
 import supermarket.product.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -272,4 +279,103 @@ class WarehouseTest {
         int totalBatches = warehouse.getTotalBatches();
         assertEquals(2, totalBatches);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testOrdinalLookupMatchesIdLookup() {
+        int milk = ProductCatalog.getDefault().getOrdinal("MILK");
+        warehouse.addProduct(countableProduct, currentDate);
+        warehouse.addProduct(new CountableProduct("MILK", "BATCH_003", "Молоко", ProductType.DAIRY,
+                80.0, currentDate, 7, 15), currentDate);
+
+        assertEquals(milk, countableProduct.getSkuOrdinal());
+        assertEquals(35.0, warehouse.getTotalAmount(milk));
+        assertEquals(warehouse.getTotalAmount("MILK"), warehouse.getTotalAmount(milk));
+        assertSame(warehouse.getProduct("MILK"), warehouse.getProduct(milk));
+
+        warehouse.removeProduct("MILK");
+        assertNull(warehouse.getProduct(milk));
+        assertEquals(0.0, warehouse.getTotalAmount(milk));
+    }
+
+    @Test
+    void testHallOrdinalLookupFollowsShelves() {
+        SalesHall hall = new SalesHall();
+        int potato = ProductCatalog.getDefault().getOrdinal("POTATO");
+        hall.addProduct(weightableProduct, currentDate);
+
+        assertEquals(hall.getTotalAmount("POTATO"), hall.getTotalAmount(potato));
+        assertEquals("Картофель", hall.getProductName(potato));
+        assertSame(hall.getProduct("POTATO"), hall.getProduct(potato));
+
+        hall.removeBatch("POTATO", "BATCH_002");
+        assertNull(hall.getShelf(potato));
+        assertEquals(0.0, hall.getTotalAmount(potato));
+    }
+
+    @Test
+    void testBatchViewsAreReadOnlyAndLive() {
+        warehouse.addProduct(countableProduct, currentDate);
+        List<Product> milk = warehouse.findProductsById("MILK");
+
+        assertThrows(UnsupportedOperationException.class, () -> milk.add(weightableProduct));
+        assertThrows(UnsupportedOperationException.class, () -> warehouse.getAllProducts().remove("MILK"));
+
+        warehouse.addProduct(new CountableProduct("MILK", "BATCH_003", "Молоко", ProductType.DAIRY,
+                80.0, currentDate, 7, 15), currentDate);
+        assertEquals(2, milk.size());
+        assertSame(milk, warehouse.findProductsById("MILK"));
+        assertEquals(2, warehouse.getTotalBatches());
+    }
+
+    @Test
+    void testBatchCountersMatchContentsAfterSimulation() {
+        Supermarket supermarket = new Supermarket(LocalDate.of(2024, 1, 1), 11L, SimulationOutput.silent());
+        supermarket.runSimulation(40, PacingPolicy.asFastAsPossible());
+
+        int warehouseBatches = 0;
+        for (List<Product> batches : supermarket.getWarehouse().getProductsCollection()) {
+            warehouseBatches += batches.size();
+        }
+        int hallBatches = 0;
+        for (Shelf shelf : supermarket.getSalesHall().getShelvesView()) {
+            hallBatches += shelf.getAllBatches().size();
+        }
+
+        assertEquals(warehouseBatches, supermarket.getWarehouse().getTotalBatches());
+        assertEquals(hallBatches, supermarket.getSalesHall().getTotalBatches());
+    }
+
+    @Test
+    void testRunningTotalsAndLowStockSetsMatchRecount() {
+        Supermarket supermarket = new Supermarket(LocalDate.of(2024, 1, 1), 5L, SimulationOutput.silent());
+        supermarket.runSimulation(60, PacingPolicy.asFastAsPossible());
+        Warehouse store = supermarket.getWarehouse();
+        SalesHall hall = supermarket.getSalesHall();
+
+        Set<String> expectedLow = new TreeSet<>();
+        for (Map.Entry<String, List<Product>> entry : store.getAllProducts().entrySet()) {
+            double total = 0;
+            for (Product batch : entry.getValue()) {
+                total += batch instanceof CountableProduct
+                        ? ((CountableProduct) batch).getQuantity() : ((WeightableProduct) batch).getWeight();
+            }
+            assertEquals(total, store.getTotalAmount(entry.getKey()), 1e-6);
+            double minStock = entry.getValue().get(0) instanceof CountableProduct
+                    ? SupermarketConfig.WAREHOUSE_MIN_COUNTABLE
+                    : SupermarketConfig.WAREHOUSE_MIN_WEIGHTABLE;
+            if (total < minStock) {
+                expectedLow.add(entry.getKey());
+            }
+        }
+        assertEquals(expectedLow, new TreeSet<>(store.getLowStockProductIds()));
+
+        Set<String> expectedHallLow = new TreeSet<>();
+        for (Shelf shelf : hall.getShelvesView()) {
+            if (shelf.needsRestocking()) {
+                expectedHallLow.add(shelf.getProductId());
+            }
+        }
+        assertEquals(expectedHallLow, new TreeSet<>(hall.getLowStockProductIds()));
+        assertEquals(expectedHallLow.size(), hall.getLowStockCount());
+    }
+}
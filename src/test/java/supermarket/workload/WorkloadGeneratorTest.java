@@ -0,0 +1,63 @@
+package supermarket.workload;
+
+import org.junit.jupiter.api.Test;
+import supermarket.PacingPolicy;
+import supermarket.Supermarket;
+import supermarket.output.SimulationOutput;
+import supermarket.product.ProductCatalog;
+import supermarket.product.ProductType;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadGeneratorTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void testCatalogIsReproducibleFromSeed() {
+        ProductCatalog first = WorkloadGenerator.generateCatalog(10_000, new SplittableRandom(7));
+        ProductCatalog second = WorkloadGenerator.generateCatalog(10_000, new SplittableRandom(7));
+
+        assertEquals(10_000, first.getSkuCount());
+        assertNotNull(first.findProductById("MILK")); // встроенный ассортимент сохраняется
+        Set<ProductType> types = EnumSet.noneOf(ProductType.class);
+        for (int ordinal = 0; ordinal < first.getSkuCount(); ordinal++) {
+            ProductCatalog.ProductInfo a = first.getProductInfo(ordinal);
+            ProductCatalog.ProductInfo b = second.getProductInfo(ordinal);
+            assertEquals(a.getId(), b.getId());
+            assertEquals(a.getBasePrice(), b.getBasePrice());
+            assertEquals(a.getShelfLifeDays(), b.getShelfLifeDays());
+            assertEquals(ordinal, first.getOrdinal(a.getId()));
+            assertTrue(a.getBasePrice() >= 9.99);
+            assertTrue(a.getShelfLifeDays() >= 1);
+            assertEquals(a.getShelfLifeDays(), a.getDefinition().getShelfLifeDays());
+            types.add(a.getType());
+        }
+        assertEquals(EnumSet.allOf(ProductType.class), types);
+    }
+
+    @Test
+    void testWorkloadStoreIsStockedAndReproducible() {
+        Workload workload = Workload.generate(3L, 2_000, 3, 2, 500, 40);
+
+        Supermarket first = new Supermarket(START, 11L, SimulationOutput.silent(), workload);
+        Supermarket second = new Supermarket(START, 11L, SimulationOutput.silent(), workload);
+
+        assertEquals(2_000 * 3, first.getWarehouse().getTotalBatches());
+        assertEquals(2_000 * 2, first.getSalesHall().getTotalBatches());
+        assertEquals(500, first.getCustomerPool().size());
+        assertEquals(40, first.getDailyCustomers().size());
+
+        first.runSimulation(3, PacingPolicy.asFastAsPossible());
+        second.runSimulation(3, PacingPolicy.asFastAsPossible());
+        assertTrue(first.getTotalPurchasesCount() > 0);
+        assertEquals(first.getTotalRevenue(), second.getTotalRevenue());
+        assertEquals(first.getTotalPurchasesCount(), second.getTotalPurchasesCount());
+        assertEquals(first.getWarehouse().getTotalBatches(), second.getWarehouse().getTotalBatches());
+        assertEquals(first.getSalesHall().getTotalBatches(), second.getSalesHall().getTotalBatches());
+    }
+}